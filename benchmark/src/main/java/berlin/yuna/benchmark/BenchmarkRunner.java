@@ -0,0 +1,72 @@
+package berlin.yuna.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the benchmarks with the {@link GCProfiler} and prints rows/s, MB/s and allocated bytes per row.
+ * <p>Arguments are plain JMH options e.g. {@code CsvReaderBenchmark -p sizeMb=100}, {@code -h} and {@code -l} are handled by JMH.</p>
+ */
+public class BenchmarkRunner {
+
+    private static final List<String> JMH_ONLY = List.of("-h", "-l", "-lp", "-lprof", "-lrf");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        if (Arrays.stream(args).anyMatch(JMH_ONLY::contains)) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        final CommandLineOptions cli = new CommandLineOptions(args);
+        final OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli).addProfiler(GCProfiler.class);
+        if (cli.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+        }
+        print(new Runner(options.build()).run());
+    }
+
+    private static void print(final Collection<RunResult> results) {
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-90s %16s %12s %14s%n", "Benchmark", "rows/s", "MB/s", "B/row");
+        for (RunResult result : results) {
+            final double ops = result.getPrimaryResult().getScore();
+            final double rows = score(result, "rows", ops);
+            final double bytes = score(result, "bytes", Double.NaN);
+            final double allocated = score(result, "gc.alloc.rate.norm", Double.NaN);
+            System.out.printf(Locale.ROOT, "%-90s %16.0f %12.1f %14.1f%n",
+                    label(result),
+                    rows,
+                    bytes / (1024 * 1024),
+                    rows > 0 ? allocated * ops / rows : Double.NaN
+            );
+        }
+    }
+
+    private static double score(final RunResult result, final String name, final double fallback) {
+        final Result<?> secondary = result.getSecondaryResults().get(name);
+        return secondary == null || secondary.getScore() <= 0 ? fallback : secondary.getScore();
+    }
+
+    private static String label(final RunResult result) {
+        final StringBuilder sb = new StringBuilder(result.getParams().getBenchmark().replace(BenchmarkRunner.class.getPackageName() + ".", ""));
+        for (String key : result.getParams().getParamsKeys()) {
+            sb.append(' ').append(key).append('=').append(result.getParams().getParam(key));
+        }
+        return sb.toString();
+    }
+}
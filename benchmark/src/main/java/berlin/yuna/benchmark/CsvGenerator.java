@@ -0,0 +1,165 @@
+package berlin.yuna.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates deterministic CSV data, so the benchmarks run offline and compare the same input across releases.
+ * Files are cached in {@link #DATA_DIR} and reused by later runs.
+ */
+public class CsvGenerator {
+
+    public static final Path DATA_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "csv-streamer-benchmark");
+    public static final long SEED = 42;
+    private static final String[] WORDS = {"berlin", "yuna", "stream", "lazy", "column", "quote", "ümlaut", "row", "csv", "data"};
+
+    private CsvGenerator() {
+    }
+
+    /**
+     * @param random       source of the values
+     * @param columns      number of columns
+     * @param quoteDensity share of quoted columns [0.0 - 1.0] - quoted columns contain separators and escaped quotes
+     * @param separator    column separator
+     * @return CSV line without line break
+     */
+    public static String row(final Random random, final int columns, final double quoteDensity, final char separator) {
+        final StringBuilder sb = new StringBuilder(columns * 12);
+        for (int i = 0; i < columns; i++) {
+            if (i > 0) {
+                sb.append(separator);
+            }
+            if (random.nextDouble() < quoteDensity) {
+                sb.append('"').append(word(random)).append(separator).append(' ').append(word(random)).append("\"\"").append(word(random)).append('"');
+            } else if (i % 3 == 0) {
+                sb.append(random.nextInt(1_000_000));
+            } else if (i % 3 == 1) {
+                sb.append(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 10_000));
+            } else {
+                sb.append(word(random));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param count        number of lines
+     * @param columns      number of columns
+     * @param quoteDensity share of quoted columns [0.0 - 1.0]
+     * @param separator    column separator
+     * @return CSV lines without line breaks
+     */
+    public static String[] rows(final int count, final int columns, final double quoteDensity, final char separator) {
+        final Random random = new Random(SEED);
+        final String[] result = new String[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = row(random, columns, quoteDensity, separator);
+        }
+        return result;
+    }
+
+    /**
+     * @param sizeMb       approximate file size in MiB
+     * @param columns      number of columns
+     * @param quoteDensity share of quoted columns [0.0 - 1.0]
+     * @param separator    column separator
+     * @return cached or generated CSV file with a header line
+     */
+    public static Path csvFile(final long sizeMb, final int columns, final double quoteDensity, final char separator) {
+        final Path file = DATA_DIR.resolve(String.format(Locale.ROOT, "rows_%dmb_%dc_%.2fq_%d.csv", sizeMb, columns, quoteDensity, (int) separator));
+        if (Files.exists(file)) {
+            return file;
+        }
+        final long size = sizeMb * 1024 * 1024;
+        final Random random = new Random(SEED);
+        final Path tmp = tmpFile(file);
+        try (final BufferedWriter writer = Files.newBufferedWriter(tmp, UTF_8)) {
+            long written = 0;
+            for (int i = 0; i < columns; i++) {
+                writer.write(i > 0 ? separator + "column_" + i : "column_" + i);
+            }
+            writer.newLine();
+            while (written < size) {
+                final String line = row(random, columns, quoteDensity, separator);
+                writer.write(line);
+                writer.newLine();
+                written += line.length() + 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return moveTo(tmp, file);
+    }
+
+    /**
+     * @param csv file to compress
+     * @return cached or generated gzip file of the csv
+     */
+    public static Path gzipFile(final Path csv) {
+        final Path file = csv.resolveSibling(csv.getFileName() + ".gz");
+        if (Files.exists(file)) {
+            return file;
+        }
+        final Path tmp = tmpFile(file);
+        try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+            Files.copy(csv, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return moveTo(tmp, file);
+    }
+
+    /**
+     * @param csv file to compress
+     * @return cached or generated zip file with the csv as only entry
+     */
+    public static Path zipFile(final Path csv) {
+        final Path file = csv.resolveSibling(csv.getFileName() + ".zip");
+        if (Files.exists(file)) {
+            return file;
+        }
+        final Path tmp = tmpFile(file);
+        try (final ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(tmp)); final InputStream in = Files.newInputStream(csv)) {
+            out.putNextEntry(new ZipEntry(csv.getFileName().toString()));
+            in.transferTo(out);
+            out.closeEntry();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return moveTo(tmp, file);
+    }
+
+    private static String word(final Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static Path tmpFile(final Path file) {
+        try {
+            Files.createDirectories(DATA_DIR);
+            return Files.createTempFile(DATA_DIR, file.getFileName().toString(), ".tmp");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path moveTo(final Path tmp, final Path file) {
+        try {
+            return Files.move(tmp, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package berlin.yuna.benchmark;
+
+import berlin.yuna.logic.CsvReader;
+import berlin.yuna.model.CsvBatch;
+import berlin.yuna.model.CsvEngine;
+import berlin.yuna.model.CsvRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+
+/**
+ * {@link CsvReader#stream(Path)}, {@link CsvReader#consumeView(Path, java.util.function.Consumer)} and {@link CsvReader#batches(Path, int)} on generated files - one operation reads the whole file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CsvReaderBenchmark {
+
+    @Param({"100", "1024"})
+    public long sizeMb;
+
+    @Param({"BYTES", "LINES"})
+    public CsvEngine engine;
+
+    @Param({"1", "4"})
+    public int parallel;
+
+    @Param({"0", "4"})
+    public int readAhead;
+
+    @Param({"0.2"})
+    public double quoteDensity;
+
+    private CsvReader reader;
+    private Path file;
+    private long size;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = CsvGenerator.csvFile(sizeMb, 20, quoteDensity, ',');
+        size = Files.size(file);
+        reader = csvReader().engine(engine).parallel(parallel).readAhead(readAhead);
+    }
+
+    @Benchmark
+    public void stream(final RowCounter counter, final Blackhole blackhole) {
+        try (final Stream<CsvRow> stream = reader.stream(file)) {
+            stream.forEach(row -> {
+                blackhole.consume(row);
+                counter.rows++;
+            });
+        }
+        counter.bytes += size;
+    }
+
+    @Benchmark
+    public void consumeView(final RowCounter counter, final Blackhole blackhole) {
+        reader.consumeView(file, view -> {
+            blackhole.consume(view.getChars(0));
+            counter.rows++;
+        });
+        counter.bytes += size;
+    }
+
+    @Benchmark
+    public void batches(final RowCounter counter, final Blackhole blackhole) {
+        try (final Stream<CsvBatch> stream = reader.batches(file, 4096)) {
+            stream.forEach(batch -> {
+                blackhole.consume(batch.bytes(0));
+                counter.rows += batch.size();
+            });
+        }
+        counter.bytes += size;
+    }
+}
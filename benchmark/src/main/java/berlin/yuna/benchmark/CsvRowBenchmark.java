@@ -0,0 +1,61 @@
+package berlin.yuna.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static berlin.yuna.model.CsvRow.csvRowOf;
+
+/**
+ * {@link berlin.yuna.model.CsvRow#csvRowOf(String, char...)} - one operation is one row
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvRowBenchmark {
+
+    private static final int ROWS = 1024;
+
+    @Param({"10", "50", "200"})
+    public int columns;
+
+    @Param({"0.0", "0.2", "1.0"})
+    public double quoteDensity;
+
+    private String[] lines;
+    private long bytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        lines = CsvGenerator.rows(ROWS, columns, quoteDensity, ',');
+        for (String line : lines) {
+            bytes += line.length() + 1;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void csvRowOfLine(final RowCounter counter, final Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(csvRowOf(line, ','));
+        }
+        counter.rows += ROWS;
+        counter.bytes += bytes;
+    }
+}
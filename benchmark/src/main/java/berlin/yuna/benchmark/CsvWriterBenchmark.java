@@ -0,0 +1,85 @@
+package berlin.yuna.benchmark;
+
+import berlin.yuna.logic.CsvOutput;
+import berlin.yuna.logic.CsvWriter;
+import berlin.yuna.model.CsvRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static berlin.yuna.logic.CsvWriter.csvWriter;
+
+/**
+ * {@link CsvWriter} serializing the rows of a generated file into a discarding stream and {@link berlin.yuna.logic.CsvReader#transcode(Path, Path, CsvWriter)}
+ * of the file with another separator - one operation writes all rows, bytes are the input bytes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CsvWriterBenchmark {
+
+    @Param({"100"})
+    public long sizeMb;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    @Param({"0.2"})
+    public double quoteDensity;
+
+    private CsvWriter writer;
+    private List<CsvRow> rows;
+    private Path file;
+    private Path target;
+    private long size;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = CsvGenerator.csvFile(sizeMb, 20, quoteDensity, ',');
+        target = CsvGenerator.DATA_DIR.resolve("transcoded.csv");
+        size = Files.size(file);
+        rows = csvReader().readAllRows(file);
+        writer = csvWriter().gzip(gzip);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public void write(final RowCounter counter) {
+        try (final CsvOutput output = writer.open(OutputStream.nullOutputStream())) {
+            rows.forEach(output::write);
+            counter.rows += output.rows();
+        }
+        counter.bytes += size;
+    }
+
+    @Benchmark
+    public void transcode(final RowCounter counter) {
+        counter.rows += csvReader().transcode(file, target, csvWriter().separator(';').gzip(gzip));
+        counter.bytes += size;
+    }
+}
@@ -0,0 +1,50 @@
+package berlin.yuna.benchmark;
+
+import berlin.yuna.logic.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * {@link FileUtils#detectSeparator(Path, java.nio.charset.Charset)} - one operation detects the separator of one file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DetectSeparatorBenchmark {
+
+    @Param({"10", "200"})
+    public int columns;
+
+    @Param({";", "\t"})
+    public char separator;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        file = CsvGenerator.csvFile(1, columns, 0.2, separator);
+    }
+
+    @Benchmark
+    public char detectSeparator() {
+        return FileUtils.detectSeparator(file, UTF_8);
+    }
+}
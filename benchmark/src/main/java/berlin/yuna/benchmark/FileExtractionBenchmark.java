@@ -0,0 +1,68 @@
+package berlin.yuna.benchmark;
+
+import berlin.yuna.logic.FileExtraction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FileExtraction} on generated zip and gzip files - one operation extracts the whole file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FileExtractionBenchmark {
+
+    @Param({"100"})
+    public long sizeMb;
+
+    @Param({"zip", "gzip"})
+    public String format;
+
+    private Path file;
+    private long size;
+    private final byte[] buffer = new byte[64 * 1024];
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final Path csv = CsvGenerator.csvFile(sizeMb, 20, 0.2, ',');
+        file = "zip".equals(format) ? CsvGenerator.zipFile(csv) : CsvGenerator.gzipFile(csv);
+        size = Files.size(csv);
+    }
+
+    @Benchmark
+    public Path extractFile(final RowCounter counter) {
+        counter.bytes += size;
+        return FileExtraction.extractFile(file);
+    }
+
+    @Benchmark
+    public void extractStream(final RowCounter counter, final Blackhole blackhole) throws IOException {
+        try (final InputStream in = FileExtraction.extractStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                blackhole.consume(read);
+            }
+        }
+        counter.bytes += size;
+    }
+}
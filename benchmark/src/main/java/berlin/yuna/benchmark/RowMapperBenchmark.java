@@ -0,0 +1,73 @@
+package berlin.yuna.benchmark;
+
+import berlin.yuna.logic.CsvReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+
+/**
+ * {@link CsvReader#streamAs(Path, Class)} compared to hand written mapping of the same columns
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RowMapperBenchmark {
+
+    public record Row(int id, double amount, String word) {
+    }
+
+    @Param({"100"})
+    public long sizeMb;
+
+    private CsvReader reader;
+    private Path file;
+    private long size;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = CsvGenerator.csvFile(sizeMb, 20, 0, ',');
+        size = Files.size(file);
+        reader = csvReader().columns(0, 1, 2);
+    }
+
+    @Benchmark
+    public void streamAs(final RowCounter counter, final Blackhole blackhole) {
+        try (final Stream<Row> stream = reader.streamAs(file, Row.class)) {
+            stream.forEach(row -> {
+                blackhole.consume(row);
+                counter.rows++;
+            });
+        }
+        counter.bytes += size;
+    }
+
+    @Benchmark
+    public void handWritten(final RowCounter counter, final Blackhole blackhole) {
+        reader.consumeView(file, view -> {
+            blackhole.consume(new Row(view.getInt(0), view.getDouble(1), view.get(2)));
+            counter.rows++;
+        });
+        counter.bytes += size;
+    }
+}
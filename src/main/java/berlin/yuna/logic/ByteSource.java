@@ -0,0 +1,80 @@
+package berlin.yuna.logic;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Window of bytes consumed by the {@link CsvTokenizer}.
+ * Valid bytes are located between index 0 and {@link ByteBuffer#limit()} of {@link #buffer()}.
+ */
+abstract class ByteSource implements Closeable {
+
+    protected ByteBuffer buffer;
+    protected long offset;
+
+    /**
+     * @return current window - can change after each {@link #fill(int)}
+     */
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return absolute position of the window index 0 within the input
+     */
+    long offset() {
+        return offset;
+    }
+
+    /**
+     * Moves the bytes from {@code keep} to the start of the window and appends new bytes
+     *
+     * @param keep index of the first byte which needs to stay in the window
+     * @return false if the input has no more bytes
+     */
+    abstract boolean fill(int keep);
+
+    /**
+     * Continues reading the window and the remaining input as {@link InputStream} e.g. after a sample was read into the window
+     *
+     * @return {@link InputStream} which closes this source
+     */
+    InputStream inputStream() {
+        return new InputStream() {
+            private int position = 0;
+
+            @Override
+            public int read() {
+                final byte[] single = new byte[1];
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(final byte[] bytes, final int off, final int len) {
+                if (len == 0) {
+                    return 0;
+                }
+                while (position >= buffer.limit()) {
+                    final boolean more = fill(position);
+                    position = 0;
+                    if (!more && buffer.limit() == 0) {
+                        return -1;
+                    }
+                }
+                final int length = Math.min(len, buffer.limit() - position);
+                buffer.get(position, bytes, off, length);
+                position += length;
+                return length;
+            }
+
+            @Override
+            public void close() {
+                ByteSource.this.close();
+            }
+        };
+    }
+
+    @Override
+    public abstract void close();
+}
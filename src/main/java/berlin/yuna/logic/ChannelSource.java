@@ -0,0 +1,61 @@
+package berlin.yuna.logic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads a {@link ReadableByteChannel} into a reusable heap buffer which grows only for records bigger than the buffer
+ */
+class ChannelSource extends ByteSource {
+
+    private final ReadableByteChannel channel;
+
+    ChannelSource(final ReadableByteChannel channel, final int bufferSize) {
+        this(channel, bufferSize, 0);
+    }
+
+    /**
+     * @param channel    channel to read from
+     * @param bufferSize initial size of the buffer
+     * @param offset     absolute position of the channel e.g. {@link java.nio.channels.FileChannel#position()}
+     */
+    ChannelSource(final ReadableByteChannel channel, final int bufferSize, final long offset) {
+        this.channel = channel;
+        this.offset = offset;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+        this.buffer.limit(0);
+    }
+
+    @Override
+    boolean fill(final int keep) {
+        buffer.position(keep);
+        buffer.compact();
+        offset += keep;
+        if (!buffer.hasRemaining()) {
+            buffer.flip();
+            buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer);
+        }
+        try {
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read == 0);
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Parses byte ranges (chunks) of an uncompressed file in parallel on an own {@link ForkJoinPool} which is shut down when the spliterator is exhausted or closed.
+ * <p>A chunk starts speculatively after the first line break behind its nominal border.
+ * The chunks are validated in file order: the previous chunk reads its last record completely and knows where the next record starts.
+ * When the speculation was wrong (e.g. the border was inside a quoted multi line column), the chunk is parsed again from the right position.</p>
+ * <p>The items of a chunk are handed out as a whole by {@link #trySplit()} which allows parallel downstream operations.
+ * Items are usually the rows of the chunk, see {@link #rows(CsvTokenizer, Consumer)}, or one partial result per chunk.</p>
+ * <p>Chunks are always handed out in file order, also if they are not {@code ordered}: the start of a chunk is only valid
+ * after the previous chunk is parsed, so a slow chunk delays the following chunks. Unordered spliterators only drop the
+ * {@link Spliterator#ORDERED} characteristic which frees parallel downstream operations from keeping the order.</p>
+ *
+ * @param <T> type of the items which are parsed from a chunk
+ */
+class ChunkSpliterator<T> implements Spliterator<T>, Closeable {
+
+    public static final long MIN_CHUNK_SIZE = 256 * 1024;
+    public static final long MAX_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final Path file;
+    private final Opener opener;
+    private final Parser<T> parser;
+    private final long start;
+    private final long size;
+    private final long chunkSize;
+    private final boolean ordered;
+    private final int window;
+    private final ForkJoinPool pool;
+    private final Deque<ForkJoinTask<Chunk<T>>> tasks = new ArrayDeque<>();
+    private long nextBorder;
+    private long expectedStart;
+    private Spliterator<T> current;
+
+    /**
+     * Opens a {@link CsvTokenizer} on the given channel at the given offset
+     */
+    @FunctionalInterface
+    interface Opener {
+        CsvTokenizer open(FileChannel channel, long offset) throws IOException;
+    }
+
+    /**
+     * Parses the records of a chunk - called on a pool thread, a chunk is parsed again if its speculative start was wrong
+     *
+     * @param <T> type of the items
+     */
+    @FunctionalInterface
+    interface Parser<T> {
+        void parse(CsvTokenizer tokenizer, Consumer<T> items);
+    }
+
+    /**
+     * @param file        uncompressed file to read
+     * @param opener      creates the tokenizer for each chunk
+     * @param parser      parses the items of a chunk
+     * @param start       byte offset of the first record
+     * @param size        file size
+     * @param chunkSize   nominal size of a chunk in bytes
+     * @param parallelism number of threads
+     * @param ordered     reports the file order as {@link Spliterator#ORDERED} characteristic
+     */
+    ChunkSpliterator(final Path file, final Opener opener, final Parser<T> parser, final long start, final long size, final long chunkSize, final int parallelism, final boolean ordered) {
+        this.file = file;
+        this.opener = opener;
+        this.parser = parser;
+        this.start = start;
+        this.size = size;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.ordered = ordered;
+        this.window = parallelism * 2;
+        this.pool = new ForkJoinPool(parallelism);
+        this.nextBorder = start;
+        this.expectedStart = start;
+    }
+
+    /**
+     * @param size        file size
+     * @param parallelism number of threads
+     * @return chunk size between {@link #MIN_CHUNK_SIZE} and {@link #MAX_CHUNK_SIZE} which gives each thread multiple chunks
+     */
+    static long chunkSizeOf(final long size, final int parallelism) {
+        return Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / (parallelism * 4L)));
+    }
+
+    /**
+     * {@link Parser} of the non blank rows of a chunk
+     *
+     * @param tokenizer tokenizer of the chunk
+     * @param rows      consumes the rows
+     */
+    static void rows(final CsvTokenizer tokenizer, final Consumer<CsvRow> rows) {
+        while (tokenizer.next()) {
+            if (!tokenizer.isBlank()) {
+                rows.accept(tokenizer.toCsvRow());
+            }
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        while (current == null || !current.tryAdvance(action)) {
+            if (!nextChunk()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (current == null && !nextChunk()) {
+            return null;
+        }
+        final Spliterator<T> prefix = current;
+        current = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ordered ? ORDERED | NONNULL : NONNULL;
+    }
+
+    /**
+     * Cancels the pending chunks and shuts the pool down
+     */
+    @Override
+    public void close() {
+        tasks.forEach(task -> task.cancel(true));
+        tasks.clear();
+        pool.shutdownNow();
+    }
+
+    private boolean nextChunk() {
+        submit();
+        final ForkJoinTask<Chunk<T>> task = tasks.poll();
+        if (task == null) {
+            current = null;
+            pool.shutdown();
+            return false;
+        }
+        Chunk<T> chunk = task.join();
+        if (chunk.start() != expectedStart) {
+            chunk = parse(expectedStart, chunk.border(), false);
+        }
+        if (chunk.error() != null) {
+            throw chunk.error();
+        }
+        expectedStart = chunk.end();
+        current = chunk.items().spliterator();
+        submit();
+        return true;
+    }
+
+    private void submit() {
+        while (tasks.size() < window && nextBorder < size) {
+            final long from = nextBorder;
+            final long border = Math.min(size, from + chunkSize);
+            tasks.add(pool.submit(() -> parse(from, border, from != start)));
+            nextBorder = border;
+        }
+    }
+
+    private Chunk<T> parse(final long from, final long border, final boolean speculate) {
+        final List<T> items = new ArrayList<>();
+        long recordStart = from;
+        try (final FileChannel channel = FileChannel.open(file)) {
+            recordStart = speculate ? lineStart(channel, from) : from;
+            if (recordStart >= border) {
+                return new Chunk<>(recordStart, border, recordStart, items, null);
+            }
+            try (final CsvTokenizer tokenizer = opener.open(channel.position(recordStart), recordStart).end(border)) {
+                parser.parse(tokenizer, items::add);
+                return new Chunk<>(recordStart, border, tokenizer.offset(), items, null);
+            }
+        } catch (IOException e) {
+            return new Chunk<>(recordStart, border, -1, items, new UncheckedIOException(e));
+        } catch (RuntimeException e) {
+            return new Chunk<>(recordStart, border, -1, items, e);
+        }
+    }
+
+    /**
+     * @return offset after the first line break at or after {@code from - 1}
+     */
+    private long lineStart(final FileChannel channel, final long from) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = Math.max(0, from - 1);
+        boolean carriageReturn = false;
+        int read;
+        while ((read = channel.read(buffer.clear(), position)) > 0) {
+            for (int i = 0; i < read; i++) {
+                final byte b = buffer.get(i);
+                if (carriageReturn) {
+                    return b == '\n' ? position + i + 1 : position + i;
+                } else if (b == '\n') {
+                    return position + i + 1;
+                }
+                carriageReturn = b == '\r';
+            }
+            position += read;
+        }
+        return carriageReturn ? position : size;
+    }
+
+    /**
+     * @param start  start offset of the first record
+     * @param border nominal end of the chunk
+     * @param end    start offset of the first record after the chunk
+     * @param items  parsed items
+     * @param error  parse error which is thrown only if the chunk start is valid
+     * @param <T>    type of the items
+     */
+    private record Chunk<T>(long start, long border, long end, List<T> items, RuntimeException error) {
+    }
+}
@@ -0,0 +1,411 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.IoCsvException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent secondary index of a key column - maps the key hash to the byte offset of its record.
+ * <p>The table is a memory mapped open addressing sidecar file with 12 bytes per slot (key hash, offset) which is at most half full.
+ * A lookup probes the table and parses only the records with the same key hash - the heap holds no keys.</p>
+ * <p>{@link CsvReader#keyIndex(Path, int)} indexes only the new records if the CSV file grew and the last 4 KiB of the indexed bytes are unchanged.
+ * The index is rebuilt if these bytes changed or if the file has the indexed size but another modification time.
+ * Changes before the last 4 KiB of the indexed bytes of a grown file are not detected.
+ * Lookups are thread safe, a lookup after {@link #close()} fails.</p>
+ * <p>The table mapping is released by the garbage collector like the windows of {@link MappedSource} - or explicitly on {@link #close()} with {@link CsvReader#unmap(boolean)}.</p>
+ */
+public class CsvKeyIndex implements Closeable {
+
+    public static final String FILE_EXTENSION = ".key";
+    public static final int MIN_CAPACITY = 1024;
+    public static final int MAX_CAPACITY = 1 << 27;
+
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 12;
+
+    private static final int MAGIC = 0x4353564B;
+    private static final int VERSION = 2;
+    private static final int LOOKUP_BUFFER_SIZE = 1024;
+    private static final int CHECKSUM_BYTES = 4096;
+    private static final int KEY_COLUMN = 8;
+    private static final int SKIP = 16;
+    private static final int INDEXED_SIZE = 24;
+    private static final int CHECKSUM = 32;
+    private static final int COUNT = 40;
+    private static final int CAPACITY = 48;
+    private static final int MODIFIED = 56;
+
+    private final Path file;
+    private final Path indexFile;
+    private final boolean temporary;
+    private final boolean unmap;
+    private final int keyColumn;
+    private final Function<ByteSource, CsvTokenizer> opener;
+    private final FileChannel data;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel tableChannel;
+    private MappedByteBuffer table;
+    private int mask;
+    private long count;
+    private long indexedSize;
+
+    /**
+     * Opens the sidecar index of the file - appends new records, rebuilds it if the file was changed otherwise
+     *
+     * @param file       uncompressed CSV file
+     * @param keyColumn  index of the key column
+     * @param skip       records to skip before the first row - skipped lines and header
+     * @param opener     creates the tokenizer of the file at a byte source
+     * @param bufferSize read buffer size while indexing
+     * @param temporary  true to build a new index file which is deleted on {@link #close()} e.g. for temp copies of resources
+     * @param unmap      true to release the table mappings explicitly, see {@link MappedBuffers}
+     * @return {@link CsvKeyIndex} which needs to be closed
+     * @throws IOException on read or write errors
+     */
+    static CsvKeyIndex open(final Path file, final int keyColumn, final long skip, final Function<ByteSource, CsvTokenizer> opener, final int bufferSize, final boolean temporary, final boolean unmap) throws IOException {
+        final CsvKeyIndex index = new CsvKeyIndex(file, keyColumn, opener, temporary, unmap);
+        try {
+            final long from = temporary ? -1 : index.resume(skip);
+            if (from < 0) {
+                index.create(index.indexFile, MIN_CAPACITY, skip);
+            }
+            index.update(Math.max(from, 0), from < 0 ? skip : -1, bufferSize);
+            return index;
+        } catch (IOException | RuntimeException e) {
+            index.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param file      CSV file
+     * @param keyColumn index of the key column
+     * @return path of the sidecar index file e.g. {@code products.csv.0.key}
+     */
+    public static Path indexFileOf(final Path file, final int keyColumn) {
+        return file.resolveSibling(file.getFileName() + "." + keyColumn + FILE_EXTENSION);
+    }
+
+    /**
+     * @param key value of the key column
+     * @return all rows with the given key in file order - empty if there is none
+     * @throws IoCsvException if the index is closed
+     */
+    public List<CsvRow> lookup(final CharSequence key) {
+        final int hash = hash(key);
+        long[] offsets = new long[4];
+        int candidates = 0;
+        lock.readLock().lock();
+        try {
+            if (table == null) {
+                final String message = "Key index is closed [" + indexFile + "]";
+                throw new IoCsvException(message, new IllegalStateException(message));
+            }
+            for (int slot = hash & mask; table.getLong(HEADER_SIZE + slot * SLOT_SIZE + 4) != 0; slot = (slot + 1) & mask) {
+                if (table.getInt(HEADER_SIZE + slot * SLOT_SIZE) == hash) {
+                    offsets = candidates == offsets.length ? Arrays.copyOf(offsets, candidates * 2) : offsets;
+                    offsets[candidates++] = table.getLong(HEADER_SIZE + slot * SLOT_SIZE + 4) - 1;
+                }
+            }
+            Arrays.sort(offsets, 0, candidates);
+            final List<CsvRow> result = new ArrayList<>(candidates);
+            for (int i = 0; i < candidates; i++) {
+                read(offsets[i], key, result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed keys
+     */
+    public long size() {
+        return count;
+    }
+
+    /**
+     * @return bytes of the CSV file which are indexed
+     */
+    public long indexedSize() {
+        return indexedSize;
+    }
+
+    /**
+     * @return index of the key column
+     */
+    public int keyColumn() {
+        return keyColumn;
+    }
+
+    /**
+     * @return path of the sidecar index file
+     */
+    public Path indexFile() {
+        return indexFile;
+    }
+
+    /**
+     * Waits for running lookups and closes the files - the table mapping is released by the garbage collector or with {@link CsvReader#unmap(boolean)}
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            release(table);
+            table = null;
+            if (tableChannel != null) {
+                tableChannel.close();
+            }
+            data.close();
+            if (temporary) {
+                Files.deleteIfExists(indexFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CsvKeyIndex{indexFile=" + indexFile + ", keyColumn=" + keyColumn + ", size=" + count + ", indexedSize=" + indexedSize + "}";
+    }
+
+    private CsvKeyIndex(final Path file, final int keyColumn, final Function<ByteSource, CsvTokenizer> opener, final boolean temporary, final boolean unmap) throws IOException {
+        this.file = file;
+        this.indexFile = indexFileOf(file, keyColumn);
+        this.temporary = temporary;
+        this.unmap = unmap;
+        this.keyColumn = keyColumn;
+        this.opener = opener;
+        this.data = FileChannel.open(file);
+    }
+
+    /**
+     * Maps an existing table
+     *
+     * @return byte offset to continue indexing - -1 if the table needs to be rebuilt
+     */
+    private long resume(final long skip) throws IOException {
+        if (!Files.isRegularFile(indexFile) || Files.size(indexFile) < HEADER_SIZE) {
+            return -1;
+        }
+        map(FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        final long indexed = table.getLong(INDEXED_SIZE);
+        final boolean valid = table.getInt(0) == MAGIC
+                && table.getInt(4) == VERSION
+                && table.getInt(KEY_COLUMN) == keyColumn
+                && table.getLong(SKIP) == skip
+                && tableChannel.size() == HEADER_SIZE + table.getLong(CAPACITY) * SLOT_SIZE
+                && indexed >= 0
+                && indexed <= data.size()
+                && checksum(indexed) == table.getLong(CHECKSUM)
+                && (indexed != data.size() || table.getLong(MODIFIED) == Files.getLastModifiedTime(file).toMillis())
+                && (indexed == 0 || isLineEnd(indexed - 1));
+        if (!valid) {
+            release();
+            return -1;
+        }
+        indexedSize = indexed;
+        count = table.getLong(COUNT);
+        return indexed;
+    }
+
+    /**
+     * Indexes the records from the given offset to the end of the file
+     */
+    private void update(final long from, final long skip, final int bufferSize) throws IOException {
+        table.putLong(INDEXED_SIZE, -1);
+        try (final CsvTokenizer tokenizer = opener.apply(new ChannelSource(channel(from), bufferSize, from))) {
+            tokenizer.skip(skip);
+            long start = tokenizer.offset();
+            while (tokenizer.nextRecord()) {
+                final CharSequence key = tokenizer.isBlank() ? null : tokenizer.getChars(keyColumn);
+                if (key != null) {
+                    insert(hash(key), start);
+                }
+                start = tokenizer.offset();
+            }
+            indexedSize = tokenizer.offset();
+        }
+        table.putLong(COUNT, count);
+        table.putLong(CHECKSUM, checksum(indexedSize));
+        table.putLong(MODIFIED, Files.getLastModifiedTime(file).toMillis());
+        table.putLong(INDEXED_SIZE, indexedSize);
+        table.force();
+    }
+
+    private void insert(final int hash, final long offset) {
+        if ((count + 1) * 2 > mask + 1L) {
+            grow();
+        }
+        put(hash, offset + 1);
+        count++;
+    }
+
+    private void put(final int hash, final long value) {
+        int slot = hash & mask;
+        while (table.getLong(HEADER_SIZE + slot * SLOT_SIZE + 4) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table.putInt(HEADER_SIZE + slot * SLOT_SIZE, hash);
+        table.putLong(HEADER_SIZE + slot * SLOT_SIZE + 4, value);
+    }
+
+    /**
+     * Rehashes into a table with the double capacity
+     */
+    private void grow() {
+        final int capacity = mask + 1;
+        if (capacity >= MAX_CAPACITY) {
+            final String message = "Key index exceeds max capacity [" + MAX_CAPACITY + "] of [" + indexFile + "]";
+            throw new IoCsvException(message, new IllegalStateException(message));
+        }
+        try {
+            final MappedByteBuffer old = table;
+            final FileChannel oldChannel = tableChannel;
+            final Path tmpFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            create(tmpFile, capacity * 2, old.getLong(SKIP));
+            for (int slot = 0; slot < capacity; slot++) {
+                final long value = old.getLong(HEADER_SIZE + slot * SLOT_SIZE + 4);
+                if (value != 0) {
+                    put(old.getInt(HEADER_SIZE + slot * SLOT_SIZE), value);
+                }
+            }
+            release(old);
+            oldChannel.close();
+            Files.move(tmpFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new IoCsvException("Key index write error [" + indexFile + "]", e);
+        }
+    }
+
+    /**
+     * Creates and maps an empty table
+     */
+    private void create(final Path target, final int capacity, final long skip) throws IOException {
+        final FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) capacity * SLOT_SIZE - 1);
+        map(channel);
+        table.putInt(0, MAGIC);
+        table.putInt(4, VERSION);
+        table.putInt(KEY_COLUMN, keyColumn);
+        table.putLong(SKIP, skip);
+        table.putLong(INDEXED_SIZE, -1);
+        table.putLong(CAPACITY, capacity);
+    }
+
+    private void map(final FileChannel channel) throws IOException {
+        tableChannel = channel;
+        table = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        mask = (int) Math.max((channel.size() - HEADER_SIZE) / SLOT_SIZE - 1, 0);
+    }
+
+    private void release() throws IOException {
+        release(table);
+        table = null;
+        tableChannel.close();
+        tableChannel = null;
+    }
+
+    /**
+     * Releases a table mapping which is not read anymore - the table never escapes the index
+     */
+    private void release(final MappedByteBuffer mapping) {
+        if (unmap) {
+            MappedBuffers.unmap(mapping);
+        }
+    }
+
+    private void read(final long offset, final CharSequence key, final List<CsvRow> result) {
+        try (final CsvTokenizer tokenizer = opener.apply(new ChannelSource(channel(offset), LOOKUP_BUFFER_SIZE, offset))) {
+            if (tokenizer.nextRecord()) {
+                final CharSequence value = tokenizer.getChars(keyColumn);
+                if (value != null && CharSequence.compare(value, key) == 0) {
+                    result.add(tokenizer.toCsvRow());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return checksum of the last bytes before the given offset - detects changes of the indexed part
+     */
+    private long checksum(final long end) {
+        try {
+            final ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(end, CHECKSUM_BYTES));
+            final long start = end - bytes.capacity();
+            while (bytes.hasRemaining() && data.read(bytes, start + bytes.position()) > 0) {
+                // reads the tail
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(bytes.flip());
+            return crc.getValue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isLineEnd(final long position) throws IOException {
+        final ByteBuffer single = ByteBuffer.allocate(1);
+        return data.read(single, position) == 1 && (single.get(0) == '\n' || single.get(0) == '\r');
+    }
+
+    /**
+     * @return channel on the data file from the given position which reads with absolute positions and keeps the data file open on close
+     */
+    private ReadableByteChannel channel(final long position) {
+        return new ReadableByteChannel() {
+            private long next = position;
+
+            @Override
+            public int read(final ByteBuffer dst) throws IOException {
+                final int read = data.read(dst, next);
+                next += Math.max(read, 0);
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return data.isOpen();
+            }
+
+            @Override
+            public void close() {
+                //the data file is closed with the index
+            }
+        };
+    }
+
+    /**
+     * Same hash for {@link String} and any other {@link CharSequence} with the same chars
+     */
+    private static int hash(final CharSequence key) {
+        int hash = 0;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
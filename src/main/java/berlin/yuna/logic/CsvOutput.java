@@ -0,0 +1,317 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvRowView;
+import berlin.yuna.model.IoCsvException;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * Open CSV output of a {@link CsvWriter} - rows are serialized into one reusable char buffer which is encoded into one reusable byte buffer.
+ * <p>A field is scanned once while it is copied: quotes are escaped on the fly, see {@link #escape(int, int, int, int, int, int)}, and the field is only shifted for the opening quote
+ * if it contains a separator, quote, apostrophe or line break, starts with whitespace or ends with whitespace.
+ * Fields which the {@link CsvReader} can not read back fail fast with an {@link IllegalArgumentException} cause. Not thread safe.</p>
+ */
+public final class CsvOutput implements Closeable, Flushable {
+
+    static final int QUOTED = 1;
+    static final int DOUBLE = 2;
+    static final int QUOTE_SEEN = 4;
+    static final int CROSSED = 8;
+    static final int UNREADABLE = -1;
+
+    private final OutputStream out;
+    private final char separator;
+    private final char quote;
+    private final char[] lineSeparator;
+    private final CharsetEncoder encoder;
+    private char[] chars;
+    private int position;
+    private ByteBuffer bytes;
+    private final String target;
+    private long rows;
+    private boolean closed;
+
+    /**
+     * @param out           target stream - closed by {@link #close()}
+     * @param target        name of the target for error messages
+     * @param separator     column separator
+     * @param quote         quote char of the columns
+     * @param lineSeparator row separator
+     * @param charset       charset of the output
+     * @param bufferSize    size of the char and byte buffer
+     */
+    CsvOutput(final OutputStream out, final String target, final char separator, final char quote, final String lineSeparator, final Charset charset, final int bufferSize) {
+        this.out = out;
+        this.target = target;
+        this.separator = separator;
+        this.quote = quote;
+        this.lineSeparator = lineSeparator.toCharArray();
+        this.encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = new char[bufferSize];
+        this.bytes = ByteBuffer.allocate(Math.max((int) (bufferSize * (double) encoder.maxBytesPerChar()), 16));
+    }
+
+    /**
+     * @param fields columns of the row - null is written as empty column
+     * @return self [{@link CsvOutput}]
+     */
+    public CsvOutput write(final CharSequence... fields) {
+        for (int i = 0; i < fields.length; i++) {
+            field(i, fields[i]);
+        }
+        return endRow();
+    }
+
+    /**
+     * @param fields columns of the row, e.g. a {@link berlin.yuna.model.CsvRow} - null is written as empty column
+     * @return self [{@link CsvOutput}]
+     */
+    public CsvOutput write(final Iterable<? extends CharSequence> fields) {
+        int i = 0;
+        for (CharSequence field : fields) {
+            field(i++, field);
+        }
+        return endRow();
+    }
+
+    /**
+     * Writes the current row of a view without copying it into {@link String}s, e.g. from {@link CsvReader#consumeView(java.nio.file.Path, java.util.function.Consumer)}
+     *
+     * @param row current row
+     * @return self [{@link CsvOutput}]
+     */
+    public CsvOutput write(final CsvRowView row) {
+        for (int i = 0; i < row.size(); i++) {
+            field(i, row.getChars(i));
+        }
+        return endRow();
+    }
+
+    /**
+     * Copies the column bytes of the current record without decoding them, see {@link CsvTokenizer#copyColumn(int, byte[], int, byte, byte)}.
+     * Requires the charset of the tokenizer and ASCII separators and quote.
+     *
+     * @param row current record
+     * @return self [{@link CsvOutput}]
+     */
+    CsvOutput writeRaw(final CsvTokenizer row) {
+        int length = lineSeparator.length;
+        for (int i = 0; i < row.size(); i++) {
+            length += row.rawLength(i) * 2 + 3;
+        }
+        reserveBytes(length);
+        final byte[] target = bytes.array();
+        int p = bytes.position();
+        for (int i = 0; i < row.size(); i++) {
+            if (i > 0) {
+                target[p++] = (byte) separator;
+            }
+            p = row.copyColumn(i, target, p, (byte) separator, (byte) quote);
+        }
+        for (char c : lineSeparator) {
+            target[p++] = (byte) c;
+        }
+        bytes.position(p);
+        rows++;
+        return this;
+    }
+
+    /**
+     * @return number of written rows
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * Encodes the buffered rows and flushes the target stream
+     */
+    @Override
+    public void flush() {
+        try {
+            drain(false);
+            out.flush();
+        } catch (IOException e) {
+            throw new IoCsvException("Write error [" + target + "]", e);
+        }
+    }
+
+    /**
+     * Writes the buffered rows and closes the target stream - finishes the gzip trailer of compressed outputs
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (out) {
+            drain(true);
+        } catch (IOException e) {
+            throw new IoCsvException("Write error [" + target + "]", e);
+        }
+    }
+
+    private void field(final int index, final CharSequence value) {
+        final int length = value == null ? 0 : value.length();
+        //worst case: separator, two quotes and every char doubled
+        reserve(length * 2 + 3);
+        if (index > 0) {
+            chars[position++] = separator;
+        }
+        final int start = position;
+        int p = position;
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            final char next = i + 1 < length ? value.charAt(i + 1) : 0;
+            final int escape = escape(c, i > 0 ? value.charAt(i - 1) : 0, next, separator, quote, state);
+            if (escape == UNREADABLE) {
+                throw unreadable(index);
+            } else if ((escape & DOUBLE) != 0) {
+                chars[p++] = c;
+            }
+            state = escape;
+            chars[p++] = c;
+        }
+        final boolean quoted = (state & QUOTED) != 0 || length > 0 && (isQuotedStart(value.charAt(0)) || value.charAt(length - 1) <= ' ');
+        if (quoted && value.charAt(length - 1) == '\\') {
+            //the closing quote would be read as escaped quote
+            throw unreadable(index);
+        } else if (quoted) {
+            System.arraycopy(chars, start, chars, start + 1, p - start);
+            chars[start] = quote;
+            p += 2;
+            chars[p - 1] = quote;
+        }
+        position = p;
+    }
+
+    private IoCsvException unreadable(final int index) {
+        final String message = "Column [" + index + "] of row [" + rows + "] can not be read back [" + target + "]";
+        return new IoCsvException(message, new IllegalArgumentException(message));
+    }
+
+    /**
+     * Escapes one char of a column for {@link CsvReader} which splits and unescapes like {@link berlin.yuna.model.CsvRow#csvRowOf(String, char...)}:
+     * the quote is doubled, apostrophes next to apostrophes are doubled for the default quote
+     * and a backslash before a quote is doubled instead of the quote as {@code \"} would be read as an escaped quote.
+     * A separator after a quote in the first line can not be read back.
+     *
+     * @param c         current char
+     * @param previous  previous char - 0 at the start
+     * @param next      next char - 0 at the end
+     * @param separator column separator
+     * @param quote     quote char of the columns
+     * @param state     state of the previous char - 0 at the start
+     * @return state of the column with the flags {@link #QUOTED}, {@link #DOUBLE}, {@link #QUOTE_SEEN} and {@link #CROSSED} - {@link #UNREADABLE} if the column can not be read back
+     */
+    static int escape(final int c, final int previous, final int next, final int separator, final int quote, final int state) {
+        final int flags = state & ~DOUBLE;
+        if (c == quote) {
+            return flags | QUOTED | QUOTE_SEEN | (previous == '\\' ? 0 : DOUBLE);
+        } else if (c == '\'' && quote == '"') {
+            return flags | QUOTED | QUOTE_SEEN | (previous == c || next == c ? DOUBLE : 0);
+        } else if (c == '\\') {
+            return next == quote || (next == '\'' && quote == '"') ? flags | DOUBLE : flags;
+        } else if (c == separator) {
+            return (flags & (QUOTE_SEEN | CROSSED)) == QUOTE_SEEN ? UNREADABLE : flags | QUOTED;
+        } else if (c == '\n' || c == '\r') {
+            return flags | QUOTED | CROSSED;
+        }
+        return flags;
+    }
+
+    /**
+     * @return true if a column which starts with the char needs quotes - an apostrophe would start a quoted column and whitespace would be trimmed
+     */
+    static boolean isQuotedStart(final int c) {
+        return c == '\'' || c <= ' ';
+    }
+
+    private CsvOutput endRow() {
+        reserve(lineSeparator.length);
+        for (char c : lineSeparator) {
+            chars[position++] = c;
+        }
+        rows++;
+        return this;
+    }
+
+    /**
+     * Makes room for the given chars - encodes the buffer if it is too full and grows it for oversized fields
+     */
+    private void reserve(final int length) {
+        if (closed) {
+            final String message = "Output is closed [" + target + "]";
+            throw new IoCsvException(message, new IllegalStateException(message));
+        } else if (position + length <= chars.length) {
+            return;
+        }
+        try {
+            drain(false);
+        } catch (IOException e) {
+            throw new IoCsvException("Write error [" + target + "]", e);
+        }
+        if (position + length > chars.length) {
+            chars = Arrays.copyOf(chars, position + length);
+        }
+    }
+
+    /**
+     * Makes room for the given raw bytes - encodes pending chars first to keep the row order
+     */
+    private void reserveBytes(final int length) {
+        reserve(0);
+        try {
+            if (position > 0) {
+                drain(false);
+            }
+            if (bytes.remaining() < length) {
+                writeBytes();
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("Write error [" + target + "]", e);
+        }
+        if (bytes.capacity() < length) {
+            bytes = ByteBuffer.allocate(length);
+        }
+    }
+
+    /**
+     * Encodes the buffered chars into the byte buffer and writes it to the target stream - the encoder state spans the whole output (e.g. one BOM)
+     *
+     * @param end true at the end of the output - flushes the encoder, otherwise an incomplete surrogate pair stays in the buffer
+     */
+    private void drain(final boolean end) throws IOException {
+        final CharBuffer input = CharBuffer.wrap(chars, 0, position);
+        CoderResult result;
+        do {
+            result = encoder.encode(input, bytes, end);
+            writeBytes();
+        } while (result.isOverflow());
+        if (end) {
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        }
+        position = input.remaining();
+        System.arraycopy(chars, input.position(), chars, 0, position);
+    }
+
+    private void writeBytes() throws IOException {
+        out.write(bytes.array(), 0, bytes.position());
+        bytes.clear();
+    }
+}
@@ -0,0 +1,215 @@
+package berlin.yuna.logic;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cold {@link Flow.Publisher} - every subscription opens its own stream on the first request and parses only as many items as requested.
+ * <p>Signals are delivered on the executor by a single drain task at a time, so {@code onNext} is never called concurrently
+ * and {@link Flow.Subscription#request(long)} can be called from {@code onNext} without recursion.
+ * The stream is closed on completion, error and cancel - which releases file handles and temp files.
+ * An exception of {@code onNext} cancels the subscription and is thrown to the executor instead of the subscriber.</p>
+ *
+ * @param <T> type of the published items
+ */
+final class CsvPublisher<T> implements Flow.Publisher<T> {
+
+    private final Supplier<Stream<T>> opener;
+    private final Executor executor;
+
+    /**
+     * @param opener   opens the stream of a subscription
+     * @param executor runs the drain task of the subscriptions
+     */
+    CsvPublisher(final Supplier<Stream<T>> opener, final Executor executor) {
+        this.opener = opener;
+        this.executor = executor;
+    }
+
+    /**
+     * @param stream    stream to group
+     * @param batchSize max items of one batch
+     * @param <T>       type of the items
+     * @return stream of consecutive batches - closing it closes the given stream
+     */
+    static <T> Stream<List<T>> batches(final Stream<T> stream, final int batchSize) {
+        final Iterator<T> items = stream.iterator();
+        final int size = Math.max(batchSize, 1);
+        final Iterator<List<T>> batches = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!items.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final List<T> batch = new ArrayList<>(size);
+                while (batch.size() < size && items.hasNext()) {
+                    batch.add(items.next());
+                }
+                return batch;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(stream::close);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        subscriber.onSubscribe(new Subscription(subscriber));
+    }
+
+    private final class Subscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong(0);
+        private final AtomicInteger wip = new AtomicInteger(0);
+        private volatile boolean cancelled;
+        private volatile RuntimeException invalidRequest;
+        private Stream<T> stream;
+        private Iterator<T> items;
+        private boolean done;
+
+        private Subscription(final Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                //rule 3.9 of the reactive streams specification
+                invalidRequest = new IllegalArgumentException("Requested items must be positive [" + n + "]");
+            } else {
+                demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            while (missed != 0) {
+                emit();
+                missed = wip.addAndGet(-missed);
+            }
+        }
+
+        private void emit() {
+            if (done) {
+                return;
+            } else if (cancelled) {
+                finish();
+                return;
+            } else if (invalidRequest != null) {
+                finish();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            try {
+                if (items == null) {
+                    stream = opener.get();
+                    items = stream.iterator();
+                }
+            } catch (RuntimeException e) {
+                error(e);
+                return;
+            }
+            long emitted = 0;
+            final long requested = demand.get();
+            while (emitted != requested && !cancelled) {
+                final T item;
+                try {
+                    if (!items.hasNext()) {
+                        final RuntimeException error = finish();
+                        if (error == null) {
+                            subscriber.onComplete();
+                        } else {
+                            subscriber.onError(error);
+                        }
+                        return;
+                    }
+                    item = items.next();
+                } catch (RuntimeException e) {
+                    error(e);
+                    return;
+                }
+                try {
+                    subscriber.onNext(item);
+                } catch (RuntimeException e) {
+                    //rule 2.13 of the reactive streams specification - the subscription is cancelled and the error goes to the executor, not to the subscriber
+                    cancelled = true;
+                    final RuntimeException error = finish();
+                    if (error != null) {
+                        e.addSuppressed(error);
+                    }
+                    throw e;
+                }
+                emitted++;
+            }
+            if (requested != Long.MAX_VALUE) {
+                demand.addAndGet(-emitted);
+            }
+            if (cancelled) {
+                finish();
+            }
+        }
+
+        /**
+         * Signals a read error to the subscriber after the stream is closed
+         */
+        private void error(final RuntimeException e) {
+            final RuntimeException error = finish();
+            if (error != null) {
+                e.addSuppressed(error);
+            }
+            subscriber.onError(e);
+        }
+
+        /**
+         * Closes the stream - a failing close must not escape the drain loop which would never release {@link #wip}
+         *
+         * @return error of the close - null if the stream was closed
+         */
+        private RuntimeException finish() {
+            done = true;
+            final Stream<T> open = stream;
+            stream = null;
+            items = null;
+            try {
+                if (open != null) {
+                    open.close();
+                }
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        }
+    }
+}
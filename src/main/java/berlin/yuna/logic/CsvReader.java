@@ -1,34 +1,93 @@
 package berlin.yuna.logic;
 
+import berlin.yuna.model.CsvAggregate;
+import berlin.yuna.model.CsvBatch;
+import berlin.yuna.model.CsvColumn;
+import berlin.yuna.model.CsvColumnType;
+import berlin.yuna.model.CsvDialect;
+import berlin.yuna.model.CsvEngine;
+import berlin.yuna.model.CsvFileResult;
+import berlin.yuna.model.CsvFilter;
+import berlin.yuna.model.CsvGroup;
+import berlin.yuna.model.CsvHeader;
 import berlin.yuna.model.CsvIndexRow;
+import berlin.yuna.model.CsvJoinType;
+import berlin.yuna.model.CsvInputMode;
+import berlin.yuna.model.CsvOffsetIndex;
 import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.CsvRowView;
+import berlin.yuna.model.CsvSortKey;
+import berlin.yuna.model.CsvTable;
 import berlin.yuna.model.IoCsvException;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import static berlin.yuna.logic.FileExtraction.extractFile;
+import static berlin.yuna.logic.CsvTokenizer.isByteCompatible;
+import static berlin.yuna.logic.FileExtraction.extractStream;
+import static berlin.yuna.logic.FileExtraction.isCompressed;
 import static berlin.yuna.logic.FileUtils.getFile;
 import static berlin.yuna.logic.FileUtils.getResourceFile;
+import static berlin.yuna.model.CsvHeader.csvHeaderOf;
 import static berlin.yuna.model.CsvRow.csvRowOf;
 import static berlin.yuna.model.CsvRow.validateSeparator;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class CsvReader {
 
+    public static final int DEFAULT_MAX_OPEN_FILES = 16;
+    public static final long DEFAULT_SORT_MEMORY = 64L * 1024 * 1024;
+    public static final long DEFAULT_JOIN_MEMORY = 64L * 1024 * 1024;
+
     private char[] separator = new char[]{','};
     private boolean autoSep = false;
     private boolean unzip = false;
     private Charset charset = UTF_8;
     private long skipLines = -1;
+    private CsvEngine engine = CsvEngine.BYTES;
+    private int bufferSize = CsvTokenizer.DEFAULT_BUFFER_SIZE;
+    private int maxRecordLength = CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH;
+    private int parallel = 1;
+    private boolean ordered = true;
+    private CsvInputMode inputMode = CsvInputMode.BUFFERED;
+    private boolean unmap = false;
+    private int[] columns = null;
+    private String[] columnNames = null;
+    private CsvFilter[] filters = new CsvFilter[0];
+    private char quote = 0;
+    private boolean header = false;
+    private char decimalSeparator = '.';
+    private CsvColumnType[] columnTypes = new CsvColumnType[0];
+    private int readAhead = 0;
+    private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
+    private long sortMemory = DEFAULT_SORT_MEMORY;
+    private long joinMemory = DEFAULT_JOIN_MEMORY;
 
     /**
      * @param file     the path to the file - or path to a resource
@@ -41,6 +100,217 @@ public class CsvReader {
         }
     }
 
+    /**
+     * Reads the files concurrently - one task per file on virtual threads if the runtime has them, otherwise on a platform thread pool.
+     * At most {@link #maxOpenFiles(int)} files are open at once. The rows of a file are consumed in file order by one task
+     * unless {@link #ordered(boolean)} is false, then they are consumed in parallel as they are parsed.
+     * <p>The consumer is called from multiple threads and must be thread safe. {@link CsvIndexRow#index()} is the row index within its file
+     * - the count of consumed rows of the file if not ordered.</p>
+     *
+     * @param files    the paths to the files - or paths to resources
+     * @param consumer consumes the rows of all files
+     * @return one {@link CsvFileResult} per file in the given order with its row count - a failing file doesn't stop the other files,
+     * an exception of the consumer is the error of its file with the message of the exception
+     */
+    public List<CsvFileResult> consumeAll(final Collection<Path> files, final Consumer<CsvIndexRow> consumer) {
+        return FileFanOut.consumeAll(List.copyOf(files), this::stream, maxOpenFiles, ordered, consumer);
+    }
+
+    /**
+     * Merges the rows of the files into one stream - the files are read concurrently like {@link #consumeAll(Collection, Consumer)}.
+     * With {@link #ordered(boolean)} the rows are in the given file order, otherwise in the order they are parsed.
+     * The first failing file fails the stream.
+     * <p>The stream must be closed like {@link #stream(Path)} - closing stops all file tasks.</p>
+     *
+     * @param files the paths to the files - or paths to resources
+     * @return the {@link CsvRow} from all files as a Stream
+     */
+    public Stream<CsvRow> streamAll(final Collection<Path> files) {
+        final FileFanOut fanOut = new FileFanOut(List.copyOf(files), this::stream, maxOpenFiles, ordered);
+        return StreamSupport.stream(fanOut, false).onClose(fanOut::close);
+    }
+
+    /**
+     * Reads all rows into a compact {@link CsvTable} - the field bytes are kept in a few large pages,
+     * values of low cardinality columns are deduplicated. Needs about the file size of memory instead of several times the file size for {@link #readAllRows(Path)}.
+     * Rows are read sequentially, {@link #parallel(int)} is ignored.
+     *
+     * @param file the path to the file - or path to a resource
+     * @return {@link CsvTable} with all rows of the file
+     */
+    public CsvTable readTable(final Path file) {
+        final Source source = source(file);
+        final CsvTable table = CsvTable.csvTableOf(source.header(), decimalSeparator);
+        consumeView(source, table::add);
+        return table;
+    }
+
+    /**
+     * Consumes the rows without copying them - the consumer gets the same {@link CsvRowView} for every row.
+     * The view is only valid during the callback, {@link CsvRowView#toCsvRow()} keeps a row.
+     * Rows are read sequentially, {@link #parallel(int)} is ignored.
+     *
+     * @param file     the path to the file - or path to a resource
+     * @param consumer consumes the view of the current row
+     */
+    public void consumeView(final Path file, final Consumer<CsvRowView> consumer) {
+        consumeView(source(file), consumer);
+    }
+
+    /**
+     * Rewrites the file in the format of the writer without materializing rows - e.g. to drop or reorder {@link #columns(int...)},
+     * change the separator or compress with {@link CsvWriter#gzip(boolean)}. The header row is written if {@link #header(boolean)} is enabled.
+     * <p>With the {@link CsvEngine#BYTES} engine, the same charset and ASCII separators the column bytes are copied
+     * from the read buffer to the write buffer and only quoted again if the target format needs it.
+     * Otherwise the columns are transcoded through {@link #consumeView(Path, Consumer)}.
+     * Rows are read sequentially, {@link #parallel(int)} is ignored.</p>
+     *
+     * @param file   the path to the file - or path to a resource
+     * @param target the path to the written file - an existing file is replaced
+     * @param writer format of the written file
+     * @return number of written rows without the header row
+     */
+    public long transcode(final Path file, final Path target, final CsvWriter writer) {
+        final Source source = source(file);
+        try (final CsvOutput output = writer.open(target)) {
+            if (source.header() != null) {
+                output.write(source.header().names());
+            }
+            final long headerRows = output.rows();
+            if (source.bytes() && isRawCopy(writer)) {
+                try (final CsvTokenizer tokenizer = tokenizer(source)) {
+                    tokenizer.skip(skip(source));
+                    while (tokenizer.next()) {
+                        if (!tokenizer.isBlank()) {
+                            output.writeRaw(tokenizer);
+                        }
+                    }
+                }
+            } else {
+                consumeView(source, output::write);
+            }
+            return output.rows() - headerRows;
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * Sorts files of any size - rows are buffered up to {@link #sortMemory(long)}, sorted and spilled as runs into the temp directory,
+     * the runs are merged lazily by the returned stream. With {@link #parallel(int)} the buffers are sorted and spilled on worker threads.
+     * The sort is stable with {@link #ordered(boolean)}: rows with equal keys keep their file order.
+     * <p>All rows are read before the stream is returned. The stream must be closed like {@link #stream(Path)} - closing deletes the runs.</p>
+     *
+     * @param file the path to the file - or path to a resource
+     * @param keys sort keys of the projected columns - sorts by the first key, ties by the next key
+     * @return the sorted {@link CsvRow} from the file as a Stream
+     */
+    public Stream<CsvRow> sorted(final Path file, final CsvSortKey... keys) {
+        try (final Stream<CsvRow> rows = stream(file)) {
+            return new ExternalSort(keys, decimalSeparator, sortMemory, parallel).sort(rows);
+        }
+    }
+
+    /**
+     * Writes the rows of {@link #sorted(Path, CsvSortKey...)} - the header row is written before the first row if {@link #header(boolean)} is enabled
+     *
+     * @param file   the path to the file - or path to a resource
+     * @param target the path to the sorted file - an existing file is replaced
+     * @param writer format of the sorted file
+     * @param keys   sort keys of the projected columns - sorts by the first key, ties by the next key
+     * @return number of written rows without the header row
+     */
+    public long sort(final Path file, final Path target, final CsvWriter writer, final CsvSortKey... keys) {
+        try (final Stream<CsvRow> rows = sorted(file, keys); final CsvOutput output = writer.open(target)) {
+            long count = 0;
+            for (Iterator<CsvRow> iterator = rows.iterator(); iterator.hasNext(); count++) {
+                final CsvRow row = iterator.next();
+                if (count == 0 && header && row.header() != null) {
+                    output.write(row.header().names());
+                }
+                output.write(row);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Groups the rows by the values of the key columns and computes the aggregates per group, e.g. count, sum, min, max and distinct.
+     * <p>With the {@link CsvEngine#BYTES} engine the key bytes are hashed from the read buffer into an open addressing table without creating {@link String}s,
+     * aggregates are kept in primitive arrays. With {@link #parallel(int)} every chunk of an uncompressed file is aggregated into its own partial table,
+     * the partial tables are merged on the calling thread.</p>
+     *
+     * @param file       the path to the file - or path to a resource
+     * @param keyColumns indices of the projected key columns - no key columns aggregate all rows into one group
+     * @param aggregates aggregate functions - see {@link CsvAggregate}
+     * @return one {@link CsvGroup} per distinct key in order of the first row of the key
+     */
+    public List<CsvGroup> groupBy(final Path file, final int[] keyColumns, final CsvAggregate... aggregates) {
+        final Source source = source(file);
+        try {
+            if (!source.bytes()) {
+                final GroupBy result = new GroupBy(keyColumns, aggregates, UTF_8);
+                consumeView(source, result::add);
+                return result.groups();
+            } else if (parallel > 1 && !source.compressed()) {
+                try (final Stream<GroupBy> partials = chunks(source, (tokenizer, items) -> items.accept(groupBy(tokenizer, new GroupBy(keyColumns, aggregates, charset))))) {
+                    return partials.reduce(GroupBy::merge).map(GroupBy::groups).orElseGet(List::of);
+                }
+            }
+            try (final CsvTokenizer tokenizer = tokenizer(source)) {
+                tokenizer.skip(skip(source));
+                return groupBy(tokenizer, new GroupBy(keyColumns, aggregates, charset)).groups();
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * Joins the rows of the file with the rows of the build file which have an equal key, e.g. a fact file with a dimension file.
+     * <p>The build file is read by the build reader into a hash table which stores the UTF-8 column bytes instead of {@link CsvRow}s,
+     * the rows of the file are streamed with this reader and looked up in the table. Rows with a missing key column never match.</p>
+     * <p>If the table exceeds {@link #joinMemory(long)}, both files are partitioned by the key hash into the temp directory and every partition
+     * is joined on its own (grace hash join). Spilled joins read the whole file before the stream is returned and emit the rows partition by partition
+     * instead of in file order. The stream must be closed like {@link #stream(Path)} - closing deletes the partitions.</p>
+     *
+     * @param file           the path to the probe file - or path to a resource
+     * @param keyColumn      index of the projected key column of the probe file
+     * @param buildReader    reader of the build file - e.g. with other columns, separator or charset
+     * @param buildFile      the path to the build file, usually the smaller file - or path to a resource
+     * @param buildKeyColumn index of the projected key column of the build file
+     * @param type           {@link CsvJoinType#INNER} or {@link CsvJoinType#LEFT}
+     * @return joined rows: the columns of the probe row followed by the columns of the build row - with a shared header if both readers read a header
+     */
+    public Stream<CsvRow> join(final Path file, final int keyColumn, final CsvReader buildReader, final Path buildFile, final int buildKeyColumn, final CsvJoinType type) {
+        final HashJoin join = new HashJoin(type, keyColumn, buildKeyColumn, joinMemory);
+        try {
+            buildReader.build(buildFile, join);
+            return join.probe(stream(file));
+        } catch (RuntimeException e) {
+            join.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Joins the rows of two files which are read with the same reader - see {@link #join(Path, int, CsvReader, Path, int, CsvJoinType)}
+     *
+     * @param file           the path to the probe file - or path to a resource
+     * @param keyColumn      index of the projected key column of the probe file
+     * @param buildFile      the path to the build file, usually the smaller file - or path to a resource
+     * @param buildKeyColumn index of the projected key column of the build file
+     * @param type           {@link CsvJoinType#INNER} or {@link CsvJoinType#LEFT}
+     * @return joined rows: the columns of the probe row followed by the columns of the build row
+     */
+    public Stream<CsvRow> join(final Path file, final int keyColumn, final Path buildFile, final int buildKeyColumn, final CsvJoinType type) {
+        return join(file, keyColumn, this, buildFile, buildKeyColumn, type);
+    }
+
     /**
      * @param file the path to the file - or path to a resource
      * @return the {@link CsvRow} from the file as a Stream
@@ -64,20 +334,227 @@ public class CsvReader {
      * @return the {@link CsvRow} from the file as a Stream
      */
     public Stream<CsvRow> stream(final Path file) {
-        final Path tmpFile = extract(file, unzip);
-        final char[] sep = autoSep ? new char[]{FileUtils.detectSeparator(tmpFile, charset)} : separator;
+        final Source source = source(file);
+        try {
+            if (!source.bytes()) {
+                return streamLines(source);
+            }
+            return parallel > 1 && !source.compressed() ? streamChunks(source) : streamBytes(source, tokenizer(source));
+        } catch (IOException e) {
+            source.close();
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } catch (RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the sidecar index of the file - or builds and saves it if it is missing or outdated.
+     * Indices of resources are built on each call and not saved.
+     * Rows are counted after {@link #skipLines(long)} and {@link #header(boolean)} without blank records and without {@link #filters(CsvFilter...)}.
+     * Requires an uncompressed file and the {@link CsvEngine#BYTES} engine.
+     *
+     * @param file the path to the file - or path to a resource
+     * @param step rows between two indexed offsets - the max rows which are parsed before a range starts
+     * @return {@link CsvOffsetIndex} of the file
+     * @throws IoCsvException if the file is compressed or not byte compatible
+     */
+    public CsvOffsetIndex offsetIndex(final Path file, final int step) {
+        final Source source = seekable(source(file));
+        try {
+            final Path indexFile = CsvOffsetIndex.indexFileOf(source.tmpFile());
+            final long skip = skip(source);
+            if (Files.isRegularFile(indexFile)) {
+                try {
+                    final CsvOffsetIndex existing = CsvOffsetIndex.load(indexFile);
+                    if (existing.matches(source.tmpFile()) && existing.step() == Math.max(step, 1) && existing.skip() == skip) {
+                        return existing;
+                    }
+                } catch (IoCsvException ignored) {
+                    // corrupt index file - rebuilt below
+                }
+            }
+            final CsvOffsetIndex index = buildIndex(source, Math.max(step, 1), skip);
+            //temporary copies of resources get a new modification time on each read - their index would never match again
+            return source.file().compareTo(source.tmpFile()) == 0 ? index.save(indexFile) : index;
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * Opens the persistent key index of the file - builds the sidecar index file {@link CsvKeyIndex#indexFileOf(Path, int)} if it is missing,
+     * indexes only the new records if the file was appended to and rebuilds it if a change was detected, see {@link CsvKeyIndex}.
+     * Indices of resources are built on each call and deleted on close.
+     * Lookups return whole rows with the {@link #header(boolean)}, {@link #columns(int...)} and {@link #filters(CsvFilter...)} are not applied.
+     * Requires an uncompressed file and the {@link CsvEngine#BYTES} engine.
+     *
+     * @param file      the path to the file - or path to a resource
+     * @param keyColumn index of the key column
+     * @return {@link CsvKeyIndex} which needs to be closed
+     * @throws IoCsvException if the file is compressed or not byte compatible
+     */
+    public CsvKeyIndex keyIndex(final Path file, final int keyColumn) {
+        final Source source = seekable(source(file));
+        try {
+            final Source rows = new Source(source.file(), source.tmpFile(), false, source.separator(), true, null, new CsvFilter[0], source.columns() == null ? source.header() : null, null);
+            //temporary copies of resources get a new modification time on each read - their index is deleted on close
+            return CsvKeyIndex.open(source.tmpFile(), keyColumn, skip(source), byteSource -> tokenizer(rows, byteSource), bufferSize, source.file().compareTo(source.tmpFile()) != 0, unmap);
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * Reads a row range with one seek to the nearest indexed row - at most {@link CsvOffsetIndex#step()} rows are parsed before the range.
+     * {@link CsvIndexRow#index()} is the row index of the file, rows which are rejected by {@link #filters(CsvFilter...)} are left out.
+     * Ranges of {@link CsvOffsetIndex#splits(int)} can be read by parallel readers.
+     * <p>The stream must be closed like {@link #stream(Path)}.</p>
+     *
+     * @param file  the path to the file - or path to a resource
+     * @param index index of the file from {@link #offsetIndex(Path, int)}
+     * @param from  first row of the range (inclusive)
+     * @param to    end of the range (exclusive)
+     * @return the rows of the range as a Stream
+     * @throws IoCsvException if the index does not match the file or was built with other {@link #skipLines(long)} or {@link #header(boolean)}
+     */
+    public Stream<CsvIndexRow> streamRange(final Path file, final CsvOffsetIndex index, final long from, final long to) {
+        final Source source = seekable(source(file));
+        try {
+            if (!index.matches(source.tmpFile())) {
+                final String message = "Index is outdated [" + file + "]";
+                throw new IoCsvException(message, new IllegalStateException(message));
+            } else if (index.skip() != skip(source)) {
+                final String message = "Index skips [" + index.skip() + "] records but the reader skips [" + skip(source) + "] records [" + file + "]";
+                throw new IoCsvException(message, new IllegalArgumentException(message));
+            }
+            final long first = index.floorRow(from);
+            final long offset = index.offsetOf(from);
+            final CsvTokenizer tokenizer = tokenizer(source, FileChannel.open(source.tmpFile()).position(offset), offset);
+            return StreamSupport.stream(new Spliterators.AbstractSpliterator<CsvIndexRow>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+                private long row = first;
+
+                @Override
+                public boolean tryAdvance(final Consumer<? super CsvIndexRow> action) {
+                    while (row < to && tokenizer.nextRecord()) {
+                        if (!tokenizer.isBlankRecord()) {
+                            final long current = row++;
+                            if (current >= from && !tokenizer.isRejected()) {
+                                action.accept(CsvIndexRow.csvIndexRowOf(current, tokenizer.index(current).toCsvRow()));
+                                return true;
+                            }
+                        }
+                    }
+                    return false;
+                }
+            }, false).onClose(() -> {
+                tokenizer.close();
+                source.close();
+            });
+        } catch (IOException e) {
+            source.close();
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } catch (RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param file  the path to the file - or path to a resource
+     * @param index index of the file from {@link #offsetIndex(Path, int)}
+     * @param row   row index like {@link CsvIndexRow#index()}
+     * @return the row - empty if the file has less rows or the row is rejected by {@link #filters(CsvFilter...)}
+     */
+    public Optional<CsvIndexRow> readRow(final Path file, final CsvOffsetIndex index, final long row) {
+        try (final Stream<CsvIndexRow> stream = streamRange(file, index, row, row + 1)) {
+            return stream.findFirst();
+        }
+    }
+
+    /**
+     * Publishes the rows on demand - see {@link #publisher(Path, int, Executor)}
+     *
+     * @param file the path to the file - or path to a resource
+     * @return {@link Flow.Publisher} of the rows which delivers on the {@link ForkJoinPool#commonPool()}
+     */
+    public Flow.Publisher<CsvRow> publisher(final Path file) {
+        return new CsvPublisher<>(() -> stream(file), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Publishes the rows in batches to reduce the signals per row - {@link Flow.Subscription#request(long)} counts batches.
+     * Each subscription opens the file on its first request and parses only as many rows as requested.
+     * The file is released on completion, error and {@link Flow.Subscription#cancel()}.
+     *
+     * @param file      the path to the file - or path to a resource
+     * @param batchSize max rows of one {@code onNext} - the last batch can be smaller
+     * @param executor  delivers the signals - one task per subscription at a time
+     * @return {@link Flow.Publisher} of row batches
+     */
+    public Flow.Publisher<List<CsvRow>> publisher(final Path file, final int batchSize, final Executor executor) {
+        return new CsvPublisher<>(() -> CsvPublisher.batches(stream(file), batchSize), executor);
+    }
+
+    /**
+     * Maps the rows to records or to classes with {@link CsvColumn} fields, e.g. {@code record Order(long id, String name, double amount)}.
+     * The column binding is resolved once - by name with {@link #header(boolean)}, otherwise by position.
+     * The sequential {@link CsvEngine#BYTES} engine parses primitives straight from the read buffer without creating {@link CsvRow}s.
+     * <p>The stream must be closed like {@link #stream(Path)}.</p>
+     *
+     * @param file the path to the file - or path to a resource
+     * @param type record or class with {@link CsvColumn} fields and a no-args constructor
+     * @param <R>  type of the mapped rows
+     * @return the mapped rows from the file as a Stream
+     */
+    public <R> Stream<R> streamAs(final Path file, final Class<R> type) {
+        final Source source = source(file);
         try {
-            final Stream<String> stream = Files.lines(tmpFile, charset);
-            return stream.skip(skipLines > 0 ? skipLines : 0)
-                    .map(row -> csvRowOf(row, sep))
-                    .filter(csvRow -> !csvRow.stream().allMatch(CsvReader::isNullOrEmpty))
-                    .onClose(() -> {
-                        stream.close();
-                        deleteTmpFile(file, tmpFile);
-                    });
+            final RowMapper<R> mapper = RowMapper.rowMapperOf(type, source.header());
+            if (source.bytes() && (parallel == 1 || source.compressed())) {
+                return streamBytes(source, tokenizer(source), skip(source), mapper::map);
+            }
+            final Stream<CsvRow> rows = source.bytes() ? streamChunks(source) : streamLines(source);
+            return rows.map(row -> mapper.map(new CsvRowListView(source.header(), decimalSeparator).row(row)));
         } catch (IOException e) {
-            deleteTmpFile(file, tmpFile);
+            source.close();
             throw new IoCsvException("File read error [" + file + "]", e);
+        } catch (RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the rows into column major {@link CsvBatch}es - primitive vectors for {@link #columnTypes(CsvColumnType...)}, UTF-8 bytes with offsets for strings.
+     * The same batch and its vectors are reused for every batch, so the memory of a read is constant.
+     * Rows are read sequentially, {@link #parallel(int)} is ignored.
+     * <p>The batch is only valid until the next batch. The stream must be closed like {@link #stream(Path)}.</p>
+     *
+     * @param file      the path to the file - or path to a resource
+     * @param batchSize max rows of one batch
+     * @return the batches of the file as a Stream
+     */
+    public Stream<CsvBatch> batches(final Path file, final int batchSize) {
+        final Source source = source(file);
+        try {
+            final CsvBatch batch = CsvBatch.csvBatchOf(batchSize, columnTypes);
+            if (source.bytes()) {
+                return batches(streamBytes(source, tokenizer(source), skip(source), view -> view), batch);
+            }
+            final CsvRowListView view = new CsvRowListView(source.header(), decimalSeparator);
+            return batches(streamLines(source).map(view::row), batch);
+        } catch (IOException e) {
+            source.close();
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } catch (RuntimeException e) {
+            source.close();
+            throw e;
         }
     }
 
@@ -169,6 +646,709 @@ public class CsvReader {
         return this;
     }
 
+    /**
+     * @return On <b>true</b> the first row after {@link #skipLines()} is the header
+     */
+    public boolean header() {
+        return header;
+    }
+
+    /**
+     * The header row is read once and shared by all rows, which enables {@link CsvRow#get(CharSequence)} and {@link CsvRowView#get(CharSequence)}.
+     * The header row itself is not part of the result and follows the {@link #columns(int...)} projection.
+     *
+     * @param header On <b>true</b> the first row after {@link #skipLines()} is the header
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader header(final boolean header) {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * @return parsing engine of the reader
+     */
+    public CsvEngine engine() {
+        return engine;
+    }
+
+    /**
+     * @param engine parsing engine of the reader - see {@link CsvEngine} <br/>
+     *               Included fallback: [{@link CsvEngine#BYTES}]
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader engine(final CsvEngine engine) {
+        this.engine = engine == null ? CsvEngine.BYTES : engine;
+        return this;
+    }
+
+    /**
+     * @return initial size of the read buffer in bytes for the {@link CsvEngine#BYTES} engine
+     */
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @param bufferSize initial size of the read buffer in bytes for the {@link CsvEngine#BYTES} engine <br/>
+     *                   The buffer grows for records which are bigger than the buffer
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader bufferSize(final int bufferSize) {
+        this.bufferSize = bufferSize > 0 ? bufferSize : CsvTokenizer.DEFAULT_BUFFER_SIZE;
+        return this;
+    }
+
+    /**
+     * @return max length of a record in bytes for the {@link CsvEngine#BYTES} engine
+     */
+    public int maxRecordLength() {
+        return maxRecordLength;
+    }
+
+    /**
+     * Quoted columns of the {@link CsvEngine#BYTES} engine can contain line breaks.
+     * The max record length protects the memory from quotes which are never closed.
+     *
+     * @param maxRecordLength max length of a record in bytes <br/>Included fallback: [{@link CsvTokenizer#DEFAULT_MAX_RECORD_LENGTH}]
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader maxRecordLength(final int maxRecordLength) {
+        this.maxRecordLength = maxRecordLength > 0 ? maxRecordLength : CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH;
+        return this;
+    }
+
+    /**
+     * @return number of threads which parse the file
+     */
+    public int parallel() {
+        return parallel;
+    }
+
+    /**
+     * Parses byte ranges of uncompressed files in parallel with the {@link CsvEngine#BYTES} engine.
+     * The returned stream splits into chunks of rows, so parallel downstream operations are possible via {@link Stream#parallel()}.
+     * The chunks are parsed on one {@link ForkJoinPool} per parallelism which is shared by all streams.
+     *
+     * @param parallel number of threads which parse the file <br/>Included fallback: [1] = sequential
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader parallel(final int parallel) {
+        this.parallel = Math.max(parallel, 1);
+        return this;
+    }
+
+    /**
+     * @return On <b>true</b> rows keep the file order while parsing in parallel
+     */
+    public boolean ordered() {
+        return ordered;
+    }
+
+    /**
+     * @param ordered On <b>true</b> rows keep the file order while parsing in parallel - see {@link #parallel(int)} <br/>
+     *                On <b>false</b> the stream is not {@link Spliterator#ORDERED} and {@link CsvIndexRow#index()} is not the file position.
+     *                Parsed chunks are still handed out in file order, the flag frees parallel downstream operations from keeping the order
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader ordered(final boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * @return max files which are read at once by {@link #consumeAll(Collection, Consumer)} and {@link #streamAll(Collection)}
+     */
+    public int maxOpenFiles() {
+        return maxOpenFiles;
+    }
+
+    /**
+     * @param maxOpenFiles max files which are read at once by {@link #consumeAll(Collection, Consumer)} and {@link #streamAll(Collection)} <br/>
+     *                     Included fallback: [{@link #DEFAULT_MAX_OPEN_FILES}]
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader maxOpenFiles(final int maxOpenFiles) {
+        this.maxOpenFiles = maxOpenFiles < 1 ? DEFAULT_MAX_OPEN_FILES : maxOpenFiles;
+        return this;
+    }
+
+    /**
+     * @return max estimated heap bytes of the rows which {@link #sorted(Path, CsvSortKey...)} buffers before it spills a sorted run
+     */
+    public long sortMemory() {
+        return sortMemory;
+    }
+
+    /**
+     * @param sortMemory max estimated heap bytes of the rows which {@link #sorted(Path, CsvSortKey...)} buffers before it spills a sorted run <br/>
+     *                   Included fallback: [{@link #DEFAULT_SORT_MEMORY}]
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader sortMemory(final long sortMemory) {
+        this.sortMemory = sortMemory < 1 ? DEFAULT_SORT_MEMORY : sortMemory;
+        return this;
+    }
+
+    /**
+     * @return max estimated heap bytes of the hash table of {@link #join(Path, int, CsvReader, Path, int, CsvJoinType)} before it is partitioned to disk
+     */
+    public long joinMemory() {
+        return joinMemory;
+    }
+
+    /**
+     * @param joinMemory max estimated heap bytes of the hash table of {@link #join(Path, int, CsvReader, Path, int, CsvJoinType)} before it is partitioned to disk <br/>
+     *                   Included fallback: [{@link #DEFAULT_JOIN_MEMORY}]
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader joinMemory(final long joinMemory) {
+        this.joinMemory = joinMemory < 1 ? DEFAULT_JOIN_MEMORY : joinMemory;
+        return this;
+    }
+
+    /**
+     * @return input mode of the {@link CsvEngine#BYTES} engine
+     */
+    public CsvInputMode inputMode() {
+        return inputMode;
+    }
+
+    /**
+     * @param inputMode input mode of the {@link CsvEngine#BYTES} engine for uncompressed files - see {@link CsvInputMode} <br/>
+     *                  Included fallback: [{@link CsvInputMode#BUFFERED}]
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader inputMode(final CsvInputMode inputMode) {
+        this.inputMode = inputMode == null ? CsvInputMode.BUFFERED : inputMode;
+        return this;
+    }
+
+    /**
+     * @return true if memory mappings are released explicitly instead of by the garbage collector
+     */
+    public boolean unmap() {
+        return unmap;
+    }
+
+    /**
+     * Releases the memory mappings of {@link CsvInputMode#MAPPED} windows when the next window is mapped or the stream is closed
+     * and the table of a {@link #keyIndex(Path, int)} when it is closed - instead of by the garbage collector.
+     * Views of the rows e.g. {@link CsvRowView#getChars(int)} must not be kept after the callback or the stream,
+     * falls back to the garbage collector if {@code sun.misc.Unsafe} is not available.
+     *
+     * @param unmap true to release the memory mappings explicitly <br/>Included fallback: [false]
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader unmap(final boolean unmap) {
+        this.unmap = unmap;
+        return this;
+    }
+
+    /**
+     * @return number of chunks which are read ahead on a dedicated I/O thread - 0 if the parsing thread reads
+     */
+    public int readAhead() {
+        return readAhead;
+    }
+
+    /**
+     * Decouples I/O and decompression from parsing for sequential reads: an I/O thread fills a ring of {@code readAhead} chunks
+     * of {@link #bufferSize(int)} bytes while the rows are parsed. The I/O thread waits if the ring is full.
+     * Parallel and {@link CsvInputMode#MAPPED} reads are not affected.
+     *
+     * @param readAhead number of chunks which are read ahead <br/>Included fallback: [0] = no read ahead
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader readAhead(final int readAhead) {
+        this.readAhead = Math.max(readAhead, 0);
+        return this;
+    }
+
+    /**
+     * @return indices of the columns to read - null for all columns
+     */
+    public int[] columns() {
+        return columns;
+    }
+
+    /**
+     * Projection pushdown: the rows contain only the given columns in the given order.
+     * The {@link CsvEngine#BYTES} engine skips the other columns without decoding them.
+     * Columns which are missing in a row are null.
+     *
+     * @param columns indices of the columns to read <br/>Included fallback: [empty] = all columns
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader columns(final int... columns) {
+        for (int column : columns == null ? new int[0] : columns) {
+            if (column < 0) {
+                final String message = "Column index must not be negative [" + column + "]";
+                throw new IoCsvException(message, new IllegalArgumentException(message));
+            }
+        }
+        this.columns = columns == null || columns.length == 0 ? null : columns.clone();
+        this.columnNames = null;
+        return this;
+    }
+
+    /**
+     * @return header names of the columns to read - null for all columns
+     */
+    public String[] columnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Projection pushdown by header names - the names are resolved in the first row of the file, see {@link #columns(int...)}
+     *
+     * @param columnNames header names of the columns to read <br/>Included fallback: [empty] = all columns
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader columns(final String... columnNames) {
+        this.columnNames = columnNames == null || columnNames.length == 0 ? null : columnNames.clone();
+        this.columns = null;
+        return this;
+    }
+
+    /**
+     * @return conditions on the rows
+     */
+    public CsvFilter[] filters() {
+        return filters;
+    }
+
+    /**
+     * Predicate pushdown: drops rows which fail one of the conditions, e.g. {@link CsvFilter#equalTo(int, String)}.
+     * The {@link CsvEngine#BYTES} engine evaluates the conditions on the raw column bytes before the other columns are processed.
+     * The column indices refer to the file columns - independent of {@link #columns(int...)}.
+     *
+     * @param filters conditions which all must pass <br/>Included fallback: [empty] = no filter
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader filters(final CsvFilter... filters) {
+        this.filters = filters == null ? new CsvFilter[0] : filters.clone();
+        return this;
+    }
+
+    /**
+     * @return separator of the fraction for {@link CsvRowView#getDouble(int)}, {@link CsvRowView#getBigDecimal(int)} and {@link #streamAs(Path, Class)}
+     */
+    public char decimalSeparator() {
+        return decimalSeparator;
+    }
+
+    /**
+     * @param decimalSeparator separator of the fraction, e.g. ',' for files with ';' separator <br/>
+     *                         Included fallback: ['.']
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader decimalSeparator(final char decimalSeparator) {
+        this.decimalSeparator = decimalSeparator == 0 ? '.' : decimalSeparator;
+        return this;
+    }
+
+    /**
+     * @return vector types of the columns for {@link #batches(Path, int)}
+     */
+    public CsvColumnType[] columnTypes() {
+        return columnTypes;
+    }
+
+    /**
+     * @param columnTypes vector types of the columns for {@link #batches(Path, int)} - after {@link #columns(int...)} projection <br/>
+     *                    Included fallback: [empty] = {@link CsvColumnType#STRING} for each column of the first row
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader columnTypes(final CsvColumnType... columnTypes) {
+        this.columnTypes = columnTypes == null ? new CsvColumnType[0] : columnTypes.clone();
+        return this;
+    }
+
+    /**
+     * @return quote char of the columns for the {@link CsvEngine#BYTES} engine - 0 for both '"' and '\''
+     */
+    public char quote() {
+        return quote;
+    }
+
+    /**
+     * @param quote quote char of the columns for the {@link CsvEngine#BYTES} engine <br/>
+     *              Included fallback: [0] = both '"' and '\''
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader quote(final char quote) {
+        this.quote = quote;
+        return this;
+    }
+
+    /**
+     * Applies a known format, e.g. from {@link #detectDialect(Path)}, and disables {@link #autoSep(boolean)}
+     *
+     * @param dialect separator, quote and header of the file
+     * @return self [{@link CsvReader}]
+     */
+    public CsvReader dialect(final CsvDialect dialect) {
+        this.separator = new char[]{dialect.separator()};
+        this.quote = dialect.quote();
+        this.header = dialect.header();
+        this.autoSep = false;
+        return this;
+    }
+
+    /**
+     * Detects separator, quote and header from the first {@link DialectDetection#SAMPLE_SIZE} bytes of the file.
+     * Compressed files are sampled after decompression if {@link #unzip()} is enabled.
+     *
+     * @param file the path to the file - or path to a resource
+     * @return detected {@link CsvDialect}
+     */
+    public CsvDialect detectDialect(final Path file) {
+        final Path tmpFile = getFile(file, () -> getResourceFile(file));
+        try (final ByteSource sample = byteSource(tmpFile, unzip && isCompressed(tmpFile), false)) {
+            return DialectDetection.detectDialect(sample, charset);
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } finally {
+            release(null, file, tmpFile);
+        }
+    }
+
+    private Source source(final Path file) {
+        final Path tmpFile = getFile(file, () -> getResourceFile(file));
+        ByteSource head = null;
+        try {
+            final boolean compressed = unzip && isCompressed(tmpFile);
+            char[] sep = separator;
+            if (autoSep || header || columnNames != null) {
+                //dialect sample and header row are peeked from the input which is read afterwards
+                head = byteSource(tmpFile, compressed, engine == CsvEngine.BYTES && isByteCompatible(charset));
+            }
+            if (autoSep) {
+                sep = new char[]{DialectDetection.detectDialect(new PeekSource(head), charset).separator()};
+            }
+            final Source source = new Source(file, tmpFile, compressed, sep, engine == CsvEngine.BYTES && isByteCompatible(charset, sep), columns, filters, null, head);
+            final Source projected = columnNames == null ? source : source.columns(columnIndices(source));
+            return header ? projected.header(csvHeaderOf(firstRow(projected, projected.columns(), Math.max(skipLines, 0)).orElse(csvRowOf(new String[0])))) : projected;
+        } catch (IOException e) {
+            release(head, file, tmpFile);
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } catch (RuntimeException e) {
+            release(head, file, tmpFile);
+            throw e;
+        }
+    }
+
+    private void consumeView(final Source source, final Consumer<CsvRowView> consumer) {
+        try {
+            if (!source.bytes()) {
+                final CsvRowListView view = new CsvRowListView(source.header(), decimalSeparator);
+                try (final Stream<CsvRow> stream = streamLines(source)) {
+                    stream.forEach(row -> consumer.accept(view.row(row)));
+                }
+                return;
+            }
+            try (final CsvTokenizer tokenizer = tokenizer(source)) {
+                tokenizer.skip(skip(source));
+                long index = 0;
+                while (tokenizer.next()) {
+                    if (!tokenizer.isBlank()) {
+                        consumer.accept(tokenizer.index(index++));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + source.file() + "]", e);
+        } finally {
+            source.close();
+        }
+    }
+
+    private void build(final Path file, final HashJoin join) {
+        final Source source = source(file);
+        join.header(source.header());
+        try {
+            if (!source.bytes() || !UTF_8.equals(charset)) {
+                consumeView(source, join::add);
+                return;
+            }
+            try (final CsvTokenizer tokenizer = tokenizer(source)) {
+                tokenizer.skip(skip(source));
+                while (tokenizer.next()) {
+                    if (!tokenizer.isBlank()) {
+                        join.add(tokenizer);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + file + "]", e);
+        } finally {
+            source.close();
+        }
+    }
+
+    private static GroupBy groupBy(final CsvTokenizer tokenizer, final GroupBy table) {
+        while (tokenizer.next()) {
+            if (!tokenizer.isBlank()) {
+                table.add(tokenizer);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return true if the column bytes can be copied into the output of the writer
+     */
+    private boolean isRawCopy(final CsvWriter writer) {
+        return writer.charset().equals(charset)
+                && writer.separator() < 0x80
+                && writer.quote() < 0x80
+                && writer.lineSeparator().chars().allMatch(c -> c < 0x80);
+    }
+
+    /**
+     * @return the source if its rows can be read from byte offsets
+     */
+    private Source seekable(final Source source) {
+        if (source.compressed() || !source.bytes()) {
+            source.close();
+            final String message = "Offset index requires an uncompressed file and the BYTES engine [" + source.file() + "]";
+            throw new IoCsvException(message, new IllegalArgumentException(message));
+        }
+        return source;
+    }
+
+    private CsvOffsetIndex buildIndex(final Source source, final int step, final long skip) throws IOException {
+        final long size = Files.size(source.tmpFile());
+        final long lastModified = Files.getLastModifiedTime(source.tmpFile()).toMillis();
+        long[] offsets = new long[16];
+        long rows = 0;
+        try (final CsvTokenizer tokenizer = tokenizer(source)) {
+            tokenizer.skip(skip);
+            long start = tokenizer.offset();
+            while (tokenizer.nextRecord()) {
+                if (!tokenizer.isBlankRecord()) {
+                    if (rows % step == 0) {
+                        final int slot = (int) (rows / step);
+                        offsets = slot == offsets.length ? Arrays.copyOf(offsets, slot * 2) : offsets;
+                        offsets[slot] = start;
+                    }
+                    rows++;
+                }
+                start = tokenizer.offset();
+            }
+        }
+        return CsvOffsetIndex.csvOffsetIndexOf(size, lastModified, step, skip, rows, Arrays.copyOf(offsets, (int) ((rows + step - 1) / step)));
+    }
+
+    private static void release(final ByteSource head, final Path file, final Path tmpFile) {
+        if (head != null) {
+            head.close();
+        }
+        if (file.compareTo(tmpFile) != 0) {
+            FileUtils.deleteTmpFile(tmpFile);
+        }
+    }
+
+    /**
+     * @return indices of the {@link #columnNames} in the first row of the file
+     */
+    private int[] columnIndices(final Source source) {
+        final CsvRow row = firstRow(source, null, 0).orElse(csvRowOf(new String[0]));
+        final int[] result = new int[columnNames.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = row.indexOf(columnNames[i]);
+            if (result[i] < 0) {
+                final String message = "Column not found [" + columnNames[i] + "] in header " + row;
+                throw new IoCsvException(message, new IllegalArgumentException(message));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return first row after {@code skip} records - peeked from the {@link Source#head()} which stays unread for the rows
+     */
+    private Optional<CsvRow> firstRow(final Source source, final int[] columns, final long skip) {
+        final Source header = new Source(source.tmpFile(), source.tmpFile(), source.compressed(), source.separator(), source.bytes(), columns, new CsvFilter[0], null, new PeekSource(source.head()));
+        try (final Stream<CsvRow> stream = header.bytes() ? streamBytes(header, tokenizer(header), skip) : streamLines(header, skip)) {
+            return stream.findFirst();
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + source.file() + "]", e);
+        }
+    }
+
+    private Stream<CsvRow> streamLines(final Source source) throws IOException {
+        return streamLines(source, skip(source));
+    }
+
+    private Stream<CsvRow> streamLines(final Source source, final long skip) throws IOException {
+        final Stream<String> stream = lines(source.head() != null || readAhead > 0 ? head(source).inputStream() : source.compressed() ? extractStream(source.tmpFile()) : Files.newInputStream(source.tmpFile()));
+        final int[] projection = source.columns();
+        final CsvFilter[] conditions = source.filters();
+        return stream.skip(skip > 0 ? skip : 0)
+                .map(row -> csvRowOf(row, source.separator()))
+                .filter(csvRow -> !csvRow.stream().allMatch(CsvReader::isNullOrEmpty))
+                .filter(csvRow -> Arrays.stream(conditions).allMatch(condition -> condition.test(csvRow)))
+                .map(csvRow -> row(csvRow, projection, source.header()))
+                .onClose(() -> {
+                    stream.close();
+                    source.close();
+                });
+    }
+
+    private Stream<CsvRow> streamChunks(final Source source) throws IOException {
+        return chunks(source, ChunkSpliterator::rows);
+    }
+
+    /**
+     * @return items of the chunks which are parsed in parallel - closing the stream closes the source
+     */
+    private <T> Stream<T> chunks(final Source source, final ChunkSpliterator.Parser<T> parser) throws IOException {
+        final long size = Files.size(source.tmpFile());
+        final long start;
+        try (final CsvTokenizer tokenizer = tokenizer(source)) {
+            tokenizer.skip(skip(source));
+            start = tokenizer.offset();
+        }
+        final ChunkSpliterator<T> spliterator = new ChunkSpliterator<>(
+                source.tmpFile(),
+                (channel, offset) -> tokenizer(source, channel, offset),
+                parser,
+                start,
+                size,
+                ChunkSpliterator.chunkSizeOf(size, parallel),
+                parallel,
+                ordered
+        );
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            spliterator.close();
+            source.close();
+        });
+    }
+
+    private CsvTokenizer tokenizer(final Source source) throws IOException {
+        return tokenizer(source, head(source));
+    }
+
+    /**
+     * @return the opened input of the source or a new input of the file
+     */
+    private ByteSource head(final Source source) throws IOException {
+        return source.head() != null ? source.head() : byteSource(source.tmpFile(), source.compressed(), source.bytes());
+    }
+
+    private CsvTokenizer tokenizer(final Source source, final FileChannel channel, final long offset) {
+        return tokenizer(source, byteSource(channel, offset));
+    }
+
+    private CsvTokenizer tokenizer(final Source source, final ByteSource byteSource) {
+        return new CsvTokenizer(byteSource, charset, source.separator())
+                .maxRecordLength(maxRecordLength)
+                .quote(quote)
+                .header(source.header())
+                .decimalSeparator(decimalSeparator)
+                .columns(source.columns())
+                .filters(source.filters());
+    }
+
+    /**
+     * @param mapped true if uncompressed files can be read with the {@link #inputMode()}
+     */
+    private ByteSource byteSource(final Path file, final boolean compressed, final boolean mapped) throws IOException {
+        final ReadableByteChannel channel = compressed ? Channels.newChannel(extractStream(file)) : FileChannel.open(file);
+        if (mapped && !compressed && inputMode == CsvInputMode.MAPPED) {
+            return byteSource((FileChannel) channel, 0);
+        }
+        return readAhead > 0 ? new ReadAheadSource(channel, bufferSize, readAhead) : new ChannelSource(channel, bufferSize);
+    }
+
+    private ByteSource byteSource(final FileChannel channel, final long offset) {
+        return inputMode == CsvInputMode.MAPPED
+                ? new MappedSource(channel, offset, MappedSource.DEFAULT_SEGMENT_SIZE, unmap)
+                : new ChannelSource(channel, bufferSize, offset);
+    }
+
+    private Stream<String> lines(final InputStream inputStream) {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, charset.newDecoder()), FileExtraction.BUFFER_SIZE);
+        return reader.lines().onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static Stream<CsvBatch> batches(final Stream<? extends CsvRowView> views, final CsvBatch batch) {
+        final Iterator<? extends CsvRowView> iterator = views.iterator();
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<CsvBatch>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(final Consumer<? super CsvBatch> action) {
+                batch.clear();
+                while (!batch.isFull() && iterator.hasNext()) {
+                    batch.add(iterator.next());
+                }
+                if (batch.size() == 0) {
+                    return false;
+                }
+                action.accept(batch);
+                return true;
+            }
+        }, false).onClose(views::close);
+    }
+
+    private Stream<CsvRow> streamBytes(final Source source, final CsvTokenizer tokenizer) {
+        return streamBytes(source, tokenizer, skip(source));
+    }
+
+    /**
+     * @return records to skip before the first row - includes the header row
+     */
+    private long skip(final Source source) {
+        return source.header() == null ? skipLines : Math.max(skipLines, 0) + 1;
+    }
+
+    private Stream<CsvRow> streamBytes(final Source source, final CsvTokenizer tokenizer, final long skip) {
+        return streamBytes(source, tokenizer, skip, CsvRowView::toCsvRow);
+    }
+
+    private <T> Stream<T> streamBytes(final Source source, final CsvTokenizer tokenizer, final long skip, final Function<CsvRowView, T> mapper) {
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private boolean skipped = false;
+            private long index = 0;
+
+            @Override
+            public boolean tryAdvance(final Consumer<? super T> action) {
+                if (!skipped) {
+                    skipped = true;
+                    tokenizer.skip(skip);
+                }
+                while (tokenizer.next()) {
+                    if (!tokenizer.isBlank()) {
+                        action.accept(mapper.apply(tokenizer.index(index++)));
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }, false).onClose(() -> {
+            tokenizer.close();
+            source.close();
+        });
+    }
+
+    private static CsvRow row(final CsvRow row, final int[] columns, final CsvHeader header) {
+        if (columns == null) {
+            return header == null ? row : csvRowOf(header, row);
+        }
+        final String[] result = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            result[i] = row.get(columns[i]);
+        }
+        return csvRowOf(header, Arrays.asList(result));
+    }
+
     private static boolean isNullOrEmpty(final String input) {
         return input == null || input.trim().isEmpty();
     }
@@ -176,15 +1356,67 @@ public class CsvReader {
     protected CsvReader() {
     }
 
-    private void deleteTmpFile(final Path file, final Path path) {
-        if (file.compareTo(path) != 0) {
-            FileUtils.deleteTmpFile(path);
+    /**
+     * Resolved input of one read
+     *
+     * @param file       requested file
+     * @param tmpFile    readable file - a temp copy for resources inside jars
+     * @param compressed true if the file is decompressed while reading
+     * @param separator  separators of the file
+     * @param bytes      true if the {@link CsvEngine#BYTES} engine can read the file
+     * @param columns    projection of the columns - null for all columns
+     * @param filters    conditions on the rows
+     * @param header     shared column names of the rows - null without header row
+     * @param head       opened input which already holds the detection sample - null if the input is not opened yet
+     */
+    private record Source(Path file, Path tmpFile, boolean compressed, char[] separator, boolean bytes, int[] columns, CsvFilter[] filters, CsvHeader header, ByteSource head) {
+
+        private Source columns(final int[] columns) {
+            return new Source(file, tmpFile, compressed, separator, bytes, columns, filters, header, head);
+        }
+
+        private Source header(final CsvHeader header) {
+            return new Source(file, tmpFile, compressed, separator, bytes, columns, filters, header, head);
+        }
+
+        private void close() {
+            release(head, file, tmpFile);
         }
     }
 
-    private Path extract(final Path file, final boolean extract) {
-        final Path tmpFile = getFile(file, () -> getResourceFile(file));
-        return extract ? extractFile(tmpFile) : tmpFile;
+    /**
+     * {@link CsvRowView} on the rows of the {@link CsvEngine#LINES} engine
+     */
+    private static class CsvRowListView extends CsvRowView {
+
+        private CsvRow row;
+
+        private CsvRowListView(final CsvHeader header, final char decimalSeparator) {
+            this.index = -1;
+            this.header = header;
+            this.decimalSeparator = decimalSeparator;
+        }
+
+        private CsvRowListView row(final CsvRow row) {
+            this.row = row;
+            this.index++;
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return row.size();
+        }
+
+        @Override
+        public CharSequence getChars(final int index) {
+            return row.get(index);
+        }
+
+        @Override
+        public CsvRow toCsvRow() {
+            return row;
+        }
     }
 
 }
@@ -0,0 +1,898 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvFilter;
+import berlin.yuna.model.CsvHeader;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.CsvRowView;
+import berlin.yuna.model.FieldParser;
+import berlin.yuna.model.IoCsvException;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static berlin.yuna.model.CsvRow.validateSeparator;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Byte level CSV tokenizer.
+ * Scans separators, quotes and line endings of a reusable buffer in one pass and keeps only the column boundaries.
+ * Columns are decoded to {@link String} on demand via {@link #get(int)}
+ * or read without copy via {@link #getChars(int)}, {@link #getInt(int)}, {@link #getLong(int)} and {@link #getDouble(int)}.
+ * <p>Single line records are split and unescaped exactly like {@link CsvRow#csvRowOf(String, char...)}:
+ * a separator ends a column unless exactly one quote was seen in it, columns are trimmed, unwrapped from equal quotes
+ * and {@code ""}, {@code \"}, {@code ''} and {@code \'} are resolved.</p>
+ * <p>A column starting with {@code "} or the configured {@link #quote(char)} which is still open at the line end continues on the next line (RFC 4180),
+ * a record is buffered until its end or until {@link #maxRecordLength()} is exceeded.
+ * Without a closing quote until the end of input the column ends at its line like in {@link CsvRow#csvRowOf(String, char...)}.</p>
+ */
+public class CsvTokenizer extends CsvRowView implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_MAX_RECORD_LENGTH = 16 * 1024 * 1024;
+
+    private static final byte NORMAL = 0;
+    private static final byte QUOTE = 1;
+    private static final byte SEPARATOR = 2;
+    private static final byte LINE_END = 3;
+    private static final int NEED_MORE = -1;
+    private static final byte ESCAPED = 1;
+    private static final String ASCII_PROBE = "\t\n\r \"',;|\\#:";
+
+    private final ByteSource source;
+    private final Charset charset;
+    private int maxRecordLength = DEFAULT_MAX_RECORD_LENGTH;
+    private long endOffset = Long.MAX_VALUE;
+    private final byte[] types = new byte[256];
+    private byte multiLineQuote = '"';
+    private byte[] quotes = {'"', '\''};
+    private CharsetDecoder decoder;
+    private CharBuffer chars;
+    private byte[] scratch = new byte[64];
+
+    private ByteBuffer buffer;
+    private int limit;
+    private int position;
+    private boolean eof;
+
+    private int size;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private byte[] escapes = new byte[16];
+    private Column[] columns = new Column[0];
+    private int fields;
+    private boolean blank = true;
+    private int[] projection;
+    private int[] slots;
+    private CsvFilter[] filters = new CsvFilter[0];
+    private byte[][] filterValues = new byte[0][];
+    private int maxFilterColumn = -1;
+    private boolean rejected;
+
+    /**
+     * @param channel    channel to read from - will be closed with {@link #close()}
+     * @param charset    ASCII compatible charset of the input see {@link #isByteCompatible(Charset, char...)}
+     * @param separators Splits the CSV rows at the given separator <br/>Included fallback: [',']
+     * @return {@link CsvTokenizer} reading the given channel
+     */
+    public static CsvTokenizer csvTokenizerOf(final ReadableByteChannel channel, final Charset charset, final char... separators) {
+        return new CsvTokenizer(new ChannelSource(channel, DEFAULT_BUFFER_SIZE), charset, separators);
+    }
+
+    /**
+     * The tokenizer scans single bytes, this works only when the separators, quotes and line endings
+     * are encoded the same way as in ASCII and can't be part of a multibyte character
+     *
+     * @param charset    charset of the input
+     * @param separators separators to split the columns
+     * @return true if the {@link CsvTokenizer} can read the input
+     */
+    public static boolean isByteCompatible(final Charset charset, final char... separators) {
+        if (charset == null || !charset.canEncode()) {
+            return false;
+        }
+        for (char separator : separators) {
+            if (separator >= 0x80) {
+                return false;
+            }
+        }
+        return (UTF_8.equals(charset) || charset.newEncoder().maxBytesPerChar() == 1f)
+                && Arrays.equals(ASCII_PROBE.getBytes(charset), ASCII_PROBE.getBytes(ISO_8859_1));
+    }
+
+    CsvTokenizer(final ByteSource source, final Charset charset, final char... separators) {
+        this.source = source;
+        this.charset = charset == null ? UTF_8 : charset;
+        this.buffer = source.buffer();
+        this.limit = buffer.limit();
+        types['"'] = QUOTE;
+        types['\''] = QUOTE;
+        for (char separator : validateSeparator(separators)) {
+            types[separator] = SEPARATOR;
+        }
+        types['\n'] = LINE_END;
+        types['\r'] = LINE_END;
+    }
+
+    /**
+     * Moves to the next record which passes the {@link #filters(CsvFilter...)}
+     *
+     * @return false if there are no more records
+     */
+    public boolean next() {
+        while (advance()) {
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skips records without decoding them - the {@link #filters(CsvFilter...)} are not applied
+     *
+     * @param records number of records to skip
+     * @return number of skipped records
+     */
+    public long skip(final long records) {
+        long skipped = 0;
+        while (skipped < records && advance()) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Moves to the next record - also to records which are rejected by the {@link #filters(CsvFilter...)}
+     *
+     * @return false if there are no more records
+     */
+    boolean nextRecord() {
+        return advance();
+    }
+
+    /**
+     * @return true if the current record is rejected by the {@link #filters(CsvFilter...)}
+     */
+    boolean isRejected() {
+        return rejected;
+    }
+
+    /**
+     * @param index index of the column
+     * @return number of raw bytes of the column in the current record - 0 if the column does not exist
+     */
+    int rawLength(final int index) {
+        return exists(index) ? ends[index] - starts[index] : 0;
+    }
+
+    /**
+     * Copies the unescaped column bytes of the current record without decoding them.
+     * The target needs room for {@code rawLength(index)} bytes.
+     *
+     * @param index  index of the column
+     * @param target target bytes
+     * @param offset start offset in the target
+     * @return end offset of the column in the target - -1 if the column does not exist
+     */
+    int copyColumn(final int index, final byte[] target, final int offset) {
+        if (!exists(index)) {
+            return -1;
+        }
+        final int length = copy(starts[index], ends[index], escapes[index]);
+        System.arraycopy(scratch, 0, target, offset, length);
+        return offset + length;
+    }
+
+    /**
+     * Copies the column bytes of the current record without decoding them - escaped quotes are unescaped
+     * and the column is escaped and quoted again like {@link CsvOutput#escape(int, int, int, int, int, int)}.
+     * The target needs room for {@code rawLength(index) * 2 + 2} bytes.
+     *
+     * @param index     index of the column
+     * @param target    target bytes
+     * @param offset    start offset in the target
+     * @param separator ASCII separator of the target
+     * @param quote     ASCII quote of the target
+     * @return end offset of the column in the target
+     * @throws IoCsvException if the column can not be read back with the target separator and quote
+     */
+    int copyColumn(final int index, final byte[] target, final int offset, final byte separator, final byte quote) {
+        if (!exists(index)) {
+            return offset;
+        }
+        final int length = copy(starts[index], ends[index], escapes[index]);
+        int p = offset;
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            final byte b = scratch[i];
+            state = CsvOutput.escape(b, i > 0 ? scratch[i - 1] : 0, i + 1 < length ? scratch[i + 1] : 0, separator, quote, state);
+            if (state == CsvOutput.UNREADABLE) {
+                throw unreadable(index);
+            } else if ((state & CsvOutput.DOUBLE) != 0) {
+                target[p++] = b;
+            }
+            target[p++] = b;
+        }
+        final boolean quoted = (state & CsvOutput.QUOTED) != 0 || p > offset && (CsvOutput.isQuotedStart(target[offset] & 0xFF) || (target[p - 1] & 0xFF) <= ' ');
+        if (quoted && target[p - 1] == '\\') {
+            //the closing quote would be read as escaped quote
+            throw unreadable(index);
+        } else if (quoted) {
+            System.arraycopy(target, offset, target, offset + 1, p - offset);
+            target[offset] = quote;
+            p += 2;
+            target[p - 1] = quote;
+        }
+        return p;
+    }
+
+    private IoCsvException unreadable(final int index) {
+        final String message = "Column [" + index + "] at byte [" + offset() + "] can not be read back";
+        return new IoCsvException(message, new IllegalArgumentException(message));
+    }
+
+    private boolean advance() {
+        while (true) {
+            if ((position >= limit && eof) || source.offset() + position >= endOffset) {
+                size = 0;
+                return false;
+            }
+            final int end = position < limit ? scanRecord(position) : NEED_MORE;
+            if (end != NEED_MORE) {
+                position = end;
+                return true;
+            } else if (limit - position >= maxRecordLength) {
+                final String message = "Record exceeds max record length [" + maxRecordLength + "] at byte [" + (source.offset() + position) + "]";
+                throw new IoCsvException(message, new IllegalStateException(message));
+            }
+            refill();
+        }
+    }
+
+    /**
+     * @return absolute byte offset of the next record
+     */
+    public long offset() {
+        return source.offset() + position;
+    }
+
+    /**
+     * Limits the tokenizer to a byte range. Records which start before the end offset are read completely.
+     *
+     * @param endOffset absolute byte offset where no further records are started
+     * @return self [{@link CsvTokenizer}]
+     */
+    CsvTokenizer end(final long endOffset) {
+        this.endOffset = endOffset;
+        return this;
+    }
+
+    /**
+     * @return number of columns of the current record
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if all columns of the current record are empty or blank
+     */
+    public boolean isBlank() {
+        return size == 0 || blank;
+    }
+
+    /**
+     * @return true if all columns of the current record are empty or blank - also valid for records which are {@link #isRejected()}
+     */
+    boolean isBlankRecord() {
+        return blank;
+    }
+
+    /**
+     * Decodes the column of the current record
+     *
+     * @param index index of the column value to return
+     * @return the column value at the specified position - fallback = null
+     */
+    @Override
+    public String get(final int index) {
+        return exists(index) ? decode(starts[index], ends[index], escapes[index]) : null;
+    }
+
+    /**
+     * Reads the column of the current record without copying ASCII values.
+     * The returned instance is reused for the column and only valid until the next record.
+     *
+     * @param index index of the column value to return
+     * @return the column value at the specified position - fallback = null
+     */
+    @Override
+    public CharSequence getChars(final int index) {
+        if (!exists(index)) {
+            return null;
+        } else if (columns.length <= index) {
+            final int length = columns.length;
+            columns = Arrays.copyOf(columns, Math.max(index + 1, starts.length));
+            for (int i = length; i < columns.length; i++) {
+                columns[i] = new Column();
+            }
+        }
+        return columns[index].wrap(starts[index], ends[index], escapes[index]);
+    }
+
+    @Override
+    public boolean isEmpty(final int index) {
+        return !exists(index) || ends[index] <= starts[index];
+    }
+
+    /**
+     * Parses the column bytes of the current record without decoding them
+     *
+     * @param index index of the column value to parse
+     * @return the column value as int
+     * @throws NumberFormatException if the column does not exist or is not a number
+     */
+    @Override
+    public int getInt(final int index) {
+        final long result = !exists(index) || ends[index] - starts[index] > 10 ? FieldParser.NO_LONG : FieldParser.parseLong(buffer, starts[index], ends[index]);
+        return result < Integer.MIN_VALUE || result > Integer.MAX_VALUE ? super.getInt(index) : (int) result;
+    }
+
+    /**
+     * Parses the column bytes of the current record without decoding them
+     *
+     * @param index index of the column value to parse
+     * @return the column value as long
+     * @throws NumberFormatException if the column does not exist or is not a number
+     */
+    @Override
+    public long getLong(final int index) {
+        final long result = !exists(index) ? FieldParser.NO_LONG : FieldParser.parseLong(buffer, starts[index], ends[index]);
+        return result == FieldParser.NO_LONG ? super.getLong(index) : result;
+    }
+
+    /**
+     * Parses plain decimals of the column bytes of the current record without decoding them.
+     * Exponents and more than 15 digits are parsed by {@link Double#parseDouble(String)}.
+     *
+     * @param index index of the column value to parse
+     * @return the column value as double
+     * @throws NumberFormatException if the column does not exist or is not a number
+     */
+    @Override
+    public double getDouble(final int index) {
+        final double result = !exists(index) ? Double.NaN : FieldParser.parseDouble(buffer, starts[index], ends[index], decimalSeparator);
+        return Double.isNaN(result) ? super.getDouble(index) : result;
+    }
+
+    /**
+     * @return current record as {@link CsvRow}
+     */
+    @Override
+    public CsvRow toCsvRow() {
+        final String[] row = new String[size];
+        for (int i = 0; i < size; i++) {
+            row[i] = get(i);
+        }
+        return csvRowOf(header, Arrays.asList(row));
+    }
+
+    /**
+     * @param decimalSeparator separator of the fraction for {@link #getDouble(int)} and {@link #getBigDecimal(int)} <br/>Included fallback: ['.']
+     * @return self [{@link CsvTokenizer}]
+     */
+    public CsvTokenizer decimalSeparator(final char decimalSeparator) {
+        this.decimalSeparator = decimalSeparator == 0 ? '.' : decimalSeparator;
+        return this;
+    }
+
+    /**
+     * Shares the column names with all records - enables {@link #get(CharSequence)} and {@link CsvRow#get(CharSequence)}
+     *
+     * @param header column names of the records - null for positional access only
+     * @return self [{@link CsvTokenizer}]
+     */
+    public CsvTokenizer header(final CsvHeader header) {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * Restricts the quoting to one quote char, by default both {@code "} and {@code '} quote a column.
+     * Only the given quote or {@code "} by default can quote line breaks.
+     *
+     * @param quote ASCII quote char of the columns <br/>Included fallback: [0] = {@code "} and {@code '}
+     * @return self [{@link CsvTokenizer}]
+     */
+    public CsvTokenizer quote(final char quote) {
+        for (int i = 0; i < types.length; i++) {
+            types[i] = types[i] == QUOTE ? NORMAL : types[i];
+        }
+        if (quote == 0 || quote >= 0x80) {
+            addQuote('"');
+            addQuote('\'');
+            multiLineQuote = '"';
+            quotes = new byte[]{'"', '\''};
+        } else {
+            addQuote(quote);
+            multiLineQuote = (byte) quote;
+            quotes = new byte[]{(byte) quote};
+        }
+        return this;
+    }
+
+    /**
+     * Projection pushdown: the records contain only the given columns in the given order.
+     * Other columns are scanned for their end but never unquoted or decoded. Columns which are missing in a record are null.
+     *
+     * @param columns indices of the columns to read <br/>Included fallback: [empty] = all columns
+     * @return self [{@link CsvTokenizer}]
+     */
+    public CsvTokenizer columns(final int... columns) {
+        if (columns == null || columns.length == 0) {
+            projection = null;
+            slots = null;
+            return this;
+        }
+        projection = columns.clone();
+        slots = new int[Arrays.stream(columns).max().orElse(0) + 1];
+        Arrays.fill(slots, -1);
+        for (int i = columns.length - 1; i >= 0; i--) {
+            slots[columns[i]] = i;
+        }
+        if (starts.length < columns.length) {
+            starts = Arrays.copyOf(starts, columns.length);
+            ends = Arrays.copyOf(ends, columns.length);
+            escapes = Arrays.copyOf(escapes, columns.length);
+        }
+        return this;
+    }
+
+    /**
+     * Predicate pushdown: records which fail one of the filters are dropped while scanning.
+     * The filters are evaluated on the raw column bytes, columns behind a failing column are not processed.
+     *
+     * @param filters conditions which all must pass <br/>Included fallback: [empty] = no filter
+     * @return self [{@link CsvTokenizer}]
+     */
+    public CsvTokenizer filters(final CsvFilter... filters) {
+        this.filters = filters == null ? new CsvFilter[0] : filters.clone();
+        this.filterValues = new byte[this.filters.length][];
+        this.maxFilterColumn = -1;
+        for (int i = 0; i < this.filters.length; i++) {
+            filterValues[i] = this.filters[i].value() == null ? null : this.filters[i].value().getBytes(charset);
+            maxFilterColumn = Math.max(maxFilterColumn, this.filters[i].column());
+        }
+        return this;
+    }
+
+    /**
+     * @param index index of the current record
+     * @return self as {@link CsvRowView}
+     */
+    CsvTokenizer index(final long index) {
+        this.index = index;
+        return this;
+    }
+
+    /**
+     * @return max length of a record in bytes
+     */
+    public int maxRecordLength() {
+        return maxRecordLength;
+    }
+
+    /**
+     * Limits the memory for records, e.g. when a quote is never closed
+     *
+     * @param maxRecordLength max length of a record in bytes <br/>Included fallback: [{@link #DEFAULT_MAX_RECORD_LENGTH}]
+     * @return self [{@link CsvTokenizer}]
+     */
+    public CsvTokenizer maxRecordLength(final int maxRecordLength) {
+        this.maxRecordLength = maxRecordLength > 0 ? maxRecordLength : DEFAULT_MAX_RECORD_LENGTH;
+        return this;
+    }
+
+    /**
+     * @return charset to decode the columns
+     */
+    public Charset charset() {
+        return charset;
+    }
+
+    @Override
+    public void close() {
+        //views of the current record fail instead of reading a released mapping
+        buffer = ByteBuffer.allocate(0);
+        source.close();
+        limit = 0;
+        position = 0;
+        size = 0;
+        eof = true;
+    }
+
+    private void addQuote(final char quote) {
+        types[quote] = types[quote] == NORMAL ? QUOTE : types[quote];
+    }
+
+    private void refill() {
+        eof = !source.fill(position);
+        buffer = source.buffer();
+        limit = buffer.limit();
+        position = 0;
+    }
+
+    private int scanRecord(final int from) {
+        size = 0;
+        fields = 0;
+        blank = true;
+        rejected = false;
+        final int end = scanFields(from);
+        if (end != NEED_MORE) {
+            rejected |= fields <= maxFilterColumn;
+            if (projection != null) {
+                project();
+            }
+        }
+        return end;
+    }
+
+    private int scanFields(final int from) {
+        int i = from;
+        while (true) {
+            final int end = scanColumn(i);
+            if (end == NEED_MORE || end >= limit) {
+                return end;
+            } else if (types[buffer.get(end) & 0xFF] == SEPARATOR) {
+                i = end + 1;
+            } else {
+                return lineEnd(end);
+            }
+        }
+    }
+
+    /**
+     * Splits like {@link CsvRow#csvRowOf(String, char...)}: a separator ends the column unless exactly one quote was seen in the column.
+     * A column which starts with the {@link #multiLineQuote} continues after a line break while this quote is open (odd count without {@code \\} escapes),
+     * after the line break a separator ends it only if the quote is closed (RFC 4180).
+     */
+    private int scanColumn(final int from) {
+        int quotes = 0;
+        int opened = 0;
+        boolean multiLine = false;
+        boolean crossed = false;
+        int i = from;
+        while (true) {
+            if (i >= limit) {
+                if (!eof) {
+                    return NEED_MORE;
+                } else if (crossed && (opened & 1) == 1) {
+                    //quote without end - keeps the rest of the line like a single line quote
+                    i = from;
+                    while (i < limit && types[buffer.get(i) & 0xFF] != LINE_END) {
+                        i++;
+                    }
+                }
+                break;
+            }
+            final byte b = buffer.get(i);
+            final byte type = types[b & 0xFF];
+            if (type == QUOTE) {
+                multiLine = quotes == 0 ? b == multiLineQuote && trimStart(from, i) == i : multiLine;
+                opened += b == multiLineQuote && (i == from || buffer.get(i - 1) != '\\') ? 1 : 0;
+                quotes++;
+            } else if (type == LINE_END) {
+                if (!multiLine || (opened & 1) == 0) {
+                    break;
+                }
+                crossed = true;
+            } else if (type == SEPARATOR && (crossed ? (opened & 1) == 0 : quotes != 1)) {
+                break;
+            }
+            i++;
+        }
+        addColumn(from, i);
+        return i;
+    }
+
+    /**
+     * Adds the column like {@link CsvRow#csvRowOf(String, char...)} - trimmed, unwrapped from equal quotes and trimmed again.
+     * Columns with remaining quotes are unescaped on read, see {@link #copy(int, int, byte)}.
+     */
+    private void addColumn(final int from, final int to) {
+        int start = trimStart(from, to);
+        int end = trimEnd(start, to);
+        if (end - start > 1 && types[buffer.get(start) & 0xFF] == QUOTE && buffer.get(start) == buffer.get(end - 1)) {
+            start = trimStart(start + 1, end - 1);
+            end = trimEnd(start, end - 1);
+        }
+        byte escape = 0;
+        for (int i = start; i < end && escape == 0; i++) {
+            escape = types[buffer.get(i) & 0xFF] == QUOTE ? ESCAPED : 0;
+        }
+        addColumn(start, end, escape);
+    }
+
+    private int lineEnd(final int end) {
+        if (buffer.get(end) == '\r') {
+            if (end + 1 < limit) {
+                return buffer.get(end + 1) == '\n' ? end + 2 : end + 1;
+            }
+            return eof ? end + 1 : NEED_MORE;
+        }
+        return end + 1;
+    }
+
+    private int trimEnd(final int start, final int end) {
+        int result = end;
+        while (result > start && isWhitespace(buffer.get(result - 1))) {
+            result--;
+        }
+        return result;
+    }
+
+    private int trimStart(final int start, final int end) {
+        int result = start;
+        while (result < end && isWhitespace(buffer.get(result))) {
+            result++;
+        }
+        return result;
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+
+    private void addColumn(final int start, final int end, final byte escape) {
+        blank &= end <= start;
+        final int field = fields++;
+        if (rejected) {
+            return;
+        } else if (field <= maxFilterColumn && !accept(field, start, end, escape)) {
+            rejected = true;
+            return;
+        } else if (slots != null) {
+            if (field < slots.length && slots[field] >= 0) {
+                setColumn(slots[field], start, end, escape);
+            }
+            return;
+        } else if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            escapes = Arrays.copyOf(escapes, size * 2);
+        }
+        setColumn(size++, start, end, escape);
+    }
+
+    private void setColumn(final int index, final int start, final int end, final byte escape) {
+        starts[index] = start;
+        ends[index] = end;
+        escapes[index] = escape;
+    }
+
+    /**
+     * Copies duplicated columns of the projection and marks missing columns
+     */
+    private void project() {
+        for (int i = 0; i < projection.length; i++) {
+            final int field = projection[i];
+            final int slot = slots[field];
+            if (field >= fields) {
+                setColumn(i, -1, -1, (byte) 0);
+            } else if (slot != i) {
+                setColumn(i, starts[slot], ends[slot], escapes[slot]);
+            }
+        }
+        size = projection.length;
+    }
+
+    private boolean accept(final int field, final int start, final int end, final byte escape) {
+        for (int i = 0; i < filters.length; i++) {
+            if (filters[i].column() == field && !accept(filters[i], filterValues[i], start, end, escape)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean accept(final CsvFilter filter, final byte[] value, final int start, final int end, final byte escape) {
+        if (filter.type() == CsvFilter.Type.BETWEEN) {
+            final double number = escape == 0 ? FieldParser.parseDouble(buffer, start, end, '.') : Double.NaN;
+            return Double.isNaN(number) ? filter.test(decode(start, end, escape)) : filter.test(number);
+        } else if (escape != 0) {
+            final int length = copy(start, end, escape);
+            return filter.type() == CsvFilter.Type.EQUAL_TO
+                    ? Arrays.equals(scratch, 0, length, value, 0, value.length)
+                    : length >= value.length && Arrays.equals(scratch, 0, value.length, value, 0, value.length);
+        } else if (filter.type() == CsvFilter.Type.EQUAL_TO ? end - start != value.length : end - start < value.length) {
+            return false;
+        }
+        for (int i = 0; i < value.length; i++) {
+            if (buffer.get(start + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean exists(final int index) {
+        return index >= 0 && index < size && starts[index] >= 0;
+    }
+
+    private String decode(final int start, final int end, final byte escape) {
+        final byte[] array;
+        final int offset;
+        final int length;
+        if (escape != 0 || !buffer.hasArray()) {
+            length = copy(start, end, escape);
+            array = scratch;
+            offset = 0;
+        } else {
+            array = buffer.array();
+            offset = buffer.arrayOffset() + start;
+            length = end - start;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (array[i] < 0) {
+                return decodeCharset(array, offset, length);
+            }
+        }
+        return new String(array, offset, length, ISO_8859_1);
+    }
+
+    /**
+     * Copies the column into the scratch - escaped columns are unescaped like {@link CsvRow#csvRowOf(String, char...)}:
+     * {@code ""} and {@code \"} become {@code "}, then {@code ''} and {@code \'} become {@code '}
+     *
+     * @return length of the column in the scratch
+     */
+    private int copy(final int start, final int end, final byte escape) {
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, end - start);
+        int length = end - start;
+        for (int i = 0; escape != 0 && i < quotes.length; i++) {
+            length = replace(length, quotes[i], quotes[i]);
+            length = replace(length, (byte) '\\', quotes[i]);
+        }
+        return length;
+    }
+
+    /**
+     * Replaces the byte pairs {@code prefix quote} of the scratch with {@code quote} from left to right like {@link String#replace(CharSequence, CharSequence)}
+     */
+    private int replace(final int length, final byte prefix, final byte quote) {
+        int p = 0;
+        for (int i = 0; i < length; i++) {
+            if (scratch[i] == prefix && i + 1 < length && scratch[i + 1] == quote) {
+                i++;
+                scratch[p++] = quote;
+            } else {
+                scratch[p++] = scratch[i];
+            }
+        }
+        return p;
+    }
+
+    private String decodeCharset(final byte[] array, final int offset, final int length) {
+        return decodeChars(array, offset, length).toString();
+    }
+
+    private CharBuffer decodeChars(final byte[] array, final int offset, final int length) {
+        if (decoder == null) {
+            decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+        }
+        final int capacity = (int) Math.ceil(length * (double) decoder.maxCharsPerByte());
+        if (chars == null || chars.capacity() < capacity) {
+            chars = CharBuffer.allocate(Math.max(capacity, 64));
+        }
+        chars.clear();
+        try {
+            decoder.reset();
+            CoderResult result = decoder.decode(ByteBuffer.wrap(array, offset, length), chars, true);
+            if (!result.isUnderflow()) {
+                result.throwException();
+            }
+            result = decoder.flush(chars);
+            if (!result.isUnderflow()) {
+                result.throwException();
+            }
+        } catch (CharacterCodingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chars.flip();
+    }
+
+    /**
+     * Reusable column value - reads ASCII bytes directly from the buffer, decodes other columns once into its own chars
+     */
+    private final class Column implements CharSequence {
+
+        private int start;
+        private int length;
+        private boolean ascii;
+        private char[] value = new char[0];
+
+        private Column wrap(final int start, final int end, final byte escape) {
+            this.start = start;
+            this.length = end - start;
+            this.ascii = escape == 0 && isAscii(start, end);
+            if (!ascii) {
+                final int copied = copy(start, end, escape);
+                if (isAscii(scratch, copied)) {
+                    length = copied;
+                    ensureCapacity(length);
+                    for (int i = 0; i < length; i++) {
+                        value[i] = (char) scratch[i];
+                    }
+                } else {
+                    final CharBuffer decoded = decodeChars(scratch, 0, copied);
+                    length = decoded.remaining();
+                    ensureCapacity(length);
+                    decoded.get(value, 0, length);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("Index [" + index + "] length [" + length + "]");
+            }
+            return ascii ? (char) buffer.get(start + index) : value[index];
+        }
+
+        @Override
+        public CharSequence subSequence(final int from, final int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return ascii ? decode(start, start + length, (byte) 0) : new String(value, 0, length);
+        }
+
+        private void ensureCapacity(final int capacity) {
+            if (value.length < capacity) {
+                value = new char[Math.max(capacity, value.length * 2)];
+            }
+        }
+
+        private boolean isAscii(final byte[] bytes, final int length) {
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isAscii(final int start, final int end) {
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvDialect;
+import berlin.yuna.model.IoCsvException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Configurable CSV writer - the counterpart of {@link CsvReader}.
+ * Columns are quoted only if they contain the separator, the quote or a line break, start with an apostrophe or start or end with whitespace, quotes are doubled.
+ */
+public class CsvWriter {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private char separator = ',';
+    private char quote = CsvDialect.DEFAULT_QUOTE;
+    private String lineSeparator = "\n";
+    private Charset charset = UTF_8;
+    private boolean gzip = false;
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * Opens the file for writing - an existing file is replaced
+     *
+     * @param file the path to the file
+     * @return open {@link CsvOutput} - must be closed
+     */
+    public CsvOutput open(final Path file) {
+        try {
+            return open(Files.newOutputStream(file), file.toString());
+        } catch (IOException e) {
+            throw new IoCsvException("Write error [" + file + "]", e);
+        }
+    }
+
+    /**
+     * @param out target stream - closed with the {@link CsvOutput}
+     * @return open {@link CsvOutput} - must be closed
+     */
+    public CsvOutput open(final OutputStream out) {
+        return open(out, out.getClass().getSimpleName());
+    }
+
+    /**
+     * Writes all rows and closes the file - the given stream is not closed
+     *
+     * @param file the path to the file
+     * @param rows rows to write, e.g. {@link berlin.yuna.model.CsvRow} from {@link CsvReader#stream(Path)}
+     * @return number of written rows
+     */
+    public long write(final Path file, final Stream<? extends Iterable<? extends CharSequence>> rows) {
+        try (final CsvOutput output = open(file)) {
+            rows.forEachOrdered(output::write);
+            return output.rows();
+        }
+    }
+
+    /**
+     * @return new configurable {@link CsvWriter}
+     */
+    public static CsvWriter csvWriter() {
+        return new CsvWriter();
+    }
+
+    /**
+     * @return separator of the columns
+     */
+    public char separator() {
+        return separator;
+    }
+
+    /**
+     * @param separator separator of the columns <br/>
+     *                  Included fallback: [',']
+     * @return self [{@link CsvWriter}]
+     */
+    public CsvWriter separator(final char separator) {
+        this.separator = separator == 0 ? ',' : separator;
+        return this;
+    }
+
+    /**
+     * @return quote char of the columns
+     */
+    public char quote() {
+        return quote;
+    }
+
+    /**
+     * @param quote quote char of the columns <br/>
+     *              Included fallback: ['"']
+     * @return self [{@link CsvWriter}]
+     */
+    public CsvWriter quote(final char quote) {
+        this.quote = quote == 0 ? CsvDialect.DEFAULT_QUOTE : quote;
+        return this;
+    }
+
+    /**
+     * @return separator of the rows
+     */
+    public String lineSeparator() {
+        return lineSeparator;
+    }
+
+    /**
+     * @param lineSeparator separator of the rows <br/>
+     *                      Included fallback: ["\n"]
+     * @return self [{@link CsvWriter}]
+     */
+    public CsvWriter lineSeparator(final String lineSeparator) {
+        this.lineSeparator = lineSeparator == null || lineSeparator.isEmpty() ? "\n" : lineSeparator;
+        return this;
+    }
+
+    /**
+     * Applies separator and quote of a known format, e.g. from {@link CsvReader#detectDialect(Path)}
+     *
+     * @param dialect format of the file
+     * @return self [{@link CsvWriter}]
+     */
+    public CsvWriter dialect(final CsvDialect dialect) {
+        return separator(dialect.separator()).quote(dialect.quote());
+    }
+
+    /**
+     * @return The charset to use for encoding the CSV file
+     */
+    public Charset charset() {
+        return charset;
+    }
+
+    /**
+     * @param charset The charset to use for encoding the CSV file <br/>
+     *                Included fallback: [UTF_8]
+     * @return self [{@link CsvWriter}]
+     */
+    public CsvWriter charset(final Charset charset) {
+        this.charset = charset == null ? UTF_8 : charset;
+        return this;
+    }
+
+    /**
+     * @return On <b>true</b> compresses the output with gzip while writing
+     */
+    public boolean gzip() {
+        return gzip;
+    }
+
+    /**
+     * @param gzip On <b>true</b> compresses the output with gzip while writing - readable with {@link CsvReader#unzip(boolean)}
+     * @return self [{@link CsvWriter}]
+     */
+    public CsvWriter gzip(final boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    /**
+     * @return size of the serialization buffer in chars
+     */
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @param bufferSize size of the serialization buffer in chars - grows for larger rows <br/>
+     *                   Included fallback: [{@link #DEFAULT_BUFFER_SIZE}]
+     * @return self [{@link CsvWriter}]
+     */
+    public CsvWriter bufferSize(final int bufferSize) {
+        this.bufferSize = bufferSize < 1 ? DEFAULT_BUFFER_SIZE : bufferSize;
+        return this;
+    }
+
+    private CsvOutput open(final OutputStream out, final String target) {
+        try {
+            return new CsvOutput(gzip ? new GZIPOutputStream(out, bufferSize) : out, target, separator, quote, lineSeparator, charset, bufferSize);
+        } catch (IOException e) {
+            closeQuietly(out);
+            throw new IoCsvException("Write error [" + target + "]", e);
+        }
+    }
+
+    private static void closeQuietly(final OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // already failed
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvDialect;
+import berlin.yuna.model.CsvRow;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static berlin.yuna.logic.FileUtils.POSSIBLE_CSV_SEPARATORS;
+import static berlin.yuna.model.CsvDialect.csvDialectOf;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+
+/**
+ * Detects separator, quote and header of a CSV sample.
+ * The cost is bounded by {@link #SAMPLE_SIZE} and {@link #MAX_RECORDS}, candidates are counted in primitive arrays.
+ * <p>Separators inside quotes are ignored. The separator with the most records sharing the same count wins (consistency),
+ * ties are resolved by the higher count.</p>
+ */
+public class DialectDetection {
+
+    public static final int SAMPLE_SIZE = 64 * 1024;
+    public static final int MAX_RECORDS = 64;
+    private static final int HEADER_RECORDS = 20;
+    private static final char SINGLE_QUOTE = '\'';
+
+    private DialectDetection() {
+    }
+
+    /**
+     * @param sample   first lines of the input
+     * @param complete true if the sample is the whole input - otherwise the last incomplete line is ignored
+     * @return detected {@link CsvDialect} - fallback separator ',' and quote '"'
+     */
+    public static CsvDialect detectDialect(final CharSequence sample, final boolean complete) {
+        final char quote = detectQuote(sample);
+        final int[][] counts = new int[POSSIBLE_CSV_SEPARATORS.length][MAX_RECORDS];
+        final int[] starts = new int[MAX_RECORDS];
+        final int[] ends = new int[MAX_RECORDS];
+        final int length = sample.length();
+        int records = 0;
+        int start = 0;
+        boolean blank = true;
+        boolean quoted = false;
+        for (int i = 0; i < length && records < MAX_RECORDS; i++) {
+            final char c = sample.charAt(i);
+            if (c == quote) {
+                quoted = !quoted;
+                blank = false;
+            } else if (quoted) {
+                if (c == '\\' && i + 1 < length && sample.charAt(i + 1) == quote) {
+                    i++;
+                }
+            } else if (c == '\n' || c == '\r') {
+                if (!blank) {
+                    starts[records] = start;
+                    ends[records] = i;
+                    records++;
+                }
+                start = i + 1;
+                blank = true;
+            } else {
+                blank &= c <= ' ';
+                for (int s = 0; s < POSSIBLE_CSV_SEPARATORS.length; s++) {
+                    if (c == POSSIBLE_CSV_SEPARATORS[s]) {
+                        counts[s][records]++;
+                    }
+                }
+            }
+        }
+        if (!blank && records < MAX_RECORDS && (complete || records == 0)) {
+            starts[records] = start;
+            ends[records] = length;
+            records++;
+        }
+        final char separator = detectSeparator(counts, records);
+        return csvDialectOf(separator, quote, detectHeader(sample, starts, ends, Math.min(records, HEADER_RECORDS), separator));
+    }
+
+    /**
+     * Reads up to {@link #SAMPLE_SIZE} bytes into the window of the source - the window stays readable for the {@link CsvTokenizer}
+     *
+     * @param source  source of the input
+     * @param charset charset of the input
+     * @return detected {@link CsvDialect}
+     */
+    static CsvDialect detectDialect(final ByteSource source, final Charset charset) {
+        boolean complete = false;
+        while (source.buffer().limit() < SAMPLE_SIZE) {
+            if (!source.fill(0)) {
+                complete = true;
+                break;
+            }
+        }
+        final ByteBuffer buffer = source.buffer();
+        final byte[] sample = new byte[Math.min(buffer.limit(), SAMPLE_SIZE)];
+        buffer.get(0, sample);
+        return detectDialect(new String(sample, charset), complete);
+    }
+
+    private static char detectQuote(final CharSequence sample) {
+        int doubleQuotes = 0;
+        int singleQuotes = 0;
+        boolean fieldStart = true;
+        for (int i = 0; i < sample.length(); i++) {
+            final char c = sample.charAt(i);
+            if (c == '\n' || c == '\r' || isSeparator(c)) {
+                fieldStart = true;
+            } else if (c > ' ') {
+                if (fieldStart && c == CsvDialect.DEFAULT_QUOTE) {
+                    doubleQuotes++;
+                } else if (fieldStart && c == SINGLE_QUOTE) {
+                    singleQuotes++;
+                }
+                fieldStart = false;
+            }
+        }
+        return singleQuotes > doubleQuotes ? SINGLE_QUOTE : CsvDialect.DEFAULT_QUOTE;
+    }
+
+    private static char detectSeparator(final int[][] counts, final int records) {
+        char result = ',';
+        int bestFrequency = 0;
+        int bestCount = 0;
+        final int[] sorted = new int[records];
+        for (int s = 0; s < counts.length; s++) {
+            System.arraycopy(counts[s], 0, sorted, 0, records);
+            Arrays.sort(sorted);
+            int frequency = 0;
+            int count = 0;
+            for (int i = 0, next; i < records; i = next) {
+                next = i + 1;
+                while (next < records && sorted[next] == sorted[i]) {
+                    next++;
+                }
+                if (sorted[i] > 0 && next - i >= frequency) {
+                    frequency = next - i;
+                    count = sorted[i];
+                }
+            }
+            if (frequency > bestFrequency || (frequency == bestFrequency && count > bestCount)) {
+                result = POSSIBLE_CSV_SEPARATORS[s];
+                bestFrequency = frequency;
+                bestCount = count;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A column votes for a header if its header value differs from the data: text above numbers or a different length above values with the same length
+     */
+    private static boolean detectHeader(final CharSequence sample, final int[] starts, final int[] ends, final int records, final char separator) {
+        if (records < 2) {
+            return false;
+        }
+        final CsvRow[] rows = new CsvRow[records];
+        for (int i = 0; i < records; i++) {
+            rows[i] = csvRowOf(sample.subSequence(starts[i], ends[i]).toString(), separator);
+        }
+        int votes = 0;
+        for (int column = 0; column < rows[0].size(); column++) {
+            final String header = rows[0].get(column);
+            boolean numbers = true;
+            int length = -1;
+            int values = 0;
+            for (int i = 1; i < records; i++) {
+                final String value = rows[i].get(column);
+                if (value == null || value.isEmpty()) {
+                    continue;
+                }
+                numbers &= isNumber(value);
+                length = values == 0 || length == value.length() ? value.length() : -2;
+                values++;
+            }
+            if (values == 0) {
+                continue;
+            } else if (numbers) {
+                votes += isNumber(header) ? -1 : 1;
+            } else if (length >= 0) {
+                votes += header.length() == length ? -1 : 1;
+            }
+        }
+        return votes > 0;
+    }
+
+    private static boolean isNumber(final String value) {
+        int i = value.startsWith("-") || value.startsWith("+") ? 1 : 0;
+        boolean digits = false;
+        boolean dot = false;
+        for (; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return false;
+            }
+        }
+        return digits;
+    }
+
+    private static boolean isSeparator(final char c) {
+        for (char separator : POSSIBLE_CSV_SEPARATORS) {
+            if (c == separator) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,440 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvColumnType;
+import berlin.yuna.model.CsvHeader;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.CsvSortKey;
+import berlin.yuna.model.FieldParser;
+import berlin.yuna.model.IoCsvException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static berlin.yuna.logic.FileExtraction.BUFFER_SIZE;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * External merge sort - rows are collected up to a memory budget, sorted and spilled as binary runs into a temp directory,
+ * then the runs are merged with a heap. Without spilled runs the rows are sorted in memory.
+ * <p>With {@code parallel > 1} full buffers are sorted and spilled on worker threads while the next buffer is read,
+ * the budget is shared by the buffers in flight. More than {@link #MAX_MERGE_RUNS} runs are merged in multiple passes.
+ * The sort is stable: rows with equal keys keep their input order.</p>
+ */
+final class ExternalSort implements Closeable {
+
+    public static final int MAX_MERGE_RUNS = 256;
+
+    private static final int END = -1;
+    private static final int NULL = -1;
+    //estimated heap bytes of a row, its list and of a String without its chars
+    private static final int ROW_BYTES = 64;
+    private static final int FIELD_BYTES = 48;
+
+    private final CsvSortKey[] keys;
+    private final char decimalSeparator;
+    private final long budget;
+    private final int parallel;
+    private final Comparator<Entry> comparator;
+    private final List<Path> runs = new ArrayList<>();
+    private final List<Run> open = new ArrayList<>();
+    private CsvHeader header;
+    private Path dir;
+    private int created;
+
+    /**
+     * @param keys             sort keys - sorts by the first key, ties by the next key
+     * @param decimalSeparator fraction separator of {@link CsvColumnType#DOUBLE} keys
+     * @param memory           max estimated heap bytes of the buffered rows
+     * @param parallel         threads which sort and spill runs
+     */
+    ExternalSort(final CsvSortKey[] keys, final char decimalSeparator, final long memory, final int parallel) {
+        if (keys.length > Long.SIZE) {
+            final String message = "Too many sort keys [" + keys.length + "] max [" + Long.SIZE + "]";
+            throw new IoCsvException(message, new IllegalArgumentException(message));
+        }
+        this.keys = keys.clone();
+        this.decimalSeparator = decimalSeparator;
+        this.parallel = Math.max(parallel, 1);
+        this.budget = Math.max(memory / (this.parallel > 1 ? this.parallel + 1 : 1), 1);
+        this.comparator = this::compare;
+    }
+
+    /**
+     * Reads all rows and spills sorted runs - the returned stream merges the runs lazily
+     *
+     * @param rows rows to sort - consumed but not closed
+     * @return sorted rows - closing the stream deletes the runs
+     */
+    Stream<CsvRow> sort(final Stream<CsvRow> rows) {
+        try {
+            final List<Entry> buffer = spill(rows.iterator());
+            if (runs.isEmpty()) {
+                buffer.sort(comparator);
+                return buffer.stream().map(Entry::row).onClose(this::close);
+            }
+            merge();
+            return StreamSupport.stream(new Merge(runs), false).onClose(this::close);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        open.forEach(Run::close);
+        open.clear();
+        if (dir != null) {
+            FileExtraction.deleteTmpDir(dir);
+            dir = null;
+        }
+    }
+
+    /**
+     * Run generation
+     *
+     * @return the last buffer if no run was spilled - otherwise an empty buffer
+     */
+    private List<Entry> spill(final Iterator<CsvRow> rows) {
+        final ExecutorService executor = parallel > 1 ? FileFanOut.executor(parallel, false) : null;
+        final Semaphore permits = new Semaphore(parallel);
+        final List<Future<?>> tasks = new ArrayList<>();
+        try {
+            List<Entry> buffer = new ArrayList<>();
+            long used = 0;
+            while (rows.hasNext()) {
+                final CsvRow row = rows.next();
+                header = header == null ? row.header() : header;
+                buffer.add(entry(row));
+                used += size(row);
+                if (used >= budget) {
+                    final Path run = nextRun();
+                    runs.add(run);
+                    final List<Entry> full = buffer;
+                    if (executor == null) {
+                        write(full, run);
+                    } else {
+                        permits.acquire();
+                        finished(tasks);
+                        tasks.add(executor.submit(() -> {
+                            try {
+                                write(full, run);
+                            } finally {
+                                permits.release();
+                            }
+                        }));
+                    }
+                    buffer = new ArrayList<>();
+                    used = 0;
+                }
+            }
+            if (!runs.isEmpty() && !buffer.isEmpty()) {
+                final Path run = nextRun();
+                runs.add(run);
+                write(buffer, run);
+                buffer = new ArrayList<>();
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IoCsvException("Interrupted while sorting", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IoCsvException ? (IoCsvException) e.getCause() : new IoCsvException("Sort error [" + dir + "]", e.getCause());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Rethrows the error of a failed spill before the next buffer is read - finished spills are removed
+     */
+    private static void finished(final List<Future<?>> tasks) throws InterruptedException, ExecutionException {
+        final Iterator<Future<?>> iterator = tasks.iterator();
+        while (iterator.hasNext()) {
+            final Future<?> task = iterator.next();
+            if (task.isDone()) {
+                task.get();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Merges groups of {@link #MAX_MERGE_RUNS} consecutive runs until one pass can merge all runs - keeps the run order for stable ties
+     */
+    private void merge() {
+        while (runs.size() > MAX_MERGE_RUNS) {
+            final List<Path> merged = new ArrayList<>();
+            for (int i = 0; i < runs.size(); i += MAX_MERGE_RUNS) {
+                final List<Path> part = runs.subList(i, Math.min(i + MAX_MERGE_RUNS, runs.size()));
+                merged.add(part.size() == 1 ? part.get(0) : merge(part));
+            }
+            runs.clear();
+            runs.addAll(merged);
+        }
+    }
+
+    /**
+     * @return new run with the merged rows of the given runs - the given runs are deleted
+     */
+    private Path merge(final List<Path> part) {
+        final Path run = nextRun();
+        final Merge merge = new Merge(part);
+        try (final DataOutputStream out = output(run)) {
+            while (merge.tryAdvance(row -> write(out, row))) {
+                // merged row written
+            }
+            out.writeInt(END);
+        } catch (IOException e) {
+            throw new IoCsvException("Sort error [" + run + "]", e);
+        } finally {
+            open.forEach(Run::close);
+            open.clear();
+        }
+        part.forEach(FileUtils::deleteTmpFile);
+        return run;
+    }
+
+    private Path nextRun() {
+        if (dir == null) {
+            dir = FileExtraction.createTmpDir("sort");
+        }
+        return dir.resolve("run-" + created++ + ".bin");
+    }
+
+    private void write(final List<Entry> buffer, final Path run) {
+        buffer.sort(comparator);
+        try (final DataOutputStream out = output(run)) {
+            for (Entry entry : buffer) {
+                write(out, entry.row());
+            }
+            out.writeInt(END);
+        } catch (IOException e) {
+            throw new IoCsvException("Sort error [" + run + "]", e);
+        }
+    }
+
+    private static void write(final DataOutputStream out, final CsvRow row) {
+        try {
+            out.writeInt(row.size());
+            for (String value : row) {
+                if (value == null) {
+                    out.writeInt(NULL);
+                } else {
+                    final byte[] bytes = value.getBytes(UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("Sort error", e);
+        }
+    }
+
+    private static DataOutputStream output(final Path run) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), BUFFER_SIZE));
+    }
+
+    private static long size(final CsvRow row) {
+        long result = ROW_BYTES;
+        for (String value : row) {
+            result += value == null ? 8 : FIELD_BYTES + value.length() * 2L;
+        }
+        return result;
+    }
+
+    /**
+     * @return row with its numeric keys parsed once
+     */
+    private Entry entry(final CsvRow row) {
+        long[] numbers = null;
+        long invalid = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].type() != CsvColumnType.STRING) {
+                numbers = numbers == null ? new long[keys.length] : numbers;
+                final String value = keys[i].column() < row.size() ? row.get(keys[i].column()) : null;
+                try {
+                    numbers[i] = keys[i].type() == CsvColumnType.LONG ? parseLong(value) : Double.doubleToRawLongBits(parseDouble(value));
+                } catch (RuntimeException e) {
+                    invalid |= 1L << i;
+                }
+            }
+        }
+        return new Entry(row, numbers, invalid);
+    }
+
+    private static long parseLong(final String value) {
+        final long result = FieldParser.parseLong(value, 0, value.length());
+        return result == FieldParser.NO_LONG ? Long.parseLong(value.trim()) : result;
+    }
+
+    private double parseDouble(final String value) {
+        final double result = FieldParser.parseDouble(value, 0, value.length(), decimalSeparator);
+        return Double.isNaN(result) ? Double.parseDouble(value.trim().replace(decimalSeparator, '.')) : result;
+    }
+
+    private int compare(final Entry a, final Entry b) {
+        for (int i = 0; i < keys.length; i++) {
+            final int result = compare(i, a, b);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private int compare(final int key, final Entry a, final Entry b) {
+        final CsvSortKey sortKey = keys[key];
+        final String left = sortKey.column() < a.row().size() ? a.row().get(sortKey.column()) : null;
+        final String right = sortKey.column() < b.row().size() ? b.row().get(sortKey.column()) : null;
+        if (left == null || right == null) {
+            return left == null ? (right == null ? 0 : 1) : -1;
+        }
+        final int result;
+        if (sortKey.type() == CsvColumnType.STRING) {
+            result = left.compareTo(right);
+        } else {
+            final boolean leftInvalid = (a.invalid() & (1L << key)) != 0;
+            final boolean rightInvalid = (b.invalid() & (1L << key)) != 0;
+            if (leftInvalid || rightInvalid) {
+                return leftInvalid && rightInvalid ? left.compareTo(right) : (leftInvalid ? 1 : -1);
+            }
+            result = sortKey.type() == CsvColumnType.LONG
+                    ? Long.compare(a.numbers()[key], b.numbers()[key])
+                    : Double.compare(Double.longBitsToDouble(a.numbers()[key]), Double.longBitsToDouble(b.numbers()[key]));
+        }
+        return sortKey.descending() ? -result : result;
+    }
+
+    /**
+     * K-way merge of the runs - ties are taken from the earlier run
+     */
+    private final class Merge extends Spliterators.AbstractSpliterator<CsvRow> {
+
+        private final PriorityQueue<Run> heap;
+
+        private Merge(final List<Path> files) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            heap = new PriorityQueue<>(Math.max(files.size(), 1), (a, b) -> {
+                final int result = compare(a.current, b.current);
+                return result != 0 ? result : Integer.compare(a.index, b.index);
+            });
+            for (int i = 0; i < files.size(); i++) {
+                final Run run = new Run(files.get(i), i);
+                open.add(run);
+                if (run.next()) {
+                    heap.add(run);
+                } else {
+                    run.close();
+                }
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super CsvRow> action) {
+            final Run run = heap.poll();
+            if (run == null) {
+                return false;
+            }
+            final CsvRow row = run.current.row();
+            if (run.next()) {
+                heap.add(run);
+            } else {
+                run.close();
+            }
+            action.accept(row);
+            return true;
+        }
+    }
+
+    /**
+     * Reading cursor of a spilled run
+     */
+    private final class Run implements Closeable {
+
+        private final Path file;
+        private final int index;
+        private final DataInputStream in;
+        private byte[] bytes = new byte[256];
+        private Entry current;
+
+        private Run(final Path file, final int index) {
+            this.file = file;
+            this.index = index;
+            try {
+                this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            } catch (IOException e) {
+                throw new IoCsvException("Sort error [" + file + "]", e);
+            }
+        }
+
+        private boolean next() {
+            try {
+                final int size = in.readInt();
+                if (size == END) {
+                    current = null;
+                    return false;
+                }
+                final String[] values = new String[size];
+                for (int i = 0; i < size; i++) {
+                    final int length = in.readInt();
+                    if (length != NULL) {
+                        bytes = bytes.length < length ? new byte[Math.max(length, bytes.length * 2)] : bytes;
+                        in.readFully(bytes, 0, length);
+                        values[i] = new String(bytes, 0, length, UTF_8);
+                    }
+                }
+                current = entry(csvRowOf(header, Arrays.asList(values)));
+                return true;
+            } catch (IOException e) {
+                throw new IoCsvException("Sort error [" + file + "]", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException ignored) {
+                // read only
+            }
+        }
+    }
+
+    /**
+     * Row with its parsed numeric keys
+     *
+     * @param row     the row
+     * @param numbers long or double bits of the numeric keys by key index
+     * @param invalid bit mask of the numeric keys which are no numbers
+     */
+    private record Entry(CsvRow row, long[] numbers, long invalid) {
+    }
+}
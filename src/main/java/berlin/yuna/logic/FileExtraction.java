@@ -2,10 +2,12 @@ package berlin.yuna.logic;
 
 import berlin.yuna.model.IoCsvException;
 
+import java.io.BufferedInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.stream.Stream;
@@ -20,6 +22,7 @@ import static java.util.Optional.ofNullable;
 
 public class FileExtraction {
 
+    public static final int BUFFER_SIZE = 64 * 1024;
     private static final String TMPDIR = System.getProperty("java.io.tmpdir");
 
     private FileExtraction() {
@@ -30,8 +33,51 @@ public class FileExtraction {
      * @return extracted file or input parameter if it's not extractable
      */
     public static Path extractFile(final Path compressedFile) {
-        final Path unzippedFile = unzip(compressedFile);
-        return compressedFile.equals(unzippedFile) ? unGzip(compressedFile) : unzippedFile;
+        final byte[] magic = readMagic(compressedFile);
+        if (isZip(magic)) {
+            return unzip(compressedFile);
+        }
+        return isGzip(magic) ? unGzip(compressedFile) : compressedFile;
+    }
+
+    /**
+     * Decompresses while reading - no temp file is written.
+     * The format is detected by the magic bytes, for zip files the first file entry is read.
+     *
+     * @param file zip, gzip or uncompressed file
+     * @return decompressing {@link InputStream} or plain {@link InputStream} if the file is not compressed
+     */
+    public static InputStream extractStream(final Path file) {
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+            in.mark(4);
+            final byte[] magic = in.readNBytes(4);
+            in.reset();
+            if (isGzip(magic)) {
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            } else if (isZip(magic)) {
+                final ZipInputStream zis = new ZipInputStream(in);
+                ZipEntry zipEntry = zis.getNextEntry();
+                while (zipEntry != null && zipEntry.isDirectory()) {
+                    zipEntry = zis.getNextEntry();
+                }
+                return zis;
+            }
+            return in;
+        } catch (IOException e) {
+            closeQuietly(in);
+            throw new IoCsvException("File is not extractable [" + file + "]", e);
+        }
+    }
+
+    /**
+     * @param file file to check
+     * @return true if the magic bytes of the file are zip or gzip
+     */
+    public static boolean isCompressed(final Path file) {
+        final byte[] magic = readMagic(file);
+        return isZip(magic) || isGzip(magic);
     }
 
     /**
@@ -70,10 +116,62 @@ public class FileExtraction {
         }
     }
 
+    /**
+     * @param prefix prefix of the directory name
+     * @return new empty temp directory in the {@link CsvReader} temp directory - must be deleted by the caller
+     */
+    public static Path createTmpDir(final String prefix) {
+        try {
+            return Files.createTempDirectory(createDirectories(Paths.get(TMPDIR, CsvReader.class.getSimpleName())), prefix);
+        } catch (IOException e) {
+            throw new IoCsvException("Could not create temp directory [" + prefix + "]", e);
+        }
+    }
+
+    /**
+     * @param dir temp directory of {@link #createTmpDir(String)} - deleted with its files
+     */
+    public static void deleteTmpDir(final Path dir) {
+        try (final Stream<Path> files = Files.list(dir)) {
+            files.forEach(FileUtils::deleteTmpFile);
+            Files.deleteIfExists(dir);
+        } catch (NoSuchFileException ignored) {
+            // already deleted
+        } catch (IOException e) {
+            throw new IoCsvException("Could not delete temp directory [" + dir + "]", e);
+        }
+    }
+
+    private static byte[] readMagic(final Path file) {
+        try (final InputStream in = Files.newInputStream(file)) {
+            return in.readNBytes(4);
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + file + "]", e);
+        }
+    }
+
+    private static boolean isGzip(final byte[] magic) {
+        return magic.length >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B;
+    }
+
+    private static boolean isZip(final byte[] magic) {
+        return magic.length >= 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4;
+    }
+
+    private static void closeQuietly(final InputStream in) {
+        try {
+            if (in != null) {
+                in.close();
+            }
+        } catch (IOException ignored) {
+            //already failed
+        }
+    }
+
     private static Path copy(final InputStream in, final Path out) throws IOException {
         try (final FileOutputStream fos = new FileOutputStream(out.toFile(), false)) {
 
-            final byte[] buffer = new byte[1024];
+            final byte[] buffer = new byte[BUFFER_SIZE];
             int len;
 
             while ((len = in.read(buffer)) > 0) {
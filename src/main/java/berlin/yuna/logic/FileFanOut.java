@@ -0,0 +1,276 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvFileResult;
+import berlin.yuna.model.CsvIndexRow;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.IoCsvException;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static berlin.yuna.model.CsvFileResult.csvFileResultOf;
+import static berlin.yuna.model.CsvIndexRow.csvIndexRowOf;
+
+/**
+ * Reads many files concurrently - one task per file on virtual threads if the runtime has them (Java 21+), otherwise on a platform thread pool.
+ * <p>Files are opened in the given order and at most {@code maxOpenFiles} files are read at once.
+ * As {@link Spliterator} the rows of all files are merged: in file order if ordered, otherwise as they are parsed.
+ * Each file task hands its rows over through a bounded queue, so a slow consumer pauses the file tasks.</p>
+ */
+final class FileFanOut implements Spliterator<CsvRow>, Closeable {
+
+    public static final int QUEUE_CAPACITY = 1024;
+
+    private static final Item END = new Item(null, null);
+
+    private final List<Path> files;
+    private final Function<Path, Stream<CsvRow>> opener;
+    private final boolean ordered;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final List<BlockingQueue<Item>> queues = new ArrayList<>();
+    private int remaining;
+    private volatile boolean closed;
+
+    /**
+     * @param files        files to read
+     * @param opener       opens the row stream of a file
+     * @param maxOpenFiles max files which are read at once
+     * @param ordered      true merges the rows in file order, false as they are parsed
+     */
+    FileFanOut(final List<Path> files, final Function<Path, Stream<CsvRow>> opener, final int maxOpenFiles, final boolean ordered) {
+        this.files = files;
+        this.opener = opener;
+        this.ordered = ordered;
+        this.permits = new Semaphore(Math.max(maxOpenFiles, 1));
+        this.executor = executor(Math.max(maxOpenFiles, 1) + 1, true);
+        this.remaining = files.size();
+        for (int i = 0; i < (ordered ? files.size() : 1); i++) {
+            queues.add(new LinkedBlockingQueue<>(QUEUE_CAPACITY));
+        }
+        executor.execute(this::dispatch);
+    }
+
+    /**
+     * Consumes the files concurrently - the consumer is called from the file tasks and must be thread safe.
+     * If ordered, the rows of one file are consumed by one task in file order with their index within the file.
+     * Otherwise the rows of one file are consumed in parallel as they are parsed, the index counts the consumed rows of the file.
+     *
+     * @param files        files to read
+     * @param opener       opens the row stream of a file
+     * @param maxOpenFiles max files which are read at once
+     * @param ordered      true consumes the rows of a file in file order, false in parallel
+     * @param consumer     consumes the rows of all files
+     * @return one result per file in the given order - errors of a file don't stop the other files, consumer errors keep their message
+     */
+    static List<CsvFileResult> consumeAll(final List<Path> files, final Function<Path, Stream<CsvRow>> opener, final int maxOpenFiles, final boolean ordered, final Consumer<CsvIndexRow> consumer) {
+        final Semaphore permits = new Semaphore(Math.max(maxOpenFiles, 1));
+        final ExecutorService executor = executor(Math.max(maxOpenFiles, 1), true);
+        try {
+            final List<Future<CsvFileResult>> tasks = new ArrayList<>(files.size());
+            for (Path file : files) {
+                permits.acquire();
+                tasks.add(executor.submit(() -> {
+                    try {
+                        return consume(file, opener, ordered, consumer);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            final List<CsvFileResult> result = new ArrayList<>(files.size());
+            for (Future<CsvFileResult> task : tasks) {
+                result.add(task.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IoCsvException("Interrupted while reading files " + files, e);
+        } catch (ExecutionException e) {
+            throw new IoCsvException("File read error " + files, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param threads size of the platform thread pool
+     * @param virtual true to use virtual threads if the runtime has them
+     * @return executor with one virtual thread per task - or a fixed pool of daemon platform threads
+     */
+    static ExecutorService executor(final int threads, final boolean virtual) {
+        if (virtual) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException ignored) {
+                // runtime without virtual threads
+            }
+        }
+        final AtomicLong count = new AtomicLong(0);
+        return Executors.newFixedThreadPool(threads, task -> {
+            final Thread thread = new Thread(task, "csv-file-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super CsvRow> action) {
+        while (remaining > 0) {
+            final Item item = take(queues.get(ordered ? files.size() - remaining : 0));
+            if (item.row() != null) {
+                action.accept(item.row());
+                return true;
+            }
+            remaining--;
+            if (item.error() != null) {
+                throw item.error();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<CsvRow> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ordered ? ORDERED | NONNULL : NONNULL;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    private static CsvFileResult consume(final Path file, final Function<Path, Stream<CsvRow>> opener, final boolean ordered, final Consumer<CsvIndexRow> consumer) {
+        final AtomicLong rows = new AtomicLong(0);
+        final AtomicLong consumed = new AtomicLong(0);
+        final AtomicReference<RuntimeException> rejected = new AtomicReference<>();
+        try (final Stream<CsvRow> stream = opener.apply(file)) {
+            (ordered ? stream : stream.unordered().parallel()).forEach(row -> {
+                try {
+                    consumer.accept(csvIndexRowOf(rows.getAndIncrement(), row));
+                    consumed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.compareAndSet(null, e);
+                    throw e;
+                }
+            });
+            return csvFileResultOf(file, consumed.get(), null);
+        } catch (RuntimeException e) {
+            //parallel streams can rethrow a copy of the consumer error
+            return csvFileResultOf(file, consumed.get(), rejected.get() == null ? error(file, e) : consumerError(rejected.get()));
+        }
+    }
+
+    /**
+     * Starts the file tasks in file order - a file starts when an earlier file released its permit
+     */
+    private void dispatch() {
+        try {
+            for (int i = 0; i < files.size() && !closed; i++) {
+                permits.acquire();
+                final int file = i;
+                executor.execute(() -> {
+                    try {
+                        read(file);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RejectedExecutionException ignored) {
+            // closed while dispatching
+        }
+    }
+
+    private void read(final int file) {
+        final BlockingQueue<Item> queue = queues.get(ordered ? file : 0);
+        Item last = END;
+        try (final Stream<CsvRow> stream = opener.apply(files.get(file))) {
+            final Iterator<CsvRow> rows = stream.iterator();
+            while (rows.hasNext()) {
+                if (!put(queue, new Item(rows.next(), null))) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            last = new Item(null, error(files.get(file), e));
+        }
+        try {
+            put(queue, last);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return false if the spliterator was closed before the queue had space
+     */
+    private boolean put(final BlockingQueue<Item> queue, final Item item) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(item, 50, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Item take(final BlockingQueue<Item> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IoCsvException("Interrupted while waiting for rows", e);
+        }
+    }
+
+    /**
+     * @return the error of the consumer with its own message
+     */
+    private static IoCsvException consumerError(final RuntimeException e) {
+        return e instanceof IoCsvException ? (IoCsvException) e : new IoCsvException(e.getMessage() == null ? e.toString() : e.getMessage(), e);
+    }
+
+    private static IoCsvException error(final Path file, final RuntimeException e) {
+        return e instanceof IoCsvException ? (IoCsvException) e : new IoCsvException("File read error [" + file + "]", e);
+    }
+
+    /**
+     * Row of a file - or the end of a file with an optional error
+     */
+    private record Item(CsvRow row, IoCsvException error) {
+    }
+}
@@ -5,28 +5,21 @@ import berlin.yuna.model.IoCsvException;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static java.nio.file.Files.newBufferedReader;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
-import static java.util.Comparator.comparingLong;
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.mapping;
 
 public class FileUtils {
 
@@ -35,25 +28,25 @@ public class FileUtils {
     private FileUtils() {
     }
 
+    /**
+     * @param file    file to sample - see {@link DialectDetection}
+     * @param charset charset of the file
+     * @return detected separator - fallback ','
+     */
     public static char detectSeparator(final Path file, final Charset charset) {
-        return detectSeparator(readAllLines(file, charset, 15));
+        try (final ChannelSource source = new ChannelSource(FileChannel.open(file), DialectDetection.SAMPLE_SIZE)) {
+            return DialectDetection.detectDialect(source, charset).separator();
+        } catch (IOException e) {
+            throw new IoCsvException("File read error [" + file + "]", e);
+        }
     }
 
+    /**
+     * @param lines lines to sample - see {@link DialectDetection}
+     * @return detected separator - fallback ','
+     */
     public static char detectSeparator(final Collection<String> lines) {
-        //<Separator, CountPerLine> == <Integer, List<Long>>
-        return lines.stream().map(line -> line.chars()
-                                .filter(c -> CharBuffer.wrap(POSSIBLE_CSV_SEPARATORS).chars().anyMatch(c2 -> c == c2)).boxed()
-                                .collect(groupingBy(identity(), Collectors.counting()))
-                        //remove wrapper list
-                ).flatMap(integerLongMap -> integerLongMap.entrySet().stream())
-                .collect(groupingBy(
-                        Map.Entry::getKey,
-                        mapping(Map.Entry::getValue, Collectors.toList())
-                ))
-                //Find separator by most occurrence
-                .entrySet().stream()
-                .map(e -> new SimpleEntry<>(e.getKey(), getPopularElement(e.getValue().toArray(new Long[0]))[1]))
-                .max(comparingLong(SimpleEntry::getValue)).map(e -> ((char) e.getKey().intValue())).orElse(',');
+        return DialectDetection.detectDialect(String.join("\n", lines), true).separator();
     }
 
     public static long[] getPopularElement(final Long[] array) {
@@ -0,0 +1,439 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvAggregate;
+import berlin.yuna.model.CsvGroup;
+import berlin.yuna.model.CsvRowView;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static berlin.yuna.model.CsvGroup.csvGroupOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Partial group by table of one thread - open addressing on the key bytes, aggregates in primitive arrays.
+ * <p>Keys are stored once in a byte arena: the raw column bytes of each key column followed by their length (-1 for missing columns).
+ * {@link #add(CsvTokenizer)} copies the key bytes straight from the read buffer, no {@link String} is created per row.
+ * Whole numbers are aggregated exactly in a long, decimals and overflowing sums in a double.
+ * Partial tables of parallel chunks are combined with {@link #merge(GroupBy)}.</p>
+ */
+final class GroupBy {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final byte WHOLE = 1;
+    private static final byte DECIMAL = 2;
+    private static final double EXACT_DOUBLE = 0x1p53;
+
+    private final int[] keyColumns;
+    private final CsvAggregate[] aggregates;
+    private final Charset charset;
+    private int[] slots = new int[1024];
+    private int[] hashes = new int[512];
+    private int[] keyStarts = new int[513];
+    private byte[] keys = new byte[8192];
+    private long[] counts = new long[512];
+    private double[] values;
+    private long[] wholes;
+    private byte[] seen;
+    private long[] rejected;
+    private ValueSet[] distinct;
+    private int groups;
+    private byte[] scratch = new byte[256];
+    private byte[] value = new byte[64];
+
+    /**
+     * @param keyColumns indices of the key columns
+     * @param aggregates aggregate functions
+     * @param charset    charset of the key bytes - the file charset for {@link #add(CsvTokenizer)}, UTF-8 for {@link #add(CsvRowView)}
+     */
+    GroupBy(final int[] keyColumns, final CsvAggregate[] aggregates, final Charset charset) {
+        this.keyColumns = keyColumns.clone();
+        this.aggregates = aggregates.clone();
+        this.charset = charset;
+        this.values = initialValues(new double[512 * aggregates.length], 0, 512);
+        this.wholes = new long[512 * aggregates.length];
+        this.seen = new byte[512 * aggregates.length];
+        this.rejected = new long[512 * aggregates.length];
+        this.distinct = new ValueSet[512 * aggregates.length];
+    }
+
+    /**
+     * Adds the current record - key and distinct values are read as raw column bytes
+     *
+     * @param row current record of the BYTES engine
+     */
+    void add(final CsvTokenizer row) {
+        int length = 0;
+        for (int column : keyColumns) {
+            length = ensureScratch(length, row.rawLength(column) + 4);
+            final int end = row.copyColumn(column, scratch, length);
+            length = writeLength(end < 0 ? length : end, end < 0 ? -1 : end - length);
+        }
+        final int group = group(length, hash(scratch, 0, length));
+        counts[group]++;
+        for (int i = 0; i < aggregates.length; i++) {
+            final CsvAggregate aggregate = aggregates[i];
+            if (aggregate.type() == CsvAggregate.Type.DISTINCT) {
+                value = row.rawLength(aggregate.column()) > value.length ? new byte[row.rawLength(aggregate.column()) * 2] : value;
+                final int end = row.copyColumn(aggregate.column(), value, 0);
+                if (end >= 0) {
+                    distinct(group, i, value, 0, end);
+                }
+            } else if (aggregate.type() != CsvAggregate.Type.COUNT && row.rawLength(aggregate.column()) > 0) {
+                number(group, i, row, aggregate.column());
+            }
+        }
+    }
+
+    /**
+     * Adds the current row - key and distinct values are encoded as UTF-8, for engines without raw bytes
+     *
+     * @param row current row
+     */
+    void add(final CsvRowView row) {
+        int length = 0;
+        for (int column : keyColumns) {
+            final CharSequence value = row.getChars(column);
+            if (value == null) {
+                length = writeLength(ensureScratch(length, 4), -1);
+            } else {
+                length = ensureScratch(length, value.length() * 3 + 4);
+                final int end = utf8(value, scratch, length);
+                length = writeLength(end, end - length);
+            }
+        }
+        final int group = group(length, hash(scratch, 0, length));
+        counts[group]++;
+        for (int i = 0; i < aggregates.length; i++) {
+            final CsvAggregate aggregate = aggregates[i];
+            final CharSequence chars = aggregate.type() == CsvAggregate.Type.COUNT ? null : row.getChars(aggregate.column());
+            if (aggregate.type() == CsvAggregate.Type.DISTINCT) {
+                if (chars != null) {
+                    value = chars.length() * 3 > value.length ? new byte[chars.length() * 3] : value;
+                    distinct(group, i, value, 0, utf8(chars, value, 0));
+                }
+            } else if (chars != null && chars.length() > 0) {
+                number(group, i, row, aggregate.column());
+            }
+        }
+    }
+
+    /**
+     * Adds the groups of another partial table
+     *
+     * @param other partial table with the same key columns, aggregates and charset
+     * @return self [{@link GroupBy}]
+     */
+    GroupBy merge(final GroupBy other) {
+        for (int g = 0; g < other.groups; g++) {
+            final int start = other.keyStarts[g];
+            final int length = other.keyStarts[g + 1] - start;
+            scratch = length > scratch.length ? new byte[length] : scratch;
+            System.arraycopy(other.keys, start, scratch, 0, length);
+            final int group = group(length, other.hashes[g]);
+            counts[group] += other.counts[g];
+            for (int i = 0; i < aggregates.length; i++) {
+                final int slot = group * aggregates.length + i;
+                final int otherSlot = g * aggregates.length + i;
+                if (aggregates[i].type() == CsvAggregate.Type.DISTINCT) {
+                    final ValueSet set = other.distinct[otherSlot];
+                    for (int v = 0; set != null && v < set.size; v++) {
+                        distinct(group, i, set.values, set.starts[v], set.starts[v + 1]);
+                    }
+                } else if (aggregates[i].type() != CsvAggregate.Type.COUNT) {
+                    if ((other.seen[otherSlot] & WHOLE) != 0) {
+                        whole(slot, other.wholes[otherSlot]);
+                    }
+                    if ((other.seen[otherSlot] & DECIMAL) != 0) {
+                        decimal(slot, other.values[otherSlot]);
+                    }
+                    rejected[slot] += other.rejected[otherSlot];
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return number of groups
+     */
+    int size() {
+        return groups;
+    }
+
+    /**
+     * @return groups in order of their first row
+     */
+    List<CsvGroup> groups() {
+        final List<CsvGroup> result = new ArrayList<>(groups);
+        final Number[] groupValues = new Number[aggregates.length];
+        for (int g = 0; g < groups; g++) {
+            for (int i = 0; i < aggregates.length; i++) {
+                final int slot = g * aggregates.length + i;
+                groupValues[i] = switch (aggregates[i].type()) {
+                    case COUNT -> counts[g];
+                    case DISTINCT -> (long) (distinct[slot] == null ? 0 : distinct[slot].size);
+                    default -> value(slot);
+                };
+            }
+            result.add(csvGroupOf(key(g), counts[g], aggregates, groupValues, Arrays.copyOfRange(rejected, g * aggregates.length, (g + 1) * aggregates.length)));
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the key bytes backwards - every column is followed by its length
+     */
+    private List<String> key(final int group) {
+        final String[] result = new String[keyColumns.length];
+        int end = keyStarts[group + 1];
+        for (int i = keyColumns.length - 1; i >= 0; i--) {
+            final int length = (keys[end - 4] & 0xFF) << 24 | (keys[end - 3] & 0xFF) << 16 | (keys[end - 2] & 0xFF) << 8 | (keys[end - 1] & 0xFF);
+            end -= 4;
+            if (length >= 0) {
+                end -= length;
+                result[i] = new String(keys, end, length, charset);
+            }
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Adds the column value to the long of whole numbers or to the double of decimals - non numeric values are counted as rejected
+     */
+    private void number(final int group, final int aggregate, final CsvRowView row, final int index) {
+        final int slot = group * aggregates.length + aggregate;
+        final double value;
+        try {
+            value = row.getDouble(index);
+        } catch (NumberFormatException e) {
+            rejected[slot]++;
+            return;
+        }
+        if (value == Math.rint(value) && Math.abs(value) < EXACT_DOUBLE) {
+            whole(slot, (long) value);
+        } else if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            wholeOrDecimal(slot, row, index, value);
+        } else {
+            decimal(slot, value);
+        }
+    }
+
+    /**
+     * Parses whole numbers above 2^53 again as long - the double is already rounded
+     */
+    private void wholeOrDecimal(final int slot, final CsvRowView row, final int index, final double value) {
+        try {
+            whole(slot, row.getLong(index));
+        } catch (NumberFormatException e) {
+            decimal(slot, value);
+        }
+    }
+
+    private void whole(final int slot, final long value) {
+        final boolean first = (seen[slot] & WHOLE) == 0;
+        seen[slot] |= WHOLE;
+        switch (aggregates[slot % aggregates.length].type()) {
+            case SUM -> {
+                try {
+                    wholes[slot] = Math.addExact(wholes[slot], value);
+                } catch (ArithmeticException overflow) {
+                    decimal(slot, (double) wholes[slot] + value);
+                    wholes[slot] = 0;
+                }
+            }
+            case MIN -> wholes[slot] = first || value < wholes[slot] ? value : wholes[slot];
+            default -> wholes[slot] = first || value > wholes[slot] ? value : wholes[slot];
+        }
+    }
+
+    private void decimal(final int slot, final double value) {
+        seen[slot] |= DECIMAL;
+        switch (aggregates[slot % aggregates.length].type()) {
+            case SUM -> values[slot] += value;
+            case MIN -> values[slot] = Double.isNaN(values[slot]) || value < values[slot] ? value : values[slot];
+            default -> values[slot] = Double.isNaN(values[slot]) || value > values[slot] ? value : values[slot];
+        }
+    }
+
+    /**
+     * @return {@link Long} while only whole numbers were added - {@link Double} with decimals, NaN for MIN and MAX without values
+     */
+    private Number value(final int slot) {
+        final CsvAggregate.Type type = aggregates[slot % aggregates.length].type();
+        if ((seen[slot] & DECIMAL) == 0 && ((seen[slot] & WHOLE) != 0 || type == CsvAggregate.Type.SUM)) {
+            return wholes[slot];
+        } else if ((seen[slot] & DECIMAL) == 0) {
+            return Double.NaN;
+        } else if ((seen[slot] & WHOLE) == 0) {
+            return values[slot];
+        }
+        return switch (type) {
+            case SUM -> values[slot] + wholes[slot];
+            case MIN -> Math.min(values[slot], wholes[slot]);
+            default -> Math.max(values[slot], wholes[slot]);
+        };
+    }
+
+    private void distinct(final int group, final int aggregate, final byte[] bytes, final int from, final int to) {
+        final int slot = group * aggregates.length + aggregate;
+        if (distinct[slot] == null) {
+            distinct[slot] = new ValueSet();
+        }
+        distinct[slot].add(bytes, from, to, hash(bytes, from, to));
+    }
+
+    /**
+     * @return id of the group with the key in the scratch - a new group if the key is new
+     */
+    private int group(final int length, final int hash) {
+        int slot = hash & (slots.length - 1);
+        while (slots[slot] != 0) {
+            final int group = slots[slot] - 1;
+            if (hashes[group] == hash && Arrays.equals(keys, keyStarts[group], keyStarts[group + 1], scratch, 0, length)) {
+                return group;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        final int group = groups++;
+        if (group == counts.length) {
+            grow();
+        }
+        final int start = keyStarts[group];
+        if (start + length > keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(keys.length * 2, start + length));
+        }
+        System.arraycopy(scratch, 0, keys, start, length);
+        keyStarts[group + 1] = start + length;
+        hashes[group] = hash;
+        slots[slot] = group + 1;
+        if (groups * 2 > slots.length) {
+            rehash();
+        }
+        return group;
+    }
+
+    private void grow() {
+        final int capacity = counts.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        keyStarts = Arrays.copyOf(keyStarts, capacity + 1);
+        counts = Arrays.copyOf(counts, capacity);
+        values = initialValues(Arrays.copyOf(values, capacity * aggregates.length), capacity / 2, capacity);
+        wholes = Arrays.copyOf(wholes, capacity * aggregates.length);
+        seen = Arrays.copyOf(seen, capacity * aggregates.length);
+        rejected = Arrays.copyOf(rejected, capacity * aggregates.length);
+        distinct = Arrays.copyOf(distinct, capacity * aggregates.length);
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        for (int group = 0; group < groups; group++) {
+            int slot = hashes[group] & (slots.length - 1);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            slots[slot] = group + 1;
+        }
+    }
+
+    /**
+     * @return values with NaN as start value of MIN and MAX of the groups {@code [from, to)}
+     */
+    private double[] initialValues(final double[] result, final int from, final int to) {
+        for (int group = from; group < to; group++) {
+            for (int i = 0; i < aggregates.length; i++) {
+                final CsvAggregate.Type type = aggregates[i].type();
+                result[group * aggregates.length + i] = type == CsvAggregate.Type.MIN || type == CsvAggregate.Type.MAX ? Double.NaN : 0;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return length of the scratch - grown for the given additional bytes
+     */
+    private int ensureScratch(final int length, final int additional) {
+        if (length + additional > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, length + additional));
+        }
+        return length;
+    }
+
+    private int writeLength(final int offset, final int length) {
+        scratch[offset] = (byte) (length >>> 24);
+        scratch[offset + 1] = (byte) (length >>> 16);
+        scratch[offset + 2] = (byte) (length >>> 8);
+        scratch[offset + 3] = (byte) length;
+        return offset + 4;
+    }
+
+    private static int utf8(final CharSequence value, final byte[] target, final int offset) {
+        final byte[] bytes = value.toString().getBytes(UTF_8);
+        System.arraycopy(bytes, 0, target, offset, bytes.length);
+        return offset + bytes.length;
+    }
+
+    private static int hash(final byte[] bytes, final int from, final int to) {
+        final long hash = hash64(bytes, from, to);
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @return 64 bit FNV-1a hash of the bytes
+     */
+    static long hash64(final byte[] bytes, final int from, final int to) {
+        long hash = FNV_OFFSET;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ bytes[i]) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Open addressing set of column values - the value bytes are stored once in a byte arena and compared on equal hashes
+     */
+    private static final class ValueSet {
+
+        private int[] slots = new int[8];
+        private int[] hashes = new int[4];
+        private int[] starts = new int[5];
+        private byte[] values = new byte[64];
+        private int size;
+
+        private void add(final byte[] bytes, final int from, final int to, final int hash) {
+            int slot = hash & (slots.length - 1);
+            while (slots[slot] != 0) {
+                final int value = slots[slot] - 1;
+                if (hashes[value] == hash && Arrays.equals(values, starts[value], starts[value + 1], bytes, from, to)) {
+                    return;
+                }
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                starts = Arrays.copyOf(starts, size * 2 + 1);
+            }
+            final int start = starts[size];
+            if (start + to - from > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, start + to - from));
+            }
+            System.arraycopy(bytes, from, values, start, to - from);
+            starts[size + 1] = start + to - from;
+            hashes[size] = hash;
+            slots[slot] = ++size;
+            if (size * 2 > slots.length) {
+                slots = new int[slots.length * 2];
+                for (int value = 0; value < size; value++) {
+                    int next = hashes[value] & (slots.length - 1);
+                    while (slots[next] != 0) {
+                        next = (next + 1) & (slots.length - 1);
+                    }
+                    slots[next] = value + 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,621 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvHeader;
+import berlin.yuna.model.CsvJoinType;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.CsvRowView;
+import berlin.yuna.model.IoCsvException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static berlin.yuna.logic.FileExtraction.BUFFER_SIZE;
+import static berlin.yuna.model.CsvHeader.csvHeaderOf;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Hash join - the build rows are stored as UTF-8 column bytes in one byte arena with an open addressing table on the key bytes,
+ * the probe rows are streamed and looked up in the table. Rows with a missing key column never match.
+ * <p>If the table exceeds the memory budget, the build rows are spilled into {@link #FANOUT} partitions by the high bits of the key hash (grace hash join).
+ * The probe rows are partitioned the same way and every partition is joined on its own, partitions which are still too large are split again
+ * up to {@link #MAX_LEVEL} times. Spilled joins emit the rows partition by partition instead of in probe order.</p>
+ */
+final class HashJoin implements Closeable {
+
+    public static final int FANOUT = 16;
+    public static final int MAX_LEVEL = 4;
+
+    private static final int END = -1;
+    private static final int NULL = -1;
+    //file size of a partition with the end marker only
+    private static final int EMPTY_PARTITION = 4;
+    //estimated heap bytes of the index arrays per build row
+    private static final int ROW_BYTES = 24;
+    private static final long MAX_TABLE_BYTES = 1L << 30;
+
+    private final CsvJoinType type;
+    private final int probeKey;
+    private final int buildKey;
+    private final long budget;
+    private final List<Closeable> open = new ArrayList<>();
+    private Table table = new Table();
+    private DataOutputStream[] writers;
+    private Path[] partitions;
+    private CsvHeader buildHeader;
+    private CsvHeader probeHeader;
+    private CsvHeader header;
+    private int buildWidth;
+    private Path dir;
+    private int created;
+
+    /**
+     * @param type     inner or left join
+     * @param probeKey index of the key column of the probe rows
+     * @param buildKey index of the key column of the build rows
+     * @param memory   max estimated heap bytes of the build table before it is partitioned
+     */
+    HashJoin(final CsvJoinType type, final int probeKey, final int buildKey, final long memory) {
+        this.type = type == null ? CsvJoinType.INNER : type;
+        this.probeKey = probeKey;
+        this.buildKey = buildKey;
+        this.budget = Math.max(Math.min(memory, MAX_TABLE_BYTES), 1);
+    }
+
+    /**
+     * @param header header of the build rows - null without header
+     */
+    void header(final CsvHeader header) {
+        buildHeader = header;
+        buildWidth = header == null ? buildWidth : Math.max(buildWidth, header.size());
+    }
+
+    /**
+     * Adds the current record - the column bytes are copied from the read buffer, requires an UTF-8 tokenizer
+     *
+     * @param row current build record of the BYTES engine
+     */
+    void add(final CsvTokenizer row) {
+        table.encode(row);
+        commit();
+    }
+
+    /**
+     * Adds the current row - the columns are encoded as UTF-8
+     *
+     * @param row current build row
+     */
+    void add(final CsvRowView row) {
+        table.encode(row);
+        commit();
+    }
+
+    /**
+     * Streams the probe rows against the build rows - the build side must be complete
+     *
+     * @param rows probe rows - closed with the returned stream
+     * @return joined rows: the probe columns followed by the build columns - closing the stream deletes the partitions
+     */
+    Stream<CsvRow> probe(final Stream<CsvRow> rows) {
+        try {
+            if (writers == null) {
+                final Table build = table;
+                return rows.<CsvRow>mapMulti((row, result) -> join(build, row, result)).onClose(this::close);
+            }
+            closeWriters();
+            final Path[] builds = partitions;
+            final Path[] probes = partitionProbe(rows);
+            table = null;
+            return partitions(builds, probes, 0).onClose(this::close);
+        } catch (RuntimeException e) {
+            rows.close();
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        open.forEach(HashJoin::closeQuietly);
+        open.clear();
+        if (dir != null) {
+            FileExtraction.deleteTmpDir(dir);
+            dir = null;
+        }
+    }
+
+    private void commit() {
+        buildWidth = Math.max(buildWidth, table.fields());
+        final int key = table.key(buildKey);
+        if (key < 0) {
+            table.discard();
+        } else if (writers != null) {
+            table.write(writers[partitionOf(table.hash(key), 0)]);
+            table.discard();
+        } else {
+            table.insert(key);
+            if (table.memory() > budget) {
+                spill();
+            }
+        }
+    }
+
+    /**
+     * Moves the build table into partitions - all further build rows are written to the partitions
+     */
+    private void spill() {
+        partitions = nextPartitions();
+        writers = writers(partitions);
+        for (int row = 0; row < table.rows; row++) {
+            table.write(writers[partitionOf(table.hashes[row], 0)], row);
+        }
+        table = new Table();
+    }
+
+    /**
+     * Writes the probe rows into partitions - rows with a missing key are only kept by left joins
+     */
+    private Path[] partitionProbe(final Stream<CsvRow> rows) {
+        final Path[] result = nextPartitions();
+        final DataOutputStream[] probes = writers(result);
+        final Table buffer = new Table();
+        try (rows) {
+            rows.forEachOrdered(row -> {
+                probeHeader = probeHeader == null ? row.header() : probeHeader;
+                buffer.encode(row);
+                final int key = buffer.key(probeKey);
+                if (key >= 0 || type == CsvJoinType.LEFT) {
+                    buffer.write(probes[key < 0 ? 0 : partitionOf(buffer.hash(key), 0)]);
+                }
+                buffer.discard();
+            });
+        }
+        close(probes);
+        return result;
+    }
+
+    /**
+     * @return joined rows of the partitions in partition order
+     */
+    private Stream<CsvRow> partitions(final Path[] builds, final Path[] probes, final int level) {
+        return IntStream.range(0, builds.length).boxed().flatMap(i -> joinPartition(builds[i], probes[i], level));
+    }
+
+    /**
+     * Loads the build partition into a table and streams the probe partition - splits both partitions again if the build partition exceeds the budget.
+     * Partitions without probe rows are skipped.
+     */
+    private Stream<CsvRow> joinPartition(final Path build, final Path probe, final int level) {
+        if (size(probe) == EMPTY_PARTITION || (size(build) == EMPTY_PARTITION && type == CsvJoinType.INNER)) {
+            FileUtils.deleteTmpFile(build);
+            FileUtils.deleteTmpFile(probe);
+            return Stream.empty();
+        } else if (level + 1 < MAX_LEVEL && size(build) > budget) {
+            return partitions(split(build, buildKey, level + 1), split(probe, probeKey, level + 1), level + 1);
+        }
+        final Table partition = new Table();
+        try (final DataInputStream in = input(build)) {
+            while (partition.read(in)) {
+                partition.insert(partition.key(buildKey));
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("Join error [" + build + "]", e);
+        }
+        FileUtils.deleteTmpFile(build);
+        return rows(probe).mapMulti((row, result) -> join(partition, row, result));
+    }
+
+    /**
+     * @return partitions of the records by the key hash of the next level - the given file is deleted
+     */
+    private Path[] split(final Path file, final int keyColumn, final int level) {
+        final Path[] result = nextPartitions();
+        final DataOutputStream[] outputs = writers(result);
+        final Table buffer = new Table();
+        try (final DataInputStream in = input(file)) {
+            while (buffer.read(in)) {
+                final int key = buffer.key(keyColumn);
+                buffer.write(outputs[key < 0 ? 0 : partitionOf(buffer.hash(key), level)]);
+                buffer.discard();
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("Join error [" + file + "]", e);
+        }
+        close(outputs);
+        FileUtils.deleteTmpFile(file);
+        return result;
+    }
+
+    /**
+     * @return probe rows of a partition - the file is deleted when the stream is closed
+     */
+    private Stream<CsvRow> rows(final Path file) {
+        final DataInputStream in = input(file);
+        final Table buffer = new Table();
+        return StreamSupport.stream(new Spliterators.AbstractSpliterator<CsvRow>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(final Consumer<? super CsvRow> action) {
+                try {
+                    if (!buffer.read(in)) {
+                        return false;
+                    }
+                } catch (IOException e) {
+                    throw new IoCsvException("Join error [" + file + "]", e);
+                }
+                final List<String> values = new ArrayList<>();
+                buffer.decode(buffer.used, values);
+                buffer.discard();
+                action.accept(csvRowOf(probeHeader, values));
+                return true;
+            }
+        }, false).onClose(() -> {
+            closeQuietly(in);
+            open.remove(in);
+            FileUtils.deleteTmpFile(file);
+        });
+    }
+
+    private void join(final Table build, final CsvRow row, final Consumer<CsvRow> result) {
+        final String key = probeKey >= 0 && probeKey < row.size() ? row.get(probeKey) : null;
+        int match = key == null ? -1 : build.find(key.getBytes(UTF_8));
+        if (match < 0 && type == CsvJoinType.LEFT) {
+            result.accept(joined(build, row, -1));
+        }
+        for (; match >= 0; match = build.next[match]) {
+            result.accept(joined(build, row, match));
+        }
+    }
+
+    /**
+     * @return probe columns followed by the build columns of the match - null columns up to the build width
+     */
+    private CsvRow joined(final Table build, final CsvRow row, final int match) {
+        final List<String> values = new ArrayList<>(row.size() + buildWidth);
+        values.addAll(row);
+        if (match >= 0) {
+            build.decode(build.starts[match], values);
+        }
+        while (values.size() < row.size() + buildWidth) {
+            values.add(null);
+        }
+        return csvRowOf(joinedHeader(row.header()), values);
+    }
+
+    /**
+     * @return probe header followed by the build header - null if one side has no header
+     */
+    private CsvHeader joinedHeader(final CsvHeader probe) {
+        CsvHeader result = header;
+        if (result == null && probe != null && buildHeader != null) {
+            final List<String> names = new ArrayList<>(probe.names());
+            names.addAll(buildHeader.names());
+            result = csvHeaderOf(names);
+            header = result;
+        }
+        return result;
+    }
+
+    private static int partitionOf(final long hash, final int level) {
+        return (int) (hash >>> (Long.SIZE - 4 * (level + 1))) & (FANOUT - 1);
+    }
+
+    private Path[] nextPartitions() {
+        if (dir == null) {
+            dir = FileExtraction.createTmpDir("join");
+        }
+        final Path[] result = new Path[FANOUT];
+        for (int i = 0; i < FANOUT; i++) {
+            result[i] = dir.resolve("partition-" + created++ + ".bin");
+        }
+        return result;
+    }
+
+    private DataOutputStream[] writers(final Path[] files) {
+        final DataOutputStream[] result = new DataOutputStream[files.length];
+        try {
+            for (int i = 0; i < files.length; i++) {
+                result[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(files[i]), BUFFER_SIZE));
+                open.add(result[i]);
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("Join error [" + dir + "]", e);
+        }
+        return result;
+    }
+
+    private void closeWriters() {
+        close(writers);
+        writers = new DataOutputStream[0];
+    }
+
+    private void close(final DataOutputStream[] outputs) {
+        try {
+            for (DataOutputStream out : outputs) {
+                out.writeInt(END);
+                out.close();
+                open.remove(out);
+            }
+        } catch (IOException e) {
+            throw new IoCsvException("Join error [" + dir + "]", e);
+        }
+    }
+
+    private DataInputStream input(final Path file) {
+        try {
+            final DataInputStream result = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+            open.add(result);
+            return result;
+        } catch (IOException e) {
+            throw new IoCsvException("Join error [" + file + "]", e);
+        }
+    }
+
+    private static long size(final Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new IoCsvException("Join error [" + file + "]", e);
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+            // temp files are deleted anyway
+        }
+    }
+
+    /**
+     * Build rows as records in one byte arena: the column count followed by the length (-1 for null) and the UTF-8 bytes of every column.
+     * The record after {@link #used} is pending until it is inserted or discarded. Rows with equal keys are chained in insertion order.
+     */
+    private static final class Table {
+
+        private byte[] data = new byte[8192];
+        private int used;
+        private int end;
+        private int rows;
+        private int[] starts = new int[256];
+        private int[] keys = new int[256];
+        private long[] hashes = new long[256];
+        private int[] next = new int[256];
+        private int[] tails = new int[256];
+        private int[] slots = new int[512];
+        private int heads;
+
+        private void encode(final CsvTokenizer row) {
+            int length = 4;
+            for (int i = 0; i < row.size(); i++) {
+                length += row.rawLength(i) + 4;
+            }
+            ensure(used + length);
+            int p = writeInt(used, row.size());
+            for (int i = 0; i < row.size(); i++) {
+                final int fieldEnd = row.copyColumn(i, data, p + 4);
+                writeInt(p, fieldEnd < 0 ? NULL : fieldEnd - p - 4);
+                p = Math.max(fieldEnd, p + 4);
+            }
+            end = p;
+        }
+
+        private void encode(final CsvRowView row) {
+            ensure(used + 4);
+            end = writeInt(used, row.size());
+            for (int i = 0; i < row.size(); i++) {
+                append(row.getChars(i));
+            }
+        }
+
+        private void encode(final CsvRow row) {
+            ensure(used + 4);
+            end = writeInt(used, row.size());
+            for (String value : row) {
+                append(value);
+            }
+        }
+
+        private void append(final CharSequence value) {
+            if (value == null) {
+                ensure(end + 4);
+                end = writeInt(end, NULL);
+            } else {
+                final byte[] bytes = value.toString().getBytes(UTF_8);
+                ensure(end + 4 + bytes.length);
+                end = writeInt(end, bytes.length);
+                System.arraycopy(bytes, 0, data, end, bytes.length);
+                end += bytes.length;
+            }
+        }
+
+        /**
+         * @return true if the next record of the input is pending
+         */
+        private boolean read(final DataInputStream in) throws IOException {
+            final int length = in.readInt();
+            if (length == END) {
+                return false;
+            }
+            ensure(used + length);
+            in.readFully(data, used, length);
+            end = used + length;
+            return true;
+        }
+
+        private void write(final DataOutputStream out) {
+            write(out, used, end);
+        }
+
+        private void write(final DataOutputStream out, final int row) {
+            write(out, starts[row], row + 1 < rows ? starts[row + 1] : used);
+        }
+
+        private void write(final DataOutputStream out, final int from, final int to) {
+            try {
+                out.writeInt(to - from);
+                out.write(data, from, to - from);
+            } catch (IOException e) {
+                throw new IoCsvException("Join error", e);
+            }
+        }
+
+        private void discard() {
+            end = used;
+        }
+
+        /**
+         * @return number of columns of the pending record
+         */
+        private int fields() {
+            return readInt(used);
+        }
+
+        /**
+         * @return offset of the length of the column in the pending record - -1 if the column is missing
+         */
+        private int key(final int index) {
+            if (index < 0 || index >= readInt(used)) {
+                return -1;
+            }
+            int p = used + 4;
+            for (int i = 0; i < index; i++) {
+                p += 4 + Math.max(readInt(p), 0);
+            }
+            return readInt(p) == NULL ? -1 : p;
+        }
+
+        private long hash(final int key) {
+            return GroupBy.hash64(data, key + 4, key + 4 + readInt(key));
+        }
+
+        /**
+         * Keeps the pending record - appended to the chain of an equal key
+         */
+        private void insert(final int key) {
+            if (rows == starts.length) {
+                grow();
+            }
+            final long hash = hash(key);
+            starts[rows] = used;
+            keys[rows] = key;
+            hashes[rows] = hash;
+            next[rows] = -1;
+            final int head = find(hash, data, key + 4, key + 4 + readInt(key));
+            if (head >= 0) {
+                next[tails[head]] = rows;
+                tails[head] = rows;
+            } else {
+                int slot = slot(hash);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                slots[slot] = rows + 1;
+                tails[rows] = rows;
+                if (++heads * 2 > slots.length) {
+                    rehash();
+                }
+            }
+            rows++;
+            used = end;
+        }
+
+        /**
+         * @return first row with the key - -1 if the key is unknown
+         */
+        private int find(final byte[] key) {
+            return find(GroupBy.hash64(key, 0, key.length), key, 0, key.length);
+        }
+
+        private int find(final long hash, final byte[] key, final int from, final int to) {
+            for (int slot = slot(hash); slots[slot] != 0; slot = (slot + 1) & (slots.length - 1)) {
+                final int row = slots[slot] - 1;
+                final int start = keys[row] + 4;
+                if (hashes[row] == hash && Arrays.equals(data, start, start + readInt(keys[row]), key, from, to)) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Decodes the columns of the record
+         */
+        private void decode(final int start, final List<String> target) {
+            final int size = readInt(start);
+            int p = start + 4;
+            for (int i = 0; i < size; i++) {
+                final int length = readInt(p);
+                p += 4;
+                target.add(length == NULL ? null : new String(data, p, length, UTF_8));
+                p += Math.max(length, 0);
+            }
+        }
+
+        /**
+         * @return estimated heap bytes of the records and the index
+         */
+        private long memory() {
+            return used + (long) rows * ROW_BYTES + slots.length * 4L;
+        }
+
+        private int slot(final long hash) {
+            return (int) (hash ^ (hash >>> 32)) & (slots.length - 1);
+        }
+
+        private void grow() {
+            final int capacity = starts.length * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            next = Arrays.copyOf(next, capacity);
+            tails = Arrays.copyOf(tails, capacity);
+        }
+
+        private void rehash() {
+            final int[] old = slots;
+            slots = new int[old.length * 2];
+            for (int head : old) {
+                if (head != 0) {
+                    int slot = slot(hashes[head - 1]);
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & (slots.length - 1);
+                    }
+                    slots[slot] = head;
+                }
+            }
+        }
+
+        private void ensure(final int length) {
+            if (length > data.length) {
+                data = Arrays.copyOf(data, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(data.length * 2L, length)));
+            }
+        }
+
+        private int writeInt(final int offset, final int value) {
+            data[offset] = (byte) (value >>> 24);
+            data[offset + 1] = (byte) (value >>> 16);
+            data[offset + 2] = (byte) (value >>> 8);
+            data[offset + 3] = (byte) value;
+            return offset + 4;
+        }
+
+        private int readInt(final int offset) {
+            return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16 | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package berlin.yuna.logic;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Explicit release of memory mappings for {@link CsvReader#unmap(boolean)} - without it the garbage collector releases the mappings.
+ * <p>Memory which is still read after the release crashes the JVM: the owner releases a mapping only after its readers stopped
+ * and drops every reference to it. Requires {@code sun.misc.Unsafe#invokeCleaner} of the {@code jdk.unsupported} module,
+ * the garbage collector releases the mappings if it is not available.</p>
+ */
+final class MappedBuffers {
+
+    private static final MethodHandle CLEANER = cleaner();
+
+    private MappedBuffers() {
+    }
+
+    /**
+     * @return true if mappings can be released explicitly
+     */
+    static boolean isSupported() {
+        return CLEANER != null;
+    }
+
+    /**
+     * @param mapping mapping to release - not a slice or duplicate of it
+     * @return true if the mapping was released - false if it is left to the garbage collector
+     */
+    static boolean unmap(final MappedByteBuffer mapping) {
+        if (mapping == null || CLEANER == null) {
+            return false;
+        }
+        try {
+            CLEANER.invokeExact((ByteBuffer) mapping);
+            return true;
+        } catch (Throwable ignored) {
+            //the garbage collector releases the mapping
+            return false;
+        }
+    }
+
+    private static MethodHandle cleaner() {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package berlin.yuna.logic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a file through {@link FileChannel#map(FileChannel.MapMode, long, long)} - the OS page cache backs the buffer without heap copies.
+ * Files bigger than the segment size are mapped window by window, a window always starts at the current record.
+ * <p>Mappings are released by the garbage collector by default: column views which outlive the record or the source
+ * (e.g. a kept {@link berlin.yuna.model.CsvRowView#getChars(int)}) would otherwise read unmapped memory and crash the JVM.
+ * With {@code unmap} the previous window is released when the next one is mapped and the last one on {@link #close()}, see {@link MappedBuffers}.</p>
+ */
+class MappedSource extends ByteSource {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    private static final int MAX_SEGMENT_SIZE = Integer.MAX_VALUE - 8;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int segmentSize;
+    private final boolean unmap;
+    private MappedByteBuffer mapping;
+
+    /**
+     * @param channel     file to map - will be closed with {@link #close()}
+     * @param offset      absolute position of the first byte to read
+     * @param segmentSize max bytes of one mapped window - grows only for records bigger than the window
+     * @param unmap       true to release the mappings explicitly - views of released windows must not be read anymore
+     */
+    MappedSource(final FileChannel channel, final long offset, final int segmentSize, final boolean unmap) {
+        try {
+            this.channel = channel;
+            this.size = channel.size();
+            this.segmentSize = Math.max(16, segmentSize);
+            this.unmap = unmap;
+            this.offset = offset;
+            this.buffer = ByteBuffer.allocate(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    boolean fill(final int keep) {
+        final long start = offset + keep;
+        final long end = offset + buffer.limit();
+        if (end >= size) {
+            buffer = buffer.slice(keep, buffer.limit() - keep);
+            offset = start;
+            return false;
+        }
+        final long window = Math.min(MAX_SEGMENT_SIZE, Math.max(segmentSize, keep == 0 ? 2L * buffer.limit() : buffer.limit() - keep));
+        try {
+            final MappedByteBuffer previous = mapping;
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(window, size - start));
+            buffer = mapping;
+            offset = start;
+            release(previous);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        buffer = ByteBuffer.allocate(0);
+        release(mapping);
+        mapping = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(final MappedByteBuffer previous) {
+        if (unmap) {
+            MappedBuffers.unmap(previous);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package berlin.yuna.logic;
+
+/**
+ * Reads ahead in another {@link ByteSource} without consuming it e.g. to read the header row from the input which the {@link CsvTokenizer} reads afterwards.
+ * The peeked bytes stay in the window of the other source, closing this view keeps the other source open.
+ */
+class PeekSource extends ByteSource {
+
+    private final ByteSource source;
+
+    /**
+     * @param source source to read ahead - its window starts at the first byte to peek
+     */
+    PeekSource(final ByteSource source) {
+        this.source = source;
+        this.offset = source.offset();
+        this.buffer = source.buffer().slice(0, source.buffer().limit());
+    }
+
+    @Override
+    boolean fill(final int keep) {
+        final long start = offset + keep;
+        final boolean more = source.fill(0);
+        final int from = (int) (start - source.offset());
+        buffer = source.buffer().slice(from, source.buffer().limit() - from);
+        offset = start;
+        return more;
+    }
+
+    @Override
+    public void close() {
+        //the peeked source stays open for the next reader
+    }
+}
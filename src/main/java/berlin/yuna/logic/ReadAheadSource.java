@@ -0,0 +1,132 @@
+package berlin.yuna.logic;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads a {@link ReadableByteChannel} ahead on a dedicated I/O thread - the parser consumes filled chunks while the next chunks are read.
+ * <p>The I/O thread fills a ring of direct buffers. A chunk returns to the ring after the parser copied it into the window,
+ * so the I/O thread blocks when the parser is {@code depth} chunks behind (backpressure).</p>
+ */
+class ReadAheadSource extends ByteSource {
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final ReadableByteChannel channel;
+    private final BlockingQueue<ByteBuffer> free;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final Thread reader;
+    private volatile IOException error;
+    private ByteBuffer chunk;
+
+    /**
+     * @param channel   channel to read from - will be closed with {@link #close()}
+     * @param chunkSize size of one read ahead chunk
+     * @param depth     number of chunks which are read ahead
+     */
+    ReadAheadSource(final ReadableByteChannel channel, final int chunkSize, final int depth) {
+        this.channel = channel;
+        this.free = new ArrayBlockingQueue<>(Math.max(depth, 1));
+        this.filled = new ArrayBlockingQueue<>(Math.max(depth, 1) + 1);
+        for (int i = 0; i < Math.max(depth, 1); i++) {
+            free.add(ByteBuffer.allocateDirect(Math.max(chunkSize, 16)));
+        }
+        this.buffer = ByteBuffer.allocate(Math.max(chunkSize, 16));
+        this.buffer.limit(0);
+        this.reader = new Thread(this::readAhead, "csv-read-ahead");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    @Override
+    boolean fill(final int keep) {
+        buffer.position(keep);
+        buffer.compact();
+        offset += keep;
+        if (!buffer.hasRemaining()) {
+            buffer.flip();
+            buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer);
+        }
+        try {
+            final ByteBuffer next = nextChunk();
+            if (next == END) {
+                return false;
+            }
+            final int length = Math.min(buffer.remaining(), next.remaining());
+            buffer.put(buffer.position(), next, next.position(), length);
+            buffer.position(buffer.position() + length);
+            next.position(next.position() + length);
+            return true;
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    @Override
+    public void close() {
+        reader.interrupt();
+        try {
+            channel.close();
+            reader.join();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return current chunk with remaining bytes - {@link #END} at the end of the input
+     */
+    private ByteBuffer nextChunk() {
+        if (chunk != null && chunk != END && !chunk.hasRemaining()) {
+            free.add(chunk);
+            chunk = null;
+        }
+        if (chunk == null) {
+            try {
+                chunk = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for the read ahead"));
+            }
+        }
+        if (chunk == END && error != null) {
+            throw new UncheckedIOException(error);
+        }
+        return chunk;
+    }
+
+    /**
+     * I/O stage - fills free chunks until the end of the input, an error or {@link #close()}
+     */
+    private void readAhead() {
+        try {
+            boolean eof = false;
+            while (!eof) {
+                final ByteBuffer next = free.take();
+                next.clear();
+                int read = 0;
+                while (next.hasRemaining() && read >= 0) {
+                    read = channel.read(next);
+                }
+                eof = read < 0;
+                next.flip();
+                if (next.hasRemaining()) {
+                    filled.put(next);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (IOException e) {
+            error = e;
+        }
+        filled.add(END);
+    }
+}
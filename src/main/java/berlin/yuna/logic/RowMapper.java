@@ -0,0 +1,225 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvColumn;
+import berlin.yuna.model.CsvHeader;
+import berlin.yuna.model.CsvRowView;
+import berlin.yuna.model.IoCsvException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps rows to records or to classes with {@link CsvColumn} fields.
+ * The binding of columns to components is resolved once into one typed {@link MethodHandle} per row type, rows are mapped without reflection.
+ * Primitive columns are parsed straight from the column slice of the {@link CsvRowView}, e.g. {@link CsvRowView#getLong(int)}, and passed unboxed to the constructor or setter.
+ *
+ * @param <R> type of the mapped rows
+ */
+final class RowMapper<R> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType MAPPER = MethodType.methodType(Object.class, CsvRowView.class);
+    private static final MethodHandle IS_EMPTY;
+    private static final MethodHandle ENUM;
+    private static final MethodHandle FAIL;
+
+    static {
+        try {
+            IS_EMPTY = LOOKUP.findVirtual(CsvRowView.class, "isEmpty", MethodType.methodType(boolean.class, int.class));
+            ENUM = LOOKUP.findStatic(RowMapper.class, "enumOf", MethodType.methodType(Object.class, Map.class, String.class, String.class));
+            FAIL = LOOKUP.findStatic(RowMapper.class, "fail", MethodType.methodType(Object.class, String.class, String.class, RuntimeException.class, CsvRowView.class));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<R> type;
+    private final MethodHandle mapper;
+
+    /**
+     * @param type   record or class with {@link CsvColumn} fields and a no-args constructor
+     * @param header column names of the rows - null to bind by position
+     * @param <R>    type of the mapped rows
+     * @return {@link RowMapper} for the given type
+     * @throws IoCsvException if the type is not mappable or a column is not in the header
+     */
+    static <R> RowMapper<R> rowMapperOf(final Class<R> type, final CsvHeader header) {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            return new RowMapper<>(type, (type.isRecord() ? ofRecord(type, header, lookup) : ofClass(type, header, lookup)).asType(MAPPER));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IoCsvException("Type is not mappable [" + type.getName() + "]", e);
+        }
+    }
+
+    /**
+     * @param view current row
+     * @return mapped row
+     * @throws IoCsvException if a column can not be parsed to the type of its component
+     */
+    R map(final CsvRowView view) {
+        try {
+            return type.cast((Object) mapper.invokeExact(view));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IoCsvException("Cannot create [" + type.getName() + "] of row [" + view.index() + "]", e);
+        }
+    }
+
+    /**
+     * @return (CsvRowView) record - the canonical constructor with one column handle per component
+     */
+    private static MethodHandle ofRecord(final Class<?> type, final CsvHeader header, final MethodHandles.Lookup lookup) throws IllegalAccessException, NoSuchMethodException {
+        final RecordComponent[] components = type.getRecordComponents();
+        final Class<?>[] types = new Class<?>[components.length];
+        final MethodHandle[] columns = new MethodHandle[components.length];
+        for (int i = 0; i < components.length; i++) {
+            types[i] = components[i].getType();
+            columns[i] = column(type, types[i], components[i].getName(), components[i].getAnnotation(CsvColumn.class), header, i);
+        }
+        final MethodHandle constructor = MethodHandles.filterArguments(lookup.findConstructor(type, MethodType.methodType(void.class, types)), 0, columns);
+        return MethodHandles.permuteArguments(constructor, MethodType.methodType(type, CsvRowView.class), new int[types.length]);
+    }
+
+    /**
+     * @return (CsvRowView) instance - the no-args constructor folded into one setter per field
+     */
+    private static MethodHandle ofClass(final Class<?> type, final CsvHeader header, final MethodHandles.Lookup lookup) throws IllegalAccessException, NoSuchMethodException {
+        final List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(CsvColumn.class) && !Modifier.isStatic(field.getModifiers())) {
+                fields.add(field);
+            }
+        }
+        if (fields.isEmpty()) {
+            final String message = "No fields annotated with [@" + CsvColumn.class.getSimpleName() + "] in [" + type.getName() + "]";
+            throw new IoCsvException(message, new IllegalArgumentException(message));
+        }
+        //(instance, view) instance - setters are folded in reverse as the last folded setter runs first
+        MethodHandle result = MethodHandles.dropArguments(MethodHandles.identity(type), 1, CsvRowView.class);
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            final Field field = fields.get(i);
+            final MethodHandle column = column(type, field.getType(), field.getName(), field.getAnnotation(CsvColumn.class), header, i);
+            result = MethodHandles.foldArguments(result, MethodHandles.filterArguments(lookup.unreflectSetter(field), 1, column));
+        }
+        return MethodHandles.foldArguments(result, lookup.findConstructor(type, MethodType.methodType(void.class)));
+    }
+
+    /**
+     * @return (CsvRowView) value - parses the bound column, empty and missing columns are the default value of the type
+     */
+    private static MethodHandle column(final Class<?> owner, final Class<?> type, final String name, final CsvColumn column, final CsvHeader header, final int position) {
+        final String columnName = column == null || column.value().isEmpty() ? name : column.value();
+        final int index = column != null && column.index() >= 0 ? column.index() : indexOf(header, columnName, position);
+        try {
+            final MethodHandle parser = MethodHandles.explicitCastArguments(MethodHandles.insertArguments(parser(type, columnName), 1, index), MethodType.methodType(type, CsvRowView.class));
+            final MethodHandle error = MethodHandles.insertArguments(FAIL, 0, columnName, owner.getSimpleName()).asType(MethodType.methodType(type, RuntimeException.class, CsvRowView.class));
+            return MethodHandles.guardWithTest(
+                    MethodHandles.insertArguments(IS_EMPTY, 1, index),
+                    MethodHandles.empty(MethodType.methodType(type, CsvRowView.class)),
+                    MethodHandles.catchException(parser, RuntimeException.class, error)
+            );
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new IoCsvException("Unsupported type [" + type.getName() + "] of [" + columnName + "]", e);
+        }
+    }
+
+    private static int indexOf(final CsvHeader header, final String name, final int position) {
+        if (header == null) {
+            return position;
+        }
+        final int result = header.indexOf(name);
+        if (result < 0) {
+            final String message = "Column not found [" + name + "] in header " + header.names();
+            throw new IoCsvException(message, new IllegalArgumentException(message));
+        }
+        return result;
+    }
+
+    /**
+     * @return (CsvRowView, int) value - parses a not empty column of the current row
+     */
+    private static MethodHandle parser(final Class<?> type, final String name) throws IllegalAccessException, NoSuchMethodException {
+        if (type == String.class || type == CharSequence.class || type == Object.class) {
+            return view("get", String.class);
+        } else if (type == int.class || type == Integer.class) {
+            return view("getInt", int.class);
+        } else if (type == long.class || type == Long.class) {
+            return view("getLong", long.class);
+        } else if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+            return view("getDouble", double.class);
+        } else if (type == short.class || type == Short.class) {
+            return parse(view("get", String.class), Short.class, "parseShort", short.class, String.class);
+        } else if (type == byte.class || type == Byte.class) {
+            return parse(view("get", String.class), Byte.class, "parseByte", byte.class, String.class);
+        } else if (type == boolean.class || type == Boolean.class) {
+            return view("getBoolean", boolean.class);
+        } else if (type == char.class || type == Character.class) {
+            return MethodHandles.filterReturnValue(view("getChars", CharSequence.class),
+                    MethodHandles.insertArguments(LOOKUP.findVirtual(CharSequence.class, "charAt", MethodType.methodType(char.class, int.class)), 1, 0));
+        } else if (type == BigDecimal.class) {
+            return view("getBigDecimal", BigDecimal.class);
+        } else if (type == BigInteger.class) {
+            return MethodHandles.filterReturnValue(view("get", String.class), LOOKUP.findConstructor(BigInteger.class, MethodType.methodType(void.class, String.class)));
+        } else if (type == LocalDate.class) {
+            return view("getDate", LocalDate.class);
+        } else if (type == LocalTime.class || type == LocalDateTime.class || type == OffsetDateTime.class || type == Instant.class) {
+            return parse(view("getChars", CharSequence.class), type, "parse", type, CharSequence.class);
+        } else if (type.isEnum()) {
+            final Map<String, Object> constants = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+            return MethodHandles.filterReturnValue(view("get", String.class), MethodHandles.insertArguments(ENUM, 0, constants, type.getSimpleName()));
+        }
+        final String message = "Unsupported type [" + type.getName() + "] of [" + name + "]";
+        throw new IoCsvException(message, new IllegalArgumentException(message));
+    }
+
+    /**
+     * @return (CsvRowView, int) value - getter of the {@link CsvRowView}
+     */
+    private static MethodHandle view(final String getter, final Class<?> result) throws IllegalAccessException, NoSuchMethodException {
+        return LOOKUP.findVirtual(CsvRowView.class, getter, MethodType.methodType(result, int.class));
+    }
+
+    /**
+     * @return (CsvRowView, int) value - the getter result passed to a static parse method
+     */
+    private static MethodHandle parse(final MethodHandle getter, final Class<?> owner, final String method, final Class<?> result, final Class<?> input) throws IllegalAccessException, NoSuchMethodException {
+        return MethodHandles.filterReturnValue(getter, LOOKUP.findStatic(owner, method, MethodType.methodType(result, input)));
+    }
+
+    private static Object enumOf(final Map<String, Object> constants, final String type, final String value) {
+        final Object result = constants.get(value);
+        if (result == null) {
+            throw new IllegalArgumentException("No enum constant [" + value + "] in [" + type + "]");
+        }
+        return result;
+    }
+
+    private static Object fail(final String name, final String type, final RuntimeException cause, final CsvRowView view) {
+        throw new IoCsvException("Cannot map column [" + name + "] of row [" + view.index() + "] to [" + type + "]", cause);
+    }
+
+    private RowMapper(final Class<R> type, final MethodHandle mapper) {
+        this.type = type;
+        this.mapper = mapper;
+    }
+}
@@ -0,0 +1,102 @@
+package berlin.yuna.model;
+
+import java.util.Objects;
+
+/**
+ * Aggregate function of {@link berlin.yuna.logic.CsvReader#groupBy(java.nio.file.Path, int[], CsvAggregate...)} - computed per group of rows.
+ * <p>{@link Type#SUM}, {@link Type#MIN} and {@link Type#MAX} parse the column as decimal and ignore missing values.
+ * Whole numbers are aggregated exactly as long, decimals as double - non numeric values are counted by {@link CsvGroup#rejected(int)}.
+ * {@link Type#DISTINCT} counts the distinct column values - compared by their unquoted bytes, missing columns are not counted.</p>
+ */
+public class CsvAggregate {
+
+    public enum Type {
+        COUNT,
+        SUM,
+        MIN,
+        MAX,
+        DISTINCT
+    }
+
+    private final int column;
+    private final Type type;
+
+    /**
+     * @return {@link CsvAggregate} which counts the rows of a group
+     */
+    public static CsvAggregate count() {
+        return new CsvAggregate(-1, Type.COUNT);
+    }
+
+    /**
+     * @param column index of the column
+     * @return {@link CsvAggregate} which sums the numeric column values of a group
+     */
+    public static CsvAggregate sum(final int column) {
+        return new CsvAggregate(column, Type.SUM);
+    }
+
+    /**
+     * @param column index of the column
+     * @return {@link CsvAggregate} of the smallest numeric column value of a group - NaN without numeric values
+     */
+    public static CsvAggregate min(final int column) {
+        return new CsvAggregate(column, Type.MIN);
+    }
+
+    /**
+     * @param column index of the column
+     * @return {@link CsvAggregate} of the largest numeric column value of a group - NaN without numeric values
+     */
+    public static CsvAggregate max(final int column) {
+        return new CsvAggregate(column, Type.MAX);
+    }
+
+    /**
+     * @param column index of the column
+     * @return {@link CsvAggregate} which counts the distinct column values of a group
+     */
+    public static CsvAggregate distinct(final int column) {
+        return new CsvAggregate(column, Type.DISTINCT);
+    }
+
+    /**
+     * @return index of the column - -1 for {@link Type#COUNT}
+     */
+    public int column() {
+        return column;
+    }
+
+    /**
+     * @return type of the aggregate
+     */
+    public Type type() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CsvAggregate that = (CsvAggregate) o;
+        return column == that.column && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(column, type);
+    }
+
+    @Override
+    public String toString() {
+        return "CsvAggregate{column=" + column + ", type=" + type + "}";
+    }
+
+    protected CsvAggregate(final int column, final Type type) {
+        this.column = column;
+        this.type = type;
+    }
+}
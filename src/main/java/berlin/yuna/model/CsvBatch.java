@@ -0,0 +1,285 @@
+package berlin.yuna.model;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Column major batch of rows - one vector per column, reused for every batch of a read.
+ * <p>{@link CsvColumnType#LONG} and {@link CsvColumnType#DOUBLE} columns are primitive vectors,
+ * {@link CsvColumnType#STRING} columns are UTF-8 bytes with offsets: value {@code row} is {@code bytes[offsets[row]..offsets[row + 1]]}.
+ * Missing values are marked in a null bitmap per column, empty number columns are null.</p>
+ * <p>The vectors are only valid until the next batch, {@link #size()} is the number of valid rows.</p>
+ */
+public class CsvBatch {
+
+    private final int capacity;
+    private CsvColumnType[] types;
+    private long[][] longs;
+    private double[][] doubles;
+    private byte[][] bytes;
+    private int[][] offsets;
+    private long[][] nulls;
+    private int size;
+    private long index;
+
+    /**
+     * @param capacity max rows of one batch
+     * @param types    vector types of the columns <br/>Included fallback: [empty] = {@link CsvColumnType#STRING} for each column of the first row
+     * @return {@link CsvBatch}
+     */
+    public static CsvBatch csvBatchOf(final int capacity, final CsvColumnType... types) {
+        return new CsvBatch(capacity, types == null ? new CsvColumnType[0] : types.clone());
+    }
+
+    /**
+     * Appends the current row of the view - columns which are not in the batch are ignored
+     *
+     * @param view current row
+     * @return true if the batch is full
+     * @throws IoCsvException if the batch is already full or a number column is not a number
+     */
+    public boolean add(final CsvRowView view) {
+        if (size == capacity) {
+            final String message = "Batch is full [" + capacity + "]";
+            throw new IoCsvException(message, new IllegalStateException(message));
+        } else if (types.length == 0) {
+            final CsvColumnType[] strings = new CsvColumnType[view.size()];
+            Arrays.fill(strings, CsvColumnType.STRING);
+            init(strings);
+        }
+        for (int column = 0; column < types.length; column++) {
+            try {
+                add(view, column);
+            } catch (RuntimeException e) {
+                throw new IoCsvException("Cannot read column [" + column + "] of row [" + (index + size) + "] as [" + types[column] + "]", e);
+            }
+        }
+        size++;
+        return size == capacity;
+    }
+
+    /**
+     * Starts the next batch - keeps the vectors
+     *
+     * @return self [{@link CsvBatch}]
+     */
+    public CsvBatch clear() {
+        index += size;
+        size = 0;
+        for (long[] bitmap : nulls) {
+            Arrays.fill(bitmap, 0L);
+        }
+        return this;
+    }
+
+    /**
+     * @return number of valid rows in the vectors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return max rows of one batch
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return true if no more row fits into the batch
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * @return index of the first row of the batch within the read
+     */
+    public long index() {
+        return index;
+    }
+
+    /**
+     * @return number of columns
+     */
+    public int columnCount() {
+        return types.length;
+    }
+
+    /**
+     * @param column index of the column
+     * @return vector type of the column
+     */
+    public CsvColumnType type(final int column) {
+        return types[column];
+    }
+
+    /**
+     * @param column index of a {@link CsvColumnType#LONG} column
+     * @return values of the column - null for other types
+     */
+    public long[] longs(final int column) {
+        return longs[column];
+    }
+
+    /**
+     * @param column index of a {@link CsvColumnType#DOUBLE} column
+     * @return values of the column - null for other types
+     */
+    public double[] doubles(final int column) {
+        return doubles[column];
+    }
+
+    /**
+     * @param column index of a {@link CsvColumnType#STRING} column
+     * @return UTF-8 bytes of all values of the column - null for other types
+     */
+    public byte[] bytes(final int column) {
+        return bytes[column];
+    }
+
+    /**
+     * @param column index of a {@link CsvColumnType#STRING} column
+     * @return start offsets of the values in {@link #bytes(int)}, {@code offsets[size]} is the end of the last value - null for other types
+     */
+    public int[] offsets(final int column) {
+        return offsets[column];
+    }
+
+    /**
+     * @param column index of the column
+     * @return null bitmap of the column - bit {@code row % 64} of word {@code row / 64} is set for missing values
+     */
+    public long[] nulls(final int column) {
+        return nulls[column];
+    }
+
+    /**
+     * @param column index of the column
+     * @param row    index of the row within the batch
+     * @return true if the value is missing
+     */
+    public boolean isNull(final int column, final int row) {
+        return (nulls[column][row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * @param column index of a {@link CsvColumnType#LONG} column
+     * @param row    index of the row within the batch
+     * @return value of the row - 0 for missing values
+     */
+    public long getLong(final int column, final int row) {
+        return longs[column][row];
+    }
+
+    /**
+     * @param column index of a {@link CsvColumnType#DOUBLE} column
+     * @param row    index of the row within the batch
+     * @return value of the row - 0 for missing values
+     */
+    public double getDouble(final int column, final int row) {
+        return doubles[column][row];
+    }
+
+    /**
+     * Decodes one value - use {@link #bytes(int)} and {@link #offsets(int)} to process the values without copy
+     *
+     * @param column index of a {@link CsvColumnType#STRING} column
+     * @param row    index of the row within the batch
+     * @return value of the row - null for missing values
+     */
+    public String getString(final int column, final int row) {
+        final int start = offsets[column][row];
+        return isNull(column, row) ? null : new String(bytes[column], start, offsets[column][row + 1] - start, UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "CsvBatch{index=" + index + ", size=" + size + ", types=" + Arrays.toString(types) + "}";
+    }
+
+    protected CsvBatch(final int capacity, final CsvColumnType[] types) {
+        this.capacity = Math.max(1, capacity);
+        init(types);
+    }
+
+    private void init(final CsvColumnType[] types) {
+        this.types = types;
+        this.longs = new long[types.length][];
+        this.doubles = new double[types.length][];
+        this.bytes = new byte[types.length][];
+        this.offsets = new int[types.length][];
+        this.nulls = new long[types.length][(capacity + 63) >>> 6];
+        for (int column = 0; column < types.length; column++) {
+            if (types[column] == CsvColumnType.LONG) {
+                longs[column] = new long[capacity];
+            } else if (types[column] == CsvColumnType.DOUBLE) {
+                doubles[column] = new double[capacity];
+            } else {
+                bytes[column] = new byte[capacity * 8];
+                offsets[column] = new int[capacity + 1];
+            }
+        }
+    }
+
+    private void add(final CsvRowView view, final int column) {
+        final CharSequence value = view.getChars(column);
+        final boolean missing = value == null || (value.length() == 0 && types[column] != CsvColumnType.STRING);
+        if (missing) {
+            nulls[column][size >>> 6] |= 1L << size;
+        }
+        if (types[column] == CsvColumnType.LONG) {
+            longs[column][size] = missing ? 0 : view.getLong(column);
+        } else if (types[column] == CsvColumnType.DOUBLE) {
+            doubles[column][size] = missing ? 0 : view.getDouble(column);
+        } else {
+            offsets[column][size + 1] = missing ? offsets[column][size] : encode(column, offsets[column][size], value);
+        }
+    }
+
+    /**
+     * Encodes the chars as UTF-8 into the column bytes
+     *
+     * @return end offset of the value
+     */
+    private int encode(final int column, final int start, final CharSequence value) {
+        if (bytes[column].length < start + value.length() * 3) {
+            bytes[column] = Arrays.copyOf(bytes[column], Math.max(bytes[column].length * 2, start + value.length() * 3));
+        }
+        return utf8(value, bytes[column], start);
+    }
+
+    /**
+     * Encodes the chars as UTF-8 - unpaired surrogates are encoded as three bytes
+     *
+     * @param value  chars to encode
+     * @param target array with at least three bytes per char after the start
+     * @param start  offset of the first byte
+     * @return end offset of the value
+     */
+    static int utf8(final CharSequence value, final byte[] target, final int start) {
+        int position = start;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                target[position++] = (byte) c;
+            } else if (c < 0x800) {
+                target[position++] = (byte) (0xC0 | (c >> 6));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target[position++] = (byte) (0xF0 | (codePoint >> 18));
+                target[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                target[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                target[position++] = (byte) (0xE0 | (c >> 12));
+                target[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+}
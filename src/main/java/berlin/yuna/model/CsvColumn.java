@@ -0,0 +1,26 @@
+package berlin.yuna.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a record component or a field to a CSV column - see {@link berlin.yuna.logic.CsvReader#streamAs(java.nio.file.Path, Class)}.
+ * <p>Without annotation record components are bound by name if the reader has a header, otherwise by position.
+ * Fields of classes are only bound if they are annotated.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.RECORD_COMPONENT})
+public @interface CsvColumn {
+
+    /**
+     * @return header name of the column <br/>Included fallback: [""] = name of the field
+     */
+    String value() default "";
+
+    /**
+     * @return index of the column - takes precedence over the name <br/>Included fallback: [-1] = resolve by name or position
+     */
+    int index() default -1;
+}
@@ -0,0 +1,22 @@
+package berlin.yuna.model;
+
+/**
+ * Vector type of a column in a {@link CsvBatch}
+ */
+public enum CsvColumnType {
+
+    /**
+     * Integers in a {@code long[]} vector - see {@link CsvRowView#getLong(int)}
+     */
+    LONG,
+
+    /**
+     * Decimals in a {@code double[]} vector - see {@link CsvRowView#getDouble(int)}
+     */
+    DOUBLE,
+
+    /**
+     * UTF-8 bytes of all values in one {@code byte[]} with an {@code int[]} of offsets
+     */
+    STRING
+}
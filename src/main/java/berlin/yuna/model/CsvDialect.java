@@ -0,0 +1,73 @@
+package berlin.yuna.model;
+
+import java.util.Objects;
+
+/**
+ * Format of a CSV file - detect it once with {@link berlin.yuna.logic.CsvReader#detectDialect(java.nio.file.Path)} and reuse it for every read
+ */
+public class CsvDialect {
+
+    public static final char DEFAULT_QUOTE = '"';
+
+    private final char separator;
+    private final char quote;
+    private final boolean header;
+
+    /**
+     * @param separator column separator
+     * @param quote     quote char of the columns
+     * @param header    true if the first row is a header row
+     * @return {@link CsvDialect}
+     */
+    public static CsvDialect csvDialectOf(final char separator, final char quote, final boolean header) {
+        return new CsvDialect(separator, quote, header);
+    }
+
+    /**
+     * @return column separator
+     */
+    public char separator() {
+        return separator;
+    }
+
+    /**
+     * @return quote char of the columns
+     */
+    public char quote() {
+        return quote;
+    }
+
+    /**
+     * @return true if the first row is a header row
+     */
+    public boolean header() {
+        return header;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CsvDialect that = (CsvDialect) o;
+        return separator == that.separator && quote == that.quote && header == that.header;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(separator, quote, header);
+    }
+
+    @Override
+    public String toString() {
+        return "CsvDialect{separator=" + separator + ", quote=" + quote + ", header=" + header + "}";
+    }
+
+    protected CsvDialect(final char separator, final char quote, final boolean header) {
+        this.separator = separator;
+        this.quote = quote;
+        this.header = header;
+    }
+}
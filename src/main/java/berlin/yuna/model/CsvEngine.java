@@ -0,0 +1,18 @@
+package berlin.yuna.model;
+
+/**
+ * Parsing engine of the {@link berlin.yuna.logic.CsvReader}
+ */
+public enum CsvEngine {
+
+    /**
+     * Decodes the file to {@link String} lines and splits each line afterwards
+     */
+    LINES,
+
+    /**
+     * Scans the raw bytes of a reusable buffer and materializes columns only on demand <br/>
+     * Falls back to {@link #LINES} for charsets or separators which are not ASCII compatible
+     */
+    BYTES
+}
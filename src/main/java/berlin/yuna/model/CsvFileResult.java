@@ -0,0 +1,79 @@
+package berlin.yuna.model;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Outcome of one file of a multi file read e.g. {@link berlin.yuna.logic.CsvReader#consumeAll(java.util.Collection, java.util.function.Consumer)}
+ */
+public class CsvFileResult {
+
+    private final Path file;
+    private final long rows;
+    private final IoCsvException error;
+
+    /**
+     * @param file  the path to the file - or path to a resource
+     * @param rows  number of consumed rows
+     * @param error reason why the file was not read completely - null on success
+     * @return {@link CsvFileResult}
+     */
+    public static CsvFileResult csvFileResultOf(final Path file, final long rows, final IoCsvException error) {
+        return new CsvFileResult(file, rows, error);
+    }
+
+    /**
+     * @return the path to the file - or path to a resource
+     */
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * @return number of consumed rows - rows before an error are included
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return reason why the file was not read completely - null on success
+     */
+    public IoCsvException error() {
+        return error;
+    }
+
+    /**
+     * @return true if the file was read completely
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CsvFileResult that = (CsvFileResult) o;
+        return rows == that.rows && Objects.equals(file, that.file) && Objects.equals(error, that.error);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, rows, error);
+    }
+
+    @Override
+    public String toString() {
+        return "CsvFileResult{file=" + file + ", rows=" + rows + ", error=" + (error == null ? null : error.getMessage()) + "}";
+    }
+
+    protected CsvFileResult(final Path file, final long rows, final IoCsvException error) {
+        this.file = file;
+        this.rows = rows;
+        this.error = error;
+    }
+}
@@ -0,0 +1,140 @@
+package berlin.yuna.model;
+
+import java.util.Objects;
+
+/**
+ * Row condition on a single column - the {@link berlin.yuna.logic.CsvTokenizer} evaluates it on the raw column bytes
+ * and drops a failing row before the remaining columns are processed.
+ * <p>Conditions are checked against the normalized column value (trimmed, unquoted, unescaped). Rows without the column fail.</p>
+ */
+public class CsvFilter {
+
+    public enum Type {
+        EQUAL_TO,
+        STARTS_WITH,
+        BETWEEN
+    }
+
+    private final int column;
+    private final Type type;
+    private final String value;
+    private final double min;
+    private final double max;
+
+    /**
+     * @param column index of the column
+     * @param value  expected column value
+     * @return {@link CsvFilter} which accepts rows with the given column value
+     */
+    public static CsvFilter equalTo(final int column, final String value) {
+        return new CsvFilter(column, Type.EQUAL_TO, Objects.requireNonNull(value, "value"), Double.NaN, Double.NaN);
+    }
+
+    /**
+     * @param column index of the column
+     * @param prefix expected start of the column value
+     * @return {@link CsvFilter} which accepts rows with the given column prefix
+     */
+    public static CsvFilter startsWith(final int column, final String prefix) {
+        return new CsvFilter(column, Type.STARTS_WITH, Objects.requireNonNull(prefix, "prefix"), Double.NaN, Double.NaN);
+    }
+
+    /**
+     * @param column index of the column
+     * @param min    min value (inclusive)
+     * @param max    max value (inclusive)
+     * @return {@link CsvFilter} which accepts rows with a numeric column value in the given range
+     */
+    public static CsvFilter between(final int column, final double min, final double max) {
+        return new CsvFilter(column, Type.BETWEEN, null, min, max);
+    }
+
+    /**
+     * @return index of the column
+     */
+    public int column() {
+        return column;
+    }
+
+    /**
+     * @return type of the condition
+     */
+    public Type type() {
+        return type;
+    }
+
+    /**
+     * @return expected value or prefix - null for {@link Type#BETWEEN}
+     */
+    public String value() {
+        return value;
+    }
+
+    /**
+     * @return min value (inclusive) of {@link Type#BETWEEN}
+     */
+    public double min() {
+        return min;
+    }
+
+    /**
+     * @return max value (inclusive) of {@link Type#BETWEEN}
+     */
+    public double max() {
+        return max;
+    }
+
+    /**
+     * @param row row to check
+     * @return true if the row passes the condition
+     */
+    public boolean test(final CsvRow row) {
+        return row != null && test(row.get(column));
+    }
+
+    /**
+     * @param columnValue column value to check
+     * @return true if the column value passes the condition
+     */
+    public boolean test(final String columnValue) {
+        if (columnValue == null) {
+            return false;
+        } else if (type == Type.EQUAL_TO) {
+            return columnValue.equals(value);
+        } else if (type == Type.STARTS_WITH) {
+            return columnValue.startsWith(value);
+        }
+        try {
+            return test(Double.parseDouble(columnValue));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param number numeric column value to check
+     * @return true if the number is in the range of {@link Type#BETWEEN}
+     */
+    public boolean test(final double number) {
+        return number >= min && number <= max;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.BETWEEN
+                ? "CsvFilter{column=" + column + ", type=" + type + ", min=" + min + ", max=" + max + "}"
+                : "CsvFilter{column=" + column + ", type=" + type + ", value='" + value + "'}";
+    }
+
+    protected CsvFilter(final int column, final Type type, final String value, final double min, final double max) {
+        if (column < 0) {
+            final String message = "Column index must not be negative [" + column + "]";
+            throw new IoCsvException(message, new IllegalArgumentException(message));
+        }
+        this.column = column;
+        this.type = type;
+        this.value = value;
+        this.min = min;
+        this.max = max;
+    }
+}
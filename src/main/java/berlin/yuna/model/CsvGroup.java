@@ -0,0 +1,140 @@
+package berlin.yuna.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static berlin.yuna.model.CsvRow.csvRowOf;
+
+/**
+ * Result row of {@link berlin.yuna.logic.CsvReader#groupBy(java.nio.file.Path, int[], CsvAggregate...)} - the key column values and one value per {@link CsvAggregate}
+ * <p>Values are {@link Long} as long as they are exact: counts, and sums, minimums and maximums of whole numbers which fit into a long.
+ * Any decimal value or an overflowing sum turns the value into a {@link Double}.</p>
+ */
+public class CsvGroup {
+
+    private final List<String> key;
+    private final long count;
+    private final CsvAggregate[] aggregates;
+    private final Number[] values;
+    private final long[] rejected;
+
+    /**
+     * @param key        values of the key columns - null for missing columns
+     * @param count      number of rows of the group
+     * @param aggregates aggregate functions
+     * @param values     value of each aggregate function - {@link Long} for {@link CsvAggregate.Type#COUNT} and {@link CsvAggregate.Type#DISTINCT}
+     * @return {@link CsvGroup}
+     */
+    public static CsvGroup csvGroupOf(final List<String> key, final long count, final CsvAggregate[] aggregates, final double[] values) {
+        final Number[] numbers = new Number[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final CsvAggregate.Type type = aggregates[i].type();
+            if (type == CsvAggregate.Type.COUNT || type == CsvAggregate.Type.DISTINCT) {
+                numbers[i] = (long) values[i];
+            } else {
+                numbers[i] = values[i];
+            }
+        }
+        return csvGroupOf(key, count, aggregates, numbers, new long[values.length]);
+    }
+
+    /**
+     * @param key        values of the key columns - null for missing columns
+     * @param count      number of rows of the group
+     * @param aggregates aggregate functions
+     * @param values     value of each aggregate function - {@link Long} or {@link Double}
+     * @param rejected   number of non numeric values of each aggregate function
+     * @return {@link CsvGroup}
+     */
+    public static CsvGroup csvGroupOf(final List<String> key, final long count, final CsvAggregate[] aggregates, final Number[] values, final long[] rejected) {
+        return new CsvGroup(Collections.unmodifiableList(new ArrayList<>(key)), count, aggregates.clone(), values.clone(), rejected.clone());
+    }
+
+    /**
+     * @return values of the key columns - null for missing columns
+     */
+    public List<String> key() {
+        return key;
+    }
+
+    /**
+     * @return number of rows of the group
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @param aggregate index of the aggregate function
+     * @return value of the aggregate function - see {@link CsvAggregate}, rounded above 2^53 for exact {@link #number(int)} values
+     */
+    public double value(final int aggregate) {
+        return values[aggregate].doubleValue();
+    }
+
+    /**
+     * @param aggregate index of the aggregate function
+     * @return exact value of the aggregate function - {@link Long} for whole numbers, {@link Double} otherwise
+     */
+    public Number number(final int aggregate) {
+        return values[aggregate];
+    }
+
+    /**
+     * @param aggregate index of the aggregate function
+     * @return number of non numeric column values which {@link CsvAggregate.Type#SUM}, {@link CsvAggregate.Type#MIN} and {@link CsvAggregate.Type#MAX} skipped
+     */
+    public long rejected(final int aggregate) {
+        return rejected[aggregate];
+    }
+
+    /**
+     * @return number of aggregate values
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return key columns followed by the aggregate values - exact values without fraction
+     */
+    public CsvRow toCsvRow() {
+        final List<String> row = new ArrayList<>(key);
+        for (Number value : values) {
+            row.add(String.valueOf(value));
+        }
+        return csvRowOf(row);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CsvGroup that = (CsvGroup) o;
+        return count == that.count && Objects.equals(key, that.key) && Arrays.equals(aggregates, that.aggregates) && Arrays.equals(values, that.values) && Arrays.equals(rejected, that.rejected);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * Objects.hash(key, count) + Arrays.hashCode(aggregates)) + Arrays.hashCode(values)) + Arrays.hashCode(rejected);
+    }
+
+    @Override
+    public String toString() {
+        return "CsvGroup{key=" + key + ", count=" + count + ", values=" + Arrays.toString(values) + ", rejected=" + Arrays.toString(rejected) + "}";
+    }
+
+    protected CsvGroup(final List<String> key, final long count, final CsvAggregate[] aggregates, final Number[] values, final long[] rejected) {
+        this.key = key;
+        this.count = count;
+        this.aggregates = aggregates;
+        this.values = values;
+        this.rejected = rejected;
+    }
+}
@@ -0,0 +1,127 @@
+package berlin.yuna.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Column names of a CSV file - one instance is shared by all rows of a read.
+ * <p>Names are resolved with an open addressing hash table which is built once, lookups are O(1) and allocation free.
+ * Duplicate names resolve to the first column.</p>
+ */
+public class CsvHeader {
+
+    private final String[] names;
+    private final int[] slots;
+    private final int mask;
+
+    /**
+     * @param names column names in file order
+     * @return {@link CsvHeader}
+     */
+    public static CsvHeader csvHeaderOf(final String... names) {
+        return new CsvHeader(names == null ? new String[0] : names.clone());
+    }
+
+    /**
+     * @param names column names in file order
+     * @return {@link CsvHeader}
+     */
+    public static CsvHeader csvHeaderOf(final Collection<String> names) {
+        return new CsvHeader(CsvRow.toArray(names));
+    }
+
+    /**
+     * @param name column name
+     * @return index of the column - fallback = -1
+     */
+    public int indexOf(final CharSequence name) {
+        if (name == null) {
+            return -1;
+        }
+        for (int slot = hash(name) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            final String candidate = names[slots[slot] - 1];
+            if (candidate.contentEquals(name)) {
+                return slots[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param name column name
+     * @return true if the header contains the column name
+     */
+    public boolean contains(final CharSequence name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * @param index index of the column
+     * @return column name at the specified position - fallback = null
+     */
+    public String get(final int index) {
+        return index < 0 || index >= names.length ? null : names[index];
+    }
+
+    /**
+     * @return number of columns
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return column names in file order
+     */
+    public List<String> names() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(names, ((CsvHeader) o).names);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(names);
+    }
+
+    @Override
+    public String toString() {
+        return "CsvHeader" + Arrays.toString(names);
+    }
+
+    protected CsvHeader(final String[] names) {
+        this.names = names;
+        this.slots = new int[Integer.highestOneBit(Math.max(2, names.length) * 2 - 1) << 1];
+        this.mask = slots.length - 1;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] != null && indexOf(names[i]) < 0) {
+                int slot = hash(names[i]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Same hash for {@link String} and any other {@link CharSequence} with the same chars - spread for the power of two table
+     */
+    private static int hash(final CharSequence name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + name.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,17 @@
+package berlin.yuna.model;
+
+/**
+ * Input mode of the {@link CsvEngine#BYTES} engine for uncompressed files
+ */
+public enum CsvInputMode {
+
+    /**
+     * Reads the file into a reusable heap buffer
+     */
+    BUFFERED,
+
+    /**
+     * Maps the file into memory, the OS page cache backs the parsing without heap copies
+     */
+    MAPPED
+}
@@ -0,0 +1,17 @@
+package berlin.yuna.model;
+
+/**
+ * Join type of {@link berlin.yuna.logic.CsvReader#join(java.nio.file.Path, int, berlin.yuna.logic.CsvReader, java.nio.file.Path, int, CsvJoinType)}
+ */
+public enum CsvJoinType {
+
+    /**
+     * Emits one row per pair of rows with equal keys
+     */
+    INNER,
+
+    /**
+     * Like {@link #INNER}, rows without a matching key are emitted once with null build columns
+     */
+    LEFT
+}
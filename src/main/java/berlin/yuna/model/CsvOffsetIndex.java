@@ -0,0 +1,220 @@
+package berlin.yuna.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Byte offsets of every {@link #step()}th row of an uncompressed CSV file - the start of a row range is one seek away.
+ * <p>Rows are numbered like {@link CsvIndexRow#index()} without filters: blank records and the skipped lines are not counted.
+ * The offsets are quote aware, a row with multi line columns has one offset.
+ * The index is valid as long as size and last modified time of the file are unchanged, see {@link #matches(Path)}.</p>
+ * <p>Saved as small sidecar file next to the CSV file, see {@link #indexFileOf(Path)}.</p>
+ */
+public class CsvOffsetIndex {
+
+    public static final String FILE_EXTENSION = ".idx";
+
+    private static final int MAGIC = 0x43535649;
+    private static final int VERSION = 1;
+
+    private final long fileSize;
+    private final long lastModified;
+    private final int step;
+    private final long skip;
+    private final long rows;
+    private final long[] offsets;
+
+    /**
+     * @param fileSize     size of the indexed file in bytes
+     * @param lastModified last modified time of the indexed file in epoch millis
+     * @param step         rows between two offsets
+     * @param skip         records which were skipped before the first row - skipped lines and header
+     * @param rows         number of rows of the file
+     * @param offsets      byte offset of row {@code i * step} at index {@code i}
+     * @return {@link CsvOffsetIndex}
+     */
+    public static CsvOffsetIndex csvOffsetIndexOf(final long fileSize, final long lastModified, final int step, final long skip, final long rows, final long[] offsets) {
+        return new CsvOffsetIndex(fileSize, lastModified, step, skip, rows, offsets.clone());
+    }
+
+    /**
+     * @param file CSV file
+     * @return path of the sidecar index file - the file name with {@link #FILE_EXTENSION}
+     */
+    public static Path indexFileOf(final Path file) {
+        return file.resolveSibling(file.getFileName() + FILE_EXTENSION);
+    }
+
+    /**
+     * @param indexFile sidecar index file
+     * @return loaded {@link CsvOffsetIndex}
+     * @throws IoCsvException if the file can not be read or is no index file
+     */
+    public static CsvOffsetIndex load(final Path indexFile) {
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                final String message = "No index file [" + indexFile + "]";
+                throw new IoCsvException(message, new IllegalArgumentException(message));
+            }
+            final long fileSize = in.readLong();
+            final long lastModified = in.readLong();
+            final int step = in.readInt();
+            final long skip = in.readLong();
+            final long rows = in.readLong();
+            final long[] offsets = new long[in.readInt()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = in.readLong();
+            }
+            return new CsvOffsetIndex(fileSize, lastModified, step, skip, rows, offsets);
+        } catch (IOException e) {
+            throw new IoCsvException("Index read error [" + indexFile + "]", e);
+        }
+    }
+
+    /**
+     * @param indexFile target sidecar index file - e.g. {@link #indexFileOf(Path)}
+     * @return self [{@link CsvOffsetIndex}]
+     * @throws IoCsvException if the file can not be written
+     */
+    public CsvOffsetIndex save(final Path indexFile) {
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileSize);
+            out.writeLong(lastModified);
+            out.writeInt(step);
+            out.writeLong(skip);
+            out.writeLong(rows);
+            out.writeInt(offsets.length);
+            for (long offset : offsets) {
+                out.writeLong(offset);
+            }
+            return this;
+        } catch (IOException e) {
+            throw new IoCsvException("Index write error [" + indexFile + "]", e);
+        }
+    }
+
+    /**
+     * @param file CSV file
+     * @return true if size and last modified time of the file are the indexed ones
+     */
+    public boolean matches(final Path file) {
+        try {
+            return Files.size(file) == fileSize && Files.getLastModifiedTime(file).toMillis() == lastModified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param row index of the row
+     * @return index of the nearest indexed row at or before the given row
+     */
+    public long floorRow(final long row) {
+        return Math.min(Math.max(row, 0), Math.max(rows - 1, 0)) / step * step;
+    }
+
+    /**
+     * @param row index of the row
+     * @return byte offset of {@link #floorRow(long)} - the file size if the file has no rows
+     */
+    public long offsetOf(final long row) {
+        return offsets.length == 0 ? fileSize : offsets[(int) (floorRow(row) / step)];
+    }
+
+    /**
+     * Splits the rows into ranges for parallel readers - the borders are indexed rows, so every range starts with one seek
+     *
+     * @param parts number of ranges
+     * @return ascending row borders {@code [0, ..., rows]} - range {@code i} is {@code [borders[i], borders[i + 1])}
+     */
+    public long[] splits(final int parts) {
+        final int count = Math.max(1, Math.min(Math.max(parts, 1), offsets.length));
+        final long[] result = new long[count + 1];
+        for (int i = 1; i < count; i++) {
+            result[i] = (long) ((double) offsets.length * i / count) * step;
+        }
+        result[count] = rows;
+        return result;
+    }
+
+    /**
+     * @return size of the indexed file in bytes
+     */
+    public long fileSize() {
+        return fileSize;
+    }
+
+    /**
+     * @return last modified time of the indexed file in epoch millis
+     */
+    public long lastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return rows between two offsets
+     */
+    public int step() {
+        return step;
+    }
+
+    /**
+     * @return records which were skipped before the first row - skipped lines and header
+     */
+    public long skip() {
+        return skip;
+    }
+
+    /**
+     * @return number of rows of the file
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return number of indexed offsets
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CsvOffsetIndex that = (CsvOffsetIndex) o;
+        return fileSize == that.fileSize && lastModified == that.lastModified && step == that.step && skip == that.skip && rows == that.rows && Arrays.equals(offsets, that.offsets);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(fileSize, lastModified, step, skip, rows) + Arrays.hashCode(offsets);
+    }
+
+    @Override
+    public String toString() {
+        return "CsvOffsetIndex{fileSize=" + fileSize + ", step=" + step + ", skip=" + skip + ", rows=" + rows + ", offsets=" + offsets.length + "}";
+    }
+
+    protected CsvOffsetIndex(final long fileSize, final long lastModified, final int step, final long skip, final long rows, final long[] offsets) {
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.step = Math.max(step, 1);
+        this.skip = skip;
+        this.rows = rows;
+        this.offsets = offsets;
+    }
+}
@@ -14,6 +14,8 @@ public class CsvRow extends ArrayList<String> {
 
     private static final UnsupportedOperationException IMMUTABLE_EXCEPTION = new UnsupportedOperationException("[" + CsvRow.class.getSimpleName() + "] is immutable");
 
+    private final CsvHeader header;
+
     /**
      * @param lines list of string to be transformed
      * @return {@link CsvRow} with separate columns
@@ -22,6 +24,15 @@ public class CsvRow extends ArrayList<String> {
         return new CsvRow(lines);
     }
 
+    /**
+     * @param header shared column names of the row
+     * @param row    column values
+     * @return {@link CsvRow} with separate columns which can be accessed by name
+     */
+    public static CsvRow csvRowOf(final CsvHeader header, final Collection<String> row) {
+        return new CsvRow(header, row);
+    }
+
     /**
      * @param lines list of list to be transformed
      * @return {@link List<CsvRow>} with separate columns
@@ -112,6 +123,33 @@ public class CsvRow extends ArrayList<String> {
         return Optional.ofNullable(this.get(index));
     }
 
+    /**
+     * @return shared column names of the row - null if the row was read without header
+     */
+    public CsvHeader header() {
+        return header;
+    }
+
+    /**
+     * Returns the column value of the column name - see {@link #header()}
+     *
+     * @param name name of the column value to return
+     * @return the column value of the column name - fallback = null
+     */
+    public String get(final CharSequence name) {
+        return header == null ? null : get(header.indexOf(name));
+    }
+
+    /**
+     * Returns the column value of the column name - see {@link #header()}
+     *
+     * @param name name of the column value to return
+     * @return the column value as {@link Optional<String>} - fallback = {@link Optional<String>#empty()}
+     */
+    public Optional<String> getOpt(final CharSequence name) {
+        return Optional.ofNullable(this.get(name));
+    }
+
     /**
      * Returns the column value at the specified position in this {@link CsvRow}.
      *
@@ -247,7 +285,12 @@ public class CsvRow extends ArrayList<String> {
     }
 
     protected CsvRow(final Collection<String> collection) {
+        this(collection instanceof CsvRow ? ((CsvRow) collection).header : null, collection);
+    }
+
+    protected CsvRow(final CsvHeader header, final Collection<String> collection) {
         super(collection);
+        this.header = header;
     }
 
     private static void splitRow(final String row, final Consumer<String> result, final char... separators) {
@@ -318,7 +361,7 @@ public class CsvRow extends ArrayList<String> {
     private static String removeQuotes(final String string) {
         if (string != null) {
             final String input = string.trim();
-            if ((input.startsWith("\"") && input.endsWith("\"")) || (input.startsWith("'") && input.endsWith("'"))) {
+            if (input.length() > 1 && ((input.startsWith("\"") && input.endsWith("\"")) || (input.startsWith("'") && input.endsWith("'")))) {
                 return input.substring(1, input.length() - 1).trim();
             }
             return input;
@@ -0,0 +1,207 @@
+package berlin.yuna.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Reusable view on the current row of a reader - the same instance is handed out for every row.
+ * <p>Column values are only valid during the callback, use {@link #toCsvRow()} or {@link CharSequence#toString()} to keep them.</p>
+ */
+public abstract class CsvRowView {
+
+    protected long index;
+    protected CsvHeader header;
+    protected char decimalSeparator = '.';
+
+    /**
+     * @return index of current row
+     */
+    public long index() {
+        return index;
+    }
+
+    /**
+     * @return shared column names of the rows - null if the rows are read without header
+     */
+    public CsvHeader header() {
+        return header;
+    }
+
+    /**
+     * @return separator of the fraction for {@link #getDouble(int)} and {@link #getBigDecimal(int)}
+     */
+    public char decimalSeparator() {
+        return decimalSeparator;
+    }
+
+    /**
+     * @return number of columns of the current row
+     */
+    public abstract int size();
+
+    /**
+     * Returns the column value without copying it - the value is only valid during the callback
+     *
+     * @param index index of the column value to return
+     * @return the column value at the specified position - fallback = null
+     */
+    public abstract CharSequence getChars(final int index);
+
+    /**
+     * Returns the column value of the column name without copying it - see {@link #getChars(int)}
+     *
+     * @param name name of the column value to return
+     * @return the column value of the column name - fallback = null
+     */
+    public CharSequence getChars(final CharSequence name) {
+        return header == null ? null : getChars(header.indexOf(name));
+    }
+
+    /**
+     * @param index index of the column
+     * @return true if the column is missing or empty
+     */
+    public boolean isEmpty(final int index) {
+        final CharSequence value = getChars(index);
+        return value == null || value.length() == 0;
+    }
+
+    /**
+     * @param index index of the column value to return
+     * @return the column value at the specified position - fallback = null
+     */
+    public String get(final int index) {
+        final CharSequence value = getChars(index);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * @param name name of the column value to return
+     * @return the column value of the column name - fallback = null
+     */
+    public String get(final CharSequence name) {
+        final CharSequence value = getChars(name);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * @param index index of the column value to parse
+     * @return the column value as int
+     * @throws NumberFormatException if the column does not exist or is not a number
+     */
+    public int getInt(final int index) {
+        final CharSequence value = number(index);
+        final long result = value.length() > 11 ? FieldParser.NO_LONG : FieldParser.parseLong(value, 0, value.length());
+        return result < Integer.MIN_VALUE || result > Integer.MAX_VALUE ? Integer.parseInt(value, 0, value.length(), 10) : (int) result;
+    }
+
+    /**
+     * @param index index of the column value to parse
+     * @return the column value as long
+     * @throws NumberFormatException if the column does not exist or is not a number
+     */
+    public long getLong(final int index) {
+        final CharSequence value = number(index);
+        final long result = FieldParser.parseLong(value, 0, value.length());
+        return result == FieldParser.NO_LONG ? Long.parseLong(value, 0, value.length(), 10) : result;
+    }
+
+    /**
+     * Plain decimals with up to 15 digits are parsed without copy, others by {@link Double#parseDouble(String)}
+     *
+     * @param index index of the column value to parse
+     * @return the column value as double - see {@link #decimalSeparator()}
+     * @throws NumberFormatException if the column does not exist or is not a number
+     */
+    public double getDouble(final int index) {
+        final CharSequence value = number(index);
+        final double result = FieldParser.parseDouble(value, 0, value.length(), decimalSeparator);
+        return Double.isNaN(result) ? Double.parseDouble(normalizeDecimal(value)) : result;
+    }
+
+    /**
+     * Plain decimals with up to 18 digits are parsed without copy, others by {@link BigDecimal#BigDecimal(String)}
+     *
+     * @param index index of the column value to parse
+     * @return the column value as exact decimal - see {@link #decimalSeparator()}
+     * @throws NumberFormatException if the column does not exist or is not a number
+     */
+    public BigDecimal getBigDecimal(final int index) {
+        final CharSequence value = number(index);
+        final BigDecimal result = FieldParser.parseBigDecimal(value, 0, value.length(), decimalSeparator);
+        return result == null ? new BigDecimal(normalizeDecimal(value)) : result;
+    }
+
+    /**
+     * @param index index of the column value to parse
+     * @return true for [true, yes, y, 1], false for [false, no, n, 0] - case insensitive
+     * @throws IllegalArgumentException if the column does not exist or is not a boolean
+     */
+    public boolean getBoolean(final int index) {
+        final CharSequence value = getChars(index);
+        final int result = value == null ? -1 : FieldParser.parseBoolean(value, 0, value.length());
+        if (result < 0) {
+            throw new IllegalArgumentException("Column [" + index + "] is not a boolean [" + value + "]");
+        }
+        return result == 1;
+    }
+
+    /**
+     * ISO dates [yyyy-MM-dd] are parsed without copy, others by {@link LocalDate#parse(CharSequence)}
+     *
+     * @param index index of the column value to parse
+     * @return the column value as date
+     * @throws java.time.format.DateTimeParseException if the column is not an ISO date
+     * @throws NumberFormatException                   if the column does not exist
+     */
+    public LocalDate getDate(final int index) {
+        final CharSequence value = number(index);
+        final LocalDate result = FieldParser.parseDate(value, 0, value.length());
+        return result == null ? LocalDate.parse(value) : result;
+    }
+
+    /**
+     * Epoch millis and ISO timestamps are parsed without copy - see {@link FieldParser#parseEpochMillis(CharSequence, int, int)}.
+     * Other formats are parsed by {@link Instant#parse(CharSequence)}.
+     *
+     * @param index index of the column value to parse
+     * @return the column value as milliseconds since 1970-01-01T00:00:00Z
+     * @throws java.time.format.DateTimeParseException if the column is not a timestamp
+     * @throws NumberFormatException                   if the column does not exist
+     */
+    public long getEpochMillis(final int index) {
+        final CharSequence value = number(index);
+        final long result = FieldParser.parseEpochMillis(value, 0, value.length());
+        return result == FieldParser.NO_LONG ? Instant.parse(value).toEpochMilli() : result;
+    }
+
+    /**
+     * @return copy of the current row as {@link CsvRow}
+     */
+    public CsvRow toCsvRow() {
+        final String[] row = new String[size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = get(i);
+        }
+        return CsvRow.csvRowOf(header, Arrays.asList(row));
+    }
+
+    @Override
+    public String toString() {
+        return toCsvRow().toString();
+    }
+
+    private String normalizeDecimal(final CharSequence value) {
+        return decimalSeparator == '.' ? value.toString() : value.toString().replace(decimalSeparator, '.');
+    }
+
+    private CharSequence number(final int index) {
+        final CharSequence value = getChars(index);
+        if (value == null) {
+            throw new NumberFormatException("Column [" + index + "] does not exist");
+        }
+        return value;
+    }
+}
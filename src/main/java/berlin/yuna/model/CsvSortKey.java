@@ -0,0 +1,81 @@
+package berlin.yuna.model;
+
+import java.util.Objects;
+
+/**
+ * Sort key of one column for {@link berlin.yuna.logic.CsvReader#sorted(java.nio.file.Path, CsvSortKey...)} - multiple keys sort by the first key, ties by the next key.
+ * <p>{@link CsvColumnType#STRING} compares lexicographically, {@link CsvColumnType#LONG} and {@link CsvColumnType#DOUBLE} numerically.
+ * Values which are no numbers follow the numbers, missing columns are always last.</p>
+ */
+public class CsvSortKey {
+
+    private final int column;
+    private final CsvColumnType type;
+    private final boolean descending;
+
+    /**
+     * @param column index of the column
+     * @return ascending lexicographic {@link CsvSortKey}
+     */
+    public static CsvSortKey csvSortKeyOf(final int column) {
+        return new CsvSortKey(column, CsvColumnType.STRING, false);
+    }
+
+    /**
+     * @param column     index of the column
+     * @param type       comparison of the column values
+     * @param descending true for descending order
+     * @return {@link CsvSortKey}
+     */
+    public static CsvSortKey csvSortKeyOf(final int column, final CsvColumnType type, final boolean descending) {
+        return new CsvSortKey(column, type == null ? CsvColumnType.STRING : type, descending);
+    }
+
+    /**
+     * @return index of the column
+     */
+    public int column() {
+        return column;
+    }
+
+    /**
+     * @return comparison of the column values
+     */
+    public CsvColumnType type() {
+        return type;
+    }
+
+    /**
+     * @return true for descending order
+     */
+    public boolean descending() {
+        return descending;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        } else if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CsvSortKey that = (CsvSortKey) o;
+        return column == that.column && descending == that.descending && type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(column, type, descending);
+    }
+
+    @Override
+    public String toString() {
+        return "CsvSortKey{column=" + column + ", type=" + type + ", descending=" + descending + "}";
+    }
+
+    protected CsvSortKey(final int column, final CsvColumnType type, final boolean descending) {
+        this.column = column;
+        this.type = type;
+        this.descending = descending;
+    }
+}
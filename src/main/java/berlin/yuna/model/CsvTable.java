@@ -0,0 +1,352 @@
+package berlin.yuna.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact in-memory table - all rows of a file in a few large byte pages instead of one {@link CsvRow} with {@link String}s per row.
+ * <p>A row is stored as column count followed by one varint header per column: 0 for null, odd for a dictionary value, even for inline UTF-8 bytes.
+ * Each column keeps a dictionary of its first {@link #MAX_DICTIONARY_SIZE} distinct values up to {@link #MAX_DICTIONARY_VALUE_LENGTH} chars,
+ * repeated values of low cardinality columns take one or two bytes and decode to the same {@link String} instance.
+ * A row costs 8 bytes of index plus about its size in the file.</p>
+ * <p>Rows are read through lightweight {@link CsvTableRow} views with the {@link CsvRowView} read API.</p>
+ */
+public class CsvTable {
+
+    public static final int MAX_DICTIONARY_SIZE = 1024;
+    public static final int MAX_DICTIONARY_VALUE_LENGTH = 64;
+    public static final int PAGE_SIZE = 1 << 24;
+
+    private static final int PAGE_BITS = 24;
+
+    private final CsvHeader header;
+    private final char decimalSeparator;
+    private byte[][] pages = new byte[][]{new byte[64 * 1024]};
+    private int position;
+    private long[] rows = new long[1024];
+    private int size;
+    private byte[] scratch = new byte[256];
+    private String[] dictionary = new String[64];
+    private int dictionarySize;
+    private Dictionary[] columns = new Dictionary[0];
+
+    /**
+     * @param header           column names of the rows - null if there is no header
+     * @param decimalSeparator fraction separator of {@link CsvRowView#getDouble(int)}
+     * @return empty {@link CsvTable}
+     */
+    public static CsvTable csvTableOf(final CsvHeader header, final char decimalSeparator) {
+        return new CsvTable(header, decimalSeparator);
+    }
+
+    /**
+     * Appends a copy of the current row of the view
+     *
+     * @param view current row
+     * @return self [{@link CsvTable}]
+     */
+    public CsvTable add(final CsvRowView view) {
+        int length = varint(scratch, 0, view.size());
+        for (int column = 0; column < view.size(); column++) {
+            length = addColumn(length, column, view.getChars(column));
+        }
+        final long start = place(length);
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size + (size >> 1));
+        }
+        rows[size++] = start;
+        return this;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row index of the row
+     * @return new lightweight view of the row
+     */
+    public CsvTableRow row(final int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row [" + row + "] of [" + size + "]");
+        }
+        return new CsvTableRow(this, row);
+    }
+
+    /**
+     * @return rows as unmodifiable list - the views are created on access
+     */
+    public List<CsvTableRow> rows() {
+        return new AbstractList<>() {
+            @Override
+            public CsvTableRow get(final int index) {
+                return row(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return rows as Stream
+     */
+    public Stream<CsvTableRow> stream() {
+        return IntStream.range(0, size).mapToObj(this::row);
+    }
+
+    /**
+     * @return column names of the rows - null if there is no header
+     */
+    public CsvHeader header() {
+        return header;
+    }
+
+    /**
+     * @return fraction separator of {@link CsvRowView#getDouble(int)}
+     */
+    public char decimalSeparator() {
+        return decimalSeparator;
+    }
+
+    /**
+     * @return number of distinct dictionary values of all columns
+     */
+    public int dictionarySize() {
+        return dictionarySize;
+    }
+
+    /**
+     * @return allocated bytes of pages and row index - without the dictionary values
+     */
+    public long byteSize() {
+        long result = rows.length * 8L;
+        for (byte[] page : pages) {
+            result += page.length;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "CsvTable{rows=" + size + ", bytes=" + byteSize() + ", dictionary=" + dictionarySize + "}";
+    }
+
+    protected CsvTable(final CsvHeader header, final char decimalSeparator) {
+        this.header = header;
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    /**
+     * @return number of columns of the row
+     */
+    int columns(final int row) {
+        final long start = rows[row];
+        final byte[] page = pages[(int) (start >>> PAGE_BITS)];
+        return (int) readVarint(page, (int) (start & (PAGE_SIZE - 1)));
+    }
+
+    /**
+     * @return value of the column - null if the row has no such column
+     */
+    String value(final int row, final int column) {
+        final long start = rows[row];
+        final byte[] page = pages[(int) (start >>> PAGE_BITS)];
+        int offset = (int) (start & (PAGE_SIZE - 1));
+        final int columnCount = (int) readVarint(page, offset);
+        if (column < 0 || column >= columnCount) {
+            return null;
+        }
+        offset = skipVarint(page, offset);
+        for (int i = 0; i < column; i++) {
+            final long tag = readVarint(page, offset);
+            offset = skipVarint(page, offset);
+            if (tag > 0 && (tag & 1) == 0) {
+                offset += (int) (tag >>> 1) - 1;
+            }
+        }
+        final long tag = readVarint(page, offset);
+        if (tag == 0) {
+            return null;
+        } else if ((tag & 1) == 1) {
+            return dictionary[(int) (tag >>> 1)];
+        }
+        return new String(page, skipVarint(page, offset), (int) (tag >>> 1) - 1, UTF_8);
+    }
+
+    private int addColumn(final int position, final int column, final CharSequence value) {
+        if (value == null) {
+            return varint(ensure(position, 1), position, 0);
+        }
+        if (columns.length <= column) {
+            columns = Arrays.copyOf(columns, column + 1);
+        }
+        if (columns[column] == null) {
+            columns[column] = new Dictionary();
+        }
+        final int id = value.length() <= MAX_DICTIONARY_VALUE_LENGTH ? columns[column].idOf(value) : -1;
+        if (id >= 0) {
+            return varint(ensure(position, 5), position, ((long) id << 1) | 1);
+        }
+        final int bytes = utf8Length(value);
+        return CsvBatch.utf8(value, ensure(position, bytes + 10), varint(scratch, position, ((long) bytes + 1) << 1));
+    }
+
+    private static int utf8Length(final CharSequence value) {
+        int result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                result++;
+            } else if (c < 0x800) {
+                result += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                result += 4;
+                i++;
+            } else {
+                result += 3;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return scratch with at least {@code bytes} free bytes after the given position
+     */
+    private byte[] ensure(final int position, final int bytes) {
+        if (scratch.length < position + bytes) {
+            scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, position + bytes));
+        }
+        return scratch;
+    }
+
+    /**
+     * Copies the encoded row from the scratch into the pages
+     *
+     * @return page and offset of the row
+     */
+    private long place(final int length) {
+        byte[] page = pages[pages.length - 1];
+        if (position + length > page.length) {
+            if (position + length <= PAGE_SIZE) {
+                page = Arrays.copyOf(page, (int) Math.min(PAGE_SIZE, Math.max(page.length * 2L, position + length)));
+                pages[pages.length - 1] = page;
+            } else {
+                pages[pages.length - 1] = Arrays.copyOf(page, position);
+                page = new byte[Math.max(length, 64 * 1024)];
+                pages = Arrays.copyOf(pages, pages.length + 1);
+                pages[pages.length - 1] = page;
+                position = 0;
+            }
+        }
+        System.arraycopy(scratch, 0, page, position, length);
+        final long result = ((long) (pages.length - 1) << PAGE_BITS) | position;
+        position += length;
+        return result;
+    }
+
+    private static int varint(final byte[] target, final int position, final long value) {
+        int i = position;
+        long rest = value;
+        while ((rest & ~0x7FL) != 0) {
+            target[i++] = (byte) ((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        target[i++] = (byte) rest;
+        return i;
+    }
+
+    private static long readVarint(final byte[] source, final int position) {
+        long result = 0;
+        int shift = 0;
+        int i = position;
+        byte b;
+        do {
+            b = source[i++];
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    private static int skipVarint(final byte[] source, final int position) {
+        int i = position;
+        while ((source[i++] & 0x80) != 0) {
+            // continuation byte
+        }
+        return i;
+    }
+
+    /**
+     * Open addressing dictionary of one column - disabled after {@link #MAX_DICTIONARY_SIZE} distinct values
+     */
+    private final class Dictionary {
+
+        private int[] slots = new int[16];
+        private int count;
+        private boolean disabled;
+
+        /**
+         * @return id of the value in the table dictionary - -1 if the column has too many distinct values
+         */
+        private int idOf(final CharSequence value) {
+            if (disabled) {
+                return -1;
+            }
+            final int hash = hash(value);
+            int slot = hash & (slots.length - 1);
+            while (slots[slot] != 0) {
+                final String existing = dictionary[slots[slot] - 1];
+                if (existing.length() == value.length() && CharSequence.compare(existing, value) == 0) {
+                    return slots[slot] - 1;
+                }
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            if (count == MAX_DICTIONARY_SIZE) {
+                disabled = true;
+                slots = null;
+                return -1;
+            } else if (dictionarySize == dictionary.length) {
+                dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+            }
+            dictionary[dictionarySize] = value.toString();
+            slots[slot] = ++dictionarySize;
+            if (++count * 2 > slots.length) {
+                rehash();
+            }
+            return dictionarySize - 1;
+        }
+
+        private void rehash() {
+            final int[] old = slots;
+            slots = new int[old.length * 2];
+            for (int id : old) {
+                if (id != 0) {
+                    int slot = hash(dictionary[id - 1]) & (slots.length - 1);
+                    while (slots[slot] != 0) {
+                        slot = (slot + 1) & (slots.length - 1);
+                    }
+                    slots[slot] = id;
+                }
+            }
+        }
+
+        private int hash(final CharSequence value) {
+            int hash = 0;
+            for (int i = 0; i < value.length(); i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package berlin.yuna.model;
+
+/**
+ * Lightweight view of a {@link CsvTable} row - holds only the table and the row index, values are decoded on access
+ */
+public class CsvTableRow extends CsvRowView {
+
+    private final CsvTable table;
+
+    /**
+     * @return number of columns of the row
+     */
+    @Override
+    public int size() {
+        return table.columns((int) index);
+    }
+
+    /**
+     * @param index index of the column
+     * @return value of the column - null if the row has no such column
+     */
+    @Override
+    public CharSequence getChars(final int index) {
+        return table.value((int) this.index, index);
+    }
+
+    @Override
+    public String get(final int index) {
+        return table.value((int) this.index, index);
+    }
+
+    protected CsvTableRow(final CsvTable table, final int row) {
+        this.table = table;
+        this.index = row;
+        this.header = table.header();
+        this.decimalSeparator = table.decimalSeparator();
+    }
+}
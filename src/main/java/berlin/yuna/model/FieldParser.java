@@ -0,0 +1,334 @@
+package berlin.yuna.model;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+/**
+ * Parses column slices without creating intermediate Strings - used by {@link CsvRowView} and the byte tokenizer.
+ * <p>The methods only handle the plain formats and return a marker for everything else
+ * ({@link #NO_LONG}, {@link Double#NaN} or null), callers fall back to the JDK parsers for exponents, long fractions or error messages.</p>
+ */
+public final class FieldParser {
+
+    /**
+     * Marker of {@link #parseLong(CharSequence, int, int)} and {@link #parseEpochMillis(CharSequence, int, int)} for unsupported input
+     */
+    public static final long NO_LONG = Long.MIN_VALUE;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final int MAX_DOUBLE_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private FieldParser() {
+    }
+
+    /**
+     * @param value slice owner
+     * @param start first char (inclusive)
+     * @param end   last char (exclusive)
+     * @return parsed integer with up to 18 digits - {@link #NO_LONG} otherwise
+     */
+    public static long parseLong(final CharSequence value, final int start, final int end) {
+        int i = start;
+        final boolean negative = i < end && value.charAt(i) == '-';
+        if (i < end && (negative || value.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end || end - i > MAX_LONG_DIGITS) {
+            return NO_LONG;
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_LONG;
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * @param buffer slice owner - the position is not changed
+     * @param start  first byte (inclusive)
+     * @param end    last byte (exclusive)
+     * @return parsed integer with up to 18 digits - {@link #NO_LONG} otherwise
+     */
+    public static long parseLong(final ByteBuffer buffer, final int start, final int end) {
+        int i = start;
+        final boolean negative = i < end && buffer.get(i) == '-';
+        if (i < end && (negative || buffer.get(i) == '+')) {
+            i++;
+        }
+        if (i == end || end - i > MAX_LONG_DIGITS) {
+            return NO_LONG;
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            final int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_LONG;
+            }
+            result = result * 10 + digit;
+        }
+        return negative ? -result : result;
+    }
+
+    /**
+     * Mantissa and power of ten are exact for up to 15 digits, so the division is rounded correctly
+     *
+     * @param value            slice owner
+     * @param start            first char (inclusive)
+     * @param end              last char (exclusive)
+     * @param decimalSeparator separator of the fraction, e.g. '.' or ','
+     * @return parsed plain decimal with up to 15 digits - {@link Double#NaN} otherwise
+     */
+    public static double parseDouble(final CharSequence value, final int start, final int end, final char decimalSeparator) {
+        int i = start;
+        final boolean negative = i < end && value.charAt(i) == '-';
+        if (i < end && (negative || value.charAt(i) == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            final char c = value.charAt(i);
+            if (c == decimalSeparator && scale < 0) {
+                scale = 0;
+                continue;
+            } else if (c < '0' || c > '9' || digits == MAX_DOUBLE_DIGITS) {
+                return Double.NaN;
+            } else if (scale >= 0) {
+                scale++;
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            digits++;
+        }
+        return toDouble(mantissa, digits, scale, negative);
+    }
+
+    /**
+     * Byte variant of {@link #parseDouble(CharSequence, int, int, char)}
+     *
+     * @param buffer           slice owner - the position is not changed
+     * @param start            first byte (inclusive)
+     * @param end              last byte (exclusive)
+     * @param decimalSeparator separator of the fraction, e.g. '.' or ','
+     * @return parsed plain decimal with up to 15 digits - {@link Double#NaN} otherwise
+     */
+    public static double parseDouble(final ByteBuffer buffer, final int start, final int end, final char decimalSeparator) {
+        int i = start;
+        final boolean negative = i < end && buffer.get(i) == '-';
+        if (i < end && (negative || buffer.get(i) == '+')) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            final byte b = buffer.get(i);
+            if (b == decimalSeparator && scale < 0) {
+                scale = 0;
+                continue;
+            } else if (b < '0' || b > '9' || digits == MAX_DOUBLE_DIGITS) {
+                return Double.NaN;
+            } else if (scale >= 0) {
+                scale++;
+            }
+            mantissa = mantissa * 10 + (b - '0');
+            digits++;
+        }
+        return toDouble(mantissa, digits, scale, negative);
+    }
+
+    /**
+     * @param value            slice owner
+     * @param start            first char (inclusive)
+     * @param end              last char (exclusive)
+     * @param decimalSeparator separator of the fraction, e.g. '.' or ','
+     * @return exact decimal of a plain number with up to 18 digits - null otherwise
+     */
+    public static BigDecimal parseBigDecimal(final CharSequence value, final int start, final int end, final char decimalSeparator) {
+        int i = start;
+        final boolean negative = i < end && value.charAt(i) == '-';
+        if (i < end && (negative || value.charAt(i) == '+')) {
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < end; i++) {
+            final char c = value.charAt(i);
+            if (c == decimalSeparator && scale < 0) {
+                scale = 0;
+                continue;
+            } else if (c < '0' || c > '9' || digits == MAX_LONG_DIGITS) {
+                return null;
+            } else if (scale >= 0) {
+                scale++;
+            }
+            unscaled = unscaled * 10 + (c - '0');
+            digits++;
+        }
+        return digits == 0 ? null : BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0));
+    }
+
+    /**
+     * @param value slice owner
+     * @param start first char (inclusive)
+     * @param end   last char (exclusive)
+     * @return 1 for [true, yes, y, 1], 0 for [false, no, n, 0] (case insensitive) - -1 otherwise
+     */
+    public static int parseBoolean(final CharSequence value, final int start, final int end) {
+        if (equalsIgnoreCase(value, start, end, "true") || equalsIgnoreCase(value, start, end, "yes") || equalsIgnoreCase(value, start, end, "y") || equalsIgnoreCase(value, start, end, "1")) {
+            return 1;
+        } else if (equalsIgnoreCase(value, start, end, "false") || equalsIgnoreCase(value, start, end, "no") || equalsIgnoreCase(value, start, end, "n") || equalsIgnoreCase(value, start, end, "0")) {
+            return 0;
+        }
+        return -1;
+    }
+
+    /**
+     * @param value slice owner
+     * @param start first char (inclusive)
+     * @param end   last char (exclusive)
+     * @return date of the ISO format [yyyy-MM-dd] - null for other formats and dates which do not exist
+     */
+    public static LocalDate parseDate(final CharSequence value, final int start, final int end) {
+        final long epochDay = end - start == 10 ? epochDay(value, start) : NO_LONG;
+        return epochDay == NO_LONG ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Parses epoch millis [1700000000000] or ISO timestamps [yyyy-MM-dd], [yyyy-MM-ddTHH:mm[:ss[.SSS]]][Z|+HH:mm|+HHmm|+HH].
+     * The separator between date and time can also be a space, timestamps without offset are UTC.
+     *
+     * @param value slice owner
+     * @param start first char (inclusive)
+     * @param end   last char (exclusive)
+     * @return milliseconds since 1970-01-01T00:00:00Z - {@link #NO_LONG} for other formats
+     */
+    public static long parseEpochMillis(final CharSequence value, final int start, final int end) {
+        if (end - start < 10 || value.charAt(start + 4) != '-') {
+            return parseLong(value, start, end);
+        }
+        final long epochDay = epochDay(value, start);
+        if (epochDay == NO_LONG) {
+            return NO_LONG;
+        } else if (end - start == 10) {
+            return epochDay * MILLIS_PER_DAY;
+        }
+        final char separator = value.charAt(start + 10);
+        int i = start + 11;
+        final int hour = separator == 'T' || separator == 't' || separator == ' ' ? digits(value, i, 2, end) : -1;
+        final int minute = i + 2 < end && value.charAt(i + 2) == ':' ? digits(value, i + 3, 2, end) : -1;
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return NO_LONG;
+        }
+        i += 5;
+        int second = 0;
+        if (i < end && value.charAt(i) == ':') {
+            second = digits(value, i + 1, 2, end);
+            i += 3;
+        }
+        int millis = 0;
+        if (second >= 0 && i < end && (value.charAt(i) == '.' || value.charAt(i) == ',')) {
+            int digits = 0;
+            for (i++; i < end && value.charAt(i) >= '0' && value.charAt(i) <= '9'; i++, digits++) {
+                millis = digits < 3 ? millis * 10 + (value.charAt(i) - '0') : millis;
+            }
+            millis = digits == 0 ? -1 : millis * (digits == 1 ? 100 : digits == 2 ? 10 : 1);
+        }
+        final int offset = offsetSeconds(value, i, end);
+        if (second < 0 || second > 59 || millis < 0 || offset == Integer.MIN_VALUE) {
+            return NO_LONG;
+        }
+        return epochDay * MILLIS_PER_DAY + ((hour * 60L + minute) * 60L + second - offset) * 1000L + millis;
+    }
+
+    private static double toDouble(final long mantissa, final int digits, final int scale, final boolean negative) {
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        final double result = scale > 0 ? mantissa / POWERS_OF_TEN[scale] : mantissa;
+        return negative ? -result : result;
+    }
+
+    /**
+     * @return offset of [Z|+HH:mm|+HHmm|+HH] or nothing in seconds - {@link Integer#MIN_VALUE} for other formats
+     */
+    private static int offsetSeconds(final CharSequence value, final int start, final int end) {
+        if (start == end) {
+            return 0;
+        } else if (end - start == 1 && (value.charAt(start) == 'Z' || value.charAt(start) == 'z')) {
+            return 0;
+        } else if (value.charAt(start) != '+' && value.charAt(start) != '-') {
+            return Integer.MIN_VALUE;
+        }
+        final int hours = digits(value, start + 1, 2, end);
+        final int length = end - start;
+        final int minutes = length == 3 ? 0 : length == 5 ? digits(value, start + 3, 2, end) : length == 6 && value.charAt(start + 3) == ':' ? digits(value, start + 4, 2, end) : -1;
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        final int result = hours * 3600 + minutes * 60;
+        return value.charAt(start) == '-' ? -result : result;
+    }
+
+    /**
+     * Days since 1970-01-01 of [yyyy-MM-dd] - civil calendar algorithm without allocations
+     *
+     * @return epoch day - {@link #NO_LONG} if the date is not [yyyy-MM-dd] or does not exist
+     */
+    private static long epochDay(final CharSequence value, final int start) {
+        final int year = digits(value, start, 4);
+        final int month = value.charAt(start + 4) == '-' ? digits(value, start + 5, 2) : -1;
+        final int day = value.charAt(start + 7) == '-' ? digits(value, start + 8, 2) : -1;
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return NO_LONG;
+        }
+        final long y = month <= 2 ? year - 1L : year;
+        final long era = y / 400;
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int lengthOfMonth(final int year, final int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static int digits(final CharSequence value, final int start, final int count, final int end) {
+        return start + count > end ? -1 : digits(value, start, count);
+    }
+
+    private static int digits(final CharSequence value, final int start, final int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static boolean equalsIgnoreCase(final CharSequence value, final int start, final int end, final String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(value.charAt(start + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
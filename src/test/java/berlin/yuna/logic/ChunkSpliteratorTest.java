@@ -0,0 +1,102 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvIndexRow;
+import berlin.yuna.model.CsvRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class ChunkSpliteratorTest {
+
+    @Test
+    void chunksKeepRecordsTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("chunks.csv"), 200);
+        final List<CsvRow> expected = csvReader().readAllRows(file);
+        for (int chunkSize = 1; chunkSize < 300; chunkSize += 13) {
+            assertThat("chunkSize " + chunkSize, read(file, chunkSize, true), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    void unorderedChunksTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("unordered.csv"), 200);
+        final List<CsvRow> expected = csvReader().readAllRows(file);
+        try (final ChunkSpliterator<CsvRow> spliterator = spliterator(file, 64, false)) {
+            assertThat(spliterator.characteristics() & Spliterator.ORDERED, is(0));
+            final List<CsvRow> result = StreamSupport.stream(spliterator, true).collect(Collectors.toList());
+            result.sort(Comparator.comparing(row -> Integer.parseInt(row.get(0))));
+            assertThat(result, is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    void parallelReaderTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("parallel.csv"), 20000);
+        final CsvReader reader = csvReader().parallel(4).skipLines(1);
+        assertThat(reader.parallel(), is(4));
+        assertThat(reader.ordered(), is(true));
+        assertThat(reader.readAllRows(file), is(equalTo(csvReader().skipLines(1).readAllRows(file))));
+
+        final List<CsvIndexRow> rows = new ArrayList<>();
+        reader.consume(file, rows::add);
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(rows.get(i).index(), is((long) i));
+            assertThat(rows.get(i).get(0), is(equalTo(String.valueOf(i + 1))));
+        }
+        try (final Stream<CsvRow> stream = csvReader().parallel(4).ordered(false).stream(file)) {
+            assertThat(stream.parallel().count(), is(20000L));
+        }
+        assertThat(csvReader().parallel(-1).parallel(), is(1));
+    }
+
+    static Path writeCsv(final Path file, final int rows) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            if (i % 3 == 0) {
+                sb.append(i).append(",\"multi\nline, ").append(i).append("\",x\r\n");
+            } else if (i % 7 == 0) {
+                sb.append("\n").append(i).append(",\"quoted \"\"").append(i).append("\"\"\",y\n");
+            } else {
+                sb.append(i).append(",plain ").append(i).append(",z\n");
+            }
+        }
+        return Files.writeString(file, sb.toString());
+    }
+
+    private static List<CsvRow> read(final Path file, final long chunkSize, final boolean ordered) throws IOException {
+        try (final ChunkSpliterator<CsvRow> spliterator = spliterator(file, chunkSize, ordered)) {
+            return StreamSupport.stream(spliterator, false).collect(Collectors.toList());
+        }
+    }
+
+    private static ChunkSpliterator<CsvRow> spliterator(final Path file, final long chunkSize, final boolean ordered) throws IOException {
+        return new ChunkSpliterator<>(
+                file,
+                (channel, offset) -> new CsvTokenizer(new ChannelSource(channel, 16, offset), UTF_8, ','),
+                ChunkSpliterator::rows,
+                0,
+                Files.size(file),
+                chunkSize,
+                3,
+                ordered
+        );
+    }
+}
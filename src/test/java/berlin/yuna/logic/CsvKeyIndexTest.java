@@ -0,0 +1,196 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvEngine;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.IoCsvException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class CsvKeyIndexTest {
+
+    @Test
+    void lookupTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeProducts(tmpDir.resolve("products.csv"), 0, 5000);
+        try (final CsvKeyIndex index = csvReader().header(true).keyIndex(file, 0)) {
+            assertThat(index.size(), is(5000L));
+            assertThat(index.keyColumn(), is(0));
+            assertThat(index.indexedSize(), is(Files.size(file)));
+            assertThat(index.indexFile(), is(equalTo(tmpDir.resolve("products.csv.0.key"))));
+            assertThat(Files.size(index.indexFile()), is((long) CsvKeyIndex.HEADER_SIZE + 16384L * CsvKeyIndex.SLOT_SIZE));
+
+            final List<CsvRow> rows = index.lookup("p4711");
+            assertThat(rows, is(equalTo(List.of(csvRowOf("p4711", "name 4711", "4711")))));
+            assertThat(rows.get(0).get("price"), is(equalTo("4711")));
+            assertThat(index.lookup("p3").get(0).get(1), is(equalTo("multi\nline 3")));
+            assertThat(index.lookup("p5000").isEmpty(), is(true));
+            assertThat(index.lookup("id").isEmpty(), is(true));
+        }
+    }
+
+    @Test
+    void duplicateKeyTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("duplicates.csv"), "a,1\nb,2\n\na,3\n\"a\",4\nc\n");
+        try (final CsvKeyIndex index = csvReader().keyIndex(file, 0)) {
+            assertThat(index.size(), is(5L));
+            assertThat(index.lookup("a"), is(equalTo(List.of(csvRowOf("a", "1"), csvRowOf("a", "3"), csvRowOf("a", "4")))));
+            assertThat(index.lookup(new StringBuilder("c")), is(equalTo(List.of(csvRowOf(List.of("c"))))));
+        }
+        try (final CsvKeyIndex index = csvReader().keyIndex(file, 1)) {
+            assertThat(index.size(), is(4L));
+            assertThat(index.lookup("3"), is(equalTo(List.of(csvRowOf("a", "3")))));
+        }
+    }
+
+    @Test
+    void appendTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeProducts(tmpDir.resolve("append.csv"), 0, 100);
+        final CsvReader reader = csvReader().header(true);
+        final long indexed;
+        try (final CsvKeyIndex index = reader.keyIndex(file, 0)) {
+            indexed = index.indexedSize();
+            corruptSlots(index.indexFile(), false);
+        }
+        final StringBuilder appended = new StringBuilder();
+        for (int i = 100; i < 2000; i++) {
+            appended.append("p").append(i).append(",name ").append(i).append(',').append(i).append('\n');
+        }
+        Files.writeString(file, appended, StandardOpenOption.APPEND);
+        try (final CsvKeyIndex index = reader.keyIndex(file, 0)) {
+            assertThat(index.size(), is(2000L));
+            assertThat(index.indexedSize(), is(Files.size(file)));
+            assertThat(index.lookup("p1999").get(0).get(2), is(equalTo("1999")));
+            //resumed - the manipulated slot of the first build is still there
+            assertThat(index.lookup("p50").isEmpty(), is(true));
+            assertThat(index.indexedSize() > indexed, is(true));
+        }
+    }
+
+    @Test
+    void rebuildTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeProducts(tmpDir.resolve("rebuild.csv"), 0, 100);
+        final CsvReader reader = csvReader().header(true);
+        try (final CsvKeyIndex index = reader.keyIndex(file, 0)) {
+            corruptSlots(index.indexFile(), false);
+        }
+        writeProducts(file, 1, 100);
+        try (final CsvKeyIndex index = reader.keyIndex(file, 0)) {
+            assertThat(index.size(), is(100L));
+            assertThat(index.lookup("p50").get(0).get(2), is(equalTo("51")));
+        }
+        try (final CsvKeyIndex index = reader.keyIndex(file, 0)) {
+            corruptSlots(index.indexFile(), true);
+        }
+        try (final CsvKeyIndex index = reader.keyIndex(file, 0)) {
+            assertThat(index.lookup("p50").size(), is(1));
+        }
+        try (final CsvKeyIndex index = csvReader().keyIndex(file, 0)) {
+            assertThat(index.size(), is(101L));
+            assertThat(index.lookup("id").size(), is(1));
+        }
+        assertThrows(IoCsvException.class, () -> csvReader().engine(CsvEngine.LINES).keyIndex(file, 0));
+    }
+
+    @Test
+    void modifiedTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeProducts(tmpDir.resolve("modified.csv"), 0, 2000);
+        final CsvReader reader = csvReader().header(true);
+        try (final CsvKeyIndex index = reader.keyIndex(file, 0)) {
+            assertThat(index.lookup("p1").size(), is(1));
+        }
+        //same size and same tail - only the modification time tells
+        final FileTime modified = Files.getLastModifiedTime(file);
+        Files.writeString(file, Files.readString(file).replaceFirst("\np1,", "\nq1,"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 10_000));
+        try (final CsvKeyIndex index = reader.keyIndex(file, 0)) {
+            assertThat(index.lookup("p1").isEmpty(), is(true));
+            assertThat(index.lookup("q1").get(0).get(1), is(equalTo("name 1")));
+        }
+    }
+
+    @Test
+    void closedTest(@TempDir final Path tmpDir) throws Exception {
+        final Path file = writeProducts(tmpDir.resolve("closed.csv"), 0, 1000);
+        final CsvKeyIndex index = csvReader().header(true).unmap(true).keyIndex(file, 0);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Integer>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lookups.add(executor.submit(() -> {
+                    int found = 0;
+                    try {
+                        for (int key = 0; ; key = (key + 1) % 1000) {
+                            found += index.lookup("p" + key).size();
+                        }
+                    } catch (IoCsvException e) {
+                        assertThat(e.getMessage(), is(equalTo("Key index is closed [" + index.indexFile() + "]")));
+                        return found;
+                    }
+                }));
+            }
+            Thread.sleep(50);
+            index.close();
+            for (Future<Integer> lookup : lookups) {
+                assertThat(lookup.get(10, TimeUnit.SECONDS) >= 0, is(true));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThrows(IoCsvException.class, () -> index.lookup("p1"));
+    }
+
+    @Test
+    void resourceTest() throws IOException {
+        final Path tmpDir = Path.of(System.getProperty("java.io.tmpdir"));
+        final Path indexFile;
+        try (final CsvKeyIndex index = csvReader().keyIndex(CsvReaderTest.EXAMPLE_CSV, 0)) {
+            indexFile = index.indexFile();
+            assertThat(indexFile.getParent(), is(equalTo(tmpDir)));
+            assertThat(index.size() > 0, is(true));
+        }
+        assertThat(Files.exists(indexFile), is(false));
+    }
+
+    /**
+     * Removes all slots - or marks the index as incomplete
+     */
+    private static void corruptSlots(final Path indexFile, final boolean incomplete) throws IOException {
+        try (final FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            if (incomplete) {
+                channel.write(ByteBuffer.allocate(8).putLong(0, -1), 24);
+            } else {
+                channel.write(ByteBuffer.allocate((int) channel.size() - CsvKeyIndex.HEADER_SIZE), CsvKeyIndex.HEADER_SIZE);
+            }
+        }
+    }
+
+    private static Path writeProducts(final Path file, final int priceShift, final int rows) throws IOException {
+        final StringBuilder sb = new StringBuilder("id,name,price\n");
+        for (int i = 0; i < rows; i++) {
+            sb.append("p").append(i).append(',').append(i % 3 == 0 ? "\"multi\nline " + i + "\"" : "name " + i).append(',').append(i + priceShift).append('\n');
+        }
+        return Files.writeString(file, sb.toString());
+    }
+}
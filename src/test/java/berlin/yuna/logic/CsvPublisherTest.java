@@ -0,0 +1,217 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.IoCsvException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static berlin.yuna.logic.ChunkSpliteratorTest.writeCsv;
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class CsvPublisherTest {
+
+    @Test
+    void demandTest() {
+        final AtomicInteger pulled = new AtomicInteger(0);
+        final AtomicInteger closed = new AtomicInteger(0);
+        final CsvPublisher<Integer> publisher = new CsvPublisher<>(() -> Stream.iterate(0, i -> i + 1).limit(10).peek(i -> pulled.incrementAndGet()).onClose(closed::incrementAndGet), Runnable::run);
+        final Recorder<Integer> recorder = new Recorder<>();
+        publisher.subscribe(recorder);
+        assertThat(pulled.get(), is(0));
+
+        recorder.subscription.request(3);
+        assertThat(recorder.items, is(equalTo(List.of(0, 1, 2))));
+        assertThat(pulled.get(), is(3));
+
+        recorder.subscription.request(Long.MAX_VALUE);
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertThat(recorder.items.size(), is(10));
+        assertThat(recorder.completed, is(true));
+        assertThat(recorder.error, is(nullValue()));
+        assertThat(closed.get(), is(1));
+    }
+
+    @Test
+    void cancelTest() {
+        final AtomicInteger closed = new AtomicInteger(0);
+        final CsvPublisher<Integer> publisher = new CsvPublisher<>(() -> Stream.iterate(0, i -> i + 1).onClose(closed::incrementAndGet), Runnable::run);
+        final Recorder<Integer> recorder = new Recorder<>();
+        recorder.cancelAfter = 5;
+        publisher.subscribe(recorder);
+        recorder.subscription.request(100);
+        assertThat(recorder.items.size(), is(5));
+        assertThat(closed.get(), is(1));
+        recorder.subscription.request(100);
+        assertThat(recorder.items.size(), is(5));
+        assertThat(recorder.completed, is(false));
+    }
+
+    @Test
+    void invalidRequestTest() {
+        final AtomicInteger closed = new AtomicInteger(0);
+        final CsvPublisher<Integer> publisher = new CsvPublisher<>(() -> Stream.of(1, 2).onClose(closed::incrementAndGet), Runnable::run);
+        final Recorder<Integer> recorder = new Recorder<>();
+        publisher.subscribe(recorder);
+        recorder.subscription.request(1);
+        recorder.subscription.request(0);
+        assertThat(recorder.items, is(equalTo(List.of(1))));
+        assertThat(recorder.error, is(instanceOf(IllegalArgumentException.class)));
+        assertThat(closed.get(), is(1));
+    }
+
+    @Test
+    void closeErrorTest() {
+        final AtomicInteger drained = new AtomicInteger(0);
+        final CsvPublisher<Integer> publisher = new CsvPublisher<>(() -> Stream.of(1, 2).onClose(() -> {
+            throw new IllegalStateException("close");
+        }), task -> {
+            drained.incrementAndGet();
+            task.run();
+        });
+        final Recorder<Integer> recorder = new Recorder<>();
+        publisher.subscribe(recorder);
+        recorder.subscription.request(5);
+        assertThat(recorder.items, is(equalTo(List.of(1, 2))));
+        assertThat(recorder.completed, is(false));
+        assertThat(recorder.error, is(instanceOf(IllegalStateException.class)));
+        //the drain loop was released
+        recorder.subscription.request(1);
+        assertThat(drained.get(), is(2));
+    }
+
+    @Test
+    void onNextErrorTest() {
+        final AtomicInteger closed = new AtomicInteger(0);
+        final CsvPublisher<Integer> publisher = new CsvPublisher<>(() -> Stream.iterate(0, i -> i + 1).onClose(closed::incrementAndGet), Runnable::run);
+        final Recorder<Integer> recorder = new Recorder<>();
+        recorder.failAfter = 3;
+        publisher.subscribe(recorder);
+        //the synchronous executor gets the error of the subscriber
+        final IllegalStateException error = assertThrows(IllegalStateException.class, () -> recorder.subscription.request(10));
+        assertThat(error.getMessage(), is(equalTo("onNext")));
+        assertThat(recorder.items.size(), is(3));
+        assertThat(recorder.error, is(nullValue()));
+        assertThat(closed.get(), is(1));
+        recorder.subscription.request(10);
+        assertThat(recorder.items.size(), is(3));
+    }
+
+    @Test
+    void fileErrorTest(@TempDir final Path tmpDir) {
+        final Recorder<CsvRow> recorder = new Recorder<>();
+        csvReader().publisher(tmpDir.resolve("missing.csv"), 10, Runnable::run).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(final List<CsvRow> item) {
+                recorder.onNext(item.get(0));
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                recorder.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                recorder.onComplete();
+            }
+        });
+        assertThat(recorder.error, is(instanceOf(IoCsvException.class)));
+    }
+
+    @Test
+    void publishFileTest(@TempDir final Path tmpDir) throws IOException, InterruptedException {
+        final Path file = writeCsv(tmpDir.resolve("publish.csv"), 1000);
+        final List<CsvRow> expected = csvReader().readAllRows(file);
+
+        final Recorder<CsvRow> rows = new Recorder<>();
+        rows.requestOnNext = true;
+        csvReader().publisher(file).subscribe(rows);
+        assertThat(rows.done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(rows.items, is(equalTo(expected)));
+
+        final Recorder<List<CsvRow>> batches = new Recorder<>();
+        batches.requestOnNext = true;
+        csvReader().publisher(file, 300, ForkJoinPool.commonPool()).subscribe(batches);
+        assertThat(batches.done.await(10, TimeUnit.SECONDS), is(true));
+        assertThat(batches.items.stream().map(List::size).collect(Collectors.toList()), is(equalTo(List.of(300, 300, 300, 100))));
+        assertThat(batches.items.stream().flatMap(List::stream).collect(Collectors.toList()), is(equalTo(expected)));
+    }
+
+    @Test
+    void batchesTest() {
+        final AtomicInteger closed = new AtomicInteger(0);
+        try (final Stream<List<Integer>> batches = CsvPublisher.batches(Stream.of(1, 2, 3, 4, 5).onClose(closed::incrementAndGet), 2)) {
+            assertThat(batches.collect(Collectors.toList()), is(equalTo(List.of(List.of(1, 2), List.of(3, 4), List.of(5)))));
+        }
+        assertThat(closed.get(), is(1));
+    }
+
+    private static class Recorder<T> implements Flow.Subscriber<T> {
+
+        private final List<T> items = new ArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+        private boolean requestOnNext;
+        private int cancelAfter = -1;
+        private int failAfter = -1;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (requestOnNext) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(final T item) {
+            items.add(item);
+            if (items.size() == failAfter) {
+                throw new IllegalStateException("onNext");
+            } else if (items.size() == cancelAfter) {
+                subscription.cancel();
+            } else if (requestOnNext) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+    }
+}
@@ -1,26 +1,49 @@
 package berlin.yuna.logic;
 
+import berlin.yuna.model.CsvBatch;
+import berlin.yuna.model.CsvColumnType;
+import berlin.yuna.model.CsvDialect;
+import berlin.yuna.model.CsvEngine;
+import berlin.yuna.model.CsvFilter;
+import berlin.yuna.model.CsvIndexRow;
+import berlin.yuna.model.CsvInputMode;
+import berlin.yuna.model.CsvOffsetIndex;
 import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.CsvRowView;
+import berlin.yuna.model.CsvSortKey;
+import berlin.yuna.model.CsvTable;
 import berlin.yuna.model.IoCsvException;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
+import static berlin.yuna.logic.ChunkSpliteratorTest.writeCsv;
 import static berlin.yuna.logic.CsvReader.csvReader;
 import static berlin.yuna.logic.StreamCSV.streamCSV;
 import static berlin.yuna.model.CsvRow.csvRowOf;
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_16;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.core.Is.is;
@@ -44,6 +67,338 @@ public class CsvReaderTest {
         validateExampleCsv(csv);
     }
 
+    @Test
+    void consumeViewTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("numbers.csv"), "id,amount\n1,2.5\n\n2,\"-1.25\"\n3,4\n");
+        for (CsvEngine engine : CsvEngine.values()) {
+            final List<CsvRow> csv = new ArrayList<>();
+            csvReader().engine(engine).consumeView(EXAMPLE_CSV, view -> csv.add(view.toCsvRow()));
+            validateExampleCsv(csv);
+
+            final List<Long> indices = new ArrayList<>();
+            final double[] sum = new double[1];
+            csvReader().engine(engine).skipLines(1).consumeView(file, view -> {
+                indices.add(view.index());
+                sum[0] += view.getLong(0) * view.getDouble(1);
+            });
+            assertThat(indices, is(equalTo(List.of(0L, 1L, 2L))));
+            assertThat(sum[0], is(12.0));
+        }
+    }
+
+    @Test
+    void columnsTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("columns.csv"), "id,name,\"city\"\n1,\"Yuna, B\",Berlin\n\n2,Kai\n");
+        for (CsvEngine engine : CsvEngine.values()) {
+            final List<CsvRow> expected = List.of(csvRowOf("city", "id"), csvRowOf("Berlin", "1"), csvRowOf(null, "2"));
+            assertThat(csvReader().engine(engine).columns(2, 0).readAllRows(file), is(equalTo(expected)));
+            assertThat(csvReader().engine(engine).columns("city", "id").readAllRows(file), is(equalTo(expected)));
+            assertThat(csvReader().engine(engine).columns("name").skipLines(1).parallel(2).readAllRows(file), is(equalTo(List.of(csvRowOf(List.of("Yuna, B")), csvRowOf(List.of("Kai"))))));
+
+            final IoCsvException exception = assertThrows(IoCsvException.class, () -> csvReader().engine(engine).columns("id", "unknown").readAllRows(file));
+            assertThat(exception.getMessage(), is(equalTo("Column not found [unknown] in header [id, name, city]")));
+        }
+        assertThrows(IoCsvException.class, () -> csvReader().columns(-1));
+    }
+
+    @Test
+    void filtersTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("filters.csv"), "id,city,amount\n1,Berlin,10\n2,Bern,20\n\n3,Hamburg,30\n4,Berlin,40\n");
+        for (CsvEngine engine : CsvEngine.values()) {
+            final CsvReader reader = csvReader().engine(engine).skipLines(1).filters(CsvFilter.equalTo(1, "Berlin"), CsvFilter.between(2, 0, 30));
+            assertThat(reader.readAllRows(file), is(equalTo(List.of(csvRowOf("1", "Berlin", "10")))));
+            assertThat(reader.columns(2).parallel(2).readAllRows(file), is(equalTo(List.of(csvRowOf(List.of("10"))))));
+            assertThat(csvReader().engine(engine).filters(CsvFilter.startsWith(1, "Ber")).columns("id").readAllRows(file).size(), is(3));
+        }
+    }
+
+    @Test
+    void detectDialectTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("dialect.csv"), "'id';'name'\n'1';'Yuna, B'\n'2';'Berlin'\n");
+        final CsvDialect dialect = csvReader().detectDialect(file);
+        assertThat(dialect, is(equalTo(CsvDialect.csvDialectOf(';', '\'', true))));
+        assertThat(csvReader().detectDialect(Paths.get(EXAMPLE_CSV_SEPARATORS)).separator(), is(';'));
+        assertThat(csvReader().unzip(true).detectDialect(Paths.get("test.csv.zip")).separator(), is(','));
+        final List<CsvRow> rows = csvReader().dialect(dialect).readAllRows(file);
+        assertThat(rows, is(equalTo(List.of(csvRowOf("1", "Yuna, B"), csvRowOf("2", "Berlin")))));
+        assertThat(rows.get(0).get("name"), is(equalTo("Yuna, B")));
+    }
+
+    @Test
+    void autoSepTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("autoSep.csv"), "id|name\n1|\"Yuna|B\"\n\n2|Berlin\n");
+        final Path gzip = tmpDir.resolve("autoSep.csv.gz");
+        try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(Files.readAllBytes(file));
+        }
+        final List<CsvRow> expected = List.of(csvRowOf("id", "name"), csvRowOf("1", "Yuna|B"), csvRowOf("2", "Berlin"));
+        for (CsvEngine engine : CsvEngine.values()) {
+            for (CsvInputMode inputMode : CsvInputMode.values()) {
+                final CsvReader reader = csvReader().autoSep(true).unzip(true).engine(engine).inputMode(inputMode).bufferSize(4);
+                assertThat(reader.readAllRows(file), is(equalTo(expected)));
+                assertThat(reader.readAllRows(gzip), is(equalTo(expected)));
+                assertThat(reader.parallel(2).readAllRows(file), is(equalTo(expected)));
+                assertThat(reader.columns("name").readAllRows(file).get(1), is(equalTo(csvRowOf(List.of("Yuna|B")))));
+            }
+        }
+    }
+
+    @Test
+    void readAheadTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("readAhead.csv"), 2000);
+        final Path gzip = tmpDir.resolve("readAhead.csv.gz");
+        try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(Files.readAllBytes(file));
+        }
+        for (CsvEngine engine : CsvEngine.values()) {
+            final List<CsvRow> expected = csvReader().engine(engine).readAllRows(file);
+            final CsvReader reader = csvReader().engine(engine).unzip(true).bufferSize(64).readAhead(2);
+            assertThat(reader.readAllRows(file), is(equalTo(expected)));
+            assertThat(reader.readAllRows(gzip), is(equalTo(expected)));
+            assertThat(reader.autoSep(true).readAllRows(file), is(equalTo(expected)));
+            try (final Stream<CsvRow> stream = reader.stream(file)) {
+                assertThat(stream.limit(3).count(), is(3L));
+            }
+            final List<CsvRow> rows = reader.autoSep(false).header(true).readAllRows(file);
+            assertThat(rows.size(), is(expected.size() - 1));
+            assertThat(rows.get(0).header().names(), is(equalTo(expected.get(0).toList())));
+        }
+    }
+
+    @Test
+    void offsetIndexTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("index.csv"), 3000);
+        for (CsvInputMode inputMode : CsvInputMode.values()) {
+            final CsvReader reader = csvReader().inputMode(inputMode).bufferSize(64);
+            final List<CsvRow> expected = reader.readAllRows(file);
+            final CsvOffsetIndex index = reader.offsetIndex(file, 100);
+            assertThat(index.rows(), is((long) expected.size()));
+            assertThat(Files.exists(CsvOffsetIndex.indexFileOf(file)), is(true));
+            assertThat(reader.offsetIndex(file, 100), is(equalTo(index)));
+
+            for (long[] range : new long[][]{{0, 10}, {99, 101}, {1234, 1500}, {2990, 5000}}) {
+                try (final Stream<CsvIndexRow> stream = reader.streamRange(file, index, range[0], range[1])) {
+                    final List<CsvIndexRow> rows = stream.collect(Collectors.toList());
+                    assertThat(rows, is(equalTo(expected.subList((int) range[0], (int) Math.min(range[1], expected.size())))));
+                    assertThat(rows.get(0).index(), is(range[0]));
+                }
+            }
+            assertThat(reader.readRow(file, index, 1999).orElseThrow(), is(equalTo(expected.get(1999))));
+            assertThat(reader.readRow(file, index, 3000).isPresent(), is(false));
+
+            final long[] splits = index.splits(4);
+            final List<CsvRow> parallel = IntStream.range(0, splits.length - 1).parallel().boxed()
+                    .flatMap(part -> reader.streamRange(file, index, splits[part], splits[part + 1]).collect(Collectors.toList()).stream())
+                    .collect(Collectors.toList());
+            assertThat(parallel, is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    void offsetIndexHeaderTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("header.csv"), "# export\nid,name\n1,Yuna\n\n2,\"Bob\nB\"\n3,Eve\n4,Eve\n");
+        final CsvReader reader = csvReader().skipLines(1).header(true);
+        final CsvOffsetIndex index = reader.offsetIndex(file, 2);
+        assertThat(index.skip(), is(2L));
+        assertThat(index.rows(), is(4L));
+        final CsvIndexRow row = reader.readRow(file, index, 2).orElseThrow();
+        assertThat(row.get("name"), is(equalTo("Eve")));
+        assertThat(row.index(), is(2L));
+        try (final Stream<CsvIndexRow> stream = reader.filters(CsvFilter.equalTo(1, "Eve")).streamRange(file, index, 0, 4)) {
+            assertThat(stream.map(CsvIndexRow::index).collect(Collectors.toList()), is(equalTo(List.of(2L, 3L))));
+        }
+        //records which are rejected at the first column are still counted
+        try (final Stream<CsvIndexRow> stream = reader.filters(CsvFilter.equalTo(0, "3")).streamRange(file, index, 0, 4)) {
+            assertThat(stream.map(CsvIndexRow::index).collect(Collectors.toList()), is(equalTo(List.of(2L))));
+        }
+        assertThat(reader.filters(CsvFilter.equalTo(0, "3")).offsetIndex(file, 3).rows(), is(4L));
+        assertThrows(IoCsvException.class, () -> csvReader().header(true).readRow(file, index, 0));
+
+        final CsvOffsetIndex rebuilt = csvReader().offsetIndex(file, 2);
+        assertThat(rebuilt.skip(), is(-1L));
+        assertThat(rebuilt.rows(), is(6L));
+
+        Files.writeString(file, "id,name\n");
+        assertThrows(IoCsvException.class, () -> reader.readRow(file, index, 0));
+        final Path gzip = tmpDir.resolve("index.csv.gz");
+        try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(Files.readAllBytes(file));
+        }
+        assertThrows(IoCsvException.class, () -> csvReader().unzip(true).offsetIndex(gzip, 10));
+        assertThrows(IoCsvException.class, () -> csvReader().engine(CsvEngine.LINES).offsetIndex(file, 10));
+    }
+
+    @Test
+    void offsetIndexResourceTest() throws IOException {
+        final Path tmpDir = Path.of(System.getProperty("java.io.tmpdir"));
+        final CsvOffsetIndex index = csvReader().offsetIndex(EXAMPLE_CSV, 2);
+        assertThat(index.rows(), is((long) csvReader().readAllRows(EXAMPLE_CSV).size()));
+        try (final Stream<Path> files = Files.list(tmpDir)) {
+            assertThat(files.map(Path::getFileName).map(Path::toString).filter(name -> name.startsWith(CsvReader.class.getSimpleName() + "_") && name.endsWith(".idx")).count(), is(0L));
+        }
+    }
+
+    @Test
+    void readTableTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("table.csv"), 3000);
+        for (CsvEngine engine : CsvEngine.values()) {
+            final CsvReader reader = csvReader().engine(engine);
+            final CsvTable table = reader.readTable(file);
+            assertThat(table.stream().map(CsvRowView::toCsvRow).collect(Collectors.toList()), is(equalTo(reader.readAllRows(file))));
+            assertThat(table.row(3).get(2), is(sameInstance(table.row(6).get(2))));
+        }
+        final CsvTable table = csvReader().header(true).readTable(EXAMPLE_CSV);
+        assertThat(table.header(), is(equalTo(table.row(0).header())));
+        assertThat(table.size(), is(csvReader().header(true).readAllRows(EXAMPLE_CSV).size()));
+        final Path empty = Files.writeString(tmpDir.resolve("empty.csv"), "id,name\n");
+        assertThat(csvReader().header(true).readTable(empty).header().names(), is(equalTo(List.of("id", "name"))));
+    }
+
+    @Test
+    void transcodeTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("input.csv"), "id,name,city\n1,\"say \"\"hi\"\"\",Berlin\n\n2,\"two\nlines\",Zürich\n3,a;b,\"x,y\"\n");
+        final Path target = tmpDir.resolve("output.csv");
+        final CsvWriter writer = CsvWriter.csvWriter().separator(';').lineSeparator("\r\n");
+
+        assertThat(csvReader().header(true).columns(2, 1).transcode(file, target, writer), is(3L));
+        assertThat(Files.readString(target), is(equalTo("city;name\r\nBerlin;\"say \"\"hi\"\"\"\r\nZürich;\"two\nlines\"\r\nx,y;\"a;b\"\r\n")));
+
+        final List<CsvRow> expected = csvReader().columns(2, 1).readAllRows(file);
+        csvReader().columns(2, 1).transcode(file, target, writer);
+        assertThat(csvReader().separator(';').readAllRows(target), is(equalTo(expected)));
+        //other charset is encoded through the column views
+        csvReader().columns(2, 1).transcode(file, target, CsvWriter.csvWriter().charset(UTF_16));
+        assertThat(csvReader().charset(UTF_16).engine(CsvEngine.LINES).readAllRows(target).get(0), is(equalTo(expected.get(0))));
+
+        final Path gzip = tmpDir.resolve("output.csv.gz");
+        final Path large = writeCsv(tmpDir.resolve("large.csv"), 5000);
+        csvReader().engine(CsvEngine.LINES).transcode(large, target, writer);
+        assertThat(csvReader().separator(';').readAllRows(target), is(equalTo(csvReader().engine(CsvEngine.LINES).readAllRows(large))));
+        assertThat(csvReader().transcode(large, gzip, CsvWriter.csvWriter().gzip(true).bufferSize(64)), is(5000L));
+        assertThat(csvReader().unzip(true).readAllRows(gzip), is(equalTo(csvReader().readAllRows(large))));
+        assertThrows(IoCsvException.class, () -> csvReader().transcode(tmpDir.resolve("missing.csv"), target, writer));
+    }
+
+    @Test
+    void sortTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("unsorted.csv"), "id,name,price\n3,c,\"1,5\"\n1,a,10\n\n2,\"b\nb\",2\n");
+        final CsvReader reader = csvReader().header(true).sortMemory(1);
+        try (final Stream<CsvRow> rows = reader.sorted(file, CsvSortKey.csvSortKeyOf(0, CsvColumnType.LONG, false))) {
+            final List<CsvRow> sorted = rows.collect(Collectors.toList());
+            assertThat(sorted, is(equalTo(List.of(csvRowOf("1", "a", "10"), csvRowOf("2", "b\nb", "2"), csvRowOf("3", "c", "1,5")))));
+            assertThat(sorted.get(2).get("price"), is(equalTo("1,5")));
+        }
+        final Path target = tmpDir.resolve("sorted.csv");
+        assertThat(reader.decimalSeparator(',').sort(file, target, CsvWriter.csvWriter(), CsvSortKey.csvSortKeyOf(2, CsvColumnType.DOUBLE, true)), is(3L));
+        assertThat(Files.readString(target), is(equalTo("id,name,price\n1,a,10\n2,\"b\nb\",2\n3,c,\"1,5\"\n")));
+        assertThat(csvReader().sortMemory(0).sortMemory(), is(CsvReader.DEFAULT_SORT_MEMORY));
+        assertThat(csvReader().sortMemory(1024).sortMemory(), is(1024L));
+    }
+
+    @Test
+    void quoteTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("quote.csv"), "'it''s',\"a,b\"\n");
+        assertThat(csvReader().readAllRows(file), is(equalTo(List.of(csvRowOf("it's", "a,b")))));
+        assertThat(csvReader().quote('\'').readAllRows(file), is(equalTo(List.of(csvRowOf("it's", "\"a", "b\"")))));
+        assertThat(csvReader().quote('"').readAllRows(file), is(equalTo(List.of(csvRowOf("'it''s'", "a,b")))));
+    }
+
+    @Test
+    void headerTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("header.csv"), "# export\nid,name,city\n\n1,Yuna,Berlin\n2,Bob,Bern\n3,Eve\n");
+        for (CsvEngine engine : CsvEngine.values()) {
+            for (int parallel = 1; parallel <= 2; parallel++) {
+                final CsvReader reader = csvReader().engine(engine).parallel(parallel).skipLines(1).header(true);
+                final List<CsvRow> rows = reader.readAllRows(file);
+                assertThat(rows.size(), is(3));
+                assertThat(rows.get(0).header().names(), is(equalTo(List.of("id", "name", "city"))));
+                assertThat(rows.get(0).header(), is(sameInstance(rows.get(2).header())));
+                assertThat(rows.get(1).get("city"), is(equalTo("Bern")));
+                assertThat(rows.get(2).get("city"), is(nullValue()));
+
+                final List<CsvRow> projected = reader.columns(2, 0).filters(CsvFilter.startsWith(2, "Ber")).readAllRows(file);
+                assertThat(projected, is(equalTo(List.of(csvRowOf("Berlin", "1"), csvRowOf("Bern", "2")))));
+                assertThat(projected.get(1).get("id"), is(equalTo("2")));
+                assertThat(projected.get(1).get("name"), is(nullValue()));
+            }
+            final List<String> names = new ArrayList<>();
+            csvReader().engine(engine).skipLines(1).header(true).consumeView(file, view -> names.add(view.get("name")));
+            assertThat(names, is(equalTo(List.of("Yuna", "Bob", "Eve"))));
+            final List<String> ids = new ArrayList<>();
+            csvReader().engine(engine).skipLines(1).header(true).consume(file, row -> ids.add(row.get("id")));
+            assertThat(ids, is(equalTo(List.of("1", "2", "3"))));
+        }
+    }
+
+    record City(String city, int id, double amount) {
+    }
+
+    @Test
+    void streamAsTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("streamAs.csv"), "id,city,amount\n1,Berlin,10.5\n\n2,Bern,\n3,Hamburg,-3\n");
+        final List<City> expected = List.of(new City("Berlin", 1, 10.5), new City("Bern", 2, 0), new City("Hamburg", 3, -3));
+        for (CsvEngine engine : CsvEngine.values()) {
+            for (int parallel = 1; parallel <= 2; parallel++) {
+                try (final Stream<City> stream = csvReader().engine(engine).parallel(parallel).header(true).streamAs(file, City.class)) {
+                    assertThat(stream.collect(Collectors.toList()), is(equalTo(expected)));
+                }
+            }
+            try (final Stream<City> stream = csvReader().engine(engine).skipLines(1).columns(1, 0, 2).streamAs(file, City.class)) {
+                assertThat(stream.collect(Collectors.toList()), is(equalTo(expected)));
+            }
+        }
+        assertThrows(IoCsvException.class, () -> {
+            try (final Stream<City> stream = csvReader().streamAs(file, City.class)) {
+                stream.forEach(City::id);
+            }
+        });
+    }
+
+    record Price(String name, BigDecimal price, double discount, LocalDate date) {
+    }
+
+    @Test
+    void decimalSeparatorTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("prices.csv"), "name;price;discount;date\nYuna;1,50;0,25;2024-02-29\nBob;10;;\n");
+        final List<Price> expected = List.of(new Price("Yuna", new BigDecimal("1.50"), 0.25, LocalDate.of(2024, 2, 29)), new Price("Bob", new BigDecimal("10"), 0, null));
+        for (CsvEngine engine : CsvEngine.values()) {
+            final CsvReader reader = csvReader().engine(engine).separator(';').decimalSeparator(',').header(true);
+            try (final Stream<Price> stream = reader.streamAs(file, Price.class)) {
+                assertThat(stream.collect(Collectors.toList()), is(equalTo(expected)));
+            }
+            final List<Double> discounts = new ArrayList<>();
+            reader.consumeView(file, view -> discounts.add(view.getDouble(1)));
+            assertThat(discounts, is(equalTo(List.of(1.5, 10d))));
+        }
+    }
+
+    @Test
+    void batchesTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("batches.csv"), "id,amount,name\n1,2.5,Yuna\n\n2,,Bob\n3,-1,\"B, C\"\n4,7\n5,1e2,Eve\n");
+        for (CsvEngine engine : CsvEngine.values()) {
+            final List<String> result = new ArrayList<>();
+            final CsvReader reader = csvReader().engine(engine).header(true).columnTypes(CsvColumnType.LONG, CsvColumnType.DOUBLE, CsvColumnType.STRING);
+            try (final Stream<CsvBatch> batches = reader.batches(file, 2)) {
+                batches.forEach(batch -> {
+                    long sum = 0;
+                    for (int row = 0; row < batch.size(); row++) {
+                        sum += batch.longs(0)[row];
+                        result.add(batch.index() + row + ":" + batch.getDouble(1, row) + ":" + batch.isNull(1, row) + ":" + batch.getString(2, row));
+                    }
+                    result.add("sum=" + sum);
+                });
+            }
+            assertThat(result, is(equalTo(List.of(
+                    "0:2.5:false:Yuna", "1:0.0:true:Bob", "sum=3",
+                    "2:-1.0:false:B, C", "3:7.0:false:null", "sum=7",
+                    "4:100.0:false:Eve", "sum=5"
+            ))));
+            try (final Stream<CsvBatch> batches = csvReader().engine(engine).batches(file, 100)) {
+                assertThat(batches.map(batch -> batch.getString(0, 0) + batch.size() + batch.type(2)).collect(Collectors.toList()), is(equalTo(List.of("id6STRING"))));
+            }
+        }
+    }
+
     @Test
     void streamCsvTest() {
         final List<CsvRow> csv = new ArrayList<>();
@@ -53,6 +408,40 @@ public class CsvReaderTest {
         validateExampleCsv(csv);
     }
 
+    @Test
+    void enginesTest() {
+        for (CsvEngine engine : CsvEngine.values()) {
+            validateExampleCsv(csvReader().engine(engine).readAllRows(EXAMPLE_CSV));
+            validateExampleCsv(csvReader().engine(engine).bufferSize(16).readAllRows(EXAMPLE_CSV));
+            assertThat(csvReader().engine(engine).skipLines(2).readAllRows(EXAMPLE_CSV), is(equalTo(csvReader().readAllRows(EXAMPLE_CSV).subList(2, 10))));
+        }
+        assertThat(csvReader().charset(UTF_16).readAllRows(EXAMPLE_CSV), is(not(empty())));
+    }
+
+    @Test
+    void generatedQuotesTest(@TempDir final Path tmpDir) throws IOException {
+        //lines with an open '"' quote continue in the next line with the BYTES engine only
+        final List<String> lines = CsvTokenizerTest.generatedLines("a,\"'\\ ", 5).stream()
+                .filter(line -> CsvTokenizerTest.tokenize(line + "\n\"", 16, ',').size() == 2)
+                .collect(Collectors.toList());
+        final List<CsvRow> expected = lines.stream().map(line -> csvRowOf(line, ',')).filter(row -> !row.stream().allMatch(String::isEmpty)).collect(Collectors.toList());
+        final Path file = Files.writeString(tmpDir.resolve("generated.csv"), String.join("\n", lines));
+        assertThat(lines.size() > 3000, is(true));
+        assertThat(csvReader().engine(CsvEngine.LINES).readAllRows(file), is(equalTo(expected)));
+        assertThat(csvReader().readAllRows(file), is(equalTo(expected)));
+        assertThat(csvReader().parallel(4).bufferSize(1024).readAllRows(file), is(equalTo(expected)));
+    }
+
+    @Test
+    void multiLineRecordTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("multiLine.csv"), "\"multi\nline\",1\n\n\"quoted\"\"\n\",2\n");
+        assertThat(csvReader().readAllRows(file), is(equalTo(List.of(csvRowOf("multi\nline", "1"), csvRowOf("quoted\"", "2")))));
+        assertThat(csvReader().engine(CsvEngine.LINES).readAllRows(file).size(), is(4));
+
+        final Path broken = Files.writeString(tmpDir.resolve("broken.csv"), "a,\"b\n" + "c\n".repeat(64));
+        assertThrows(IoCsvException.class, () -> csvReader().maxRecordLength(32).readAllRows(broken));
+    }
+
     @Test
     void csvFileValidations() throws URISyntaxException {
         final Path userDir = Paths.get(System.getProperty("user.dir"));
@@ -84,6 +473,21 @@ public class CsvReaderTest {
         assertThat(csvReader.autoSep(), is(false));
         assertThat(csvReader.autoSep(true).autoSep(), is(true));
 
+        assertThat(csvReader.quote(), is((char) 0));
+        assertThat(csvReader.quote('\'').quote(), is('\''));
+        assertThat(csvReader.dialect(CsvDialect.csvDialectOf('|', '"', true)).separator(), is(new char[]{'|'}));
+        assertThat(csvReader.quote(), is('"'));
+        assertThat(csvReader.autoSep(), is(false));
+        assertThat(csvReader.header(), is(true));
+        assertThat(csvReader.header(false).header(), is(false));
+        assertThat(csvReader.columnTypes().length, is(0));
+        assertThat(csvReader.columnTypes(CsvColumnType.LONG).columnTypes(), is(new CsvColumnType[]{CsvColumnType.LONG}));
+        assertThat(csvReader.columnTypes((CsvColumnType[]) null).columnTypes().length, is(0));
+
+        assertThat(csvReader.decimalSeparator(), is('.'));
+        assertThat(csvReader.decimalSeparator(',').decimalSeparator(), is(','));
+        assertThat(csvReader.decimalSeparator((char) 0).decimalSeparator(), is('.'));
+
         assertThat(csvReader.unzip(), is(false));
         assertThat(csvReader.unzip(true).unzip(), is(true));
 
@@ -92,6 +496,37 @@ public class CsvReaderTest {
 
         assertThat(csvReader.skipLines(), is(-1L));
         assertThat(csvReader.skipLines(1).skipLines(), is(1L));
+
+        assertThat(csvReader.engine(), is(CsvEngine.BYTES));
+        assertThat(csvReader.engine(CsvEngine.LINES).engine(), is(CsvEngine.LINES));
+        assertThat(csvReader.engine(null).engine(), is(CsvEngine.BYTES));
+
+        assertThat(csvReader.bufferSize(), is(CsvTokenizer.DEFAULT_BUFFER_SIZE));
+        assertThat(csvReader.bufferSize(1024).bufferSize(), is(1024));
+        assertThat(csvReader.bufferSize(-1).bufferSize(), is(CsvTokenizer.DEFAULT_BUFFER_SIZE));
+
+        assertThat(csvReader.maxOpenFiles(), is(CsvReader.DEFAULT_MAX_OPEN_FILES));
+        assertThat(csvReader.maxOpenFiles(4).maxOpenFiles(), is(4));
+        assertThat(csvReader.maxOpenFiles(0).maxOpenFiles(), is(CsvReader.DEFAULT_MAX_OPEN_FILES));
+
+        assertThat(csvReader.readAhead(), is(0));
+        assertThat(csvReader.readAhead(4).readAhead(), is(4));
+        assertThat(csvReader.readAhead(-1).readAhead(), is(0));
+
+        assertThat(csvReader.maxRecordLength(), is(CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH));
+        assertThat(csvReader.maxRecordLength(1024).maxRecordLength(), is(1024));
+        assertThat(csvReader.maxRecordLength(0).maxRecordLength(), is(CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH));
+
+        assertThat(csvReader.columns(), is(nullValue()));
+
+        assertThat(csvReader.filters().length, is(0));
+        assertThat(csvReader.filters(CsvFilter.equalTo(0, "a")).filters().length, is(1));
+        assertThat(csvReader.filters((CsvFilter[]) null).filters().length, is(0));
+        assertThat(csvReader.columns(2, 1).columns(), is(new int[]{2, 1}));
+        assertThat(csvReader.columns("b").columnNames(), is(new String[]{"b"}));
+        assertThat(csvReader.columns(), is(nullValue()));
+        assertThat(csvReader.columns(new int[0]).columnNames(), is(nullValue()));
+        assertThat(csvReader.columns(), is(nullValue()));
     }
 
     public static void validateExampleCsv(final List<CsvRow> csv) {
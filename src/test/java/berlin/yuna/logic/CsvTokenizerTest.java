@@ -0,0 +1,296 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.IoCsvException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static berlin.yuna.logic.CsvReaderTest.getResourceFile;
+import static berlin.yuna.logic.CsvTokenizer.isByteCompatible;
+import static berlin.yuna.model.CsvFilter.between;
+import static berlin.yuna.model.CsvFilter.equalTo;
+import static berlin.yuna.model.CsvFilter.startsWith;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class CsvTokenizerTest {
+
+    @Test
+    void sameRowsAsLineParserTest() throws IOException {
+        final List<String> lines = Files.readAllLines(getResourceFile("test.csv"));
+        final List<CsvRow> expected = new ArrayList<>();
+        lines.forEach(line -> expected.add(csvRowOf(line, ',')));
+        for (int bufferSize = 16; bufferSize < 512; bufferSize += 7) {
+            assertThat("bufferSize " + bufferSize, tokenize(String.join("\n", lines), bufferSize, ','), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    void lineEndingsTest() {
+        final List<CsvRow> expected = List.of(csvRowOf("a", "b"), csvRowOf("c", "d"), csvRowOf("e", "f"), csvRowOf("g", ""));
+        assertThat(tokenize("a,b\r\nc,d\re,f\ng,\n", 16, ','), is(equalTo(expected)));
+        assertThat(tokenize("a,b\r\nc,d\re,f\ng,", 16, ','), is(equalTo(expected)));
+    }
+
+    @Test
+    void quotedColumnsTest() {
+        assertThat(tokenize(" ' single ' ; \"dou\"\"ble\" ;\"back\\\"slash\"", 16, ';'),
+                is(equalTo(List.of(csvRowOf("single", "dou\"ble", "back\"slash")))));
+        assertThat(tokenize("\"after\"quote, x", 16, ','), is(equalTo(List.of(csvRowOf("\"after\"quote", "x")))));
+        assertThat(tokenize("a,\"unterminated, quote\nb,c", 16, ','),
+                is(equalTo(List.of(csvRowOf("a", "\"unterminated, quote"), csvRowOf("b", "c")))));
+    }
+
+    @Test
+    void generatedQuotesTest() {
+        //every combination of quotes, escapes, separators and blanks up to 6 chars
+        for (String line : generatedLines("a,\"'\\ ", 6)) {
+            final List<CsvRow> expected = List.of(csvRowOf(line, ','));
+            assertThat("[" + line + "]", tokenize(line, 16, ','), is(equalTo(expected)));
+            assertThat("[" + line + "]", tokenize(line + "\n", 16, ','), is(equalTo(expected)));
+        }
+        assertThat(tokenize("a\"\"b,c", 16, ','), is(equalTo(List.of(csvRowOf("a\"b", "c")))));
+        assertThat(tokenize("don't,\"x\"", 16, ','), is(equalTo(List.of(csvRowOf("don't,\"x\"")))));
+    }
+
+    @Test
+    void apostropheTest() {
+        //only '"' spans lines by default - an apostrophe at the start or inside a column keeps the line like the LINES engine
+        final String csv = "'abc,1\nx,it's\ny,2\n'quoted, too',3\n";
+        final List<CsvRow> expected = List.of(csvRowOf("'abc,1"), csvRowOf("x", "it's"), csvRowOf("y", "2"), csvRowOf("quoted, too", "3"));
+        for (int bufferSize = 16; bufferSize < 64; bufferSize++) {
+            assertThat("bufferSize " + bufferSize, tokenize(csv, bufferSize, ','), is(equalTo(expected)));
+        }
+        assertThat(csv.lines().map(line -> csvRowOf(line, ',')).collect(Collectors.toList()), is(equalTo(expected)));
+        try (final CsvTokenizer tokenizer = tokenizer("'a\nb',c\n", 16, UTF_8, ',').quote('\'')) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.toCsvRow(), is(equalTo(csvRowOf("a\nb", "c"))));
+        }
+    }
+
+    @Test
+    void multiLineRecordTest() {
+        final String csv = "id,text\n1,\"line one\nline, \"\"two\"\"\r\nline three\"\n2,\"single\"\n";
+        final List<CsvRow> expected = List.of(csvRowOf("id", "text"), csvRowOf("1", "line one\nline, \"two\"\r\nline three"), csvRowOf("2", "single"));
+        for (int bufferSize = 16; bufferSize < 128; bufferSize++) {
+            assertThat("bufferSize " + bufferSize, tokenize(csv, bufferSize, ','), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    void maxRecordLengthTest() {
+        final String csv = "a,b\n\"never closed," + "x".repeat(256) + "\n" + "y".repeat(256);
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ',').maxRecordLength(128)) {
+            assertThat(tokenizer.maxRecordLength(), is(128));
+            assertThat(tokenizer.next(), is(true));
+            final IoCsvException exception = assertThrows(IoCsvException.class, tokenizer::next);
+            assertThat(exception.getMessage(), is(equalTo("Record exceeds max record length [128] at byte [4]")));
+        }
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ',').maxRecordLength(-1)) {
+            assertThat(tokenizer.maxRecordLength(), is(CsvTokenizer.DEFAULT_MAX_RECORD_LENGTH));
+            assertThat(tokenizer.skip(10), is(3L));
+        }
+    }
+
+    @Test
+    void lazyColumnsTest() {
+        try (final CsvTokenizer tokenizer = tokenizer("a,,\"c\"\n \n", 16, UTF_8, ',')) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.size(), is(3));
+            assertThat(tokenizer.isBlank(), is(false));
+            assertThat(tokenizer.get(2), is(equalTo("c")));
+            assertThat(tokenizer.get(1), is(equalTo("")));
+            assertThat(tokenizer.get(3), is(nullValue()));
+            assertThat(tokenizer.get(-1), is(nullValue()));
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.isBlank(), is(true));
+            assertThat(tokenizer.next(), is(false));
+            assertThat(tokenizer.size(), is(0));
+        }
+    }
+
+    @Test
+    void charsetTest() {
+        assertThat(tokenize("äöü,\"ß\"\"€\"", 16, ','), is(equalTo(List.of(csvRowOf("äöü", "ß\"€")))));
+        try (final CsvTokenizer tokenizer = tokenizer("äöü,x", 16, ISO_8859_1, ',')) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.get(0), is(equalTo("äöü")));
+        }
+        try (final CsvTokenizer tokenizer = new CsvTokenizer(source(new byte[]{'a', ',', (byte) 0xC3}, 16), UTF_8, ',')) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.get(0), is(equalTo("a")));
+            assertThrows(UncheckedIOException.class, () -> tokenizer.get(1));
+        }
+    }
+
+    @Test
+    void projectionTest() {
+        final String csv = "a,\"b,1\",c,d\n\"e\"\"\",f\n,,\n";
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ',').columns(3, 1, 0, 1)) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.toCsvRow(), is(equalTo(csvRowOf("d", "b,1", "a", "b,1"))));
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.size(), is(4));
+            assertThat(tokenizer.get(0), is(nullValue()));
+            assertThat(tokenizer.getChars(0), is(nullValue()));
+            assertThat(tokenizer.get(2), is(equalTo("e\"")));
+            assertThat(tokenizer.isBlank(), is(false));
+            assertThrows(NumberFormatException.class, () -> tokenizer.getInt(0));
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.isBlank(), is(true));
+            assertThat(tokenizer.next(), is(false));
+        }
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ',').columns(2).columns()) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.size(), is(4));
+        }
+    }
+
+    @Test
+    void filtersTest() {
+        final String csv = "id,city,amount\n1,Berlin,10\n2,\"Ber\"\"lin\",20.5\n3,Bern,x\n4,Hamburg,1e1\n5\n";
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ',').filters(startsWith(1, "Ber"))) {
+            assertThat(tokenizer.skip(1), is(1L));
+            final List<String> ids = new ArrayList<>();
+            while (tokenizer.next()) {
+                ids.add(tokenizer.get(0));
+            }
+            assertThat(ids, is(equalTo(List.of("1", "2", "3"))));
+        }
+        assertThat(tokenize(csv, 16, ',').size(), is(6));
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ',').filters(between(2, 10, 20.5), equalTo(1, "Ber\"lin")).columns(0)) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.toCsvRow(), is(equalTo(csvRowOf(List.of("2")))));
+            assertThat(tokenizer.next(), is(false));
+        }
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ',').filters(between(2, 10, 10))) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.get(0), is(equalTo("1")));
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.get(0), is(equalTo("4")));
+            assertThat(tokenizer.next(), is(false));
+        }
+    }
+
+    @Test
+    void rowViewTest() {
+        final String csv = "42,-7, \"3.25\" ,-0.5,1e3,12345678901,abc,\"a\"\"b\",äö\n99,x\n";
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ',')) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.index(5).index(), is(5L));
+            assertThat(tokenizer.getInt(0), is(42));
+            assertThat(tokenizer.getLong(1), is(-7L));
+            assertThat(tokenizer.getDouble(2), is(3.25));
+            assertThat(tokenizer.getDouble(3), is(-0.5));
+            assertThat(tokenizer.getDouble(4), is(1000d));
+            assertThat(tokenizer.getLong(5), is(12345678901L));
+            assertThrows(NumberFormatException.class, () -> tokenizer.getInt(5));
+            assertThrows(NumberFormatException.class, () -> tokenizer.getInt(6));
+            assertThrows(NumberFormatException.class, () -> tokenizer.getDouble(6));
+            assertThrows(NumberFormatException.class, () -> tokenizer.getLong(9));
+
+            final CharSequence plain = tokenizer.getChars(6);
+            assertThat(plain.length(), is(3));
+            assertThat(plain.charAt(1), is('b'));
+            assertThat(plain.subSequence(1, 3), is(equalTo("bc")));
+            assertThat(tokenizer.getChars(7).toString(), is(equalTo("a\"b")));
+            assertThat(tokenizer.getChars(8).toString(), is(equalTo("äö")));
+            assertThat(tokenizer.getChars(9), is(nullValue()));
+            assertThat(tokenizer.getChars(6), is(plain));
+
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.getInt(0), is(99));
+            assertThat(tokenizer.getChars(1).toString(), is(equalTo("x")));
+            assertThat(tokenizer.toString(), is(equalTo("[99, x]")));
+        }
+    }
+
+    @Test
+    void fieldParserTest() {
+        final String csv = "1,50;true;2024-02-29;2024-01-01T00:00:01Z;12345678901234567890,5;NO;1e2\n";
+        try (final CsvTokenizer tokenizer = tokenizer(csv, 16, UTF_8, ';').decimalSeparator(',')) {
+            assertThat(tokenizer.next(), is(true));
+            assertThat(tokenizer.decimalSeparator(), is(','));
+            assertThat(tokenizer.getDouble(0), is(1.5));
+            assertThat(tokenizer.getBigDecimal(0), is(equalTo(new BigDecimal("1.50"))));
+            assertThat(tokenizer.getBigDecimal(4), is(equalTo(new BigDecimal("12345678901234567890.5"))));
+            assertThat(tokenizer.getDouble(6), is(100d));
+            assertThat(tokenizer.getBoolean(1), is(true));
+            assertThat(tokenizer.getBoolean(5), is(false));
+            assertThat(tokenizer.getDate(2), is(equalTo(LocalDate.of(2024, 2, 29))));
+            assertThat(tokenizer.getEpochMillis(3), is(1704067201000L));
+            assertThrows(DateTimeParseException.class, () -> tokenizer.getEpochMillis(6));
+            assertThrows(IllegalArgumentException.class, () -> tokenizer.getBoolean(2));
+            assertThrows(DateTimeParseException.class, () -> tokenizer.getDate(3));
+            assertThrows(NumberFormatException.class, () -> tokenizer.getDate(7));
+        }
+    }
+
+    @Test
+    void isByteCompatibleTest() {
+        assertThat(isByteCompatible(UTF_8, ','), is(true));
+        assertThat(isByteCompatible(ISO_8859_1, ';', '|'), is(true));
+        assertThat(isByteCompatible(Charset.forName("windows-1252"), '\t'), is(true));
+        assertThat(isByteCompatible(UTF_16, ','), is(false));
+        assertThat(isByteCompatible(UTF_8, '§'), is(false));
+        assertThat(isByteCompatible(null, ','), is(false));
+    }
+
+    /**
+     * @return all strings of the chars with the length 1 to the max length
+     */
+    static List<String> generatedLines(final String chars, final int maxLength) {
+        final List<String> result = new ArrayList<>();
+        List<String> previous = List.of("");
+        for (int length = 1; length <= maxLength; length++) {
+            final List<String> next = new ArrayList<>();
+            for (String prefix : previous) {
+                for (char c : chars.toCharArray()) {
+                    next.add(prefix + c);
+                }
+            }
+            result.addAll(next);
+            previous = next;
+        }
+        return result;
+    }
+
+    static List<CsvRow> tokenize(final String csv, final int bufferSize, final char... separators) {
+        final List<CsvRow> result = new ArrayList<>();
+        try (final CsvTokenizer tokenizer = tokenizer(csv, bufferSize, UTF_8, separators)) {
+            while (tokenizer.next()) {
+                result.add(tokenizer.toCsvRow());
+            }
+        }
+        return result;
+    }
+
+    static CsvTokenizer tokenizer(final String csv, final int bufferSize, final Charset charset, final char... separators) {
+        return new CsvTokenizer(source(csv.getBytes(charset), bufferSize), charset, separators);
+    }
+
+    static ByteSource source(final byte[] bytes, final int bufferSize) {
+        return new ChannelSource(Channels.newChannel(new ByteArrayInputStream(bytes)), bufferSize);
+    }
+}
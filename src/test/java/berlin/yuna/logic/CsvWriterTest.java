@@ -0,0 +1,153 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvEngine;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.IoCsvException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static berlin.yuna.logic.CsvWriter.csvWriter;
+import static berlin.yuna.model.CsvDialect.csvDialectOf;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static java.nio.charset.StandardCharsets.UTF_16;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class CsvWriterTest {
+
+    @Test
+    void quoteTest() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final CsvOutput output = csvWriter().open(out)) {
+            output.write("plain", "a,b", "say \"hi\"", "two\nlines", "cr\r", null, "");
+            output.write(List.of("x"));
+            assertThat(output.rows(), is(2L));
+        }
+        assertThat(out.toString(UTF_8), is(equalTo("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",\"cr\r\",,\nx\n")));
+
+        out.reset();
+        try (final CsvOutput output = csvWriter().open(out)) {
+            output.write("'quoted", "it's", " pad", "pad ");
+        }
+        assertThat(out.toString(UTF_8), is(equalTo("\"'quoted\",\"it's\",\" pad\",\"pad \"\n")));
+    }
+
+    @Test
+    void optionsTest() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final CsvWriter writer = csvWriter().separator(';').quote('\'').lineSeparator("\r\n");
+        try (final CsvOutput output = writer.open(out)) {
+            output.write("a,b", "c;d", "it's");
+        }
+        assertThat(out.toString(UTF_8), is(equalTo("a,b;'c;d';'it''s'\r\n")));
+
+        assertThat(writer.separator(), is(';'));
+        assertThat(writer.quote(), is('\''));
+        assertThat(writer.lineSeparator(), is(equalTo("\r\n")));
+        assertThat(writer.charset(), is(UTF_8));
+        assertThat(writer.gzip(), is(false));
+        assertThat(writer.bufferSize(), is(CsvWriter.DEFAULT_BUFFER_SIZE));
+        assertThat(csvWriter().separator((char) 0).quote((char) 0).lineSeparator(null).charset(null).bufferSize(-1).separator(), is(','));
+        assertThat(csvWriter().quote((char) 0).quote(), is('"'));
+        assertThat(csvWriter().lineSeparator("").lineSeparator(), is(equalTo("\n")));
+        assertThat(csvWriter().bufferSize(0).bufferSize(), is(CsvWriter.DEFAULT_BUFFER_SIZE));
+        assertThat(csvWriter().dialect(csvDialectOf('|', '\'', true)).separator(), is('|'));
+    }
+
+    @Test
+    void roundTripTest(@TempDir final Path tmpDir) {
+        final List<String> escaped = List.of("a\\\"b", "\\\"", "q\"", "don't", "a''b", "\\'", "a\\\\\"b", "'''", "a,b\n'c', d");
+        final List<CsvRow> rows = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            rows.add(csvRowOf(String.valueOf(i), "name, " + i, i % 7 == 0 ? "multi\n\"line\" " + i : "Zürich 😀", "x".repeat(i % 100), escaped.get(i % escaped.size())));
+        }
+        final Path file = tmpDir.resolve("written.csv");
+        //tiny buffer to drain and grow the buffer between and inside rows
+        assertThat(csvWriter().bufferSize(16).write(file, rows.stream()), is(5000L));
+        assertThat(csvReader().readAllRows(file), is(equalTo(rows)));
+
+        final Path copy = tmpDir.resolve("copy.csv");
+        try (final CsvOutput output = csvWriter().open(copy)) {
+            csvReader().consumeView(file, output::write);
+        }
+        assertThat(csvReader().readAllRows(copy), is(equalTo(rows)));
+
+        final Path transcoded = tmpDir.resolve("transcoded.csv");
+        assertThat(csvReader().transcode(file, transcoded, csvWriter()), is(5000L));
+        assertThat(csvReader().readAllRows(transcoded), is(equalTo(rows)));
+    }
+
+    @Test
+    void readerQuoteTest(@TempDir final Path tmpDir) throws IOException {
+        final List<CsvRow> rows = List.of(csvRowOf("'quoted", "1"), csvRowOf("x", "it's"), csvRowOf("'a'", "'"), csvRowOf(" pad ", "3"));
+        final Path file = tmpDir.resolve("written.csv");
+        csvWriter().write(file, rows.stream());
+        assertThat(csvReader().readAllRows(file).subList(0, 3), is(equalTo(rows.subList(0, 3))));
+        //padding stays quoted for other readers - this reader trims quoted columns as well
+        assertThat(csvReader().readAllRows(file).get(3), is(equalTo(csvRowOf("pad", "3"))));
+        assertThat(csvReader().engine(CsvEngine.LINES).readAllRows(file), is(equalTo(csvReader().readAllRows(file))));
+
+        //copied column bytes are quoted again
+        final Path copy = tmpDir.resolve("copy.csv");
+        assertThat(csvReader().transcode(file, copy, csvWriter().separator(';')), is(4L));
+        assertThat(Files.readString(copy), is(equalTo("\"'quoted\";1\nx;\"it's\"\n\"'a'\";\"'\"\npad;3\n")));
+        assertThat(csvReader().separator(';').readAllRows(copy), is(equalTo(csvReader().readAllRows(file))));
+    }
+
+    @Test
+    void gzipTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = tmpDir.resolve("written.csv.gz");
+        final List<CsvRow> rows = Stream.iterate(0, i -> i + 1).limit(1000).map(i -> csvRowOf(String.valueOf(i), "value " + i)).collect(Collectors.toList());
+        csvWriter().gzip(true).write(file, rows.stream());
+        final byte[] bytes = Files.readAllBytes(file);
+        assertThat(Arrays.asList(bytes[0], bytes[1]), is(equalTo(List.of((byte) 0x1f, (byte) 0x8b))));
+        assertThat(csvReader().unzip(true).readAllRows(file), is(equalTo(rows)));
+    }
+
+    @Test
+    void charsetTest() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final CsvOutput output = csvWriter().charset(UTF_16).bufferSize(4).open(out)) {
+            output.write("ä", "b");
+            output.flush();
+            output.write("c 😀");
+        }
+        assertThat(out.toString(UTF_16), is(equalTo("ä,b\nc 😀\n")));
+    }
+
+    @Test
+    void unreadableTest() {
+        for (String value : List.of("it's, x", "\"x\",y", "x,a\\", "multi\nline\\")) {
+            try (final CsvOutput output = csvWriter().open(new ByteArrayOutputStream())) {
+                final IoCsvException error = assertThrows(IoCsvException.class, () -> output.write("1", value));
+                assertThat(error.getCause() instanceof IllegalArgumentException, is(true));
+                assertThat(error.getMessage().startsWith("Column [1] of row [0] can not be read back"), is(true));
+            }
+        }
+    }
+
+    @Test
+    void closedTest(@TempDir final Path tmpDir) {
+        final CsvOutput output = csvWriter().open(tmpDir.resolve("closed.csv"));
+        output.close();
+        output.close();
+        assertThrows(IoCsvException.class, () -> output.write("a"));
+        assertThrows(IoCsvException.class, () -> csvWriter().open(tmpDir.resolve("missing").resolve("file.csv")));
+    }
+}
@@ -0,0 +1,64 @@
+package berlin.yuna.logic;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+
+import static berlin.yuna.logic.DialectDetection.detectDialect;
+import static berlin.yuna.model.CsvDialect.csvDialectOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class DialectDetectionTest {
+
+    @Test
+    void detectSeparatorTest() {
+        assertThat(detectDialect("a;b;c\n1;2;3\n", true).separator(), is(';'));
+        assertThat(detectDialect("a\tb\tc\n1\t2\t3", true).separator(), is('\t'));
+        assertThat(detectDialect("a|b\n1|2\n3|4", true).separator(), is('|'));
+        assertThat(detectDialect("single column\n", true).separator(), is(','));
+        assertThat(detectDialect("", true), is(equalTo(csvDialectOf(',', '"', false))));
+    }
+
+    @Test
+    void ignoreQuotedSeparatorsTest() {
+        final String csv = "name;comment\n\"a\";\"x,y,z\"\n\"b\";\"1,2,3,4\"\n\"c\";\"no, comma\"\n";
+        assertThat(detectDialect(csv, true).separator(), is(';'));
+    }
+
+    @Test
+    void detectQuoteTest() {
+        assertThat(detectDialect("'a','b'\n'1','2'\n", true).quote(), is('\''));
+        assertThat(detectDialect("\"a\",\"b\"\n\"it's\",2\n", true).quote(), is('"'));
+        assertThat(detectDialect("'a;b','c'\n'd;e','f'\n'g;h','i'\n", true).separator(), is(','));
+    }
+
+    @Test
+    void detectHeaderTest() {
+        assertThat(detectDialect("id,amount\n1,2.5\n2,3.5\n3,-4\n", true).header(), is(true));
+        assertThat(detectDialect("code,name\nDE,Germany\nFR,France\n", true).header(), is(true));
+        assertThat(detectDialect("1,2.5\n2,3.5\n3,-4\n", true).header(), is(false));
+        assertThat(detectDialect("a,b\n", true).header(), is(false));
+    }
+
+    @Test
+    void incompleteSampleTest() {
+        assertThat(detectDialect("a;b\n1;2\n3,4,5,6,7", false).separator(), is(';'));
+        assertThat(detectDialect("a,b,c,d,e", false).separator(), is(','));
+    }
+
+    @Test
+    void detectFromByteSourceTest() {
+        final byte[] csv = "id;name\n1;Yuna\n2;Berlin\n".getBytes(UTF_8);
+        try (final ByteSource source = new ChannelSource(Channels.newChannel(new ByteArrayInputStream(csv)), 4)) {
+            assertThat(detectDialect(source, UTF_8), is(equalTo(csvDialectOf(';', '"', true))));
+            assertThat(source.offset(), is(0L));
+            assertThat(source.buffer().limit(), is(csv.length));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvColumnType;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.CsvSortKey;
+import berlin.yuna.model.IoCsvException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static berlin.yuna.model.CsvSortKey.csvSortKeyOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class ExternalSortTest {
+
+    @Test
+    void typedKeysTest() {
+        final List<CsvRow> rows = List.of(
+                csvRowOf("b", "10", "1.5"),
+                csvRowOf("a", "9", "-2"),
+                csvRowOf("b", "x", "1e3"),
+                csvRowOf("b", "100", "n/a"),
+                csvRowOf(List.of("a")),
+                csvRowOf("a", "11", "0,5")
+        );
+        assertThat(sort(rows, 1024, 1, csvSortKeyOf(0), csvSortKeyOf(1, CsvColumnType.LONG, true)), is(equalTo(List.of(
+                rows.get(5), rows.get(1), rows.get(4), rows.get(3), rows.get(0), rows.get(2)
+        ))));
+        assertThat(sort(rows, 1024, 1, csvSortKeyOf(2, CsvColumnType.DOUBLE, false)), is(equalTo(List.of(
+                rows.get(1), rows.get(0), rows.get(2), rows.get(5), rows.get(3), rows.get(4)
+        ))));
+        assertThat(sort(rows, 1024, 1, csvSortKeyOf(1)), is(equalTo(List.of(
+                rows.get(0), rows.get(3), rows.get(5), rows.get(1), rows.get(2), rows.get(4)
+        ))));
+        assertThat(sort(rows, 1024, 1), is(equalTo(rows)));
+    }
+
+    @Test
+    void spillTest() throws IOException {
+        final List<Path> dirs = sortDirs();
+        final Random random = new Random(42);
+        final List<CsvRow> rows = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            rows.add(csvRowOf(String.valueOf(random.nextInt(500)), "row " + i, random.nextInt(10) == 0 ? null : "ü" + random.nextInt(50)));
+        }
+        final CsvSortKey[] keys = {csvSortKeyOf(0, CsvColumnType.LONG, false), csvSortKeyOf(2)};
+        final Comparator<CsvRow> comparator = Comparator.<CsvRow>comparingLong(row -> Long.parseLong(row.get(0)))
+                .thenComparing(row -> row.get(2), Comparator.nullsLast(Comparator.naturalOrder()));
+        final List<CsvRow> expected = rows.stream().sorted(comparator).collect(Collectors.toList());
+
+        //stable: equal keys keep the input order of the row number
+        assertThat(sort(rows, Long.MAX_VALUE, 1, keys), is(equalTo(expected)));
+        assertThat(sort(rows, 100 * 1024, 1, keys), is(equalTo(expected)));
+        assertThat(sort(rows, 100 * 1024, 4, keys), is(equalTo(expected)));
+        //one row per run - multiple merge passes
+        assertThat(sort(rows, 1, 1, keys), is(equalTo(expected)));
+        assertThat(sortDirs(), is(equalTo(dirs)));
+    }
+
+    @Test
+    void spillErrorTest() throws IOException {
+        final List<Path> dirs = sortDirs();
+        final AtomicInteger read = new AtomicInteger();
+        final Stream<CsvRow> rows = Stream.generate(() -> read.getAndIncrement() == 5 ? poisoned() : csvRowOf("row " + read.get())).limit(1000000);
+        //the failed spill stops the reading long before the end of the input
+        final IoCsvException error = assertThrows(IoCsvException.class, () -> new ExternalSort(new CsvSortKey[]{csvSortKeyOf(0)}, '.', 3 * 1024, 2).sort(rows));
+        assertThat(error.getCause() instanceof IllegalStateException, is(true));
+        assertThat(read.get() < 10000, is(true));
+        assertThat(sortDirs(), is(equalTo(dirs)));
+    }
+
+        private static List<CsvRow> sort(final List<CsvRow> rows, final long memory, final int parallel, final CsvSortKey... keys) {
+        try (final Stream<CsvRow> sorted = new ExternalSort(keys, '.', memory, parallel).sort(rows.stream())) {
+            return sorted.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @return row which fails on sorting - reading and measuring it works
+     */
+    private static CsvRow poisoned() {
+        return new CsvRow(List.of("poisoned")) {
+            @Override
+            public String get(final int index) {
+                throw new IllegalStateException("poisoned");
+            }
+        };
+    }
+
+    private static List<Path> sortDirs() throws IOException {
+        final Path parent = Path.of(System.getProperty("java.io.tmpdir"), CsvReader.class.getSimpleName());
+        try (final Stream<Path> dirs = Files.exists(parent) ? Files.list(parent) : Stream.empty()) {
+            return dirs.filter(dir -> dir.getFileName().toString().startsWith("sort")).collect(Collectors.toList());
+        }
+    }
+}
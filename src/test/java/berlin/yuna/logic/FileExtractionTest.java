@@ -1,15 +1,30 @@
 package berlin.yuna.logic;
 
+import berlin.yuna.model.CsvEngine;
+import berlin.yuna.model.CsvRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
+import static berlin.yuna.logic.CsvReader.csvReader;
 import static berlin.yuna.logic.CsvReaderTest.getResourceFile;
+import static berlin.yuna.logic.FileExtraction.extractStream;
+import static berlin.yuna.logic.FileExtraction.isCompressed;
 import static berlin.yuna.logic.ListCSV.listCSV;
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -36,6 +51,41 @@ class FileExtractionTest {
         assertThrows(UncheckedIOException.class, () -> listCSV(getResourceFile("test.csv.zip")));
     }
 
+    @Test
+    void extractStreamTest(@TempDir final Path tmpDir) throws IOException {
+        final byte[] expected = Files.readAllBytes(getResourceFile("test.csv"));
+        final Path gzip = tmpDir.resolve("stream.csv.gz");
+        try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(expected);
+        }
+        assertThat(isCompressed(gzip), is(true));
+        assertThat(isCompressed(getResourceFile("test.csv.zip")), is(true));
+        assertThat(isCompressed(getResourceFile("test.csv")), is(false));
+        try (final InputStream in = extractStream(gzip)) {
+            assertThat(in.readAllBytes(), is(equalTo(expected)));
+        }
+        try (final InputStream in = extractStream(getResourceFile("test.csv"))) {
+            assertThat(in.readAllBytes(), is(equalTo(expected)));
+        }
+        try (final InputStream in = extractStream(getResourceFile("test.csv.zip"))) {
+            assertThat(in.readAllBytes(), is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    void unzipWithoutTmpFileTest(@TempDir final Path tmpDir) throws IOException {
+        final Path gzip = tmpDir.resolve("noTmpFile.csv.gz");
+        try (final OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write(Files.readAllBytes(getResourceFile("test.csv")));
+        }
+        final List<CsvRow> expected = csvReader().readAllRows(getResourceFile("test.csv"));
+        for (final CsvEngine engine : CsvEngine.values()) {
+            assertThat(csvReader().engine(engine).unzip(true).readAllRows(gzip), is(equalTo(expected)));
+            assertThat(csvReader().engine(engine).unzip(true).autoSep(true).skipLines(1).readAllRows(gzip), is(equalTo(expected.subList(1, expected.size()))));
+        }
+        assertThat(Files.exists(Paths.get(System.getProperty("java.io.tmpdir"), CsvReader.class.getSimpleName(), "noTmpFile")), is(false));
+    }
+
     private static void deleteDir() {
         Paths.get(System.getProperty("java.io.tmpdir"), CsvReader.class.getSimpleName(), "test");
     }
@@ -0,0 +1,166 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvFileResult;
+import berlin.yuna.model.CsvIndexRow;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.IoCsvException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class FileFanOutTest {
+
+    @Test
+    void consumeAllTest(@TempDir final Path tmpDir) throws IOException {
+        final List<Path> files = writeFiles(tmpDir, 20);
+        final Path missing = tmpDir.resolve("missing.csv");
+        final List<Path> input = new ArrayList<>(files);
+        input.add(3, missing);
+
+        final Map<Path, Queue<CsvIndexRow>> rows = new ConcurrentHashMap<>();
+        final AtomicInteger open = new AtomicInteger(0);
+        final AtomicInteger maxOpen = new AtomicInteger(0);
+        final Function<Path, Stream<CsvRow>> opener = file -> {
+            maxOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+            try {
+                return csvReader().stream(file).onClose(open::decrementAndGet);
+            } catch (RuntimeException e) {
+                open.decrementAndGet();
+                throw e;
+            }
+        };
+        final List<CsvFileResult> results = FileFanOut.consumeAll(input, opener, 3, true, row -> rows.computeIfAbsent(Path.of(row.get(0)), key -> new ConcurrentLinkedQueue<>()).add(row));
+
+        assertThat(results.size(), is(21));
+        assertThat(results.get(3).file(), is(equalTo(missing)));
+        assertThat(results.get(3).isSuccess(), is(false));
+        assertThat(results.get(3).rows(), is(0L));
+        assertThat(maxOpen.get(), is(lessThanOrEqualTo(3)));
+        for (int i = 0; i < files.size(); i++) {
+            final CsvFileResult result = results.get(i < 3 ? i : i + 1);
+            assertThat(result.file(), is(equalTo(files.get(i))));
+            assertThat(result.error(), is(nullValue()));
+            assertThat(result.rows(), is((long) i + 1));
+            final List<Long> indices = rows.get(files.get(i)).stream().map(CsvIndexRow::index).collect(Collectors.toList());
+            assertThat(indices, is(equalTo(Stream.iterate(0L, index -> index + 1).limit(i + 1).collect(Collectors.toList()))));
+        }
+    }
+
+    @Test
+    void consumeAllConsumerErrorTest(@TempDir final Path tmpDir) throws IOException {
+        final List<Path> files = writeFiles(tmpDir, 3);
+        final List<CsvFileResult> results = csvReader().consumeAll(files, row -> {
+            if (row.get(0).equals(files.get(2).toString())) {
+                throw new IllegalStateException("rejected");
+            }
+        });
+        assertThat(results.get(1).isSuccess(), is(true));
+        assertThat(results.get(2).rows(), is(0L));
+        assertThat(results.get(2).error().getMessage(), is(equalTo("rejected")));
+        assertThat(results.get(2).error().getCause() instanceof IllegalStateException, is(true));
+    }
+
+    @Test
+    void consumeAllUnorderedTest(@TempDir final Path tmpDir) throws IOException {
+        final List<Path> files = writeFiles(tmpDir, 5);
+        final Path large = ChunkSpliteratorTest.writeCsv(tmpDir.resolve("large.csv"), 20000);
+        final List<Path> input = new ArrayList<>(files);
+        input.add(large);
+        final Map<Path, Queue<CsvIndexRow>> rows = new ConcurrentHashMap<>();
+        final List<CsvFileResult> results = csvReader().parallel(4).ordered(false).consumeAll(input, row -> rows.computeIfAbsent(row.get(0).startsWith(tmpDir.toString()) ? Path.of(row.get(0)) : large, key -> new ConcurrentLinkedQueue<>()).add(row));
+        assertThat(results.get(5).rows(), is(20000L));
+        assertThat(rows.get(large).stream().map(CsvIndexRow::index).sorted().collect(Collectors.toList()), is(equalTo(Stream.iterate(0L, index -> index + 1).limit(20000).collect(Collectors.toList()))));
+        assertThat(rows.get(large).stream().map(CsvIndexRow::toCsvRow).collect(Collectors.toSet()), is(equalTo(new HashSet<>(csvReader().readAllRows(large)))));
+        for (int i = 0; i < files.size(); i++) {
+            assertThat(results.get(i).rows(), is((long) i + 1));
+        }
+    }
+
+    @Test
+    void streamAllOrderedTest(@TempDir final Path tmpDir) throws IOException {
+        final List<Path> files = writeFiles(tmpDir, 30);
+        final List<CsvRow> expected = files.stream().flatMap(file -> csvReader().readAllRows(file).stream()).collect(Collectors.toList());
+        try (final Stream<CsvRow> stream = csvReader().maxOpenFiles(4).streamAll(files)) {
+            assertThat(stream.collect(Collectors.toList()), is(equalTo(expected)));
+        }
+        try (final Stream<CsvRow> stream = csvReader().maxOpenFiles(4).ordered(false).streamAll(files)) {
+            final List<CsvRow> result = stream.collect(Collectors.toList());
+            assertThat(result.size(), is(expected.size()));
+            assertThat(result.containsAll(expected), is(true));
+        }
+        try (final Stream<CsvRow> stream = csvReader().streamAll(List.of())) {
+            assertThat(stream.count(), is(0L));
+        }
+    }
+
+    @Test
+    void streamAllErrorTest(@TempDir final Path tmpDir) throws IOException {
+        final List<Path> files = new ArrayList<>(writeFiles(tmpDir, 3));
+        files.add(1, tmpDir.resolve("missing.csv"));
+        try (final Stream<CsvRow> stream = csvReader().streamAll(files)) {
+            assertThrows(IoCsvException.class, stream::count);
+        }
+    }
+
+    @Test
+    void streamAllCloseTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = ChunkSpliteratorTest.writeCsv(tmpDir.resolve("large.csv"), 50000);
+        final List<Path> files = List.of(file, file, file, file);
+        try (final Stream<CsvRow> stream = csvReader().maxOpenFiles(2).ordered(false).streamAll(files)) {
+            assertThat(stream.limit(10).count(), is(10L));
+        }
+    }
+
+    @Test
+    void platformExecutorTest() throws InterruptedException {
+        final ExecutorService executor = FileFanOut.executor(2, false);
+        final Queue<Thread> threads = new ConcurrentLinkedQueue<>();
+        executor.execute(() -> threads.add(Thread.currentThread()));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS), is(true));
+        assertThat(threads.peek().isDaemon(), is(true));
+        assertThat(threads.peek().getName().startsWith("csv-file-"), is(true));
+    }
+
+    /**
+     * @return files with {@code index + 1} rows each - the first column is the path of the file
+     */
+    private static List<Path> writeFiles(final Path tmpDir, final int count) throws IOException {
+        final List<Path> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final Path file = tmpDir.resolve("file_" + i + ".csv");
+            final StringBuilder sb = new StringBuilder();
+            for (int row = 0; row <= i; row++) {
+                sb.append(file).append(',').append(row).append('\n');
+            }
+            result.add(Files.writeString(file, sb.toString()));
+        }
+        return result;
+    }
+}
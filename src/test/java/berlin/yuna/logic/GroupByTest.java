@@ -0,0 +1,193 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvAggregate;
+import berlin.yuna.model.CsvEngine;
+import berlin.yuna.model.CsvGroup;
+import berlin.yuna.model.CsvInputMode;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.CsvRowView;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static berlin.yuna.model.CsvAggregate.count;
+import static berlin.yuna.model.CsvAggregate.distinct;
+import static berlin.yuna.model.CsvAggregate.max;
+import static berlin.yuna.model.CsvAggregate.min;
+import static berlin.yuna.model.CsvAggregate.sum;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class GroupByTest {
+
+    private static final CsvAggregate[] AGGREGATES = {count(), sum(2), min(2), max(2), distinct(3)};
+
+    @Test
+    void addTest() {
+        final String csv = "a,x,1,p\n\"a\",x,2.5,q\nb,,n/a,p\na,\"x\",-3,p\nc\n\"b\",,4,\"p\"\n";
+        final GroupBy table = new GroupBy(new int[]{0, 1}, AGGREGATES, UTF_8);
+        try (final CsvTokenizer tokenizer = new CsvTokenizer(new ChannelSource(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(UTF_8))), 8), UTF_8, ',')) {
+            while (tokenizer.next()) {
+                table.add(tokenizer);
+            }
+        }
+        final List<CsvGroup> groups = table.groups();
+        assertThat(groups.stream().map(CsvGroup::toCsvRow).collect(Collectors.toList()), is(equalTo(List.of(
+                csvRowOf("a", "x", "3", "0.5", "-3.0", "2.5", "2"),
+                csvRowOf("b", "", "2", "4", "4", "4", "1"),
+                csvRowOf(Arrays.asList("c", null, "1", "0", "NaN", "NaN", "0"))
+        ))));
+        assertThat(groups.get(0).count(), is(3L));
+        assertThat(groups.get(0).value(1), is(0.5));
+        assertThat(groups.get(0).size(), is(5));
+        assertThat(groups.get(1).number(1), is(4L));
+        assertThat(groups.get(1).rejected(1), is(1L));
+        assertThat(groups.get(0).rejected(1), is(0L));
+        assertThat(table.size(), is(3));
+    }
+
+    @Test
+    void distinctTest() {
+        final String csv = "k,x\nk,\"x\"\nk,\"a\"\"b\"\nk,a\"b\nk,\nk\nk,X\n";
+        final GroupBy bytes = new GroupBy(new int[]{0}, new CsvAggregate[]{distinct(1)}, UTF_8);
+        final GroupBy chars = new GroupBy(new int[]{0}, new CsvAggregate[]{distinct(1)}, UTF_8);
+        try (final CsvTokenizer tokenizer = new CsvTokenizer(new ChannelSource(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(UTF_8))), 8), UTF_8, ',')) {
+            while (tokenizer.next()) {
+                bytes.add(tokenizer);
+                chars.add(view(tokenizer.toCsvRow()));
+            }
+        }
+        //x, a"b, empty and X - the missing column is not counted
+        assertThat(bytes.groups().get(0).value(0), is(4.0));
+        assertThat(chars.groups().get(0).value(0), is(4.0));
+        assertThat(new GroupBy(new int[]{0}, new CsvAggregate[]{distinct(1)}, UTF_8).merge(bytes).merge(chars).groups().get(0).value(0), is(4.0));
+
+        final GroupBy many = new GroupBy(new int[0], new CsvAggregate[]{distinct(0)}, UTF_8);
+        for (int i = 0; i < 100000; i++) {
+            many.add(view(csvRowOf(String.valueOf(i % 50000))));
+        }
+        assertThat(many.groups().get(0).value(0), is(50000.0));
+    }
+
+    @Test
+    void exactTest() {
+        final String csv = "a,9007199254740993\na,1\nb,9223372036854775807\nb,1\nc,9007199254740993\nc,1.5\nc,x\n";
+        final CsvAggregate[] aggregates = {sum(1), min(1), max(1)};
+        final GroupBy bytes = new GroupBy(new int[]{0}, aggregates, UTF_8);
+        final GroupBy chars = new GroupBy(new int[]{0}, aggregates, UTF_8);
+        try (final CsvTokenizer tokenizer = new CsvTokenizer(new ChannelSource(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(UTF_8))), 8), UTF_8, ',')) {
+            while (tokenizer.next()) {
+                bytes.add(tokenizer);
+                chars.add(view(tokenizer.toCsvRow()));
+            }
+        }
+        final GroupBy merged = new GroupBy(new int[]{0}, aggregates, UTF_8).merge(bytes).merge(chars);
+        for (GroupBy table : List.of(bytes, chars)) {
+            final List<CsvGroup> groups = table.groups();
+            //whole numbers above 2^53 stay exact
+            assertThat(groups.get(0).number(0), is(9007199254740994L));
+            assertThat(groups.get(0).number(1), is(1L));
+            assertThat(groups.get(0).number(2), is(9007199254740993L));
+            //overflowing sums and decimals fall back to double
+            assertThat(groups.get(1).number(0), is(9223372036854775808.0));
+            assertThat(groups.get(1).number(2), is(Long.MAX_VALUE));
+            assertThat(groups.get(2).number(0), is(9007199254740994.0));
+            assertThat(groups.get(2).number(1), is(1.5));
+            assertThat(groups.get(2).rejected(0), is(1L));
+        }
+        assertThat(merged.groups().get(0).number(0), is(2 * 9007199254740994L));
+        assertThat(merged.groups().get(0).number(2), is(9007199254740993L));
+        assertThat(merged.groups().get(2).rejected(1), is(2L));
+    }
+
+    @Test
+    void mergeTest() {
+        final GroupBy left = new GroupBy(new int[]{0}, AGGREGATES, UTF_8);
+        final GroupBy right = new GroupBy(new int[]{0}, AGGREGATES, UTF_8);
+        final GroupBy all = new GroupBy(new int[]{0}, AGGREGATES, UTF_8);
+        final Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            final CsvRow row = csvRowOf("key " + random.nextInt(3000), "", String.valueOf(random.nextInt(1000) - 500), "v" + random.nextInt(20));
+            final CsvRowView view = view(row);
+            (i % 2 == 0 ? left : right).add(view);
+            all.add(view);
+        }
+        assertThat(left.merge(right).groups().stream().sorted((a, b) -> a.key().get(0).compareTo(b.key().get(0))).collect(Collectors.toList()),
+                is(equalTo(all.groups().stream().sorted((a, b) -> a.key().get(0).compareTo(b.key().get(0))).collect(Collectors.toList()))));
+        assertThat(left.size(), is(all.size()));
+    }
+
+    @Test
+    void groupByTest(@TempDir final Path tmpDir) throws IOException {
+        final Random random = new Random(7);
+        final StringBuilder sb = new StringBuilder("id,city,amount,user\n");
+        final List<CsvRow> rows = new ArrayList<>();
+        for (int i = 0; i < 60000; i++) {
+            final CsvRow row = csvRowOf(String.valueOf(i), "city \"" + random.nextInt(100) + "\" ü", String.valueOf(random.nextInt(100000) / 100.0), "user" + random.nextInt(500));
+            rows.add(row);
+            sb.append(i).append(",\"").append(row.get(1).replace("\"", "\"\"")).append("\",").append(row.get(2)).append(',').append(row.get(3)).append('\n');
+        }
+        final Path file = Files.writeString(tmpDir.resolve("groups.csv"), sb.toString());
+
+        final Map<String, double[]> expected = new LinkedHashMap<>();
+        final Map<String, Set<String>> users = new LinkedHashMap<>();
+        for (CsvRow row : rows) {
+            final double amount = Double.parseDouble(row.get(2));
+            final double[] values = expected.computeIfAbsent(row.get(1), key -> new double[]{0, 0, Double.NaN, Double.NaN});
+            values[0]++;
+            values[1] += amount;
+            values[2] = Double.isNaN(values[2]) ? amount : Math.min(values[2], amount);
+            values[3] = Double.isNaN(values[3]) ? amount : Math.max(values[3], amount);
+            users.computeIfAbsent(row.get(1), key -> new HashSet<>()).add(row.get(3));
+        }
+        for (CsvReader reader : List.of(csvReader(), csvReader().engine(CsvEngine.LINES), csvReader().parallel(4), csvReader().inputMode(CsvInputMode.MAPPED))) {
+            final List<CsvGroup> groups = reader.header(true).groupBy(file, new int[]{1}, AGGREGATES);
+            assertThat(groups.size(), is(expected.size()));
+            assertThat(groups.stream().map(group -> group.key().get(0)).collect(Collectors.toList()), is(equalTo(new ArrayList<>(expected.keySet()))));
+            for (CsvGroup group : groups) {
+                final double[] values = expected.get(group.key().get(0));
+                assertThat(group.count(), is((long) values[0]));
+                assertThat(Math.abs(group.value(1) - values[1]) < 1e-6, is(true));
+                assertThat(group.value(2), is(values[2]));
+                assertThat(group.value(3), is(values[3]));
+                assertThat(group.value(4), is((double) users.get(group.key().get(0)).size()));
+            }
+        }
+        assertThat(csvReader().header(true).groupBy(file, new int[0], count(), sum(0)).get(0).toCsvRow(), is(equalTo(csvRowOf("60000", String.valueOf(60000L * 59999 / 2)))));
+        assertThat(csvReader().header(true).parallel(2).groupBy(Files.writeString(tmpDir.resolve("empty.csv"), "id\n"), new int[]{0}, count()), is(equalTo(List.of())));
+    }
+
+    private static CsvRowView view(final CsvRow row) {
+        return new CsvRowView() {
+            @Override
+            public int size() {
+                return row.size();
+            }
+
+            @Override
+            public CharSequence getChars(final int index) {
+                return index < row.size() ? row.get(index) : null;
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvEngine;
+import berlin.yuna.model.CsvJoinType;
+import berlin.yuna.model.CsvRow;
+import berlin.yuna.model.IoCsvException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class HashJoinTest {
+
+    @Test
+    void joinTest(@TempDir final Path tmpDir) throws IOException {
+        final List<Path> dirs = joinDirs();
+        final Path orders = Files.writeString(tmpDir.resolve("orders.csv"), "order,customer,amount\n1,c1,10\n2,c2,20\n3,c9,30\n4\n5,\"c,3\",50\n6,c1,60\n");
+        final Path customers = Files.writeString(tmpDir.resolve("customers.csv"), "customer,name\nc1,Anna\nc2,\"Bob \"\"B\"\"\"\nc1,Anne\n\"c,3\",Zoë\nlonely\n");
+
+        final List<CsvRow> inner = join(csvReader().header(true), orders, customers, CsvJoinType.INNER);
+        assertThat(inner, is(equalTo(List.of(
+                csvRowOf("1", "c1", "10", "c1", "Anna"),
+                csvRowOf("1", "c1", "10", "c1", "Anne"),
+                csvRowOf("2", "c2", "20", "c2", "Bob \"B\""),
+                csvRowOf("5", "c,3", "50", "c,3", "Zoë"),
+                csvRowOf("6", "c1", "60", "c1", "Anna"),
+                csvRowOf("6", "c1", "60", "c1", "Anne")
+        ))));
+        assertThat(inner.get(0).header().names(), is(equalTo(List.of("order", "customer", "amount", "customer", "name"))));
+        assertThat(inner.get(2).get("name"), is(equalTo("Bob \"B\"")));
+
+        final List<CsvRow> left = join(csvReader().header(true).engine(CsvEngine.LINES), orders, customers, CsvJoinType.LEFT);
+        assertThat(left.stream().map(CsvRow::toList).collect(Collectors.toList()), is(equalTo(List.of(
+                List.of("1", "c1", "10", "c1", "Anna"),
+                List.of("1", "c1", "10", "c1", "Anne"),
+                List.of("2", "c2", "20", "c2", "Bob \"B\""),
+                Arrays.asList("3", "c9", "30", null, null),
+                Arrays.asList("4", null, null),
+                List.of("5", "c,3", "50", "c,3", "Zoë"),
+                List.of("6", "c1", "60", "c1", "Anna"),
+                List.of("6", "c1", "60", "c1", "Anne")
+        ))));
+        assertThrows(IoCsvException.class, () -> csvReader().join(orders, 1, tmpDir.resolve("missing.csv"), 0, CsvJoinType.INNER));
+        assertThat(joinDirs(), is(equalTo(dirs)));
+    }
+
+    @Test
+    void spillTest(@TempDir final Path tmpDir) throws IOException {
+        final List<Path> dirs = joinDirs();
+        final Random random = new Random(42);
+        final StringBuilder facts = new StringBuilder();
+        final StringBuilder dimensions = new StringBuilder();
+        final List<CsvRow> factRows = new ArrayList<>();
+        final Map<String, List<CsvRow>> dimensionRows = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            final CsvRow row = csvRowOf(String.valueOf(i), "k" + random.nextInt(4000), "ü" + random.nextInt(100));
+            factRows.add(row);
+            facts.append(String.join(",", row)).append('\n');
+        }
+        for (int i = 0; i < 3000; i++) {
+            //skewed keys: every third row has one of ten keys
+            final CsvRow row = csvRowOf("k" + (i % 3 == 0 ? random.nextInt(10) : random.nextInt(4000)), "name " + i);
+            dimensionRows.computeIfAbsent(row.get(0), key -> new ArrayList<>()).add(row);
+            dimensions.append(String.join(",", row)).append('\n');
+        }
+        final Path factFile = Files.writeString(tmpDir.resolve("facts.csv"), facts.toString());
+        final Path dimensionFile = Files.writeString(tmpDir.resolve("dimensions.csv"), dimensions.toString());
+
+        for (CsvJoinType type : CsvJoinType.values()) {
+            final List<CsvRow> expected = new ArrayList<>();
+            for (CsvRow fact : factRows) {
+                for (CsvRow dimension : dimensionRows.getOrDefault(fact.get(1), type == CsvJoinType.LEFT ? List.of(csvRowOf(Arrays.asList(null, null))) : List.of())) {
+                    final List<String> values = new ArrayList<>(fact);
+                    values.addAll(dimension);
+                    expected.add(csvRowOf(values));
+                }
+            }
+            //in memory: probe order and build order of equal keys
+            assertThat(join(csvReader(), factFile, dimensionFile, type, 1), is(equalTo(expected)));
+            assertThat(join(csvReader().parallel(4), factFile, dimensionFile, type, 1), is(equalTo(expected)));
+            //grace hash join: partitioned once, partitioned to the max level
+            final List<CsvRow> sorted = sorted(expected);
+            assertThat(sorted(join(csvReader().joinMemory(32 * 1024), factFile, dimensionFile, type, 1)), is(equalTo(sorted)));
+            assertThat(sorted(join(csvReader().joinMemory(4096).engine(CsvEngine.LINES), factFile, dimensionFile, type, 1)), is(equalTo(sorted)));
+        }
+        assertThat(joinDirs(), is(equalTo(dirs)));
+        assertThat(csvReader().joinMemory(0).joinMemory(), is(CsvReader.DEFAULT_JOIN_MEMORY));
+        assertThat(csvReader().joinMemory(1024).joinMemory(), is(1024L));
+    }
+
+    private static List<CsvRow> join(final CsvReader reader, final Path file, final Path buildFile, final CsvJoinType type) {
+        try (final Stream<CsvRow> rows = reader.join(file, 1, buildFile, 0, type)) {
+            return rows.collect(Collectors.toList());
+        }
+    }
+
+    private static List<CsvRow> join(final CsvReader reader, final Path file, final Path buildFile, final CsvJoinType type, final int keyColumn) {
+        try (final Stream<CsvRow> rows = reader.join(file, keyColumn, csvReader(), buildFile, 0, type)) {
+            return rows.collect(Collectors.toList());
+        }
+    }
+
+    private static List<CsvRow> sorted(final List<CsvRow> rows) {
+        return rows.stream().sorted(Comparator.comparing(CsvRow::toString)).collect(Collectors.toList());
+    }
+
+    private static List<Path> joinDirs() throws IOException {
+        final Path parent = Path.of(System.getProperty("java.io.tmpdir"), CsvReader.class.getSimpleName());
+        try (final Stream<Path> dirs = Files.exists(parent) ? Files.list(parent) : Stream.empty()) {
+            return dirs.filter(dir -> dir.getFileName().toString().startsWith("join")).collect(Collectors.toList());
+        }
+    }
+}
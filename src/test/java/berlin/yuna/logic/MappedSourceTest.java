@@ -0,0 +1,96 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvIndexRow;
+import berlin.yuna.model.CsvInputMode;
+import berlin.yuna.model.CsvRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static berlin.yuna.logic.ChunkSpliteratorTest.writeCsv;
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static berlin.yuna.logic.CsvReaderTest.EXAMPLE_CSV;
+import static berlin.yuna.logic.CsvReaderTest.validateExampleCsv;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class MappedSourceTest {
+
+    @Test
+    void mappedReaderTest() {
+        final CsvReader reader = csvReader().inputMode(CsvInputMode.MAPPED);
+        assertThat(reader.inputMode(), is(CsvInputMode.MAPPED));
+        assertThat(csvReader().inputMode(null).inputMode(), is(CsvInputMode.BUFFERED));
+        validateExampleCsv(reader.readAllRows(EXAMPLE_CSV));
+
+        final List<CsvRow> consumed = new ArrayList<>();
+        reader.consume(EXAMPLE_CSV, consumed::add);
+        validateExampleCsv(consumed);
+
+        final List<CsvRow> streamed = new ArrayList<>();
+        try (final Stream<CsvRow> stream = reader.stream(EXAMPLE_CSV)) {
+            stream.forEach(streamed::add);
+        }
+        validateExampleCsv(streamed);
+    }
+
+    @Test
+    void mappedSegmentsTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("segments.csv"), 500);
+        final List<CsvRow> expected = csvReader().readAllRows(file);
+        for (int segmentSize = 16; segmentSize < 256; segmentSize += 11) {
+            final List<CsvRow> result = new ArrayList<>();
+            final CsvTokenizer tokenizer = new CsvTokenizer(new MappedSource(FileChannel.open(file), 0, segmentSize, segmentSize % 2 == 0), UTF_8, ',');
+            try (tokenizer) {
+                while (tokenizer.next()) {
+                    if (!tokenizer.isBlank()) {
+                        result.add(tokenizer.toCsvRow());
+                    }
+                }
+            }
+            assertThat(tokenizer.next(), is(false));
+            assertThat("segmentSize " + segmentSize, result, is(equalTo(expected)));
+        }
+    }
+
+    @Test
+    void mappedParallelTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("parallel.csv"), 30000);
+        final List<CsvIndexRow> rows = new ArrayList<>();
+        csvReader().inputMode(CsvInputMode.MAPPED).parallel(3).consume(file, rows::add);
+        assertThat(rows, is(equalTo(csvReader().readAllRows(file))));
+        assertThat(rows.get(rows.size() - 1).index(), is(29999L));
+        Files.delete(file);
+    }
+
+    @Test
+    void mappedUnmapTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("unmap.csv"), 5000);
+        final CsvReader reader = csvReader().inputMode(CsvInputMode.MAPPED).unmap(true);
+        assertThat(reader.unmap(), is(true));
+        assertThat(csvReader().unmap(), is(false));
+        assertThat(reader.parallel(2).readAllRows(file), is(equalTo(csvReader().readAllRows(file))));
+
+        final CsvTokenizer tokenizer = new CsvTokenizer(new MappedSource(FileChannel.open(file), 0, 64, true), UTF_8, ',');
+        final CharSequence kept;
+        try (tokenizer) {
+            assertThat(tokenizer.next(), is(true));
+            kept = tokenizer.getChars(0);
+            assertThat(kept.length() > 0, is(true));
+        }
+        //a view which outlives the source fails instead of reading the released mapping
+        assertThrows(IndexOutOfBoundsException.class, () -> kept.charAt(0));
+    }
+}
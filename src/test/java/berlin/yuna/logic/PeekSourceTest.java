@@ -0,0 +1,48 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class PeekSourceTest {
+
+    @Test
+    void peekTest() throws IOException {
+        final String csv = "\"head,er\",second column\n1,2\n\"3\n3\",4\n";
+        //the input can be read only once
+        final ByteSource source = new ChannelSource(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(UTF_8))), 4);
+
+        final CsvTokenizer header = new CsvTokenizer(new PeekSource(source), UTF_8, ',');
+        try (header) {
+            assertThat(header.next(), is(true));
+            assertThat(header.toCsvRow(), is(equalTo(csvRowOf("head,er", "second column"))));
+        }
+        try (final InputStream sample = new PeekSource(source).inputStream()) {
+            assertThat(new String(sample.readAllBytes(), UTF_8), is(equalTo(csv)));
+            assertThat(sample.read(), is(-1));
+        }
+        assertThat(source.offset(), is(0L));
+
+        final List<CsvRow> rows = new ArrayList<>();
+        try (final CsvTokenizer tokenizer = new CsvTokenizer(source, UTF_8, ',')) {
+            while (tokenizer.next()) {
+                rows.add(tokenizer.toCsvRow());
+            }
+        }
+        assertThat(rows, is(equalTo(List.of(csvRowOf("head,er", "second column"), csvRowOf("1", "2"), csvRowOf("3\n3", "4")))));
+    }
+}
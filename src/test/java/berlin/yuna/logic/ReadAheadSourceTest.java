@@ -0,0 +1,97 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static berlin.yuna.logic.ChunkSpliteratorTest.writeCsv;
+import static berlin.yuna.logic.CsvReader.csvReader;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class ReadAheadSourceTest {
+
+    @Test
+    void readAheadTokenizerTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("readAhead.csv"), 500);
+        final List<CsvRow> expected = csvReader().readAllRows(file);
+        for (int chunkSize = 16; chunkSize < 256; chunkSize += 23) {
+            for (int depth = 1; depth <= 3; depth++) {
+                final List<CsvRow> result = new ArrayList<>();
+                try (final CsvTokenizer tokenizer = new CsvTokenizer(new ReadAheadSource(FileChannel.open(file), chunkSize, depth), UTF_8, ',')) {
+                    while (tokenizer.next()) {
+                        if (!tokenizer.isBlank()) {
+                            result.add(tokenizer.toCsvRow());
+                        }
+                    }
+                }
+                assertThat("chunkSize " + chunkSize + " depth " + depth, result, is(equalTo(expected)));
+            }
+        }
+    }
+
+    @Test
+    void readAheadInputStreamTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("stream.csv"), 200);
+        try (final InputStream input = new ReadAheadSource(FileChannel.open(file), 32, 2).inputStream()) {
+            assertThat(new String(input.readAllBytes(), UTF_8), is(equalTo(Files.readString(file))));
+        }
+    }
+
+    @Test
+    void readAheadErrorTest() {
+        final ReadableByteChannel failing = new ReadableByteChannel() {
+            private int reads = 0;
+
+            @Override
+            public int read(final ByteBuffer dst) throws IOException {
+                if (reads++ > 2) {
+                    throw new IOException("disk gone");
+                }
+                dst.put((byte) 'a');
+                return 1;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (final InputStream input = new ReadAheadSource(failing, 16, 2).inputStream()) {
+            final UncheckedIOException error = assertThrows(UncheckedIOException.class, input::readAllBytes);
+            assertThat(error.getCause().getMessage(), is(equalTo("disk gone")));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void readAheadCloseTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = writeCsv(tmpDir.resolve("close.csv"), 5000);
+        final FileChannel channel = FileChannel.open(file);
+        final ReadAheadSource source = new ReadAheadSource(channel, 16, 1);
+        assertThat(source.fill(0), is(true));
+        source.close();
+        assertThat(channel.isOpen(), is(false));
+    }
+}
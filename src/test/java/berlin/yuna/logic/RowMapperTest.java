@@ -0,0 +1,107 @@
+package berlin.yuna.logic;
+
+import berlin.yuna.model.CsvColumn;
+import berlin.yuna.model.CsvRowView;
+import berlin.yuna.model.IoCsvException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static berlin.yuna.logic.RowMapper.rowMapperOf;
+import static berlin.yuna.model.CsvHeader.csvHeaderOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class RowMapperTest {
+
+    enum Status {ACTIVE, CLOSED}
+
+    record Order(long id, String name, double amount, int count, boolean paid, Status status, LocalDate date, Integer ref) {
+    }
+
+    record Partial(@CsvColumn("order_id") long id, @CsvColumn(index = 2) BigDecimal amount) {
+    }
+
+    static class Event {
+        @CsvColumn
+        private String name;
+        @CsvColumn(index = 1)
+        private Instant time;
+        @CsvColumn("count")
+        private short count;
+        private String ignored = "ignored";
+    }
+
+    record Primitives(float ratio, char flag, byte level, Short code, BigInteger big, Double value) {
+    }
+
+    static class NoColumns {
+        private String name;
+    }
+
+    @Test
+    void mapRecordByPositionTest() {
+        final List<Order> orders = map("1,Yuna,2.5,3,true,ACTIVE,2024-02-29,7\n2,\"Bob, B\",-1,,no,CLOSED,,\n", rowMapperOf(Order.class, null));
+        assertThat(orders.get(0), is(equalTo(new Order(1, "Yuna", 2.5, 3, true, Status.ACTIVE, LocalDate.of(2024, 2, 29), 7))));
+        assertThat(orders.get(1), is(equalTo(new Order(2, "Bob, B", -1, 0, false, Status.CLOSED, null, null))));
+    }
+
+    @Test
+    void mapRecordByNameTest() {
+        final RowMapper<Partial> mapper = rowMapperOf(Partial.class, csvHeaderOf("name", "order_id", "amount"));
+        assertThat(map("Yuna,42,1.10\n", mapper), is(equalTo(List.of(new Partial(42, new BigDecimal("1.10"))))));
+        assertThrows(IoCsvException.class, () -> rowMapperOf(Order.class, csvHeaderOf("id", "name")));
+    }
+
+    @Test
+    void mapClassTest() {
+        final List<Event> events = map("start,2024-01-01T10:15:30Z,5\nstop,,\n", rowMapperOf(Event.class, csvHeaderOf("name", "time", "count")));
+        assertThat(events.get(0).name, is(equalTo("start")));
+        assertThat(events.get(0).time, is(equalTo(Instant.parse("2024-01-01T10:15:30Z"))));
+        assertThat(events.get(0).count, is((short) 5));
+        assertThat(events.get(0).ignored, is(equalTo("ignored")));
+        assertThat(events.get(1).time, is(nullValue()));
+        assertThat(events.get(1).count, is((short) 0));
+    }
+
+    @Test
+    void mapPrimitivesTest() {
+        final List<Primitives> rows = map("0.5,Y,7,12,123456789012345678901234567890,1e3\n,,,\n", rowMapperOf(Primitives.class, null));
+        assertThat(rows.get(0), is(equalTo(new Primitives(0.5f, 'Y', (byte) 7, (short) 12, new BigInteger("123456789012345678901234567890"), 1000d))));
+        assertThat(rows.get(1), is(equalTo(new Primitives(0f, '\u0000', (byte) 0, null, null, null))));
+    }
+
+    @Test
+    void mapErrorsTest() {
+        final IoCsvException invalid = assertThrows(IoCsvException.class, () -> map("1,Yuna,abc,3,true,ACTIVE,2024-02-29,7\n", rowMapperOf(Order.class, null)));
+        assertThat(invalid.getMessage(), is(equalTo("Cannot map column [amount] of row [0] to [Order]")));
+        assertThrows(IoCsvException.class, () -> map("1,Yuna,1,3,true,UNKNOWN,,\n", rowMapperOf(Order.class, null)));
+        assertThrows(IoCsvException.class, () -> rowMapperOf(NoColumns.class, null));
+        assertThrows(IoCsvException.class, () -> rowMapperOf(Thread.class, null));
+    }
+
+    private static <R> List<R> map(final String csv, final RowMapper<R> mapper) {
+        final List<R> result = new ArrayList<>();
+        try (final CsvTokenizer tokenizer = new CsvTokenizer(new ChannelSource(Channels.newChannel(new ByteArrayInputStream(csv.getBytes(UTF_8))), 16), UTF_8, ',')) {
+            long index = 0;
+            while (tokenizer.next()) {
+                final CsvRowView view = tokenizer.index(index++);
+                result.add(mapper.map(view));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static berlin.yuna.model.CsvAggregate.count;
+import static berlin.yuna.model.CsvAggregate.distinct;
+import static berlin.yuna.model.CsvAggregate.max;
+import static berlin.yuna.model.CsvAggregate.min;
+import static berlin.yuna.model.CsvAggregate.sum;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class CsvAggregateTest {
+
+    @Test
+    void csvAggregateTest() {
+        assertThat(count().column(), is(-1));
+        assertThat(count().type(), is(CsvAggregate.Type.COUNT));
+        assertThat(sum(1).type(), is(CsvAggregate.Type.SUM));
+        assertThat(min(1).type(), is(CsvAggregate.Type.MIN));
+        assertThat(max(1).type(), is(CsvAggregate.Type.MAX));
+        assertThat(distinct(3).column(), is(3));
+        assertThat(distinct(3).type(), is(CsvAggregate.Type.DISTINCT));
+        assertThat(sum(2), is(equalTo(sum(2))));
+        assertThat(sum(2).hashCode(), is(equalTo(sum(2).hashCode())));
+        assertThat(sum(2), is(not(equalTo(min(2)))));
+        assertThat(sum(2), is(not(equalTo(sum(3)))));
+        assertThat(max(4).toString(), is(equalTo("CsvAggregate{column=4, type=MAX}")));
+    }
+}
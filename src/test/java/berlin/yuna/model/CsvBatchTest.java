@@ -0,0 +1,74 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static berlin.yuna.model.CsvBatch.csvBatchOf;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class CsvBatchTest {
+
+    @Test
+    void addTest() {
+        final CsvBatch batch = csvBatchOf(2, CsvColumnType.LONG, CsvColumnType.DOUBLE, CsvColumnType.STRING);
+        assertThat(batch.add(view(csvRowOf("1", "2.5", "Yuna"))), is(false));
+        assertThat(batch.add(view(csvRowOf(List.of("", "-1")))), is(true));
+        assertThat(batch.size(), is(2));
+        assertThat(batch.columnCount(), is(3));
+        assertThat(batch.type(1), is(CsvColumnType.DOUBLE));
+        assertThat(batch.longs(0)[0], is(1L));
+        assertThat(batch.getDouble(1, 1), is(-1d));
+        assertThat(batch.isNull(0, 1), is(true));
+        assertThat(batch.isNull(2, 1), is(true));
+        assertThat(batch.nulls(0)[0], is(2L));
+        assertThat(batch.getString(2, 0), is(equalTo("Yuna")));
+        assertThat(batch.getString(2, 1), is(nullValue()));
+        assertThat(batch.offsets(2)[1], is(4));
+        assertThat(batch.longs(1), is(nullValue()));
+        assertThrows(IoCsvException.class, () -> batch.add(view(csvRowOf("3"))));
+
+        final byte[] bytes = batch.bytes(2);
+        batch.clear();
+        assertThat(batch.size(), is(0));
+        assertThat(batch.index(), is(2L));
+        assertThat(batch.isNull(0, 1), is(false));
+        batch.add(view(csvRowOf("3", "4", "äö😀")));
+        assertThat(batch.getString(2, 0), is(equalTo("äö😀")));
+        assertThat(batch.bytes(2), is(bytes));
+        assertThat(batch.toString(), is(equalTo("CsvBatch{index=2, size=1, types=[LONG, DOUBLE, STRING]}")));
+    }
+
+    @Test
+    void defaultTypesTest() {
+        final CsvBatch batch = csvBatchOf(0);
+        assertThat(batch.capacity(), is(1));
+        assertThat(batch.add(view(csvRowOf("a", "b"))), is(true));
+        assertThat(batch.isFull(), is(true));
+        assertThat(batch.columnCount(), is(2));
+        assertThat(batch.getString(1, 0), is(equalTo("b")));
+        final IoCsvException invalid = assertThrows(IoCsvException.class, () -> csvBatchOf(1, CsvColumnType.LONG).add(view(csvRowOf("x"))));
+        assertThat(invalid.getMessage(), is(equalTo("Cannot read column [0] of row [0] as [LONG]")));
+    }
+
+    private static CsvRowView view(final CsvRow row) {
+        return new CsvRowView() {
+            @Override
+            public int size() {
+                return row.size();
+            }
+
+            @Override
+            public CharSequence getChars(final int index) {
+                return row.get(index);
+            }
+        };
+    }
+}
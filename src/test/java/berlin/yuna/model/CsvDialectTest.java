@@ -0,0 +1,26 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static berlin.yuna.model.CsvDialect.csvDialectOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class CsvDialectTest {
+
+    @Test
+    void csvDialectTest() {
+        final CsvDialect dialect = csvDialectOf(';', '\'', true);
+        assertThat(dialect.separator(), is(';'));
+        assertThat(dialect.quote(), is('\''));
+        assertThat(dialect.header(), is(true));
+        assertThat(dialect, is(equalTo(csvDialectOf(';', '\'', true))));
+        assertThat(dialect.hashCode(), is(equalTo(csvDialectOf(';', '\'', true).hashCode())));
+        assertThat(dialect, is(not(equalTo(csvDialectOf(';', '\'', false)))));
+        assertThat(dialect.toString(), is(equalTo("CsvDialect{separator=;, quote=', header=true}")));
+    }
+}
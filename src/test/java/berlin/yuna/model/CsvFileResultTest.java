@@ -0,0 +1,32 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static berlin.yuna.model.CsvFileResult.csvFileResultOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class CsvFileResultTest {
+
+    @Test
+    void csvFileResultTest() {
+        final IoCsvException error = new IoCsvException("broken", null);
+        final CsvFileResult success = csvFileResultOf(Path.of("a.csv"), 3, null);
+        final CsvFileResult failure = csvFileResultOf(Path.of("b.csv"), 1, error);
+        assertThat(success.file(), is(equalTo(Path.of("a.csv"))));
+        assertThat(success.rows(), is(3L));
+        assertThat(success.isSuccess(), is(true));
+        assertThat(failure.isSuccess(), is(false));
+        assertThat(failure.error(), is(error));
+        assertThat(success, is(equalTo(csvFileResultOf(Path.of("a.csv"), 3, null))));
+        assertThat(success.hashCode(), is(equalTo(csvFileResultOf(Path.of("a.csv"), 3, null).hashCode())));
+        assertThat(success, is(not(equalTo(failure))));
+        assertThat(failure.toString(), is(equalTo("CsvFileResult{file=b.csv, rows=1, error=broken}")));
+    }
+}
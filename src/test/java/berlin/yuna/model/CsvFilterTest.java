@@ -0,0 +1,45 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static berlin.yuna.model.CsvFilter.between;
+import static berlin.yuna.model.CsvFilter.equalTo;
+import static berlin.yuna.model.CsvFilter.startsWith;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class CsvFilterTest {
+
+    @Test
+    void conditionsTest() {
+        final CsvRow row = csvRowOf("Berlin", "12.5", "abc");
+        assertThat(equalTo(0, "Berlin").test(row), is(true));
+        assertThat(equalTo(0, "Berl").test(row), is(false));
+        assertThat(startsWith(0, "Berl").test(row), is(true));
+        assertThat(startsWith(2, "Berl").test(row), is(false));
+        assertThat(between(1, 10, 12.5).test(row), is(true));
+        assertThat(between(1, 13, 20).test(row), is(false));
+        assertThat(between(2, 0, 1).test(row), is(false));
+        assertThat(equalTo(3, "").test(row), is(false));
+        assertThat(equalTo(0, "").test((CsvRow) null), is(false));
+    }
+
+    @Test
+    void getterTest() {
+        final CsvFilter filter = between(2, 1, 3);
+        assertThat(filter.column(), is(2));
+        assertThat(filter.type(), is(CsvFilter.Type.BETWEEN));
+        assertThat(filter.value(), is(nullValue()));
+        assertThat(filter.min(), is(1d));
+        assertThat(filter.max(), is(3d));
+        assertThat(filter.toString(), is("CsvFilter{column=2, type=BETWEEN, min=1.0, max=3.0}"));
+        assertThat(startsWith(1, "a").toString(), is("CsvFilter{column=1, type=STARTS_WITH, value='a'}"));
+        assertThrows(IoCsvException.class, () -> equalTo(-1, "a"));
+        assertThrows(NullPointerException.class, () -> equalTo(1, null));
+    }
+}
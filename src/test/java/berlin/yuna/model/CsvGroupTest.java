@@ -0,0 +1,45 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static berlin.yuna.model.CsvAggregate.count;
+import static berlin.yuna.model.CsvAggregate.distinct;
+import static berlin.yuna.model.CsvAggregate.sum;
+import static berlin.yuna.model.CsvGroup.csvGroupOf;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class CsvGroupTest {
+
+    private static final CsvAggregate[] AGGREGATES = {count(), sum(2), distinct(3)};
+
+    @Test
+    void csvGroupTest() {
+        final CsvGroup group = csvGroupOf(Arrays.asList("berlin", null), 4, AGGREGATES, new double[]{4, 10.5, 2});
+        assertThat(group.key(), is(equalTo(Arrays.asList("berlin", null))));
+        assertThat(group.count(), is(4L));
+        assertThat(group.value(1), is(10.5));
+        assertThat(group.size(), is(3));
+        assertThat(group.toCsvRow(), is(equalTo(csvRowOf(Arrays.asList("berlin", null, "4", "10.5", "2")))));
+        assertThat(group, is(equalTo(csvGroupOf(Arrays.asList("berlin", null), 4, AGGREGATES, new double[]{4, 10.5, 2}))));
+        assertThat(group.hashCode(), is(equalTo(csvGroupOf(Arrays.asList("berlin", null), 4, AGGREGATES, new double[]{4, 10.5, 2}).hashCode())));
+        assertThat(group, is(not(equalTo(csvGroupOf(List.of("berlin"), 4, AGGREGATES, new double[]{4, 10.5, 2})))));
+        assertThat(group, is(not(equalTo(csvGroupOf(Arrays.asList("berlin", null), 4, AGGREGATES, new double[]{4, 11, 2})))));
+        assertThat(group.toString(), is(equalTo("CsvGroup{key=[berlin, null], count=4, values=[4, 10.5, 2], rejected=[0, 0, 0]}")));
+
+        final CsvGroup exact = csvGroupOf(List.of("berlin"), 4, AGGREGATES, new Number[]{4L, 9007199254740993L, 2L}, new long[]{0, 1, 0});
+        assertThat(exact.number(1), is(9007199254740993L));
+        assertThat(exact.value(1), is(9007199254740992.0));
+        assertThat(exact.rejected(1), is(1L));
+        assertThat(exact.toCsvRow(), is(equalTo(csvRowOf("berlin", "4", "9007199254740993", "2"))));
+        assertThat(exact, is(not(equalTo(csvGroupOf(List.of("berlin"), 4, AGGREGATES, new Number[]{4L, 9007199254740993L, 2L}, new long[3])))));
+    }
+}
@@ -0,0 +1,52 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static berlin.yuna.model.CsvHeader.csvHeaderOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class CsvHeaderTest {
+
+    @Test
+    void indexOfTest() {
+        final CsvHeader header = csvHeaderOf("id", "name", "city", "id", null);
+        assertThat(header.size(), is(5));
+        assertThat(header.indexOf("id"), is(0));
+        assertThat(header.indexOf("name"), is(1));
+        assertThat(header.indexOf(new StringBuilder("city")), is(2));
+        assertThat(header.indexOf("unknown"), is(-1));
+        assertThat(header.indexOf(null), is(-1));
+        assertThat(header.contains("city"), is(true));
+        assertThat(header.get(1), is(equalTo("name")));
+        assertThat(header.get(5), is(nullValue()));
+        assertThat(header.names(), is(equalTo(Arrays.asList("id", "name", "city", "id", null))));
+    }
+
+    @Test
+    void manyColumnsTest() {
+        final String[] names = new String[1000];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "column_" + i;
+        }
+        final CsvHeader header = csvHeaderOf(names);
+        for (int i = 0; i < names.length; i++) {
+            assertThat(header.indexOf(names[i]), is(i));
+        }
+        assertThat(csvHeaderOf().indexOf("a"), is(-1));
+    }
+
+    @Test
+    void equalsTest() {
+        assertThat(csvHeaderOf(List.of("a", "b")), is(equalTo(csvHeaderOf("a", "b"))));
+        assertThat(csvHeaderOf("a", "b").hashCode(), is(equalTo(csvHeaderOf("a", "b").hashCode())));
+        assertThat(csvHeaderOf("a", "b").toString(), is(equalTo("CsvHeader[a, b]")));
+    }
+}
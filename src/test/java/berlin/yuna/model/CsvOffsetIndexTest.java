@@ -0,0 +1,70 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static berlin.yuna.model.CsvOffsetIndex.csvOffsetIndexOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class CsvOffsetIndexTest {
+
+    @Test
+    void offsetsTest() {
+        final CsvOffsetIndex index = csvOffsetIndexOf(500, 7, 10, 1, 35, new long[]{4, 100, 200, 300});
+        assertThat(index.step(), is(10));
+        assertThat(index.skip(), is(1L));
+        assertThat(index.rows(), is(35L));
+        assertThat(index.size(), is(4));
+        assertThat(index.floorRow(-3), is(0L));
+        assertThat(index.floorRow(19), is(10L));
+        assertThat(index.floorRow(99), is(30L));
+        assertThat(index.offsetOf(0), is(4L));
+        assertThat(index.offsetOf(25), is(200L));
+        assertThat(index.offsetOf(34), is(300L));
+        assertThat(csvOffsetIndexOf(0, 0, 10, 0, 0, new long[0]).offsetOf(5), is(0L));
+    }
+
+    @Test
+    void splitsTest() {
+        final CsvOffsetIndex index = csvOffsetIndexOf(500, 7, 10, 0, 35, new long[]{0, 100, 200, 300});
+        assertThat(index.splits(2), is(new long[]{0, 20, 35}));
+        assertThat(index.splits(3), is(new long[]{0, 10, 20, 35}));
+        assertThat(index.splits(10), is(new long[]{0, 10, 20, 30, 35}));
+        assertThat(index.splits(0), is(new long[]{0, 35}));
+        assertThat(csvOffsetIndexOf(0, 0, 10, 0, 0, new long[0]).splits(4), is(new long[]{0, 0}));
+    }
+
+    @Test
+    void saveLoadTest(@TempDir final Path tmpDir) throws IOException {
+        final Path file = Files.writeString(tmpDir.resolve("data.csv"), "a,b\n");
+        final Path indexFile = CsvOffsetIndex.indexFileOf(file);
+        assertThat(indexFile, is(equalTo(tmpDir.resolve("data.csv.idx"))));
+
+        final CsvOffsetIndex index = csvOffsetIndexOf(Files.size(file), Files.getLastModifiedTime(file).toMillis(), 2, 0, 1, new long[]{0});
+        index.save(indexFile);
+        final CsvOffsetIndex loaded = CsvOffsetIndex.load(indexFile);
+        assertThat(loaded, is(equalTo(index)));
+        assertThat(loaded.hashCode(), is(equalTo(index.hashCode())));
+        assertThat(loaded.toString(), is(equalTo("CsvOffsetIndex{fileSize=4, step=2, skip=0, rows=1, offsets=1}")));
+        assertThat(loaded.matches(file), is(true));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(index.lastModified() + 1000));
+        assertThat(loaded.matches(file), is(false));
+        assertThat(loaded.matches(tmpDir.resolve("missing.csv")), is(false));
+        assertThat(loaded, is(not(equalTo(csvOffsetIndexOf(4, 0, 2, 0, 1, new long[]{0})))));
+
+        assertThrows(IoCsvException.class, () -> CsvOffsetIndex.load(file));
+        assertThrows(IoCsvException.class, () -> CsvOffsetIndex.load(tmpDir.resolve("missing.idx")));
+    }
+}
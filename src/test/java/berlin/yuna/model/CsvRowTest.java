@@ -72,6 +72,19 @@ class CsvRowTest {
         assertThat(csvRow.getOpt(3), is(equalTo(Optional.empty())));
     }
 
+    @Test
+    void CsvRowHeaderTest() {
+        final CsvHeader header = CsvHeader.csvHeaderOf("id", "name");
+        final CsvRow csvRow = csvRowOf(header, asList("1", "Yuna"));
+        assertThat(csvRow.header(), is(header));
+        assertThat(csvRow.get("name"), is(equalTo("Yuna")));
+        assertThat(csvRow.get("city"), is(nullValue()));
+        assertThat(csvRow.getOpt("id"), is(equalTo(Optional.of("1"))));
+        assertThat(CsvIndexRow.csvIndexRowOf(0, csvRow).header(), is(header));
+        assertThat(csvRowOf("1", "Yuna").get("name"), is(nullValue()));
+        assertThat(csvRowOf("1", "Yuna").header(), is(nullValue()));
+    }
+
     @Test
     void CsvRowSetterTest() {
         final CsvRow csvRow = csvRowOf("column 1, column 2, column 3");
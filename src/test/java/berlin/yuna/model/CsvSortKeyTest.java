@@ -0,0 +1,27 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static berlin.yuna.model.CsvSortKey.csvSortKeyOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class CsvSortKeyTest {
+
+    @Test
+    void csvSortKeyTest() {
+        final CsvSortKey key = csvSortKeyOf(2, CsvColumnType.LONG, true);
+        assertThat(key.column(), is(2));
+        assertThat(key.type(), is(CsvColumnType.LONG));
+        assertThat(key.descending(), is(true));
+        assertThat(key, is(equalTo(csvSortKeyOf(2, CsvColumnType.LONG, true))));
+        assertThat(key.hashCode(), is(equalTo(csvSortKeyOf(2, CsvColumnType.LONG, true).hashCode())));
+        assertThat(key, is(not(equalTo(csvSortKeyOf(2, CsvColumnType.LONG, false)))));
+        assertThat(csvSortKeyOf(1), is(equalTo(csvSortKeyOf(1, null, false))));
+        assertThat(key.toString(), is(equalTo("CsvSortKey{column=2, type=LONG, descending=true}")));
+    }
+}
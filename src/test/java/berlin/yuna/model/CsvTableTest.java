@@ -0,0 +1,96 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static berlin.yuna.model.CsvHeader.csvHeaderOf;
+import static berlin.yuna.model.CsvRow.csvRowOf;
+import static berlin.yuna.model.CsvTable.csvTableOf;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Tag("UnitTest")
+class CsvTableTest {
+
+    @Test
+    void addAndReadTest() {
+        final CsvTable table = csvTableOf(csvHeaderOf("id", "city", "amount"), ',');
+        final List<CsvRow> rows = List.of(
+                csvRowOf("1", "Berlin", "1,5"),
+                csvRowOf("2", "Zürich 😀", ""),
+                csvRowOf(List.of("3")),
+                csvRowOf(Arrays.asList("4", null, "7"))
+        );
+        rows.forEach(row -> table.add(view(row)));
+
+        assertThat(table.size(), is(4));
+        assertThat(table.stream().map(CsvRowView::toCsvRow).collect(Collectors.toList()), is(equalTo(rows)));
+        final CsvTableRow row = table.row(0);
+        assertThat(row.index(), is(0L));
+        assertThat(row.get("city"), is(equalTo("Berlin")));
+        assertThat(row.getInt(0), is(1));
+        assertThat(row.getDouble(2), is(1.5));
+        assertThat(row.header(), is(sameInstance(table.header())));
+        assertThat(table.row(1).get(1), is(equalTo("Zürich 😀")));
+        assertThat(table.row(2).size(), is(1));
+        assertThat(table.row(2).get(1), is(nullValue()));
+        assertThat(table.row(3).getChars(1), is(nullValue()));
+        assertThat(table.rows().get(3).get(2), is(equalTo("7")));
+        assertThat(table.rows().size(), is(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.row(4));
+        assertThat(table.toString().startsWith("CsvTable{rows=4"), is(true));
+    }
+
+    @Test
+    void dictionaryTest() {
+        final CsvTable table = csvTableOf(null, '.');
+        for (int i = 0; i < 5000; i++) {
+            table.add(view(csvRowOf(String.valueOf(i), "city" + (i % 10), "x".repeat(i % 300))));
+        }
+        assertThat(table.dictionarySize(), is(CsvTable.MAX_DICTIONARY_SIZE + 10 + CsvTable.MAX_DICTIONARY_VALUE_LENGTH + 1));
+        assertThat(table.row(10).get(1), is(sameInstance(table.row(4990).get(1))));
+        for (int i = 0; i < 5000; i += 7) {
+            assertThat(table.row(i).toCsvRow(), is(equalTo(csvRowOf(String.valueOf(i), "city" + (i % 10), "x".repeat(i % 300)))));
+        }
+    }
+
+    @Test
+    void pagesTest() {
+        final CsvTable table = csvTableOf(null, '.');
+        final List<CsvRow> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final CsvRow row = csvRowOf(String.valueOf(i), "y".repeat(i == 20 ? CsvTable.PAGE_SIZE + 5 : 1024 * 1024 + i));
+            rows.add(row);
+            table.add(view(row));
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(table.row(i).get(1).length(), is(equalTo(rows.get(i).get(1).length())));
+            assertThat(table.row(i).get(0), is(equalTo(String.valueOf(i))));
+        }
+        assertThat(table.byteSize() > 40L * 1024 * 1024, is(true));
+        assertThat(table.dictionarySize(), is(40));
+    }
+
+    private static CsvRowView view(final CsvRow row) {
+        return new CsvRowView() {
+            @Override
+            public int size() {
+                return row.size();
+            }
+
+            @Override
+            public CharSequence getChars(final int index) {
+                return row.get(index);
+            }
+        };
+    }
+}
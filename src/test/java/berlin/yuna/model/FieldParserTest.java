@@ -0,0 +1,99 @@
+package berlin.yuna.model;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static berlin.yuna.model.FieldParser.NO_LONG;
+import static berlin.yuna.model.FieldParser.parseBigDecimal;
+import static berlin.yuna.model.FieldParser.parseBoolean;
+import static berlin.yuna.model.FieldParser.parseDate;
+import static berlin.yuna.model.FieldParser.parseDouble;
+import static berlin.yuna.model.FieldParser.parseEpochMillis;
+import static berlin.yuna.model.FieldParser.parseLong;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@Tag("UnitTest")
+class FieldParserTest {
+
+    @Test
+    void parseLongTest() {
+        assertThat(parseLong("x-42y", 1, 4), is(-42L));
+        assertThat(parseLong("+7", 0, 2), is(7L));
+        assertThat(parseLong("123456789012345678", 0, 18), is(123456789012345678L));
+        assertThat(parseLong("1234567890123456789", 0, 19), is(NO_LONG));
+        assertThat(parseLong("1.0", 0, 3), is(NO_LONG));
+        assertThat(parseLong("-", 0, 1), is(NO_LONG));
+        assertThat(parseLong(ByteBuffer.wrap("a,1024".getBytes(US_ASCII)), 2, 6), is(1024L));
+    }
+
+    @Test
+    void parseDoubleTest() {
+        assertThat(parseDouble("-12.5", 0, 5, '.'), is(-12.5));
+        assertThat(parseDouble("12,5", 0, 4, ','), is(12.5));
+        assertThat(parseDouble("12,5", 0, 4, '.'), is(Double.NaN));
+        assertThat(parseDouble("0.1", 0, 3, '.'), is(0.1));
+        assertThat(parseDouble("1e3", 0, 3, '.'), is(Double.NaN));
+        assertThat(parseDouble(".", 0, 1, '.'), is(Double.NaN));
+        assertThat(parseDouble(ByteBuffer.wrap("3;99,75".getBytes(US_ASCII)), 2, 7, ','), is(99.75));
+    }
+
+    @Test
+    void parseBigDecimalTest() {
+        assertThat(parseBigDecimal("-1.10", 0, 5, '.'), is(equalTo(new BigDecimal("-1.10"))));
+        assertThat(parseBigDecimal("1234,5", 0, 6, ','), is(equalTo(new BigDecimal("1234.5"))));
+        assertThat(parseBigDecimal("42", 0, 2, '.'), is(equalTo(new BigDecimal("42"))));
+        assertThat(parseBigDecimal("1234567890.1234567890", 0, 21, '.'), is(nullValue()));
+        assertThat(parseBigDecimal("abc", 0, 3, '.'), is(nullValue()));
+    }
+
+    @Test
+    void parseBooleanTest() {
+        assertThat(parseBoolean("TRUE", 0, 4), is(1));
+        assertThat(parseBoolean("yes", 0, 3), is(1));
+        assertThat(parseBoolean("1", 0, 1), is(1));
+        assertThat(parseBoolean("False", 0, 5), is(0));
+        assertThat(parseBoolean("n", 0, 1), is(0));
+        assertThat(parseBoolean("maybe", 0, 5), is(-1));
+    }
+
+    @Test
+    void parseDateTest() {
+        assertThat(parseDate("2024-02-29", 0, 10), is(equalTo(LocalDate.of(2024, 2, 29))));
+        assertThat(parseDate("1969-12-31", 0, 10), is(equalTo(LocalDate.of(1969, 12, 31))));
+        assertThat(parseDate("0001-01-01", 0, 10), is(equalTo(LocalDate.of(1, 1, 1))));
+        assertThat(parseDate("2023-02-29", 0, 10), is(nullValue()));
+        assertThat(parseDate("2023-13-01", 0, 10), is(nullValue()));
+        assertThat(parseDate("2023/01/01", 0, 10), is(nullValue()));
+        assertThat(parseDate("20230101", 0, 8), is(nullValue()));
+    }
+
+    @Test
+    void parseEpochMillisTest() {
+        assertThat(parseEpochMillis("1700000000123", 0, 13), is(1700000000123L));
+        assertThat(parseEpochMillis("-1000", 0, 5), is(-1000L));
+        assertThat(parseEpochMillis("2024-01-01", 0, 10), is(millis("2024-01-01T00:00:00Z")));
+        assertThat(parseEpochMillis("2024-01-01T10:15", 0, 16), is(millis("2024-01-01T10:15:00Z")));
+        assertThat(parseEpochMillis("2024-01-01 10:15:30", 0, 19), is(millis("2024-01-01T10:15:30Z")));
+        assertThat(parseEpochMillis("2024-01-01T10:15:30.5Z", 0, 22), is(millis("2024-01-01T10:15:30.500Z")));
+        assertThat(parseEpochMillis("2024-01-01T10:15:30.123456789Z", 0, 30), is(millis("2024-01-01T10:15:30.123Z")));
+        assertThat(parseEpochMillis("2024-01-01T10:15:30+02:00", 0, 25), is(millis("2024-01-01T08:15:30Z")));
+        assertThat(parseEpochMillis("2024-01-01T10:15:30-0130", 0, 24), is(millis("2024-01-01T11:45:30Z")));
+        assertThat(parseEpochMillis("1960-06-15T00:00:00+01", 0, 22), is(millis("1960-06-14T23:00:00Z")));
+        assertThat(parseEpochMillis("2024-01-01T25:00", 0, 16), is(NO_LONG));
+        assertThat(parseEpochMillis("2024-01-01T10:15:30 UTC", 0, 23), is(NO_LONG));
+        assertThat(parseEpochMillis("2024-01-01T10:15:30.Z", 0, 21), is(NO_LONG));
+    }
+
+    private static long millis(final String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+}